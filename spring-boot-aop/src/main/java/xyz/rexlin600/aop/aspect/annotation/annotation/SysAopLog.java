@@ -19,4 +19,11 @@ public @interface SysAopLog {
 	 */
 	String value();
 
+	/**
+	 * 是否生成 SysLog 入库；热点方法可设为 false，只记录延迟直方图
+	 *
+	 * @return the boolean
+	 */
+	boolean persist() default true;
+
 }
\ No newline at end of file
@@ -5,14 +5,23 @@ import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import xyz.rexlin600.aop.aspect.annotation.annotation.SysAopLog;
 import xyz.rexlin600.aop.aspect.annotation.listener.SysLogEvent;
+import xyz.rexlin600.aop.aspect.annotation.pipeline.SysLogPipeline;
 import xyz.rexlin600.aop.entity.SysLog;
+import xyz.rexlin600.aop.metrics.LatencyHistogram;
+import xyz.rexlin600.aop.metrics.LatencyRecorder;
 import xyz.rexlin600.aop.util.SysLogUtils;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 
 /**
  * Sys annotation log aspect
@@ -31,6 +40,23 @@ public class SysAnnotationLogAspect {
 	@Autowired
 	private ApplicationEventPublisher publisher;
 
+	/**
+	 * Sys log pipeline
+	 */
+	@Autowired
+	private SysLogPipeline sysLogPipeline;
+
+	/**
+	 * Latency recorder
+	 */
+	@Autowired
+	private LatencyRecorder latencyRecorder;
+
+	/**
+	 * 方法 -> 延迟直方图
+	 */
+	private final Map<Method, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
 	/**
 	 * Around object
 	 *
@@ -41,6 +67,16 @@ public class SysAnnotationLogAspect {
 	@SneakyThrows
 	@Around("@annotation(sysAopLog)")
 	public Object around(ProceedingJoinPoint point, SysAopLog sysAopLog) {
+		LatencyHistogram histogram = histogram(point);
+		if (!sysAopLog.persist()) {
+			long start = System.nanoTime();
+			try {
+				return point.proceed();
+			} finally {
+				histogram.record(System.nanoTime() - start);
+			}
+		}
+
 		String strClassName = point.getTarget().getClass().getName();
 		String strMethodName = point.getSignature().getName();
 
@@ -49,14 +85,41 @@ public class SysAnnotationLogAspect {
 		SysLog logVo = SysLogUtils.getSysLog();
 		logVo.setTitle(sysAopLog.value());
 		// 发送异步日志事件
-		Long startTime = System.currentTimeMillis();
-		Object obj = point.proceed();
-		Long endTime = System.currentTimeMillis();
-		logVo.setTime(endTime - startTime);
+		long start = System.nanoTime();
+		long cost;
+		Object obj;
+		try {
+			obj = point.proceed();
+		} finally {
+			cost = System.nanoTime() - start;
+			histogram.record(cost);
+		}
+		logVo.setTime(TimeUnit.NANOSECONDS.toMillis(cost));
 
-		publisher.publishEvent(new SysLogEvent(logVo));
+		if (sysLogPipeline.isEnabled()) {
+			// 放入队列即返回，由后台线程批量入库
+			sysLogPipeline.offer(logVo);
+		} else {
+			publisher.publishEvent(new SysLogEvent(logVo));
+		}
 
 		return obj;
 	}
 
+	/**
+	 * 按方法缓存直方图，避免每次调用拼接名称
+	 *
+	 * @param point point
+	 * @return the latency histogram
+	 */
+	private LatencyHistogram histogram(ProceedingJoinPoint point) {
+		Method method = ((MethodSignature) point.getSignature()).getMethod();
+		LatencyHistogram histogram = histograms.get(method);
+		if (histogram == null) {
+			histogram = histograms.computeIfAbsent(method,
+					key -> latencyRecorder.histogram(LatencyRecorder.name(key)));
+		}
+		return histogram;
+	}
+
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import xyz.rexlin600.aop.entity.SysLog;
 
+import java.util.List;
+
 /**
  * Remote sys log service
  *
@@ -23,4 +25,13 @@ public interface RemoteSysLogService {
 	@PostMapping
 	R add(@RequestBody SysLog sysLog);
 
+	/**
+	 * Add batch r
+	 *
+	 * @param sysLogs sys logs
+	 * @return the r
+	 */
+	@PostMapping("/batch")
+	R addBatch(@RequestBody List<SysLog> sysLogs);
+
 }
\ No newline at end of file
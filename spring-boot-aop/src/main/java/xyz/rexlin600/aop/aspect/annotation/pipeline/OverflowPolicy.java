@@ -0,0 +1,20 @@
+package xyz.rexlin600.aop.aspect.annotation.pipeline;
+
+/**
+ * 日志队列积压时的处理策略
+ *
+ * @author hekunlin
+ */
+public enum OverflowPolicy {
+
+	/**
+	 * 队列满时丢弃新日志
+	 */
+	DROP,
+
+	/**
+	 * 队列超过水位线后按 1/sampleRate 采样，队列满时丢弃
+	 */
+	SAMPLE
+
+}
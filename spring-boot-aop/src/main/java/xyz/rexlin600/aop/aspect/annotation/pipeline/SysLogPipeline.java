@@ -0,0 +1,227 @@
+package xyz.rexlin600.aop.aspect.annotation.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import xyz.rexlin600.aop.aspect.annotation.feign.RemoteSysLogService;
+import xyz.rexlin600.aop.entity.SysLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 系统日志批量入库管道
+ * <p>
+ * 业务线程只把 {@link SysLog} 放进无锁环形队列就返回；单个后台线程按 batchSize / flushIntervalMillis
+ * 攒批，通过 {@link RemoteSysLogService#addBatch(List)} 一次远程调用、一条多值 INSERT 入库。
+ * 队列积压时按 {@link OverflowPolicy} 采样或丢弃，保证日志永远不会拖慢业务请求
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class SysLogPipeline implements InitializingBean, DisposableBean {
+
+	/**
+	 * 队列为空时消费线程的休眠时间
+	 */
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * 批量入库的远程调用
+	 */
+	private final RemoteSysLogService remoteSysLogService;
+
+	/**
+	 * Properties
+	 */
+	private final SysLogPipelineProperties properties;
+
+	/**
+	 * 业务线程写入、消费线程读取的环形队列
+	 */
+	private final SysLogRingBuffer<SysLog> ringBuffer;
+
+	/**
+	 * SAMPLE 策略的水位线：队列长度达到后开始采样
+	 */
+	private final int sampleWatermark;
+
+	/**
+	 * 提交的日志数
+	 */
+	private final LongAdder offered = new LongAdder();
+
+	/**
+	 * 队列满丢弃的日志数
+	 */
+	private final LongAdder dropped = new LongAdder();
+
+	/**
+	 * 超过水位线后被采样丢弃的日志数
+	 */
+	private final LongAdder sampledOut = new LongAdder();
+
+	/**
+	 * 入库成功的批次数，只有消费线程写
+	 */
+	private final AtomicLong batches = new AtomicLong();
+
+	/**
+	 * 入库成功的日志数，只有消费线程写
+	 */
+	private final AtomicLong written = new AtomicLong();
+
+	/**
+	 * 入库失败丢弃的日志数，只有消费线程写
+	 */
+	private final AtomicLong failed = new AtomicLong();
+
+	/**
+	 * 消费线程是否继续运行；置为 false 后消费线程把队列剩余日志入库后退出
+	 */
+	private volatile boolean running;
+
+	/**
+	 * 消费线程，未开启时为 null
+	 */
+	private Thread consumer;
+
+	/**
+	 * Sys log pipeline
+	 *
+	 * @param remoteSysLogService 批量入库的远程调用
+	 * @param properties          properties
+	 */
+	public SysLogPipeline(RemoteSysLogService remoteSysLogService, SysLogPipelineProperties properties) {
+		this.remoteSysLogService = remoteSysLogService;
+		this.properties = properties;
+		this.ringBuffer = new SysLogRingBuffer<>(properties.getCapacity());
+		this.sampleWatermark = (int) (ringBuffer.capacity() * properties.getSampleWatermark());
+	}
+
+	/**
+	 * 是否开启
+	 *
+	 * @return the boolean
+	 */
+	public boolean isEnabled() {
+		return properties.isEnabled();
+	}
+
+	/**
+	 * 提交一条日志，不阻塞
+	 *
+	 * @param sysLog sys log
+	 * @return 是否进入队列，被采样或丢弃时返回 false
+	 */
+	public boolean offer(SysLog sysLog) {
+		offered.increment();
+		if (properties.getOverflowPolicy() == OverflowPolicy.SAMPLE && properties.getSampleRate() > 1
+				&& ringBuffer.size() >= sampleWatermark
+				&& ThreadLocalRandom.current().nextInt(properties.getSampleRate()) != 0) {
+			sampledOut.increment();
+			return false;
+		}
+		if (!ringBuffer.offer(sysLog)) {
+			dropped.increment();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * 统计
+	 *
+	 * @return the sys log pipeline stats
+	 */
+	public SysLogPipelineStats stats() {
+		SysLogPipelineStats stats = new SysLogPipelineStats();
+		stats.setQueueDepth(ringBuffer.size());
+		stats.setCapacity(ringBuffer.capacity());
+		stats.setOffered(offered.sum());
+		stats.setDropped(dropped.sum());
+		stats.setSampledOut(sampledOut.sum());
+		stats.setBatches(batches.get());
+		stats.setWritten(written.get());
+		stats.setFailed(failed.get());
+		return stats;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		running = true;
+		consumer = new Thread(this::consume, "sys-log-pipeline");
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		if (consumer == null) {
+			return;
+		}
+		running = false;
+		LockSupport.unpark(consumer);
+		consumer.join(TimeUnit.SECONDS.toMillis(10));
+	}
+
+	/**
+	 * 消费线程：攒满 batchSize 条或第一条等待超过 flushIntervalMillis 时入库，停止时处理完队列剩余日志
+	 */
+	private void consume() {
+		int batchSize = Math.max(1, properties.getBatchSize());
+		long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, properties.getFlushIntervalMillis()));
+		List<SysLog> batch = new ArrayList<>(batchSize);
+		long deadline = 0;
+		while (running || ringBuffer.size() > 0) {
+			SysLog sysLog = ringBuffer.poll();
+			if (sysLog != null) {
+				if (batch.isEmpty()) {
+					deadline = System.nanoTime() + intervalNanos;
+				}
+				batch.add(sysLog);
+				if (batch.size() >= batchSize) {
+					flush(batch);
+				}
+				continue;
+			}
+			if (!batch.isEmpty() && System.nanoTime() - deadline >= 0) {
+				flush(batch);
+				continue;
+			}
+			LockSupport.parkNanos(IDLE_PARK_NANOS);
+		}
+		if (!batch.isEmpty()) {
+			flush(batch);
+		}
+	}
+
+	/**
+	 * 一次远程调用入库一批日志，失败只计数并丢弃，不重试
+	 *
+	 * @param batch 入库后清空
+	 */
+	private void flush(List<SysLog> batch) {
+		try {
+			remoteSysLogService.addBatch(batch);
+			batches.incrementAndGet();
+			written.addAndGet(batch.size());
+		} catch (Exception e) {
+			failed.addAndGet(batch.size());
+			log.warn("==>  系统日志批量入库失败，丢弃 {} 条：{}", batch.size(), e.getMessage());
+		} finally {
+			batch.clear();
+		}
+	}
+
+}
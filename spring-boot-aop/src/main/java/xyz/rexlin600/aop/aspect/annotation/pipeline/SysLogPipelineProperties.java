@@ -0,0 +1,52 @@
+package xyz.rexlin600.aop.aspect.annotation.pipeline;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 系统日志批量入库配置
+ *
+ * @author hekunlin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rexlin600.aop.sys-log.pipeline")
+public class SysLogPipelineProperties {
+
+	/**
+	 * 是否开启批量入库；关闭时沿用事件 + 逐条远程调用
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * 环形队列容量，向上取整为 2 的幂
+	 */
+	private int capacity = 8192;
+
+	/**
+	 * 每批最多条数
+	 */
+	private int batchSize = 200;
+
+	/**
+	 * 不足一批时最长等待时间，单位毫秒
+	 */
+	private long flushIntervalMillis = 1000;
+
+	/**
+	 * 积压策略
+	 */
+	private OverflowPolicy overflowPolicy = OverflowPolicy.SAMPLE;
+
+	/**
+	 * SAMPLE 策略开始采样的队列水位（占容量的比例）
+	 */
+	private double sampleWatermark = 0.75;
+
+	/**
+	 * SAMPLE 策略下每 sampleRate 条保留 1 条
+	 */
+	private int sampleRate = 10;
+
+}
@@ -0,0 +1,53 @@
+package xyz.rexlin600.aop.aspect.annotation.pipeline;
+
+import lombok.Data;
+
+/**
+ * 系统日志批量入库统计
+ *
+ * @author hekunlin
+ */
+@Data
+public class SysLogPipelineStats {
+
+	/**
+	 * 当前队列长度
+	 */
+	private int queueDepth;
+
+	/**
+	 * 队列容量
+	 */
+	private int capacity;
+
+	/**
+	 * 提交的日志数
+	 */
+	private long offered;
+
+	/**
+	 * 队列满丢弃的日志数
+	 */
+	private long dropped;
+
+	/**
+	 * 采样丢弃的日志数
+	 */
+	private long sampledOut;
+
+	/**
+	 * 已入库的批次数
+	 */
+	private long batches;
+
+	/**
+	 * 已入库的日志数
+	 */
+	private long written;
+
+	/**
+	 * 入库失败的日志数
+	 */
+	private long failed;
+
+}
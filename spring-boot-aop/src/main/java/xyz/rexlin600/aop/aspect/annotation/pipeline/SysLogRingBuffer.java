@@ -0,0 +1,126 @@
+package xyz.rexlin600.aop.aspect.annotation.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形队列，多生产者、单消费者
+ * <p>
+ * 每个槽位带一个序号：生产者 CAS 抢占 tail 后写入元素，再发布序号；消费者只看序号判断槽位是否可读，
+ * 读完后把序号推进一圈交还给生产者。队列满时 {@link #offer(Object)} 立即返回 false，从不阻塞业务线程
+ *
+ * @param <E> 元素类型
+ * @author hekunlin
+ */
+public class SysLogRingBuffer<E> {
+
+	/**
+	 * 容量，2 的幂
+	 */
+	private final int capacity;
+
+	/**
+	 * capacity - 1，位置与运算得到槽位下标
+	 */
+	private final int mask;
+
+	/**
+	 * 槽位
+	 */
+	private final AtomicReferenceArray<E> buffer;
+
+	/**
+	 * 槽位序号：等于位置 p 时可写入 p，等于 p + 1 时可读取 p
+	 */
+	private final AtomicLongArray sequences;
+
+	/**
+	 * 下一个写入位置，生产者竞争
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * 下一个读取位置，只有消费者线程写
+	 */
+	private volatile long head;
+
+	/**
+	 * Sys log ring buffer
+	 *
+	 * @param capacity 容量，向上取整为 2 的幂
+	 */
+	public SysLogRingBuffer(int capacity) {
+		if (capacity <= 0 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("capacity must be in (0, 2^30]");
+		}
+		this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.buffer = new AtomicReferenceArray<>(this.capacity);
+		this.sequences = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * 入队，队列满时返回 false
+	 *
+	 * @param e element
+	 * @return 是否入队成功
+	 */
+	public boolean offer(E e) {
+		while (true) {
+			long t = tail.get();
+			int index = (int) (t & mask);
+			long diff = sequences.get(index) - t;
+			if (diff == 0) {
+				if (tail.compareAndSet(t, t + 1)) {
+					buffer.lazySet(index, e);
+					sequences.lazySet(index, t + 1);
+					return true;
+				}
+			} else if (diff < 0) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * 出队，只能由消费者线程调用，队列为空时返回 null
+	 *
+	 * @return the element
+	 */
+	public E poll() {
+		long h = head;
+		int index = (int) (h & mask);
+		if (sequences.get(index) != h + 1) {
+			return null;
+		}
+		E e = buffer.get(index);
+		buffer.lazySet(index, null);
+		sequences.lazySet(index, h + capacity);
+		head = h + 1;
+		return e;
+	}
+
+	/**
+	 * 当前队列长度（近似值）
+	 *
+	 * @return the int
+	 */
+	public int size() {
+		long size = tail.get() - head;
+		return (int) Math.max(0, Math.min(size, capacity));
+	}
+
+	/**
+	 * 容量
+	 *
+	 * @return the int
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+}
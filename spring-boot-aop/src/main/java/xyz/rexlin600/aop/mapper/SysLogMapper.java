@@ -1,8 +1,11 @@
 package xyz.rexlin600.aop.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 import xyz.rexlin600.aop.entity.SysLog;
 
+import java.util.List;
+
 /**
  * Sys log mapper
  *
@@ -10,4 +13,12 @@ import xyz.rexlin600.aop.entity.SysLog;
  */
 public interface SysLogMapper extends BaseMapper<SysLog> {
 
+	/**
+	 * 多值 INSERT 批量插入
+	 *
+	 * @param list list
+	 * @return 插入条数
+	 */
+	int insertBatch(@Param("list") List<SysLog> list);
+
 }
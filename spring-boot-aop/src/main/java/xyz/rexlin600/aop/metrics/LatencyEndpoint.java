@@ -0,0 +1,63 @@
+package xyz.rexlin600.aop.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/latency：@SysAopLog 方法的延迟分布（微秒）
+ *
+ * @author hekunlin
+ */
+@Endpoint(id = "latency")
+@Component
+public class LatencyEndpoint {
+
+	/**
+	 * 延迟直方图
+	 */
+	private final LatencyRecorder latencyRecorder;
+
+	/**
+	 * Latency endpoint
+	 *
+	 * @param latencyRecorder 延迟直方图
+	 */
+	public LatencyEndpoint(LatencyRecorder latencyRecorder) {
+		this.latencyRecorder = latencyRecorder;
+	}
+
+	/**
+	 * 所有方法
+	 *
+	 * @return the map
+	 */
+	@ReadOperation
+	public Map<String, LatencySnapshot> latencies() {
+		return latencyRecorder.snapshots();
+	}
+
+	/**
+	 * 单个方法，name 见 {@link LatencyRecorder#name}，形如 xyz.rexlin600.aop.rest.UserController.get(java.lang.Long)
+	 *
+	 * @param name name
+	 * @return the latency snapshot
+	 */
+	@ReadOperation
+	public LatencySnapshot latency(@Selector String name) {
+		return latencyRecorder.snapshot(name);
+	}
+
+	/**
+	 * 清零
+	 */
+	@DeleteOperation
+	public void reset() {
+		latencyRecorder.reset();
+	}
+
+}
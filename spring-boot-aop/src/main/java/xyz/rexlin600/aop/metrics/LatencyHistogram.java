@@ -0,0 +1,155 @@
+package xyz.rexlin600.aop.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 纳秒级延迟直方图，HDR 风格的对数 - 线性分桶
+ * <p>
+ * 小于 64ns 的值每纳秒一个桶，之后每个 2 的幂区间再等分 64 个桶，相对误差不超过 1/64（约 1.6%），
+ * 覆盖 1ns ~ 2^43ns（约 2.4 小时），共 2432 个桶。记录只做一次数组下标计算和一次原子自增，无锁
+ *
+ * @author hekunlin
+ */
+public class LatencyHistogram {
+
+	/**
+	 * 每个 2 的幂区间的子桶位数
+	 */
+	private static final int SUB_BUCKET_BITS = 6;
+
+	/**
+	 * 每个 2 的幂区间的子桶数
+	 */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * 可记录的最大值，超出的按最大值记录
+	 */
+	private static final long MAX_VALUE = (1L << 43) - 1;
+
+	/**
+	 * 桶总数
+	 */
+	private static final int BUCKET_COUNT = index(MAX_VALUE) + 1;
+
+	/**
+	 * 每个桶的计数
+	 */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+	/**
+	 * 耗时之和，用于计算平均值
+	 */
+	private final LongAdder sum = new LongAdder();
+
+	/**
+	 * 最大耗时，精确值
+	 */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * 记录一次耗时
+	 *
+	 * @param nanos 纳秒
+	 */
+	public void record(long nanos) {
+		long value = nanos < 0 ? 0 : Math.min(nanos, MAX_VALUE);
+		counts.incrementAndGet(index(value));
+		sum.add(value);
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * 快照：count、mean、p50、p90、p99、p999、max
+	 *
+	 * @return the latency snapshot
+	 */
+	public LatencySnapshot snapshot() {
+		long[] copy = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			copy[i] = counts.get(i);
+			count += copy[i];
+		}
+		LatencySnapshot snapshot = new LatencySnapshot();
+		snapshot.setCount(count);
+		if (count == 0) {
+			return snapshot;
+		}
+		snapshot.setMean(LatencySnapshot.micros(sum.sum() / count));
+		snapshot.setP50(LatencySnapshot.micros(percentile(copy, count, 0.5)));
+		snapshot.setP90(LatencySnapshot.micros(percentile(copy, count, 0.9)));
+		snapshot.setP99(LatencySnapshot.micros(percentile(copy, count, 0.99)));
+		snapshot.setP999(LatencySnapshot.micros(percentile(copy, count, 0.999)));
+		snapshot.setMax(LatencySnapshot.micros(max.get()));
+		return snapshot;
+	}
+
+	/**
+	 * 清零；与并发的 record 之间不保证原子性
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts.set(i, 0);
+		}
+		sum.reset();
+		max.set(0);
+	}
+
+	/**
+	 * 百分位对应桶的上界
+	 *
+	 * @param counts   每个桶的计数
+	 * @param total    总数
+	 * @param quantile 分位，如 0.99
+	 * @return the long
+	 */
+	private static long percentile(long[] counts, long total, double quantile) {
+		long rank = Math.max(1, (long) Math.ceil(total * quantile));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return highestEquivalentValue(i);
+			}
+		}
+		return highestEquivalentValue(counts.length - 1);
+	}
+
+	/**
+	 * 值所在桶的下标
+	 *
+	 * @param value 纳秒，不超过 MAX_VALUE
+	 * @return the int
+	 */
+	static int index(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		int sub = (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+		return SUB_BUCKET_COUNT + (shift << SUB_BUCKET_BITS) + sub;
+	}
+
+	/**
+	 * 桶内的最大值，百分位按桶的上界报告
+	 *
+	 * @param index 桶下标
+	 * @return the long
+	 */
+	static long highestEquivalentValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = (index - SUB_BUCKET_COUNT) >>> SUB_BUCKET_BITS;
+		int sub = (index - SUB_BUCKET_COUNT) & (SUB_BUCKET_COUNT - 1);
+		long lowest = (long) (SUB_BUCKET_COUNT + sub) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+}
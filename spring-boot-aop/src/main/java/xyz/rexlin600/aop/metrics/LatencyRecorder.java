@@ -0,0 +1,81 @@
+package xyz.rexlin600.aop.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按名称（全限定类名.方法名(参数类型)）管理延迟直方图
+ *
+ * @author hekunlin
+ */
+@Component
+public class LatencyRecorder {
+
+	/**
+	 * 名称 -> 直方图
+	 */
+	private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+	/**
+	 * 方法对应的直方图名称：全限定类名.方法名(参数类型,...)，不同包下的同名类、重载方法各自一个直方图
+	 *
+	 * @param method method
+	 * @return the name，形如 xyz.rexlin600.aop.rest.UserController.get(java.lang.Long)
+	 */
+	public static String name(Method method) {
+		StringBuilder name = new StringBuilder(method.getDeclaringClass().getName())
+				.append('.').append(method.getName()).append('(');
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (i > 0) {
+				name.append(',');
+			}
+			name.append(parameterTypes[i].getTypeName());
+		}
+		return name.append(')').toString();
+	}
+
+	/**
+	 * 获取或创建直方图，调用方应缓存返回值，避免每次调用都查 map
+	 *
+	 * @param name name
+	 * @return the latency histogram
+	 */
+	public LatencyHistogram histogram(String name) {
+		return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+	}
+
+	/**
+	 * 所有直方图的快照，按名称排序
+	 *
+	 * @return the map
+	 */
+	public Map<String, LatencySnapshot> snapshots() {
+		Map<String, LatencySnapshot> snapshots = new TreeMap<>();
+		histograms.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+		return snapshots;
+	}
+
+	/**
+	 * 单个直方图的快照
+	 *
+	 * @param name name
+	 * @return the latency snapshot，不存在时为 null
+	 */
+	public LatencySnapshot snapshot(String name) {
+		LatencyHistogram histogram = histograms.get(name);
+		return histogram == null ? null : histogram.snapshot();
+	}
+
+	/**
+	 * 清零所有直方图
+	 */
+	public void reset() {
+		histograms.values().forEach(LatencyHistogram::reset);
+	}
+
+}
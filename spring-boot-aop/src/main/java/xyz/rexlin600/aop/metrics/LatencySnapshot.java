@@ -0,0 +1,58 @@
+package xyz.rexlin600.aop.metrics;
+
+import lombok.Data;
+
+/**
+ * 延迟直方图快照，耗时单位均为微秒
+ *
+ * @author hekunlin
+ */
+@Data
+public class LatencySnapshot {
+
+	/**
+	 * 调用次数
+	 */
+	private long count;
+
+	/**
+	 * 平均耗时
+	 */
+	private double mean;
+
+	/**
+	 * 中位数，取所在桶的上界，下同
+	 */
+	private double p50;
+
+	/**
+	 * 90 分位
+	 */
+	private double p90;
+
+	/**
+	 * 99 分位
+	 */
+	private double p99;
+
+	/**
+	 * 99.9 分位
+	 */
+	private double p999;
+
+	/**
+	 * 最大耗时，精确值
+	 */
+	private double max;
+
+	/**
+	 * 纳秒转微秒
+	 *
+	 * @param nanos nanos
+	 * @return the double
+	 */
+	static double micros(long nanos) {
+		return nanos / 1000.0;
+	}
+
+}
@@ -6,9 +6,12 @@ import com.baomidou.mybatisplus.extension.api.R;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import xyz.rexlin600.aop.aspect.annotation.pipeline.SysLogPipeline;
 import xyz.rexlin600.aop.entity.SysLog;
 import xyz.rexlin600.aop.service.SysLogService;
 
+import java.util.List;
+
 /**
  * AOP 系统日志接口
  *
@@ -23,14 +26,31 @@ public class SysLogController extends ApiController {
 	 */
 	private final SysLogService sysLogService;
 
+	/**
+	 * Sys log pipeline
+	 */
+	private final SysLogPipeline sysLogPipeline;
+
 	/**
 	 * Sys log controller
 	 *
-	 * @param sysLogService sys log service
+	 * @param sysLogService  sys log service
+	 * @param sysLogPipeline sys log pipeline
 	 */
 	@Autowired
-	public SysLogController(SysLogService sysLogService) {
+	public SysLogController(SysLogService sysLogService, SysLogPipeline sysLogPipeline) {
 		this.sysLogService = sysLogService;
+		this.sysLogPipeline = sysLogPipeline;
+	}
+
+	/**
+	 * 批量入库管道的队列深度、丢弃数等统计
+	 *
+	 * @return the r
+	 */
+	@GetMapping("/pipeline/stats")
+	public R pipelineStats() {
+		return R.ok(sysLogPipeline.stats());
 	}
 
 	/**
@@ -57,6 +77,17 @@ public class SysLogController extends ApiController {
 		return R.ok(sysLogService.save(sysLog));
 	}
 
+	/**
+	 * 批量新增日志，一条多值 INSERT
+	 *
+	 * @param sysLogs sys logs
+	 * @return the r
+	 */
+	@PostMapping("/batch")
+	public R addBatch(@RequestBody List<SysLog> sysLogs) {
+		return R.ok(sysLogService.insertBatch(sysLogs));
+	}
+
 	/**
 	 * 删除日志
 	 *
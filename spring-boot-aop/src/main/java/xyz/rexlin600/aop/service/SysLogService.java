@@ -3,6 +3,8 @@ package xyz.rexlin600.aop.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import xyz.rexlin600.aop.entity.SysLog;
 
+import java.util.List;
+
 /**
  * Sys log service
  *
@@ -10,4 +12,12 @@ import xyz.rexlin600.aop.entity.SysLog;
  */
 public interface SysLogService extends IService<SysLog> {
 
+	/**
+	 * 多值 INSERT 批量入库，未设置 id 的日志自动分配
+	 *
+	 * @param sysLogs sys logs
+	 * @return 插入条数
+	 */
+	int insertBatch(List<SysLog> sysLogs);
+
 }
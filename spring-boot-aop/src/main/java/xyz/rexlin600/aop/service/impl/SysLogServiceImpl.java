@@ -1,11 +1,14 @@
 package xyz.rexlin600.aop.service.impl;
 
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.stereotype.Service;
 import xyz.rexlin600.aop.entity.SysLog;
 import xyz.rexlin600.aop.mapper.SysLogMapper;
 import xyz.rexlin600.aop.service.SysLogService;
 
+import java.util.List;
+
 /**
  * Sys log service
  *
@@ -14,4 +17,17 @@ import xyz.rexlin600.aop.service.SysLogService;
 @Service
 public class SysLogServiceImpl extends ServiceImpl<SysLogMapper, SysLog> implements SysLogService {
 
+	@Override
+	public int insertBatch(List<SysLog> sysLogs) {
+		if (sysLogs == null || sysLogs.isEmpty()) {
+			return 0;
+		}
+		for (SysLog sysLog : sysLogs) {
+			if (sysLog.getId() == null) {
+				sysLog.setId(IdWorker.getId());
+			}
+		}
+		return baseMapper.insertBatch(sysLogs);
+	}
+
 }
@@ -0,0 +1,228 @@
+package xyz.rexlin600.aop.aspect.annotation.pipeline;
+
+import com.baomidou.mybatisplus.extension.api.R;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import xyz.rexlin600.aop.aspect.annotation.feign.RemoteSysLogService;
+import xyz.rexlin600.aop.entity.SysLog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 系统日志管道：积压策略、按条数和按时间攒批入库，远程调用用内存实现代替
+ *
+ * @author hekunlin
+ */
+public class SysLogPipelineTest {
+
+	private final RecordingService remote = new RecordingService();
+
+	private SysLogPipeline pipeline;
+
+	@After
+	public void tearDown() throws InterruptedException {
+		if (pipeline != null) {
+			pipeline.destroy();
+		}
+	}
+
+	/**
+	 * DROP：队列满后丢弃新日志
+	 */
+	@Test
+	public void dropWhenFull() {
+		SysLogPipelineProperties properties = properties(OverflowPolicy.DROP);
+		properties.setCapacity(8);
+		pipeline = new SysLogPipeline(remote, properties);
+
+		int accepted = 0;
+		for (int i = 0; i < 10; i++) {
+			if (pipeline.offer(sysLog(i))) {
+				accepted++;
+			}
+		}
+		Assert.assertEquals(8, accepted);
+		SysLogPipelineStats stats = pipeline.stats();
+		Assert.assertEquals(10, stats.getOffered());
+		Assert.assertEquals(2, stats.getDropped());
+		Assert.assertEquals(0, stats.getSampledOut());
+		Assert.assertEquals(8, stats.getQueueDepth());
+	}
+
+	/**
+	 * SAMPLE：水位线以下全部入队，超过水位线后按 1/sampleRate 采样
+	 */
+	@Test
+	public void sampleAboveWatermark() {
+		SysLogPipelineProperties properties = properties(OverflowPolicy.SAMPLE);
+		properties.setCapacity(64);
+		properties.setSampleWatermark(0.5);
+		properties.setSampleRate(Integer.MAX_VALUE);
+		pipeline = new SysLogPipeline(remote, properties);
+
+		for (int i = 0; i < 32; i++) {
+			Assert.assertTrue(pipeline.offer(sysLog(i)));
+		}
+		int accepted = 0;
+		for (int i = 0; i < 100; i++) {
+			if (pipeline.offer(sysLog(i))) {
+				accepted++;
+			}
+		}
+		SysLogPipelineStats stats = pipeline.stats();
+		Assert.assertEquals(132, stats.getOffered());
+		Assert.assertEquals(100 - accepted, stats.getSampledOut());
+		Assert.assertTrue("超过水位线后几乎全部被采样丢弃", accepted <= 1);
+		Assert.assertEquals(0, stats.getDropped());
+	}
+
+	/**
+	 * SAMPLE：未达到采样条件时队列满仍然丢弃
+	 */
+	@Test
+	public void sampleDropsWhenFull() {
+		SysLogPipelineProperties properties = properties(OverflowPolicy.SAMPLE);
+		properties.setCapacity(8);
+		properties.setSampleRate(1);
+		pipeline = new SysLogPipeline(remote, properties);
+
+		for (int i = 0; i < 10; i++) {
+			pipeline.offer(sysLog(i));
+		}
+		SysLogPipelineStats stats = pipeline.stats();
+		Assert.assertEquals(2, stats.getDropped());
+		Assert.assertEquals(0, stats.getSampledOut());
+	}
+
+	/**
+	 * 攒满 batchSize 条立即入库，不等 flushIntervalMillis
+	 */
+	@Test
+	public void flushOnBatchSize() throws Exception {
+		SysLogPipelineProperties properties = properties(OverflowPolicy.DROP);
+		properties.setBatchSize(5);
+		properties.setFlushIntervalMillis(TimeUnit.MINUTES.toMillis(1));
+		pipeline = start(properties);
+
+		for (int i = 0; i < 13; i++) {
+			Assert.assertTrue(pipeline.offer(sysLog(i)));
+		}
+		awaitWritten(10);
+		Assert.assertEquals(2, remote.batches.size());
+		Assert.assertEquals(5, remote.batches.get(0).size());
+		Assert.assertEquals("log-0", remote.batches.get(0).get(0).getTitle());
+		Assert.assertEquals("log-9", remote.batches.get(1).get(4).getTitle());
+
+		// 不足一批的 3 条要等到超时
+		TimeUnit.MILLISECONDS.sleep(200);
+		Assert.assertEquals(2, remote.batches.size());
+
+		// 停止时处理剩余日志
+		pipeline.destroy();
+		pipeline = null;
+		Assert.assertEquals(3, remote.batches.size());
+		Assert.assertEquals(3, remote.batches.get(2).size());
+	}
+
+	/**
+	 * 不足一批时第一条等待超过 flushIntervalMillis 后入库
+	 */
+	@Test
+	public void flushOnInterval() throws Exception {
+		SysLogPipelineProperties properties = properties(OverflowPolicy.DROP);
+		properties.setBatchSize(100);
+		properties.setFlushIntervalMillis(200);
+		pipeline = start(properties);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 3; i++) {
+			pipeline.offer(sysLog(i));
+		}
+		awaitWritten(3);
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		Assert.assertTrue("elapsed " + elapsed + "ms", elapsed >= 200);
+		Assert.assertEquals(1, remote.batches.size());
+		Assert.assertEquals(3, remote.batches.get(0).size());
+		Assert.assertEquals(1, pipeline.stats().getBatches());
+	}
+
+	/**
+	 * 入库失败只计数，不影响后续批次
+	 */
+	@Test
+	public void failedBatchCounted() throws Exception {
+		SysLogPipelineProperties properties = properties(OverflowPolicy.DROP);
+		properties.setBatchSize(2);
+		remote.failures = 1;
+		pipeline = start(properties);
+
+		for (int i = 0; i < 4; i++) {
+			pipeline.offer(sysLog(i));
+		}
+		awaitWritten(2);
+		SysLogPipelineStats stats = pipeline.stats();
+		Assert.assertEquals(2, stats.getFailed());
+		Assert.assertEquals(2, stats.getWritten());
+		Assert.assertEquals("log-2", remote.batches.get(0).get(0).getTitle());
+	}
+
+	private SysLogPipeline start(SysLogPipelineProperties properties) {
+		properties.setEnabled(true);
+		SysLogPipeline started = new SysLogPipeline(remote, properties);
+		started.afterPropertiesSet();
+		return started;
+	}
+
+	private void awaitWritten(long expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+		while (pipeline.stats().getWritten() < expected && System.currentTimeMillis() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(5);
+		}
+		Assert.assertEquals(expected, pipeline.stats().getWritten());
+	}
+
+	private static SysLogPipelineProperties properties(OverflowPolicy policy) {
+		SysLogPipelineProperties properties = new SysLogPipelineProperties();
+		properties.setOverflowPolicy(policy);
+		properties.setCapacity(1024);
+		properties.setFlushIntervalMillis(1000);
+		return properties;
+	}
+
+	private static SysLog sysLog(int i) {
+		SysLog sysLog = new SysLog();
+		sysLog.setTitle("log-" + i);
+		return sysLog;
+	}
+
+	/**
+	 * 记录每次批量入库，前 failures 次调用抛出异常
+	 */
+	private static class RecordingService implements RemoteSysLogService {
+
+		private final List<List<SysLog>> batches = new CopyOnWriteArrayList<>();
+
+		private volatile int failures;
+
+		@Override
+		public R add(SysLog sysLog) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public R addBatch(List<SysLog> sysLogs) {
+			if (failures > 0) {
+				failures--;
+				throw new IllegalStateException("remote unavailable");
+			}
+			batches.add(new ArrayList<>(sysLogs));
+			return null;
+		}
+
+	}
+
+}
@@ -0,0 +1,138 @@
+package xyz.rexlin600.aop.aspect.annotation.pipeline;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 环形队列：先进先出、满时拒绝、多圈回绕、多生产者并发入队
+ *
+ * @author hekunlin
+ */
+public class SysLogRingBufferTest {
+
+	/**
+	 * 容量向上取整为 2 的幂
+	 */
+	@Test
+	public void capacityRoundsUpToPowerOfTwo() {
+		Assert.assertEquals(1, new SysLogRingBuffer<>(1).capacity());
+		Assert.assertEquals(8, new SysLogRingBuffer<>(5).capacity());
+		Assert.assertEquals(8, new SysLogRingBuffer<>(8).capacity());
+		Assert.assertEquals(8192, new SysLogRingBuffer<>(8000).capacity());
+	}
+
+	/**
+	 * 非法容量
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidCapacity() {
+		new SysLogRingBuffer<>(0);
+	}
+
+	/**
+	 * 满时 offer 返回 false，不覆盖已有元素；出队顺序与入队顺序一致
+	 */
+	@Test
+	public void fullAndFifo() {
+		SysLogRingBuffer<Integer> buffer = new SysLogRingBuffer<>(4);
+		for (int i = 0; i < 4; i++) {
+			Assert.assertTrue(buffer.offer(i));
+		}
+		Assert.assertFalse(buffer.offer(4));
+		Assert.assertEquals(4, buffer.size());
+
+		for (int i = 0; i < 4; i++) {
+			Assert.assertEquals(Integer.valueOf(i), buffer.poll());
+		}
+		Assert.assertNull(buffer.poll());
+		Assert.assertEquals(0, buffer.size());
+	}
+
+	/**
+	 * 读写位置绕环多圈后槽位序号仍然正确：每轮写入不同数量，出队顺序不变，腾出的槽位可以再次写入
+	 */
+	@Test
+	public void wraparound() {
+		SysLogRingBuffer<Integer> buffer = new SysLogRingBuffer<>(4);
+		int next = 0;
+		int expected = 0;
+		for (int round = 0; round < 1000; round++) {
+			int writes = round % 4 + 1;
+			for (int i = 0; i < writes; i++) {
+				Assert.assertTrue(buffer.offer(next++));
+			}
+			Assert.assertEquals(writes, buffer.size());
+			if (writes == 4) {
+				Assert.assertFalse(buffer.offer(-1));
+			}
+			for (int i = 0; i < writes; i++) {
+				Assert.assertEquals(Integer.valueOf(expected++), buffer.poll());
+			}
+			Assert.assertNull(buffer.poll());
+		}
+		Assert.assertEquals(next, expected);
+	}
+
+	/**
+	 * 多个生产者并发入队、单个消费者同时出队：不丢失、不重复，每个生产者的元素保持各自的入队顺序
+	 */
+	@Test
+	public void multiProducerOfferDrain() throws Exception {
+		int producers = 4;
+		int perProducer = 200_000;
+		SysLogRingBuffer<long[]> buffer = new SysLogRingBuffer<>(1024);
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int p = 0; p < producers; p++) {
+				long producer = p;
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (long seq = 0; seq < perProducer; seq++) {
+						long[] element = {producer, seq};
+						while (!buffer.offer(element)) {
+							Thread.yield();
+						}
+					}
+					return null;
+				}));
+			}
+
+			start.countDown();
+			long[] nextSeq = new long[producers];
+			int received = 0;
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+			while (received < producers * perProducer) {
+				long[] element = buffer.poll();
+				if (element == null) {
+					Assert.assertTrue("消费超时", System.nanoTime() < deadline);
+					Thread.yield();
+					continue;
+				}
+				int producer = (int) element[0];
+				Assert.assertEquals(nextSeq[producer], element[1]);
+				nextSeq[producer]++;
+				received++;
+			}
+			for (Future<?> future : futures) {
+				future.get(5, TimeUnit.SECONDS);
+			}
+			Assert.assertNull(buffer.poll());
+			for (long seq : nextSeq) {
+				Assert.assertEquals(perProducer, seq);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+package xyz.rexlin600.aop.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 延迟直方图：分桶下标与百分位计算
+ *
+ * @author hekunlin
+ */
+public class LatencyHistogramTest {
+
+	/**
+	 * 小于 64ns 每纳秒一个桶，之后每个 2 的幂区间等分 64 个桶
+	 */
+	@Test
+	public void bucketIndex() {
+		Assert.assertEquals(0, LatencyHistogram.index(0));
+		Assert.assertEquals(63, LatencyHistogram.index(63));
+		Assert.assertEquals(64, LatencyHistogram.index(64));
+		Assert.assertEquals(127, LatencyHistogram.index(127));
+		// [128, 256) 每 2ns 一个桶
+		Assert.assertEquals(128, LatencyHistogram.index(128));
+		Assert.assertEquals(128, LatencyHistogram.index(129));
+		Assert.assertEquals(129, LatencyHistogram.index(130));
+		Assert.assertEquals(192, LatencyHistogram.index(256));
+		Assert.assertEquals(129, LatencyHistogram.highestEquivalentValue(128));
+		Assert.assertEquals(131, LatencyHistogram.highestEquivalentValue(129));
+	}
+
+	/**
+	 * 每个值都落在所在桶的范围内，桶的上界相对误差不超过 1/64，下标随值单调不减
+	 */
+	@Test
+	public void bucketBounds() {
+		int previous = -1;
+		for (long value = 1; value < (1L << 40); value = value * 3 / 2 + 1) {
+			int index = LatencyHistogram.index(value);
+			long highest = LatencyHistogram.highestEquivalentValue(index);
+			Assert.assertTrue(index >= previous);
+			Assert.assertTrue(highest >= value);
+			Assert.assertTrue((highest - value) <= value / 64);
+			Assert.assertEquals(index, LatencyHistogram.index(highest));
+			previous = index;
+		}
+	}
+
+	/**
+	 * 百分位取第 ceil(count * q) 个值所在桶的上界
+	 */
+	@Test
+	public void percentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long nanos = 1_000; nanos <= 100_000; nanos += 1_000) {
+			histogram.record(nanos);
+		}
+		LatencySnapshot snapshot = histogram.snapshot();
+		Assert.assertEquals(100, snapshot.getCount());
+		Assert.assertEquals(50.5, snapshot.getMean(), 0.001);
+		assertWithinBucket(50, snapshot.getP50());
+		assertWithinBucket(90, snapshot.getP90());
+		assertWithinBucket(99, snapshot.getP99());
+		assertWithinBucket(100, snapshot.getP999());
+		Assert.assertEquals(100, snapshot.getMax(), 0.001);
+	}
+
+	/**
+	 * 负值按 0 记录，清零后快照为空
+	 */
+	@Test
+	public void negativeAndReset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		Assert.assertEquals(1, histogram.snapshot().getCount());
+		Assert.assertEquals(0, histogram.snapshot().getP50(), 0.0);
+
+		histogram.reset();
+		LatencySnapshot snapshot = histogram.snapshot();
+		Assert.assertEquals(0, snapshot.getCount());
+		Assert.assertEquals(0, snapshot.getMax(), 0.0);
+	}
+
+	private static void assertWithinBucket(double expectedMicros, double actualMicros) {
+		Assert.assertTrue(actualMicros >= expectedMicros);
+		Assert.assertTrue(actualMicros <= expectedMicros * (1 + 1.0 / 64));
+	}
+
+}
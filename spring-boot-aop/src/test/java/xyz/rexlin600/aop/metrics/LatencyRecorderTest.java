@@ -0,0 +1,54 @@
+package xyz.rexlin600.aop.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+/**
+ * 直方图名称：不同包下的同名类、重载方法不会合并到一个直方图
+ *
+ * @author hekunlin
+ */
+public class LatencyRecorderTest {
+
+	/**
+	 * 名称为全限定类名.方法名(参数类型)
+	 */
+	@Test
+	public void nameWithSignature() throws Exception {
+		Method noArgs = Sample.class.getDeclaredMethod("get");
+		Method withArgs = Sample.class.getDeclaredMethod("get", Long.class, String[].class, int.class);
+		Assert.assertEquals(Sample.class.getName() + ".get()", LatencyRecorder.name(noArgs));
+		Assert.assertEquals(Sample.class.getName() + ".get(java.lang.Long,java.lang.String[],int)", LatencyRecorder.name(withArgs));
+	}
+
+	/**
+	 * 重载方法、不同包下的同名类（java.util.Date 与 java.sql.Date）各自记录
+	 */
+	@Test
+	public void separateHistograms() throws Exception {
+		LatencyRecorder recorder = new LatencyRecorder();
+		recorder.histogram(LatencyRecorder.name(Sample.class.getDeclaredMethod("get"))).record(1_000);
+		recorder.histogram(LatencyRecorder.name(Sample.class.getDeclaredMethod("get", Long.class, String[].class, int.class))).record(2_000);
+		// 同一方法共用一个直方图
+		recorder.histogram(LatencyRecorder.name(Sample.class.getDeclaredMethod("get"))).record(3_000);
+		recorder.histogram(LatencyRecorder.name(java.util.Date.class.getDeclaredMethod("toString"))).record(4_000);
+		recorder.histogram(LatencyRecorder.name(java.sql.Date.class.getDeclaredMethod("toString"))).record(5_000);
+
+		Assert.assertEquals(4, recorder.snapshots().size());
+		Assert.assertEquals(2, recorder.snapshot(Sample.class.getName() + ".get()").getCount());
+		Assert.assertEquals(1, recorder.snapshot("java.util.Date.toString()").getCount());
+	}
+
+	private static class Sample {
+
+		void get() {
+		}
+
+		void get(Long id, String[] names, int size) {
+		}
+
+	}
+
+}
@@ -1,8 +1,16 @@
 package xyz.rexlin600.async.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import xyz.rexlin600.async.executor.AdaptiveExecutorProperties;
+import xyz.rexlin600.async.executor.AdaptiveTaskExecutor;
+import xyz.rexlin600.async.executor.Bulkhead;
+import xyz.rexlin600.async.executor.VirtualTaskGroup;
+import xyz.rexlin600.async.executor.VirtualThreadTaskExecutor;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -12,9 +20,36 @@ import java.util.concurrent.ThreadPoolExecutor;
  *
  * @author hekunlin
  */
+@Slf4j
 @Configuration
 public class AsyncTaskExecutorConfig {
 
+	/**
+	 * 自适应模式
+	 */
+	private static final String MODE_ADAPTIVE = "adaptive";
+
+	/**
+	 * 线程池配置
+	 */
+	private final AdaptiveExecutorProperties properties;
+
+	/**
+	 * 注册舱壁、任务组 bean
+	 */
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	/**
+	 * Async task executor config
+	 *
+	 * @param properties  线程池配置
+	 * @param beanFactory bean factory
+	 */
+	public AsyncTaskExecutorConfig(AdaptiveExecutorProperties properties, ConfigurableListableBeanFactory beanFactory) {
+		this.properties = properties;
+		this.beanFactory = beanFactory;
+	}
+
 	/**
 	 * Task executor executor
 	 *
@@ -22,6 +57,39 @@ public class AsyncTaskExecutorConfig {
 	 */
 	@Bean("taskExecutor")
 	public Executor taskExecutor() {
+		Executor executor = MODE_ADAPTIVE.equalsIgnoreCase(properties.getMode())
+				? adaptiveTaskExecutor()
+				: fixedTaskExecutor();
+		registerBulkheads(executor);
+		return executor;
+	}
+
+	/**
+	 * 虚拟线程执行器，需显式开启；阻塞型任务用 @Async("virtualExecutor") 或 @Async("任务组名称") 选用
+	 *
+	 * @return the virtual thread task executor
+	 */
+	@Bean("virtualExecutor")
+	@ConditionalOnProperty(prefix = "rexlin600.async.executor.virtual", name = "enabled", havingValue = "true")
+	public VirtualThreadTaskExecutor virtualExecutor() {
+		AdaptiveExecutorProperties.Virtual virtual = properties.getVirtual();
+		VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor(virtual.getMaxConcurrency());
+		log.info("==>  virtualExecutor enabled, virtual threads [{}], max concurrency [{}]",
+				executor.isVirtual(), virtual.getMaxConcurrency());
+		virtual.getGroups().forEach((name, limit) -> {
+			VirtualTaskGroup group = executor.group(name, limit);
+			beanFactory.registerSingleton(name, group);
+			log.info("==>  register virtual task group [{}] limit [{}]", name, limit);
+		});
+		return executor;
+	}
+
+	/**
+	 * 固定大小线程池
+	 *
+	 * @return the thread pool task executor
+	 */
+	private ThreadPoolTaskExecutor fixedTaskExecutor() {
 		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
 		executor.setCorePoolSize(10);
 		executor.setMaxPoolSize(20);
@@ -39,4 +107,30 @@ public class AsyncTaskExecutorConfig {
 		return executor;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * 自适应线程池，关闭时同样等待任务完成
+	 *
+	 * @return the adaptive task executor
+	 */
+	private AdaptiveTaskExecutor adaptiveTaskExecutor() {
+		log.info("==>  taskExecutor mode adaptive, pool size [{}, {}], target queue wait {}ms",
+				properties.getMinPoolSize(), properties.getMaxPoolSize(), properties.getTargetQueueWaitMillis());
+		return new AdaptiveTaskExecutor(properties);
+	}
+
+	/**
+	 * 每个舱壁注册为一个 Executor bean，@Async("舱壁名称") 即可使用
+	 *
+	 * @param executor 底层线程池
+	 */
+	private void registerBulkheads(Executor executor) {
+		properties.getBulkheads().forEach((name, limit) -> {
+			Bulkhead bulkhead = executor instanceof AdaptiveTaskExecutor
+					? ((AdaptiveTaskExecutor) executor).bulkhead(name, limit)
+					: new Bulkhead(name, limit, executor);
+			beanFactory.registerSingleton(name, bulkhead);
+			log.info("==>  register bulkhead [{}] limit [{}]", name, limit);
+		});
+	}
+
+}
@@ -0,0 +1,74 @@
+package xyz.rexlin600.async.executor;
+
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 只需实现 {@link #execute(Runnable)}，其余提交方式都基于它
+ *
+ * @author hekunlin
+ */
+public abstract class AbstractTaskExecutor implements AsyncListenableTaskExecutor {
+
+	@Override
+	public void execute(Runnable task, long startTimeout) {
+		execute(task);
+	}
+
+	@Override
+	public Future<?> submit(Runnable task) {
+		FutureTask<Object> future = new FutureTask<>(task, null);
+		execute(future);
+		return future;
+	}
+
+	@Override
+	public <T> Future<T> submit(Callable<T> task) {
+		FutureTask<T> future = new FutureTask<>(task);
+		execute(future);
+		return future;
+	}
+
+	@Override
+	public ListenableFuture<?> submitListenable(Runnable task) {
+		ListenableFutureTask<Object> future = new ListenableFutureTask<>(task, null);
+		execute(future);
+		return future;
+	}
+
+	@Override
+	public <T> ListenableFuture<T> submitListenable(Callable<T> task) {
+		ListenableFutureTask<T> future = new ListenableFutureTask<>(task);
+		execute(future);
+		return future;
+	}
+
+	/**
+	 * 提交任务并返回 {@link CompletableFuture}，调用方可以组合而不必阻塞在 get 上
+	 *
+	 * @param task task
+	 * @param <T>  result type
+	 * @return the completable future
+	 */
+	public <T> CompletableFuture<T> submitCompletable(Callable<T> task) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		execute(() -> {
+			if (future.isDone()) {
+				return;
+			}
+			try {
+				future.complete(task.call());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+}
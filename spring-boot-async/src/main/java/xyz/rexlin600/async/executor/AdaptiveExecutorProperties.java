@@ -0,0 +1,85 @@
+package xyz.rexlin600.async.executor;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 异步线程池配置
+ *
+ * @author hekunlin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rexlin600.async.executor")
+public class AdaptiveExecutorProperties {
+
+	/**
+	 * fixed：固定 10/20 线程池；adaptive：按排队耗时、吞吐自动调整核心线程数
+	 */
+	private String mode = "fixed";
+
+	/**
+	 * 最小核心线程数
+	 */
+	private int minPoolSize = 10;
+
+	/**
+	 * 最大线程数，核心线程数在 [minPoolSize, maxPoolSize] 之间调整
+	 */
+	private int maxPoolSize = 200;
+
+	/**
+	 * 队列容量
+	 */
+	private int queueCapacity = 1000;
+
+	/**
+	 * 空闲线程存活时间，单位秒
+	 */
+	private int keepAliveSeconds = 60;
+
+	/**
+	 * 调整周期，单位毫秒
+	 */
+	private long tuneIntervalMillis = 1000;
+
+	/**
+	 * 期望的平均排队耗时，超过则扩容，单位毫秒
+	 */
+	private long targetQueueWaitMillis = 50;
+
+	/**
+	 * 舱壁：bean 名称 -> 最大并发数，@Async("bean 名称") 的任务共享线程池但并发受限，超出直接拒绝
+	 */
+	private Map<String, Integer> bulkheads = new LinkedHashMap<>();
+
+	/**
+	 * 虚拟线程执行器，开启后注册 virtualExecutor 及各任务组 bean，@Async("virtualExecutor") 按需选用
+	 */
+	private Virtual virtual = new Virtual();
+
+	/**
+	 * 虚拟线程执行器配置
+	 */
+	@Data
+	public static class Virtual {
+
+		private boolean enabled = false;
+
+		/**
+		 * 同时执行的任务上限，超出时提交线程阻塞等待
+		 */
+		private int maxConcurrency = 10000;
+
+		/**
+		 * 任务组：bean 名称 -> 最大并发数，超出时在虚拟线程内等待而不是拒绝
+		 */
+		private Map<String, Integer> groups = new LinkedHashMap<>();
+
+	}
+
+}
@@ -0,0 +1,311 @@
+package xyz.rexlin600.async.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应线程池
+ * <p>
+ * 每个任务记录排队耗时与执行耗时；调整线程每个周期看一次平均排队耗时：超过目标值且队列非空时扩大核心线程数，
+ * 排队几乎为零且活跃线程不足一半时缩小。扩容后吞吐没有明显提升（例如瓶颈在下游）则暂停一个周期，
+ * 避免无意义地堆线程。队列满时与固定线程池一致，由调用线程执行；关闭后提交的任务抛出 {@link TaskRejectedException}
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class AdaptiveTaskExecutor extends AbstractTaskExecutor implements DisposableBean {
+
+	/**
+	 * 扩容后吞吐至少提升的比例，否则视为扩容无效
+	 */
+	private static final double MIN_GAIN = 1.05;
+
+	/**
+	 * Properties
+	 */
+	private final AdaptiveExecutorProperties properties;
+
+	/**
+	 * 底层线程池，核心线程数由 tuner 调整
+	 */
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * 每个调整周期执行一次 {@link #tune()}
+	 */
+	private final ScheduledExecutorService tuner;
+
+	/**
+	 * name -> 舱壁
+	 */
+	private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+	/**
+	 * 提交的任务数
+	 */
+	private final LongAdder submitted = new LongAdder();
+
+	/**
+	 * 执行完成的任务数
+	 */
+	private final LongAdder completed = new LongAdder();
+
+	/**
+	 * 队列满由调用线程执行、或关闭后被拒绝的任务数
+	 */
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * 排队耗时之和
+	 */
+	private final LongAdder totalWaitNanos = new LongAdder();
+
+	/**
+	 * 执行耗时之和
+	 */
+	private final LongAdder totalRunNanos = new LongAdder();
+
+	/**
+	 * 最大排队耗时
+	 */
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	/**
+	 * 最大执行耗时
+	 */
+	private final AtomicLong maxRunNanos = new AtomicLong();
+
+	/**
+	 * 当前调整周期内完成的任务数，每个周期清零
+	 */
+	private final LongAdder windowCompleted = new LongAdder();
+
+	/**
+	 * 当前调整周期内开始执行的任务的排队耗时之和，每个周期清零
+	 */
+	private final LongAdder windowWaitNanos = new LongAdder();
+
+	/**
+	 * 当前调整周期内开始执行的任务数，每个周期清零
+	 */
+	private final LongAdder windowStarted = new LongAdder();
+
+	/**
+	 * 上一个调整周期的吞吐（任务/秒）
+	 */
+	private volatile double throughput;
+
+	/**
+	 * 上一个周期是否扩容，只在 tuner 线程中访问
+	 */
+	private boolean lastGrow;
+
+	/**
+	 * Adaptive task executor
+	 *
+	 * @param properties properties
+	 */
+	public AdaptiveTaskExecutor(AdaptiveExecutorProperties properties) {
+		this.properties = properties;
+		int min = Math.max(1, properties.getMinPoolSize());
+		int max = Math.max(min, properties.getMaxPoolSize());
+		this.executor = new ThreadPoolExecutor(min, max, properties.getKeepAliveSeconds(), TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+				new CustomizableThreadFactory("adaptiveExecutor-"),
+				(task, pool) -> {
+					rejected.increment();
+					if (pool.isShutdown()) {
+						// 抛出而不是静默丢弃，调用方（舱壁、CompletableFuture）才能释放许可或结束 future
+						throw new TaskRejectedException("adaptiveExecutor is shut down, task " + task + " rejected");
+					}
+					task.run();
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+		this.tuner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "adaptiveExecutor-tuner");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = Math.max(10, properties.getTuneIntervalMillis());
+		this.tuner.scheduleWithFixedDelay(this::tune, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		submitted.increment();
+		executor.execute(new TimedTask(task));
+	}
+
+	/**
+	 * 创建（或获取）舱壁
+	 *
+	 * @param name  name
+	 * @param limit 最大并发数
+	 * @return the bulkhead
+	 */
+	public Bulkhead bulkhead(String name, int limit) {
+		return bulkheads.computeIfAbsent(name, key -> new Bulkhead(key, limit, this));
+	}
+
+	/**
+	 * 指标快照
+	 *
+	 * @return the executor metrics
+	 */
+	public ExecutorMetrics metrics() {
+		ExecutorMetrics metrics = new ExecutorMetrics();
+		metrics.setMode("adaptive");
+		metrics.setCorePoolSize(executor.getCorePoolSize());
+		metrics.setMaxPoolSize(executor.getMaximumPoolSize());
+		metrics.setPoolSize(executor.getPoolSize());
+		metrics.setActiveCount(executor.getActiveCount());
+		metrics.setQueueDepth(executor.getQueue().size());
+		metrics.setSubmitted(submitted.sum());
+		long done = completed.sum();
+		metrics.setCompleted(done);
+		metrics.setRejected(rejected.sum());
+		metrics.setThroughput(throughput);
+		long started = submitted.sum() - executor.getQueue().size();
+		metrics.setAvgQueueWait(started <= 0 ? 0 : millis(totalWaitNanos.sum() / started));
+		metrics.setMaxQueueWait(millis(maxWaitNanos.get()));
+		metrics.setAvgRunTime(done == 0 ? 0 : millis(totalRunNanos.sum() / done));
+		metrics.setMaxRunTime(millis(maxRunNanos.get()));
+		bulkheads.forEach((name, bulkhead) -> metrics.getBulkheads().put(name, bulkhead.metrics()));
+		return metrics;
+	}
+
+	/**
+	 * 底层线程池
+	 *
+	 * @return the thread pool executor
+	 */
+	public ThreadPoolExecutor getThreadPoolExecutor() {
+		return executor;
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		tuner.shutdownNow();
+		executor.shutdown();
+		executor.awaitTermination(60, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * 一个调整周期
+	 */
+	void tune() {
+		try {
+			long interval = Math.max(10, properties.getTuneIntervalMillis());
+			long done = windowCompleted.sumThenReset();
+			long started = windowStarted.sumThenReset();
+			long waitNanos = windowWaitNanos.sumThenReset();
+			double current = done * 1000.0 / interval;
+			double previous = throughput;
+			throughput = current;
+
+			double avgWaitMillis = started == 0 ? 0 : millis(waitNanos / started);
+			int core = executor.getCorePoolSize();
+			int min = Math.max(1, properties.getMinPoolSize());
+			int max = executor.getMaximumPoolSize();
+			int queued = executor.getQueue().size();
+
+			if (avgWaitMillis > properties.getTargetQueueWaitMillis() && queued > 0 && core < max) {
+				if (lastGrow && previous > 0 && current < previous * MIN_GAIN) {
+					// 上次扩容没有带来吞吐提升，先观察一个周期
+					lastGrow = false;
+					return;
+				}
+				int next = Math.min(max, core + Math.max(1, core / 4));
+				executor.setCorePoolSize(next);
+				lastGrow = true;
+				log.info("==>  adaptiveExecutor grow core {} -> {}, avgQueueWait={}ms, throughput={}/s", core, next,
+						avgWaitMillis, current);
+				return;
+			}
+			lastGrow = false;
+			if (avgWaitMillis < properties.getTargetQueueWaitMillis() / 4.0 && queued == 0
+					&& executor.getActiveCount() < core / 2 && core > min) {
+				int next = Math.max(min, core - Math.max(1, core / 8));
+				executor.setCorePoolSize(next);
+				log.info("==>  adaptiveExecutor shrink core {} -> {}, active={}", core, next, executor.getActiveCount());
+			}
+		} catch (Exception e) {
+			log.warn("==>  adaptiveExecutor tune failed", e);
+		}
+	}
+
+	/**
+	 * 纳秒转毫秒
+	 *
+	 * @param nanos nanos
+	 * @return the double
+	 */
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	/**
+	 * 更新最大值
+	 *
+	 * @param max   max
+	 * @param value value
+	 */
+	private static void updateMax(AtomicLong max, long value) {
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * 记录排队耗时、执行耗时
+	 */
+	private final class TimedTask implements Runnable {
+
+		/**
+		 * 实际任务
+		 */
+		private final Runnable task;
+
+		/**
+		 * 入队时间
+		 */
+		private final long enqueueNanos = System.nanoTime();
+
+		/**
+		 * Timed task
+		 *
+		 * @param task 实际任务
+		 */
+		TimedTask(Runnable task) {
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			long start = System.nanoTime();
+			long wait = start - enqueueNanos;
+			totalWaitNanos.add(wait);
+			windowWaitNanos.add(wait);
+			windowStarted.increment();
+			updateMax(maxWaitNanos, wait);
+			try {
+				task.run();
+			} finally {
+				long run = System.nanoTime() - start;
+				totalRunNanos.add(run);
+				updateMax(maxRunNanos, run);
+				completed.increment();
+				windowCompleted.increment();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package xyz.rexlin600.async.executor;
+
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 舱壁：共享底层线程池，但同一类任务的并发数不超过 limit，超出时直接拒绝，避免一类慢任务占满线程池
+ *
+ * @author hekunlin
+ */
+public class Bulkhead extends AbstractTaskExecutor {
+
+	/**
+	 * 舱壁名称，即 bean 名称
+	 */
+	private final String name;
+
+	/**
+	 * 同时执行的任务数上限
+	 */
+	private final int limit;
+
+	/**
+	 * 舱壁许可，取不到时拒绝
+	 */
+	private final Semaphore permits;
+
+	/**
+	 * 共享的底层线程池
+	 */
+	private final Executor delegate;
+
+	/**
+	 * 拒绝的任务数
+	 */
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * Bulkhead
+	 *
+	 * @param name     舱壁名称
+	 * @param limit    同时执行的任务数上限
+	 * @param delegate 底层线程池
+	 */
+	public Bulkhead(String name, int limit, Executor delegate) {
+		this.name = name;
+		this.limit = limit;
+		this.permits = new Semaphore(limit);
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		if (!permits.tryAcquire()) {
+			rejected.increment();
+			throw new TaskRejectedException("Bulkhead [" + name + "] is full, limit " + limit);
+		}
+		try {
+			delegate.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					permits.release();
+				}
+			});
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * 指标快照
+	 *
+	 * @return the bulkhead metrics
+	 */
+	public ExecutorMetrics.BulkheadMetrics metrics() {
+		ExecutorMetrics.BulkheadMetrics metrics = new ExecutorMetrics.BulkheadMetrics();
+		metrics.setLimit(limit);
+		metrics.setActive(limit - permits.availablePermits());
+		metrics.setRejected(rejected.sum());
+		return metrics;
+	}
+
+	/**
+	 * Gets name
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+}
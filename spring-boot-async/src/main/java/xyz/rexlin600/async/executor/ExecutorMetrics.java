@@ -0,0 +1,119 @@
+package xyz.rexlin600.async.executor;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 线程池指标快照，耗时单位为毫秒
+ *
+ * @author hekunlin
+ */
+@Data
+public class ExecutorMetrics {
+
+	/**
+	 * 线程池模式：fixed、adaptive、virtual
+	 */
+	private String mode;
+
+	/**
+	 * 核心线程数
+	 */
+	private int corePoolSize;
+
+	/**
+	 * 最大线程数，虚拟线程执行器为全局在途任务上限
+	 */
+	private int maxPoolSize;
+
+	/**
+	 * 当前线程数
+	 */
+	private int poolSize;
+
+	/**
+	 * 正在执行任务的线程数
+	 */
+	private int activeCount;
+
+	/**
+	 * 当前排队任务数
+	 */
+	private int queueDepth;
+
+	/**
+	 * 提交的任务数
+	 */
+	private long submitted;
+
+	/**
+	 * 执行结束的任务数
+	 */
+	private long completed;
+
+	/**
+	 * 拒绝的任务数
+	 */
+	private long rejected;
+
+	/**
+	 * 最近一个调整周期的吞吐，任务数 / 秒
+	 */
+	private double throughput;
+
+	/**
+	 * 平均排队耗时
+	 */
+	private double avgQueueWait;
+
+	/**
+	 * 最大排队耗时
+	 */
+	private double maxQueueWait;
+
+	/**
+	 * 平均执行耗时
+	 */
+	private double avgRunTime;
+
+	/**
+	 * 最大执行耗时
+	 */
+	private double maxRunTime;
+
+	/**
+	 * 舱壁指标
+	 */
+	private Map<String, BulkheadMetrics> bulkheads = new LinkedHashMap<>();
+
+	/**
+	 * 舱壁指标快照
+	 */
+	@Data
+	public static class BulkheadMetrics {
+
+		/**
+		 * 同时执行的任务数上限
+		 */
+		private int limit;
+
+		/**
+		 * 正在执行的任务数
+		 */
+		private int active;
+
+		/**
+		 * 等待许可的任务数，仅虚拟线程任务组
+		 */
+		private int waiting;
+
+		/**
+		 * 拒绝的任务数；虚拟线程任务组为等待许可时被中断的任务数
+		 */
+		private long rejected;
+
+	}
+
+}
@@ -0,0 +1,117 @@
+package xyz.rexlin600.async.executor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 虚拟线程任务组：组内同时执行的任务数不超过 limit
+ * <p>
+ * 与 {@link Bulkhead} 不同，超出时不拒绝，而是在虚拟线程内排队等待许可，适合保护下游连接池等有限资源
+ * <p>
+ * 等待许可时线程被中断（如关闭时）的任务仍会以中断状态执行一次，而不是直接丢弃：
+ * 提交方的 Future / CompletableFuture 只能由任务本身完成，丢弃会让调用方永远等待；
+ * 阻塞调用会立即抛出 InterruptedException，经由 Future 传给提交方
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class VirtualTaskGroup extends AbstractTaskExecutor {
+
+	/**
+	 * 任务组名称，即 bean 名称
+	 */
+	private final String name;
+
+	/**
+	 * 组内最大并发数
+	 */
+	private final int limit;
+
+	/**
+	 * 组内许可
+	 */
+	private final Semaphore permits;
+
+	/**
+	 * 实际执行任务的虚拟线程执行器
+	 */
+	private final VirtualThreadTaskExecutor delegate;
+
+	/**
+	 * 正在等待许可的任务数
+	 */
+	private final AtomicInteger waiting = new AtomicInteger();
+
+	/**
+	 * 等待许可时被中断的任务数
+	 */
+	private final LongAdder interrupted = new LongAdder();
+
+	/**
+	 * Virtual task group
+	 *
+	 * @param name     任务组名称
+	 * @param limit    组内最大并发数
+	 * @param delegate 虚拟线程执行器
+	 */
+	public VirtualTaskGroup(String name, int limit, VirtualThreadTaskExecutor delegate) {
+		this.name = name;
+		this.limit = limit;
+		this.permits = new Semaphore(limit);
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		delegate.execute(() -> {
+			waiting.incrementAndGet();
+			boolean acquired = false;
+			try {
+				permits.acquire();
+				acquired = true;
+			} catch (InterruptedException e) {
+				interrupted.increment();
+				log.warn("==>  virtual task group [{}] interrupted while waiting for permit, run task interrupted", name);
+				Thread.currentThread().interrupt();
+			} finally {
+				waiting.decrementAndGet();
+			}
+			if (!acquired) {
+				task.run();
+				return;
+			}
+			try {
+				task.run();
+			} finally {
+				permits.release();
+			}
+		});
+	}
+
+	/**
+	 * 指标快照，rejected 为等待许可时被中断的任务数
+	 *
+	 * @return the bulkhead metrics
+	 */
+	public ExecutorMetrics.BulkheadMetrics metrics() {
+		ExecutorMetrics.BulkheadMetrics metrics = new ExecutorMetrics.BulkheadMetrics();
+		metrics.setLimit(limit);
+		metrics.setActive(limit - permits.availablePermits());
+		metrics.setWaiting(waiting.get());
+		metrics.setRejected(interrupted.sum());
+		return metrics;
+	}
+
+	/**
+	 * Gets name
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+}
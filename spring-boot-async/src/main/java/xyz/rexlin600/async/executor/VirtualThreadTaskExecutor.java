@@ -0,0 +1,190 @@
+package xyz.rexlin600.async.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 每个任务一个虚拟线程，适合 sleep / IO 为主的阻塞任务
+ * <p>
+ * 项目按 Java 8 编译，虚拟线程通过反射获取：运行在 JDK 21+ 上时使用 {@code Thread.ofVirtual()}，
+ * 否则退化为按需创建、空闲回收的平台线程池（行为一致，只是每个线程更重）。
+ * 全局并发由 maxConcurrency 限制，已满时提交线程阻塞等待；任务组在各自的信号量上等待，
+ * 等待发生在虚拟线程内，不占用平台线程
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class VirtualThreadTaskExecutor extends AbstractTaskExecutor implements DisposableBean {
+
+	/**
+	 * 线程名前缀
+	 */
+	private static final String THREAD_NAME_PREFIX = "virtualExecutor-";
+
+	/**
+	 * 全局在途任务上限
+	 */
+	private final int maxConcurrency;
+
+	/**
+	 * 全局许可，已满时提交线程阻塞等待
+	 */
+	private final Semaphore permits;
+
+	/**
+	 * 虚拟线程工厂，运行时不支持时为 null
+	 */
+	private final ThreadFactory virtualThreadFactory;
+
+	/**
+	 * 不支持虚拟线程时使用的平台线程池，支持时为 null
+	 */
+	private final ExecutorService fallback;
+
+	/**
+	 * 任务组名称 -> 任务组
+	 */
+	private final Map<String, VirtualTaskGroup> groups = new ConcurrentHashMap<>();
+
+	/**
+	 * 提交的任务数
+	 */
+	private final LongAdder submitted = new LongAdder();
+
+	/**
+	 * 执行结束的任务数
+	 */
+	private final LongAdder completed = new LongAdder();
+
+	/**
+	 * 拒绝的任务数
+	 */
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * Virtual thread task executor
+	 *
+	 * @param maxConcurrency 全局在途任务上限
+	 */
+	public VirtualThreadTaskExecutor(int maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+		this.permits = new Semaphore(maxConcurrency);
+		this.virtualThreadFactory = virtualThreadFactory(THREAD_NAME_PREFIX);
+		if (virtualThreadFactory == null) {
+			log.warn("==>  virtual threads are not supported by this runtime [{}], fall back to platform threads",
+					System.getProperty("java.version"));
+			this.fallback = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+					new SynchronousQueue<>(), new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+		} else {
+			this.fallback = null;
+		}
+	}
+
+	/**
+	 * 当前运行时是否支持虚拟线程
+	 *
+	 * @return true if virtual threads are used
+	 */
+	public boolean isVirtual() {
+		return virtualThreadFactory != null;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			rejected.increment();
+			throw new TaskRejectedException("Interrupted while waiting for virtualExecutor permit");
+		}
+		submitted.increment();
+		Runnable wrapped = () -> {
+			try {
+				task.run();
+			} finally {
+				completed.increment();
+				permits.release();
+			}
+		};
+		try {
+			if (virtualThreadFactory != null) {
+				virtualThreadFactory.newThread(wrapped).start();
+			} else {
+				fallback.execute(wrapped);
+			}
+		} catch (RuntimeException e) {
+			permits.release();
+			rejected.increment();
+			throw new TaskRejectedException("virtualExecutor did not accept task", e);
+		}
+	}
+
+	/**
+	 * 创建（或获取）任务组
+	 *
+	 * @param name  name
+	 * @param limit 组内最大并发数
+	 * @return the virtual task group
+	 */
+	public VirtualTaskGroup group(String name, int limit) {
+		return groups.computeIfAbsent(name, key -> new VirtualTaskGroup(key, limit, this));
+	}
+
+	/**
+	 * 指标快照
+	 *
+	 * @return the executor metrics
+	 */
+	public ExecutorMetrics metrics() {
+		ExecutorMetrics metrics = new ExecutorMetrics();
+		metrics.setMode(isVirtual() ? "virtual" : "virtual(platform fallback)");
+		metrics.setMaxPoolSize(maxConcurrency);
+		metrics.setActiveCount(maxConcurrency - permits.availablePermits());
+		metrics.setSubmitted(submitted.sum());
+		metrics.setCompleted(completed.sum());
+		metrics.setRejected(rejected.sum());
+		groups.forEach((name, group) -> metrics.getBulkheads().put(name, group.metrics()));
+		return metrics;
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		// 拿到全部许可即所有任务都已结束
+		if (permits.tryAcquire(maxConcurrency, 60, TimeUnit.SECONDS)) {
+			permits.release(maxConcurrency);
+		} else {
+			log.warn("==>  virtualExecutor still has {} running tasks on shutdown",
+					maxConcurrency - permits.availablePermits());
+		}
+		if (fallback != null) {
+			fallback.shutdown();
+		}
+	}
+
+	/**
+	 * 通过反射构造虚拟线程工厂：Thread.ofVirtual().name(prefix, 0).factory()
+	 *
+	 * @param prefix thread name prefix
+	 * @return the thread factory, or null if not supported
+	 */
+	static ThreadFactory virtualThreadFactory(String prefix) {
+		try {
+			Method ofVirtual = Thread.class.getMethod("ofVirtual");
+			Object builder = ofVirtual.invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+			return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+}
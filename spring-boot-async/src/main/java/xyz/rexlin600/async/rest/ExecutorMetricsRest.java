@@ -0,0 +1,98 @@
+package xyz.rexlin600.async.rest;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import xyz.rexlin600.async.executor.AdaptiveTaskExecutor;
+import xyz.rexlin600.async.executor.Bulkhead;
+import xyz.rexlin600.async.executor.ExecutorMetrics;
+import xyz.rexlin600.async.executor.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 异步线程池指标
+ *
+ * @author hekunlin
+ */
+@RestController
+@RequestMapping("/async/executor")
+public class ExecutorMetricsRest {
+
+	/**
+	 * 默认异步线程池
+	 */
+	private final Executor taskExecutor;
+
+	/**
+	 * 所有舱壁
+	 */
+	private final ObjectProvider<Bulkhead> bulkheads;
+
+	/**
+	 * 虚拟线程执行器，未开启时不存在
+	 */
+	private final ObjectProvider<VirtualThreadTaskExecutor> virtualExecutor;
+
+	/**
+	 * Executor metrics rest
+	 *
+	 * @param taskExecutor    默认异步线程池
+	 * @param bulkheads       舱壁
+	 * @param virtualExecutor 虚拟线程执行器
+	 */
+	public ExecutorMetricsRest(@Qualifier("taskExecutor") Executor taskExecutor, ObjectProvider<Bulkhead> bulkheads,
+							   ObjectProvider<VirtualThreadTaskExecutor> virtualExecutor) {
+		this.taskExecutor = taskExecutor;
+		this.bulkheads = bulkheads;
+		this.virtualExecutor = virtualExecutor;
+	}
+
+	/**
+	 * 线程池指标：排队深度、排队耗时、执行耗时、拒绝数、舱壁
+	 *
+	 * @return the executor metrics
+	 */
+	@GetMapping("/metrics")
+	public ExecutorMetrics metrics() {
+		if (taskExecutor instanceof AdaptiveTaskExecutor) {
+			return ((AdaptiveTaskExecutor) taskExecutor).metrics();
+		}
+		// 固定线程池只有 ThreadPoolExecutor 自带的计数
+		ExecutorMetrics metrics = new ExecutorMetrics();
+		metrics.setMode("fixed");
+		if (taskExecutor instanceof ThreadPoolTaskExecutor) {
+			ThreadPoolExecutor executor = ((ThreadPoolTaskExecutor) taskExecutor).getThreadPoolExecutor();
+			metrics.setCorePoolSize(executor.getCorePoolSize());
+			metrics.setMaxPoolSize(executor.getMaximumPoolSize());
+			metrics.setPoolSize(executor.getPoolSize());
+			metrics.setActiveCount(executor.getActiveCount());
+			metrics.setQueueDepth(executor.getQueue().size());
+			metrics.setSubmitted(executor.getTaskCount());
+			metrics.setCompleted(executor.getCompletedTaskCount());
+		}
+		bulkheads.stream().forEach(bulkhead -> metrics.getBulkheads().put(bulkhead.getName(), bulkhead.metrics()));
+		return metrics;
+	}
+
+	/**
+	 * 虚拟线程执行器指标：在途任务数、提交/完成/拒绝数、各任务组的并发与等待数
+	 *
+	 * @return the executor metrics
+	 */
+	@GetMapping("/virtual/metrics")
+	public ExecutorMetrics virtualMetrics() {
+		VirtualThreadTaskExecutor executor = virtualExecutor.getIfAvailable();
+		if (executor == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "virtualExecutor is not enabled");
+		}
+		return executor.metrics();
+	}
+
+}
@@ -0,0 +1,67 @@
+package xyz.rexlin600.async.task;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 返回 {@link CompletableFuture} 的异步任务，调用方可以 thenCombine / allOf 组合结果，而不必阻塞在 get 上
+ *
+ * @author hekunlin
+ */
+@SuppressWarnings("Duplicates")
+@Slf4j
+@Component
+public class CompletableAsyncTask {
+
+	/**
+	 * random
+	 */
+	private static Random random = new Random();
+
+	/**
+	 * Task one completable future
+	 *
+	 * @return the completable future
+	 * @throws InterruptedException interrupted exception
+	 */
+	@Async(value = "taskExecutor")
+	public CompletableFuture<Long> taskOne() throws InterruptedException {
+		return CompletableFuture.completedFuture(sleep("taskOne"));
+	}
+
+	/**
+	 * Task two completable future
+	 *
+	 * @return the completable future
+	 * @throws InterruptedException interrupted exception
+	 */
+	@Async(value = "taskExecutor")
+	public CompletableFuture<Long> taskTwo() throws InterruptedException {
+		return CompletableFuture.completedFuture(sleep("taskTwo"));
+	}
+
+	/**
+	 * 休眠随机时长并返回耗时
+	 *
+	 * @param name task name
+	 * @return cost millis
+	 * @throws InterruptedException interrupted exception
+	 */
+	private long sleep(String name) throws InterruptedException {
+		long start = Instant.now(Clock.systemDefaultZone()).toEpochMilli();
+		log.info("==>  CompletableAsyncTask {} execute start [{}]", name, start);
+
+		Thread.sleep(random.nextInt(3000));
+
+		long end = Instant.now(Clock.systemDefaultZone()).toEpochMilli();
+		log.info("==>  CompletableAsyncTask {} execute end [{}]", name, end);
+		return end - start;
+	}
+
+}
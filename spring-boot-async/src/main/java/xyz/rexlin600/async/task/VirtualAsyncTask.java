@@ -0,0 +1,69 @@
+package xyz.rexlin600.async.task;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 运行在虚拟线程上的阻塞任务，与 virtualExecutor 及任务组一样，只在开启 rexlin600.async.executor.virtual.enabled 时注册
+ *
+ * @author hekunlin
+ */
+@SuppressWarnings("Duplicates")
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "rexlin600.async.executor.virtual", name = "enabled", havingValue = "true")
+public class VirtualAsyncTask {
+
+	/**
+	 * random
+	 */
+	private static Random random = new Random();
+
+	/**
+	 * 不限组的阻塞任务
+	 *
+	 * @return the completable future
+	 * @throws InterruptedException interrupted exception
+	 */
+	@Async(value = "virtualExecutor")
+	public CompletableFuture<Long> taskOne() throws InterruptedException {
+		return CompletableFuture.completedFuture(sleep("taskOne"));
+	}
+
+	/**
+	 * ioGroup 任务组内的阻塞任务，组内并发受限
+	 *
+	 * @return the completable future
+	 * @throws InterruptedException interrupted exception
+	 */
+	@Async(value = "ioGroup")
+	public CompletableFuture<Long> taskTwo() throws InterruptedException {
+		return CompletableFuture.completedFuture(sleep("taskTwo"));
+	}
+
+	/**
+	 * 休眠随机时长并返回耗时
+	 *
+	 * @param name task name
+	 * @return cost millis
+	 * @throws InterruptedException interrupted exception
+	 */
+	private long sleep(String name) throws InterruptedException {
+		long start = Instant.now(Clock.systemDefaultZone()).toEpochMilli();
+		log.info("==>  VirtualAsyncTask {} execute start [{}] on [{}]", name, start, Thread.currentThread());
+
+		Thread.sleep(random.nextInt(1000));
+
+		long end = Instant.now(Clock.systemDefaultZone()).toEpochMilli();
+		log.info("==>  VirtualAsyncTask {} execute end [{}]", name, end);
+		return end - start;
+	}
+
+}
@@ -0,0 +1,115 @@
+package xyz.rexlin600.async.executor;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AdaptiveTaskExecutorTest {
+
+	private AdaptiveTaskExecutor executor;
+
+	@Before
+	public void setUp() {
+		AdaptiveExecutorProperties properties = new AdaptiveExecutorProperties();
+		properties.setMinPoolSize(2);
+		properties.setMaxPoolSize(32);
+		properties.setQueueCapacity(10000);
+		properties.setTuneIntervalMillis(50);
+		properties.setTargetQueueWaitMillis(10);
+		executor = new AdaptiveTaskExecutor(properties);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		executor.destroy();
+	}
+
+	@Test
+	public void growUnderQueueWait() throws InterruptedException {
+		int tasks = 1000;
+		CountDownLatch latch = new CountDownLatch(tasks);
+		for (int i = 0; i < tasks; i++) {
+			executor.execute(() -> {
+				sleep(5);
+				latch.countDown();
+			});
+		}
+		Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+		ExecutorMetrics metrics = executor.metrics();
+		Assert.assertTrue(metrics.getCorePoolSize() > 2 || metrics.getPoolSize() > 2);
+		Assert.assertEquals(tasks, metrics.getSubmitted());
+		Assert.assertTrue(metrics.getAvgQueueWait() > 0);
+		Assert.assertTrue(metrics.getAvgRunTime() >= 5);
+	}
+
+	@Test
+	public void bulkheadRejectsOverLimit() throws InterruptedException {
+		Bulkhead bulkhead = executor.bulkhead("slow", 2);
+		CountDownLatch release = new CountDownLatch(1);
+		bulkhead.execute(() -> await(release));
+		bulkhead.execute(() -> await(release));
+		try {
+			bulkhead.execute(() -> await(release));
+			Assert.fail("bulkhead should reject the third task");
+		} catch (TaskRejectedException e) {
+			// expected
+		}
+		Assert.assertEquals(1, executor.metrics().getBulkheads().get("slow").getRejected());
+
+		release.countDown();
+		TimeUnit.MILLISECONDS.sleep(200);
+		Assert.assertEquals(0, bulkhead.metrics().getActive());
+	}
+
+	@Test
+	public void rejectAfterShutdown() throws InterruptedException {
+		Bulkhead bulkhead = executor.bulkhead("shutdown", 1);
+		executor.destroy();
+		try {
+			bulkhead.execute(() -> Assert.fail("task should not run after shutdown"));
+			Assert.fail("executor should reject tasks after shutdown");
+		} catch (TaskRejectedException e) {
+			// expected
+		}
+		Assert.assertEquals(0, bulkhead.metrics().getActive());
+		Assert.assertEquals(1, executor.metrics().getRejected());
+
+		try {
+			executor.submitCompletable(() -> 1);
+			Assert.fail("executor should reject tasks after shutdown");
+		} catch (TaskRejectedException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void submitCompletable() {
+		CompletableFuture<Integer> sum = executor.submitCompletable(() -> 1)
+				.thenCombine(executor.submitCompletable(() -> 2), Integer::sum);
+		Assert.assertEquals(Integer.valueOf(3), sum.join());
+	}
+
+	private static void sleep(long millis) {
+		try {
+			TimeUnit.MILLISECONDS.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+package xyz.rexlin600.async.executor;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.*;
+
+/**
+ * 10k 个并发阻塞任务（sleep 模拟 IO）在三种执行器上的耗时与内存：
+ * <ul>
+ *     <li>fixed：与 taskExecutor 一致的 10/20 线程、200 队列、CallerRunsPolicy</li>
+ *     <li>platform：每个任务一个平台线程（可复用的 cached pool）</li>
+ *     <li>virtual：{@link VirtualThreadTaskExecutor}，JDK 21+ 上为虚拟线程，否则退化为平台线程</li>
+ * </ul>
+ * 耗时看 JMH 结果；峰值线程数、堆使用、进程已提交虚拟内存（含线程栈）在每轮结束时打印
+ *
+ * @author hekunlin
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class VirtualExecutorBenchmark {
+
+	@Param({"fixed", "platform", "virtual"})
+	private String executor;
+
+	@Param({"10000"})
+	private int tasks;
+
+	/**
+	 * 每个任务的阻塞时长，单位毫秒
+	 */
+	@Param({"50"})
+	private int blockMillis;
+
+	private Executor target;
+
+	private ExecutorService shutdown;
+
+	private VirtualThreadTaskExecutor virtual;
+
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+	private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+	private long peakHeapUsed;
+
+	private long peakCommittedVirtual;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		switch (executor) {
+			case "fixed":
+				shutdown = new ThreadPoolExecutor(10, 20, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(200),
+						new ThreadPoolExecutor.CallerRunsPolicy());
+				target = shutdown;
+				break;
+			case "platform":
+				shutdown = Executors.newCachedThreadPool();
+				target = shutdown;
+				break;
+			default:
+				virtual = new VirtualThreadTaskExecutor(tasks);
+				if (!virtual.isVirtual()) {
+					System.out.println("virtual threads are not supported by " + System.getProperty("java.version")
+							+ ", virtual falls back to platform threads");
+				}
+				target = virtual;
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void resetPeak() {
+		threads.resetPeakThreadCount();
+		peakHeapUsed = 0;
+		peakCommittedVirtual = 0;
+	}
+
+	@Benchmark
+	public void run() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(tasks);
+		for (int i = 0; i < tasks; i++) {
+			target.execute(() -> {
+				try {
+					Thread.sleep(blockMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					latch.countDown();
+				}
+			});
+		}
+		// 全部提交后即并发最高的时刻
+		peakHeapUsed = Math.max(peakHeapUsed, memory.getHeapMemoryUsage().getUsed());
+		peakCommittedVirtual = Math.max(peakCommittedVirtual, committedVirtualMemory());
+		latch.await();
+	}
+
+	@TearDown(Level.Iteration)
+	public void report() {
+		System.out.printf("%n%s: peakThreads=%d, peakHeapUsed=%dMB, committedVirtualMemory=%dMB%n", executor,
+				threads.getPeakThreadCount(), peakHeapUsed >> 20, peakCommittedVirtual >> 20);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws InterruptedException {
+		if (shutdown != null) {
+			shutdown.shutdown();
+			shutdown.awaitTermination(10, TimeUnit.SECONDS);
+		}
+		if (virtual != null) {
+			virtual.destroy();
+		}
+	}
+
+	private static long committedVirtualMemory() {
+		java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+		if (os instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) os).getCommittedVirtualMemorySize();
+		}
+		return -1;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(VirtualExecutorBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,27 @@
+package xyz.rexlin600.async.task;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class CompletableAsyncTaskTest {
+
+	@Autowired
+	private CompletableAsyncTask completableAsyncTask;
+
+	@Test
+	public void combine() throws InterruptedException {
+		CompletableFuture<Long> total = completableAsyncTask.taskOne()
+				.thenCombine(completableAsyncTask.taskTwo(), Long::sum);
+		log.info("==>  taskOne + taskTwo execute success, value is [{}]", total.join());
+	}
+
+}
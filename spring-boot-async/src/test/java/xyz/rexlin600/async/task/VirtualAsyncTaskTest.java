@@ -0,0 +1,55 @@
+package xyz.rexlin600.async.task;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import xyz.rexlin600.async.executor.ExecutorMetrics;
+import xyz.rexlin600.async.executor.VirtualThreadTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "rexlin600.async.executor.virtual.enabled=true")
+public class VirtualAsyncTaskTest {
+
+	@Autowired
+	private VirtualAsyncTask virtualAsyncTask;
+
+	@Autowired
+	private VirtualThreadTaskExecutor virtualExecutor;
+
+	@Test
+	public void taskOne() throws Exception {
+		Long value = virtualAsyncTask.taskOne().get(10, TimeUnit.SECONDS);
+		log.info("==>  taskOne execute success, value is [{}]", value);
+		Assert.assertNotNull(value);
+		Assert.assertTrue(value >= 0);
+	}
+
+	@Test
+	public void taskTwo() throws Exception {
+		List<CompletableFuture<Long>> futures = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			futures.add(virtualAsyncTask.taskTwo());
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+		for (CompletableFuture<Long> future : futures) {
+			Assert.assertTrue(future.join() >= 0);
+		}
+		log.info("==>  100 taskTwo execute success");
+
+		ExecutorMetrics.BulkheadMetrics ioGroup = virtualExecutor.metrics().getBulkheads().get("ioGroup");
+		Assert.assertNotNull(ioGroup);
+		Assert.assertEquals(20, ioGroup.getLimit());
+		Assert.assertEquals(0, ioGroup.getWaiting());
+	}
+
+}
@@ -7,15 +7,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.zip.*;
@@ -40,7 +41,25 @@ public final class DiskUtils {
 
 	private static final Charset CHARSET = StandardCharsets.UTF_8;
 
-	private static final CharsetDecoder DECODER = CHARSET.newDecoder();
+	/**
+	 * 小于该大小的文件直接读入堆内存，映射的开销反而更大
+	 */
+	private static final int MAP_THRESHOLD = 64 * 1024;
+
+	/**
+	 * 单个 byte[] / MappedByteBuffer 能容纳的最大字节数
+	 */
+	private static final long MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+	/**
+	 * 逐行读取时默认的映射窗口大小
+	 */
+	private static final int DEFAULT_LINE_WINDOW = 64 * 1024 * 1024;
+
+	/**
+	 * transferTo 单次调用的最大字节数，部分平台一次最多只传输 2GB
+	 */
+	private static final long TRANSFER_CHUNK = 64L * 1024 * 1024;
 
 	public static void touch(String path, String fileName) throws IOException {
 		FileUtils.touch(Paths.get(path, fileName).toFile());
@@ -134,19 +153,14 @@ public final class DiskUtils {
 	}
 
 	/**
-	 * read file content by {@link InputStream}.
+	 * read file content by {@link InputStream}, line separators are kept as they are.
 	 *
 	 * @param is {@link InputStream}
 	 * @return content
 	 */
 	public static String readFile(InputStream is) {
-		try (BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
-			StringBuilder textBuilder = new StringBuilder();
-			String lineTxt = null;
-			while ((lineTxt = reader.readLine()) != null) {
-				textBuilder.append(lineTxt);
-			}
-			return textBuilder.toString();
+		try (InputStream in = is) {
+			return IOUtils.toString(in, CHARSET);
 		} catch (IOException e) {
 			return null;
 		}
@@ -157,40 +171,22 @@ public final class DiskUtils {
 	 *
 	 * @param file {@link File}
 	 * @return content
+	 * @see #readFileMapped(File, Charset)
 	 */
 	public static String readFile(File file) {
-		try (FileChannel fileChannel = new FileInputStream(file).getChannel()) {
-			StringBuilder text = new StringBuilder();
-			ByteBuffer buffer = ByteBuffer.allocate(4096);
-			CharBuffer charBuffer = CharBuffer.allocate(4096);
-			while (fileChannel.read(buffer) != -1) {
-				buffer.flip();
-				DECODER.decode(buffer, charBuffer, false);
-				charBuffer.flip();
-				while (charBuffer.hasRemaining()) {
-					text.append(charBuffer.get());
-				}
-				buffer.clear();
-				charBuffer.clear();
-			}
-			return text.toString();
-		} catch (IOException e) {
-			return null;
-		}
+		return readFileMapped(file, CHARSET);
 	}
 
 	/**
-	 * read this file content then return bytes.
+	 * read this file content then return bytes, the bytes are returned as they are on disk.
 	 *
 	 * @param file {@link File}
 	 * @return content bytes
+	 * @see #readFileBytesMapped(File)
 	 */
 	public static byte[] readFileBytes(File file) {
 		if (file.exists()) {
-			String result = readFile(file);
-			if (result != null) {
-				return ByteUtils.toBytes(result);
-			}
+			return readFileBytesMapped(file);
 		}
 		return null;
 	}
@@ -320,6 +316,185 @@ public final class DiskUtils {
 		return file;
 	}
 
+	// mapped / zero-copy
+
+	/**
+	 * read this file content through a {@link MappedByteBuffer}, the bytes are decoded once
+	 * without any intermediate char buffer.
+	 *
+	 * @param file    {@link File}
+	 * @param charset charset of the content
+	 * @return content, null if the file can't be read or is larger than 2GB
+	 */
+	public static String readFileMapped(File file, Charset charset) {
+		byte[] bytes = readFileBytesMapped(file);
+		return bytes == null ? null : new String(bytes, charset);
+	}
+
+	/**
+	 * read this file content then return bytes. Files smaller than 64KB are read into the heap
+	 * directly, larger ones are mapped read-only and copied out in one bulk get.
+	 *
+	 * @param file {@link File}
+	 * @return content bytes, null if the file can't be read or is larger than 2GB
+	 */
+	public static byte[] readFileBytesMapped(File file) {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > MAX_ARRAY_SIZE) {
+				LOGGER.warn("[DiskUtils] file {} is too large to read into memory, size={}", file, size);
+				return null;
+			}
+			byte[] bytes = new byte[(int) size];
+			if (size < MAP_THRESHOLD) {
+				ByteBuffer buffer = ByteBuffer.wrap(bytes);
+				while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+					// read until full
+				}
+			} else {
+				channel.map(FileChannel.MapMode.READ_ONLY, 0, size).get(bytes);
+			}
+			return bytes;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Copy the source file to the target file with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+	 * the target file is truncated if it already exists.
+	 *
+	 * @param src    source file
+	 * @param target target file
+	 * @return bytes transferred
+	 * @throws IOException If an I/O problem occurs
+	 */
+	public static long transferFile(File src, File target) throws IOException {
+		return transferFile(src, target, false);
+	}
+
+	/**
+	 * Append the source file to the end of the target file with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+	 *
+	 * @param src    source file
+	 * @param target target file, created if it does not exist
+	 * @return bytes transferred
+	 * @throws IOException If an I/O problem occurs
+	 */
+	public static long appendFile(File src, File target) throws IOException {
+		return transferFile(src, target, true);
+	}
+
+	private static long transferFile(File src, File target, boolean append) throws IOException {
+		try (FileChannel in = FileChannel.open(src.toPath(), StandardOpenOption.READ);
+			 FileChannel out = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					 append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+			long size = in.size();
+			long position = 0;
+			while (position < size) {
+				long count = in.transferTo(position, Math.min(TRANSFER_CHUNK, size - position), out);
+				if (count <= 0) {
+					// source shrank while copying
+					break;
+				}
+				position += count;
+			}
+			return position;
+		}
+	}
+
+	/**
+	 * Read the file line by line over mapped regions. The {@link ByteBuffer} passed to the handler is a reused
+	 * read-only view whose position/limit mark the line bytes without the line separator (both \n and \r\n
+	 * are recognized), so no object is allocated per line. The view is only valid inside the callback.
+	 *
+	 * @param file    the file to read
+	 * @param handler line handler
+	 * @return number of lines read
+	 * @throws IOException If an I/O problem occurs
+	 */
+	public static long forEachLine(File file, LineHandler handler) throws IOException {
+		return forEachLine(file, DEFAULT_LINE_WINDOW, handler);
+	}
+
+	/**
+	 * Read the file line by line over mapped regions of {@code windowSize} bytes, a window is grown when a single
+	 * line doesn't fit in it.
+	 *
+	 * @param file       the file to read
+	 * @param windowSize the size of each mapped region
+	 * @param handler    line handler
+	 * @return number of lines read
+	 * @throws IOException If an I/O problem occurs
+	 * @see #forEachLine(File, LineHandler)
+	 */
+	public static long forEachLine(File file, int windowSize, LineHandler handler) throws IOException {
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException("windowSize must be positive");
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			long windowStart = 0;
+			long window = windowSize;
+			long lines = 0;
+			while (windowStart < size) {
+				long length = Math.min(window, size - windowStart);
+				boolean last = windowStart + length == size;
+				ByteBuffer view = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length).asReadOnlyBuffer();
+				int limit = (int) length;
+				int lineStart = 0;
+				for (int i = 0; i < limit; i++) {
+					if (view.get(i) == '\n') {
+						handle(view, lineStart, i, handler);
+						lines++;
+						lineStart = i + 1;
+					}
+				}
+				if (last) {
+					if (lineStart < limit) {
+						handle(view, lineStart, limit, handler);
+						lines++;
+					}
+					break;
+				}
+				if (lineStart == 0) {
+					// a single line is larger than the window
+					if (window >= MAX_ARRAY_SIZE) {
+						throw new IOException("line exceeds " + MAX_ARRAY_SIZE + " bytes at position " + windowStart);
+					}
+					window = Math.min(window * 2, MAX_ARRAY_SIZE);
+					continue;
+				}
+				windowStart += lineStart;
+				window = windowSize;
+			}
+			return lines;
+		}
+	}
+
+	private static void handle(ByteBuffer view, int start, int end, LineHandler handler) {
+		if (end > start && view.get(end - 1) == '\r') {
+			end--;
+		}
+		((Buffer) view).limit(end).position(start);
+		handler.onLine(view);
+		((Buffer) view).limit(view.capacity());
+	}
+
+	/**
+	 * Callback of {@link #forEachLine(File, LineHandler)}.
+	 */
+	@FunctionalInterface
+	public interface LineHandler {
+
+		/**
+		 * handle one line.
+		 *
+		 * @param line the line bytes between position and limit, don't keep the reference
+		 */
+		void onLine(ByteBuffer line);
+	}
+
 	// copy from sofa-jraft
 
 	/**
@@ -0,0 +1,58 @@
+package xyz.rexlin600.common.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * 生成 benchmark 用的文本文件：约 100 字节一行，中英文混合，\n 与 \r\n 交替
+ *
+ * @author hekunlin
+ */
+final class DiskBenchmarkFiles {
+
+	private static final byte[][] WORDS = {
+			"spring".getBytes(StandardCharsets.UTF_8),
+			"boot".getBytes(StandardCharsets.UTF_8),
+			"磁盘".getBytes(StandardCharsets.UTF_8),
+			"mapped".getBytes(StandardCharsets.UTF_8),
+			"零拷贝".getBytes(StandardCharsets.UTF_8),
+			"channel".getBytes(StandardCharsets.UTF_8)
+	};
+
+	private DiskBenchmarkFiles() {
+	}
+
+	static File create(int sizeMb) throws IOException {
+		File file = File.createTempFile("disk-bench-" + sizeMb + "m-", ".txt");
+		file.deleteOnExit();
+		long size = sizeMb * 1024L * 1024L;
+		Random random = new Random(sizeMb);
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 20)) {
+			long written = 0;
+			int column = 0;
+			while (written < size) {
+				byte[] word = WORDS[random.nextInt(WORDS.length)];
+				out.write(word);
+				out.write(' ');
+				written += word.length + 1;
+				column += word.length + 1;
+				if (column >= 100) {
+					if (random.nextBoolean()) {
+						out.write('\r');
+						written++;
+					}
+					out.write('\n');
+					written++;
+					column = 0;
+				}
+			}
+		}
+		return file;
+	}
+
+}
@@ -0,0 +1,97 @@
+package xyz.rexlin600.common.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 整文件读取：原先 4KB 缓冲逐字符拼接的 readFile / bytes -> String -> bytes 的 readFileBytes 与 MappedByteBuffer 版本对比
+ * <p>
+ * 整文件读入内存受 byte[] / String 上限约束，最大只测到 1GB；2GB 级别的文件见 {@link DiskStreamBenchmark}
+ *
+ * @author hekunlin
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms6g", "-Xmx6g"})
+public class DiskReadBenchmark {
+
+	/**
+	 * 文件大小，单位 MB
+	 */
+	@Param({"1", "64", "256", "1024"})
+	private int sizeMb;
+
+	private File file;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		file = DiskBenchmarkFiles.create(sizeMb);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		DiskUtils.deleteQuietly(file);
+	}
+
+	@Benchmark
+	public String legacyReadFile() throws IOException {
+		try (FileChannel fileChannel = new FileInputStream(file).getChannel()) {
+			CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+			StringBuilder text = new StringBuilder();
+			ByteBuffer buffer = ByteBuffer.allocate(4096);
+			CharBuffer charBuffer = CharBuffer.allocate(4096);
+			while (fileChannel.read(buffer) != -1) {
+				buffer.flip();
+				decoder.decode(buffer, charBuffer, false);
+				charBuffer.flip();
+				while (charBuffer.hasRemaining()) {
+					text.append(charBuffer.get());
+				}
+				buffer.clear();
+				charBuffer.clear();
+			}
+			return text.toString();
+		}
+	}
+
+	@Benchmark
+	public byte[] legacyReadFileBytes() throws IOException {
+		return ByteUtils.toBytes(legacyReadFile());
+	}
+
+	@Benchmark
+	public String readFileMapped() {
+		return DiskUtils.readFileMapped(file, StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public byte[] readFileBytesMapped() {
+		return DiskUtils.readFileBytesMapped(file);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(DiskReadBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
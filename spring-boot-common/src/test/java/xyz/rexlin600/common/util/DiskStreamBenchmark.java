@@ -0,0 +1,96 @@
+package xyz.rexlin600.common.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 复制 / 追加 / 逐行读取：commons-io 的 copyFile、LineIterator 与 transferTo、映射逐行读取的对比
+ * <p>
+ * 2GB 的文件需要预留 6GB 左右的临时目录空间（源文件 + 复制 + 追加）
+ *
+ * @author hekunlin
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class DiskStreamBenchmark {
+
+	/**
+	 * 文件大小，单位 MB
+	 */
+	@Param({"1", "64", "512", "2048"})
+	private int sizeMb;
+
+	private File file;
+
+	private File target;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		file = DiskBenchmarkFiles.create(sizeMb);
+		target = DiskUtils.createTmpFile("disk-bench-target-", ".txt");
+	}
+
+	@Setup(Level.Invocation)
+	public void truncate() throws IOException {
+		DiskUtils.writeFile(target, ByteUtils.EMPTY, false);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		DiskUtils.deleteQuietly(file);
+		DiskUtils.deleteQuietly(target);
+	}
+
+	@Benchmark
+	public File copyFile() throws IOException {
+		DiskUtils.copyFile(file, target);
+		return target;
+	}
+
+	@Benchmark
+	public long transferFile() throws IOException {
+		return DiskUtils.transferFile(file, target);
+	}
+
+	@Benchmark
+	public long appendFile() throws IOException {
+		return DiskUtils.appendFile(file, target);
+	}
+
+	@Benchmark
+	public long lineIterator(Blackhole blackhole) throws IOException {
+		long lines = 0;
+		try (DiskUtils.LineIterator iterator = DiskUtils.lineIterator(file, "UTF-8")) {
+			while (iterator.hasNext()) {
+				blackhole.consume(iterator.nextLine());
+				lines++;
+			}
+		}
+		return lines;
+	}
+
+	@Benchmark
+	public long forEachLine(Blackhole blackhole) throws IOException {
+		return DiskUtils.forEachLine(file, line -> blackhole.consume(line.remaining()));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(DiskStreamBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
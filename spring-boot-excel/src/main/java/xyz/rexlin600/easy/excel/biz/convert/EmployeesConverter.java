@@ -0,0 +1,68 @@
+package xyz.rexlin600.easy.excel.biz.convert;
+
+import xyz.rexlin600.easy.excel.biz.data.EmployeesData;
+import xyz.rexlin600.easy.excel.restful.model.EmployeesDO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 雇员 DO 与 Excel 行数据的转换
+ * <p>
+ * 导入、导出时每行都要转换一次，字段直接赋值，避免 BeanUtils 的反射开销
+ *
+ * @author hekunlin
+ */
+public final class EmployeesConverter {
+
+	private EmployeesConverter() {
+	}
+
+	/**
+	 * DO 转 Excel 行
+	 *
+	 * @param employees employees
+	 * @return the employees data
+	 */
+	public static EmployeesData toData(EmployeesDO employees) {
+		EmployeesData data = new EmployeesData();
+		data.setEmpNo(employees.getEmpNo());
+		data.setBirthDate(employees.getBirthDate());
+		data.setFirstName(employees.getFirstName());
+		data.setLastName(employees.getLastName());
+		data.setGender(employees.getGender());
+		data.setHireDate(employees.getHireDate());
+		return data;
+	}
+
+	/**
+	 * Excel 行转 DO，emp_no 为自增主键，由数据库生成
+	 *
+	 * @param data data
+	 * @return the employees do
+	 */
+	public static EmployeesDO toDO(EmployeesData data) {
+		EmployeesDO employees = new EmployeesDO();
+		employees.setBirthDate(data.getBirthDate());
+		employees.setFirstName(data.getFirstName());
+		employees.setLastName(data.getLastName());
+		employees.setGender(data.getGender());
+		employees.setHireDate(data.getHireDate());
+		return employees;
+	}
+
+	/**
+	 * DO 列表转 Excel 行列表
+	 *
+	 * @param list list
+	 * @return the list
+	 */
+	public static List<EmployeesData> toData(List<EmployeesDO> list) {
+		List<EmployeesData> result = new ArrayList<>(list.size());
+		for (EmployeesDO employees : list) {
+			result.add(toData(employees));
+		}
+		return result;
+	}
+
+}
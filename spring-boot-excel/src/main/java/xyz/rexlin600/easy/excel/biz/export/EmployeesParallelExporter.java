@@ -0,0 +1,384 @@
+package xyz.rexlin600.easy.excel.biz.export;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.alibaba.excel.EasyExcelFactory;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import xyz.rexlin600.easy.excel.biz.convert.EmployeesConverter;
+import xyz.rexlin600.easy.excel.biz.data.EmployeesData;
+import xyz.rexlin600.easy.excel.restful.service.EmployeesService;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 雇员表并行导出
+ * <p>
+ * 把 emp_no 的取值区间切成固定跨度的分区，由线程池并行查询并转换为 {@link EmployeesData}，
+ * 调用线程作为唯一的写出线程按分区顺序写入同一个工作簿。同时在途的分区数受并行度与内存上限约束，
+ * 写出线程每消费一个分区才提交下一个，慢速客户端会自然地让查询停下来
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class EmployeesParallelExporter implements DisposableBean {
+
+	/**
+	 * 单行 EmployeesData（含 DO 转换过程中的临时对象）的估算内存，单位字节
+	 */
+	private static final int ROW_BYTES = 256;
+
+	/**
+	 * xlsx 单个 sheet 的数据行上限（去掉表头）
+	 */
+	private static final int MAX_SHEET_ROWS = 1_048_575;
+
+	/**
+	 * 按 emp_no 区间查询
+	 */
+	private final EmployeesService employeesService;
+
+	/**
+	 * 导出配置
+	 */
+	private final ExportProperties properties;
+
+	/**
+	 * 查询分区的线程池，大小为 maxParallelism，所有导出共享
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * 最近一次导出的统计
+	 */
+	private final AtomicReference<ExportMetrics> lastMetrics = new AtomicReference<>();
+
+	/**
+	 * Employees parallel exporter
+	 *
+	 * @param employeesService employees service
+	 * @param properties       导出配置
+	 */
+	public EmployeesParallelExporter(EmployeesService employeesService, ExportProperties properties) {
+		this.employeesService = employeesService;
+		this.properties = properties;
+		ThreadFactory threadFactory = new ThreadFactoryBuilder().setNamePrefix("excel-export-%d").build();
+		this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getMaxParallelism()), threadFactory);
+	}
+
+	/**
+	 * 按默认配置导出
+	 *
+	 * @param out  out
+	 * @param mode sheet mode
+	 * @return the export metrics
+	 * @throws IOException io exception
+	 */
+	public ExportMetrics export(OutputStream out, SheetMode mode) throws IOException {
+		return export(out, properties.getParallelism(), properties.getMemoryBudgetMb(), mode);
+	}
+
+	/**
+	 * 并行导出全表到 out，out 由调用方关闭
+	 *
+	 * @param out            out
+	 * @param parallelism    并行度，不超过线程池大小
+	 * @param memoryBudgetMb 在途分区的内存上限，单位 MB
+	 * @param mode           sheet mode
+	 * @return the export metrics
+	 * @throws IOException io exception
+	 */
+	public ExportMetrics export(OutputStream out, int parallelism, int memoryBudgetMb, SheetMode mode)
+			throws IOException {
+		long start = System.currentTimeMillis();
+		int partitionSize = Math.max(1, properties.getPartitionSize());
+		parallelism = Math.max(1, Math.min(parallelism, properties.getMaxParallelism()));
+		long budgetPartitions = Math.max(1L, memoryBudgetMb * 1024L * 1024L / ((long) partitionSize * ROW_BYTES));
+		int window = (int) Math.min(parallelism, budgetPartitions);
+
+		List<int[]> ranges = partition(employeesService.empNoRange(), partitionSize);
+		int sheetCount = mode == SheetMode.RANGE ? Math.max(1, Math.min(parallelism, ranges.size())) : 1;
+
+		ExportMetrics metrics = new ExportMetrics();
+		metrics.setParallelism(parallelism);
+		metrics.setWindow(window);
+		metrics.setPartitions(ranges.size());
+		AtomicLong fetchMillis = new AtomicLong();
+
+		CountingOutputStream counting = new CountingOutputStream(out);
+		SheetCursor cursor = new SheetCursor(mode, Math.max(1, Math.min(properties.getSheetRows(), MAX_SHEET_ROWS)));
+		ExcelWriter excelWriter = EasyExcelFactory.write(counting, EmployeesData.class).autoCloseStream(false).build();
+		Deque<Future<List<EmployeesData>>> inFlight = new ArrayDeque<>(window);
+		long waitMillis = 0;
+		try {
+			int next = 0;
+			while (next < ranges.size() && inFlight.size() < window) {
+				inFlight.add(submit(ranges.get(next++), fetchMillis));
+			}
+			int index = 0;
+			while (!inFlight.isEmpty()) {
+				long waitStart = System.currentTimeMillis();
+				List<EmployeesData> rows = await(inFlight.poll());
+				waitMillis += System.currentTimeMillis() - waitStart;
+				if (next < ranges.size()) {
+					inFlight.add(submit(ranges.get(next++), fetchMillis));
+				}
+				int[] range = ranges.get(index);
+				int group = (int) ((long) index * sheetCount / ranges.size());
+				cursor.write(excelWriter, rows, group, range[0]);
+				index++;
+			}
+			if (cursor.sheetNo < 0) {
+				// 空表也输出表头
+				cursor.write(excelWriter, Collections.<EmployeesData>emptyList(), 0, 0);
+			}
+		} finally {
+			for (Future<List<EmployeesData>> future : inFlight) {
+				future.cancel(true);
+			}
+			excelWriter.finish();
+		}
+
+		metrics.setSheets(cursor.sheetNo + 1);
+		metrics.setRows(cursor.rows);
+		metrics.setBytes(counting.count);
+		metrics.setFetchMillis(fetchMillis.get());
+		metrics.setWaitMillis(waitMillis);
+		metrics.setElapsedMillis(System.currentTimeMillis() - start);
+		metrics.setWriteMillis(metrics.getElapsedMillis() - waitMillis);
+		lastMetrics.set(metrics);
+		log.info("==>  并行导出完成 rows={} bytes={} partitions={} rows/s={} MB/s={}", metrics.getRows(),
+				metrics.getBytes(), metrics.getPartitions(), (long) metrics.getRowsPerSecond(),
+				String.format("%.2f", metrics.getMbPerSecond()));
+		return metrics;
+	}
+
+	/**
+	 * 最近一次导出的统计
+	 *
+	 * @return the export metrics, 尚未导出过时为 null
+	 */
+	public ExportMetrics lastMetrics() {
+		return lastMetrics.get();
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * 按 emp_no 跨度切分区间，每个区间为 [from, to)
+	 *
+	 * @param empNoRange    [最小 emp_no, 最大 emp_no]，空表时为 null
+	 * @param partitionSize 每个区间的 emp_no 跨度
+	 * @return the ranges
+	 */
+	private static List<int[]> partition(int[] empNoRange, int partitionSize) {
+		if (empNoRange == null) {
+			return Collections.emptyList();
+		}
+		List<int[]> ranges = new ArrayList<>();
+		long end = (long) empNoRange[1] + 1;
+		for (long from = empNoRange[0]; from < end; from += partitionSize) {
+			long to = Math.min(end, from + partitionSize);
+			ranges.add(new int[]{(int) from, (int) Math.min(to, Integer.MAX_VALUE)});
+		}
+		return ranges;
+	}
+
+	/**
+	 * 提交一个分区的查询与转换
+	 *
+	 * @param range       [from, to)
+	 * @param fetchMillis 累计查询耗时
+	 * @return the future
+	 */
+	private Future<List<EmployeesData>> submit(int[] range, AtomicLong fetchMillis) {
+		return executor.submit(() -> {
+			long begin = System.currentTimeMillis();
+			List<EmployeesData> rows = EmployeesConverter.toData(employeesService.listRange(range[0], range[1]));
+			fetchMillis.addAndGet(System.currentTimeMillis() - begin);
+			return rows;
+		});
+	}
+
+	/**
+	 * 等待分区结果，查询异常原样抛出
+	 *
+	 * @param future future
+	 * @return the rows
+	 */
+	private static List<EmployeesData> await(Future<List<EmployeesData>> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("export interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * 写出线程的 sheet 游标：分组变化或当前 sheet 写满时换 sheet
+	 */
+	private static class SheetCursor {
+
+		/**
+		 * Sheet mode
+		 */
+		private final SheetMode mode;
+
+		/**
+		 * 单个 sheet 的数据行上限
+		 */
+		private final int sheetRows;
+
+		/**
+		 * 当前 sheet
+		 */
+		private WriteSheet sheet;
+
+		/**
+		 * 当前 sheet 序号，尚未写入时为 -1
+		 */
+		private int sheetNo = -1;
+
+		/**
+		 * RANGE 模式下当前分组
+		 */
+		private int group = -1;
+
+		/**
+		 * 当前分组已使用的 sheet 数
+		 */
+		private int groupSheets;
+
+		/**
+		 * 当前分组的 sheet 名称，取分组第一个 emp_no
+		 */
+		private String groupName;
+
+		/**
+		 * 当前 sheet 已写入的行数
+		 */
+		private int sheetWritten;
+
+		/**
+		 * 已写入的总行数
+		 */
+		private long rows;
+
+		/**
+		 * Sheet cursor
+		 *
+		 * @param mode      sheet mode
+		 * @param sheetRows 单个 sheet 的数据行上限
+		 */
+		SheetCursor(SheetMode mode, int sheetRows) {
+			this.mode = mode;
+			this.sheetRows = sheetRows;
+		}
+
+		/**
+		 * 写入一个分区，必要时换 sheet
+		 *
+		 * @param excelWriter excel writer
+		 * @param data        分区数据
+		 * @param group       RANGE 模式下分区所属分组
+		 * @param fromEmpNo   分区第一个 emp_no
+		 */
+		void write(ExcelWriter excelWriter, List<EmployeesData> data, int group, int fromEmpNo) {
+			if (mode == SheetMode.RANGE && group != this.group) {
+				this.group = group;
+				this.groupName = "emp_no-" + fromEmpNo;
+				this.groupSheets = 0;
+				nextSheet();
+			} else if (sheet == null) {
+				nextSheet();
+			}
+			if (data.isEmpty()) {
+				excelWriter.write(data, sheet);
+				return;
+			}
+			int offset = 0;
+			while (offset < data.size()) {
+				if (sheetWritten == sheetRows) {
+					nextSheet();
+				}
+				int end = Math.min(data.size(), offset + sheetRows - sheetWritten);
+				excelWriter.write(data.subList(offset, end), sheet);
+				sheetWritten += end - offset;
+				offset = end;
+			}
+			rows += data.size();
+		}
+
+		/**
+		 * 换到下一个 sheet
+		 */
+		private void nextSheet() {
+			sheetNo++;
+			sheetWritten = 0;
+			String name;
+			if (mode == SheetMode.RANGE) {
+				groupSheets++;
+				name = groupSheets == 1 ? groupName : groupName + "-" + groupSheets;
+			} else {
+				name = "雇员列表-" + (sheetNo + 1);
+			}
+			sheet = EasyExcelFactory.writerSheet(sheetNo, name).build();
+		}
+	}
+
+	/**
+	 * 统计写出字节数
+	 */
+	private static class CountingOutputStream extends FilterOutputStream {
+
+		/**
+		 * 已写出字节数
+		 */
+		private long count;
+
+		/**
+		 * Counting output stream
+		 *
+		 * @param out out
+		 */
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+
+}
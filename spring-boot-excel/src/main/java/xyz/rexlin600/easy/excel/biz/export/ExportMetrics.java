@@ -0,0 +1,81 @@
+package xyz.rexlin600.easy.excel.biz.export;
+
+import lombok.Data;
+
+/**
+ * 一次导出的吞吐统计
+ *
+ * @author hekunlin
+ */
+@Data
+public class ExportMetrics {
+
+	/**
+	 * 并行度
+	 */
+	private int parallelism;
+
+	/**
+	 * 按内存上限算出的同时在途分区数
+	 */
+	private int window;
+
+	/**
+	 * 分区数
+	 */
+	private int partitions;
+
+	/**
+	 * sheet 数
+	 */
+	private int sheets;
+
+	/**
+	 * 导出行数
+	 */
+	private long rows;
+
+	/**
+	 * 写出字节数
+	 */
+	private long bytes;
+
+	/**
+	 * 各分区查询 + 转换耗时之和，单位毫秒
+	 */
+	private long fetchMillis;
+
+	/**
+	 * 写出线程耗时（不含等待分区就绪），单位毫秒
+	 */
+	private long writeMillis;
+
+	/**
+	 * 写出线程等待分区就绪的耗时，单位毫秒
+	 */
+	private long waitMillis;
+
+	/**
+	 * 总耗时，单位毫秒
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * 行 / 秒
+	 *
+	 * @return the double
+	 */
+	public double getRowsPerSecond() {
+		return elapsedMillis == 0 ? 0 : rows * 1000.0 / elapsedMillis;
+	}
+
+	/**
+	 * MB / 秒
+	 *
+	 * @return the double
+	 */
+	public double getMbPerSecond() {
+		return elapsedMillis == 0 ? 0 : bytes * 1000.0 / elapsedMillis / 1024 / 1024;
+	}
+
+}
@@ -0,0 +1,42 @@
+package xyz.rexlin600.easy.excel.biz.export;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 并行导出配置
+ *
+ * @author hekunlin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rexlin600.excel.export")
+public class ExportProperties {
+
+	/**
+	 * 导出线程池大小，即所有导出任务并行查询、转换的线程总数
+	 */
+	private int maxParallelism = 8;
+
+	/**
+	 * 单次导出默认的并行度
+	 */
+	private int parallelism = 4;
+
+	/**
+	 * 每个分区覆盖的 emp_no 跨度，分区内的行数不会超过该值
+	 */
+	private int partitionSize = 20000;
+
+	/**
+	 * 单次导出已查询、待写出的数据所能占用的内存上限，单位 MB
+	 */
+	private int memoryBudgetMb = 256;
+
+	/**
+	 * 单个 sheet 的最大数据行数
+	 */
+	private int sheetRows = 1_000_000;
+
+}
@@ -0,0 +1,20 @@
+package xyz.rexlin600.easy.excel.biz.export;
+
+/**
+ * 并行导出时分区数据在工作簿中的组织方式
+ *
+ * @author hekunlin
+ */
+public enum SheetMode {
+
+	/**
+	 * 所有分区按 emp_no 顺序首尾相接，写满 sheetRows 后换下一个 sheet
+	 */
+	CONCAT,
+
+	/**
+	 * 按 emp_no 区间把分区均分到 parallelism 个 sheet，sheet 名称为该 sheet 的 emp_no 起始值
+	 */
+	RANGE
+
+}
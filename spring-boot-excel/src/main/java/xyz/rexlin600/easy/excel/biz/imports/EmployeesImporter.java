@@ -0,0 +1,192 @@
+package xyz.rexlin600.easy.excel.biz.imports;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.IdUtil;
+import com.alibaba.excel.EasyExcel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+import xyz.rexlin600.easy.excel.biz.data.EmployeesData;
+import xyz.rexlin600.easy.excel.biz.listener.EmployeesImportListener;
+import xyz.rexlin600.easy.excel.restful.model.EmployeesDO;
+import xyz.rexlin600.easy.excel.restful.service.EmployeesService;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 雇员 Excel 批量导入
+ * <p>
+ * 上传文件先落盘，由解析线程以 SAX 方式逐行读取，攒批后提交到入库线程池 saveBatch；
+ * 每个任务在途的批次数受 maxPendingBatches 限制，入库跟不上时解析线程阻塞，
+ * 内存占用只与批大小有关，与文件行数无关。任务进度通过 {@link #get(String)} 轮询
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class EmployeesImporter implements DisposableBean {
+
+	/**
+	 * 批量入库
+	 */
+	private final EmployeesService employeesService;
+
+	/**
+	 * 导入配置
+	 */
+	private final ImportProperties properties;
+
+	/**
+	 * 解析线程池，每个任务占用一个线程
+	 */
+	private final ExecutorService readers;
+
+	/**
+	 * 入库线程池，所有任务共享
+	 */
+	private final ExecutorService workers;
+
+	/**
+	 * id -> 导入任务，已结束的任务保留 retainMinutes 后在下次提交时清理
+	 */
+	private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+	/**
+	 * Employees importer
+	 *
+	 * @param employeesService employees service
+	 * @param properties       导入配置
+	 */
+	public EmployeesImporter(EmployeesService employeesService, ImportProperties properties) {
+		this.employeesService = employeesService;
+		this.properties = properties;
+		this.readers = Executors.newFixedThreadPool(Math.max(1, properties.getReaders()),
+				new ThreadFactoryBuilder().setNamePrefix("excel-import-reader-%d").build());
+		this.workers = Executors.newFixedThreadPool(Math.max(1, properties.getWorkers()),
+				new ThreadFactoryBuilder().setNamePrefix("excel-import-worker-%d").build());
+	}
+
+	/**
+	 * 提交导入任务
+	 *
+	 * @param file file
+	 * @return the import job
+	 * @throws IOException io exception
+	 */
+	public ImportJob submit(MultipartFile file) throws IOException {
+		evict();
+		File tmp = File.createTempFile("excel-import-", ".xlsx");
+		file.transferTo(tmp);
+
+		ImportJob job = new ImportJob(IdUtil.fastSimpleUUID(), file.getOriginalFilename(), properties.getMaxErrors());
+		jobs.put(job.getId(), job);
+		try {
+			readers.execute(() -> run(job, tmp));
+		} catch (RejectedExecutionException e) {
+			jobs.remove(job.getId());
+			tmp.delete();
+			throw e;
+		}
+		return job;
+	}
+
+	/**
+	 * 查询导入任务
+	 *
+	 * @param id id
+	 * @return the import job，不存在或已过期时为 null
+	 */
+	public ImportJob get(String id) {
+		return jobs.get(id);
+	}
+
+	@Override
+	public void destroy() {
+		readers.shutdownNow();
+		workers.shutdownNow();
+	}
+
+	/**
+	 * 解析线程中执行导入：逐行读取、攒批提交入库，等待在途批次全部入库后结束任务，最后删除临时文件
+	 *
+	 * @param job  job
+	 * @param file 落盘的上传文件
+	 */
+	private void run(ImportJob job, File file) {
+		int batchSize = Math.max(1, properties.getBatchSize());
+		int maxPending = Math.max(1, properties.getMaxPendingBatches());
+		Semaphore pending = new Semaphore(maxPending);
+		AtomicInteger sequence = new AtomicInteger();
+		job.running();
+		try {
+			EmployeesImportListener listener = new EmployeesImportListener(job, batchSize,
+					batch -> save(job, sequence.incrementAndGet(), batch, batchSize, pending));
+			EasyExcel.read(file, EmployeesData.class, listener).sheet().doRead();
+			// 等待在途批次全部入库
+			pending.acquire(maxPending);
+			pending.release(maxPending);
+			job.finished();
+			log.info("==>  导入完成 id={} read={} saved={} error={} rows/s={}", job.getId(), job.getReadRows(),
+					job.getSavedRows(), job.getErrorRows(), (long) job.getRowsPerSecond());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			job.failed("导入中断");
+		} catch (Exception e) {
+			log.error("==>  导入失败 id={}", job.getId(), e);
+			job.failed(e.getMessage());
+		} finally {
+			if (!file.delete()) {
+				file.deleteOnExit();
+			}
+		}
+	}
+
+	/**
+	 * 提交一批入库；在途批次达到上限时阻塞解析线程，入库失败只记录到任务错误中
+	 *
+	 * @param job       job
+	 * @param sequence  批次序号，从 1 开始
+	 * @param batch     batch
+	 * @param batchSize saveBatch 每次提交的行数
+	 * @param pending   在途批次许可
+	 */
+	private void save(ImportJob job, int sequence, List<EmployeesDO> batch, int batchSize, Semaphore pending) {
+		try {
+			pending.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("导入中断", e);
+		}
+		try {
+			workers.execute(() -> {
+				try {
+					employeesService.saveBatch(batch, batchSize);
+					job.saved(batch.size());
+				} catch (Exception e) {
+					log.error("==>  批量入库失败 id={} size={}", job.getId(), batch.size(), e);
+					job.error(batch.size(), "第 " + sequence + " 批（" + batch.size() + " 行）入库失败：" + e.getMessage());
+				} finally {
+					pending.release();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			pending.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * 清理已结束且超过保留时长的任务
+	 */
+	private void evict() {
+		long deadline = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(properties.getRetainMinutes());
+		jobs.values().removeIf(job -> job.isDone() && job.getEndTime() < deadline);
+	}
+
+}
@@ -0,0 +1,166 @@
+package xyz.rexlin600.easy.excel.biz.imports;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 导入任务进度，解析线程与入库线程并发更新，接口轮询读取
+ *
+ * @author hekunlin
+ */
+public class ImportJob {
+
+	/**
+	 * 任务 ID
+	 */
+	@Getter
+	private final String id;
+
+	/**
+	 * 上传的文件名
+	 */
+	@Getter
+	private final String filename;
+
+	@Getter
+	private final long startTime = System.currentTimeMillis();
+
+	@Getter
+	private volatile long endTime;
+
+	@Getter
+	private volatile ImportStatus status = ImportStatus.PENDING;
+
+	/**
+	 * 任务失败原因
+	 */
+	@Getter
+	private volatile String message;
+
+	private final int maxErrors;
+
+	private final AtomicLong readRows = new AtomicLong();
+
+	private final AtomicLong savedRows = new AtomicLong();
+
+	private final AtomicLong errorRows = new AtomicLong();
+
+	private final AtomicLong batches = new AtomicLong();
+
+	private final List<String> errors = new ArrayList<>();
+
+	ImportJob(String id, String filename, int maxErrors) {
+		this.id = id;
+		this.filename = filename;
+		this.maxErrors = maxErrors;
+	}
+
+	/**
+	 * 已解析行数（含错误行）
+	 *
+	 * @return the long
+	 */
+	public long getReadRows() {
+		return readRows.get();
+	}
+
+	/**
+	 * 已入库行数
+	 *
+	 * @return the long
+	 */
+	public long getSavedRows() {
+		return savedRows.get();
+	}
+
+	/**
+	 * 错误行数（校验失败、转换失败、入库失败）
+	 *
+	 * @return the long
+	 */
+	public long getErrorRows() {
+		return errorRows.get();
+	}
+
+	/**
+	 * 已入库的批次数
+	 *
+	 * @return the long
+	 */
+	public long getBatches() {
+		return batches.get();
+	}
+
+	/**
+	 * 前 maxErrors 条错误明细
+	 *
+	 * @return the list
+	 */
+	public List<String> getErrors() {
+		synchronized (errors) {
+			return Collections.unmodifiableList(new ArrayList<>(errors));
+		}
+	}
+
+	/**
+	 * 入库吞吐，行 / 秒
+	 *
+	 * @return the double
+	 */
+	public double getRowsPerSecond() {
+		long end = endTime == 0 ? System.currentTimeMillis() : endTime;
+		long elapsed = Math.max(1, end - startTime);
+		return savedRows.get() * 1000.0 / elapsed;
+	}
+
+	void running() {
+		status = ImportStatus.RUNNING;
+	}
+
+	void finished() {
+		endTime = System.currentTimeMillis();
+		status = ImportStatus.FINISHED;
+	}
+
+	void failed(String message) {
+		this.message = message;
+		endTime = System.currentTimeMillis();
+		status = ImportStatus.FAILED;
+	}
+
+	boolean isDone() {
+		return status == ImportStatus.FINISHED || status == ImportStatus.FAILED;
+	}
+
+	/**
+	 * 解析一行
+	 */
+	public void read() {
+		readRows.incrementAndGet();
+	}
+
+	void saved(int rows) {
+		savedRows.addAndGet(rows);
+		batches.incrementAndGet();
+	}
+
+	/**
+	 * 记录错误行
+	 *
+	 * @param rows  行数
+	 * @param error 错误明细
+	 */
+	public void error(long rows, String error) {
+		errorRows.addAndGet(rows);
+		synchronized (errors) {
+			if (errors.size() < maxErrors) {
+				errors.add(error);
+			}
+		}
+	}
+
+}
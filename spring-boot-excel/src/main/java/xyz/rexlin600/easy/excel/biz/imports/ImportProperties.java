@@ -0,0 +1,47 @@
+package xyz.rexlin600.easy.excel.biz.imports;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 批量导入配置
+ *
+ * @author hekunlin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rexlin600.excel.import")
+public class ImportProperties {
+
+	/**
+	 * 每批入库的行数
+	 */
+	private int batchSize = 2000;
+
+	/**
+	 * 入库线程数
+	 */
+	private int workers = 4;
+
+	/**
+	 * 同时解析的文件数
+	 */
+	private int readers = 2;
+
+	/**
+	 * 单个导入任务已解析、未入库的最大批次数，超过后解析线程阻塞等待
+	 */
+	private int maxPendingBatches = 8;
+
+	/**
+	 * 单个导入任务记录的错误行数上限，超出部分只计数
+	 */
+	private int maxErrors = 100;
+
+	/**
+	 * 已结束的导入任务保留时长，单位分钟
+	 */
+	private int retainMinutes = 60;
+
+}
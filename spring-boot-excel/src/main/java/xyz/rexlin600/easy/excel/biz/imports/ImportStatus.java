@@ -0,0 +1,30 @@
+package xyz.rexlin600.easy.excel.biz.imports;
+
+/**
+ * 导入任务状态
+ *
+ * @author hekunlin
+ */
+public enum ImportStatus {
+
+	/**
+	 * 等待解析
+	 */
+	PENDING,
+
+	/**
+	 * 解析、入库中
+	 */
+	RUNNING,
+
+	/**
+	 * 已完成（可能含错误行）
+	 */
+	FINISHED,
+
+	/**
+	 * 文件无法解析或任务异常终止
+	 */
+	FAILED
+
+}
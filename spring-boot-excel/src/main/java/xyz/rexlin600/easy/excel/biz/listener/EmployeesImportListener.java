@@ -0,0 +1,103 @@
+package xyz.rexlin600.easy.excel.biz.listener;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.event.AnalysisEventListener;
+import com.alibaba.excel.exception.ExcelDataConvertException;
+import xyz.rexlin600.easy.excel.biz.convert.EmployeesConverter;
+import xyz.rexlin600.easy.excel.biz.data.EmployeesData;
+import xyz.rexlin600.easy.excel.biz.imports.ImportJob;
+import xyz.rexlin600.easy.excel.restful.model.EmployeesDO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 雇员批量导入监听器
+ * <p>
+ * 逐行校验后攒够 batchSize 行交给 flusher 入库，本身只持有当前这一批数据；
+ * 校验、转换失败的行记录到 {@link ImportJob} 后跳过，不中断解析
+ *
+ * @author hekunlin
+ */
+public class EmployeesImportListener extends AnalysisEventListener<EmployeesData> {
+
+	private static final int FIRST_NAME_LENGTH = 14;
+
+	private static final int LAST_NAME_LENGTH = 16;
+
+	private final int batchSize;
+
+	private final Consumer<List<EmployeesDO>> flusher;
+
+	private final ImportJob job;
+
+	private List<EmployeesDO> batch;
+
+	public EmployeesImportListener(ImportJob job, int batchSize, Consumer<List<EmployeesDO>> flusher) {
+		this.job = job;
+		this.batchSize = batchSize;
+		this.flusher = flusher;
+		this.batch = new ArrayList<>(batchSize);
+	}
+
+	@Override
+	public void invoke(EmployeesData data, AnalysisContext context) {
+		job.read();
+		String error = validate(data);
+		if (error != null) {
+			job.error(1, "第 " + rowNumber(context) + " 行：" + error);
+			return;
+		}
+		batch.add(EmployeesConverter.toDO(data));
+		if (batch.size() >= batchSize) {
+			flush();
+		}
+	}
+
+	@Override
+	public void onException(Exception exception, AnalysisContext context) throws Exception {
+		if (exception instanceof ExcelDataConvertException) {
+			ExcelDataConvertException convertException = (ExcelDataConvertException) exception;
+			job.read();
+			job.error(1, "第 " + (convertException.getRowIndex() + 1) + " 行：第 "
+					+ (convertException.getColumnIndex() + 1) + " 列格式错误");
+			return;
+		}
+		throw exception;
+	}
+
+	@Override
+	public void doAfterAllAnalysed(AnalysisContext context) {
+		if (!batch.isEmpty()) {
+			flush();
+		}
+	}
+
+	private void flush() {
+		flusher.accept(batch);
+		batch = new ArrayList<>(batchSize);
+	}
+
+	private static long rowNumber(AnalysisContext context) {
+		return context.readRowHolder().getRowIndex() + 1;
+	}
+
+	private static String validate(EmployeesData data) {
+		if (StrUtil.isBlank(data.getFirstName()) || data.getFirstName().length() > FIRST_NAME_LENGTH) {
+			return "雇员姓氏为空或超过 " + FIRST_NAME_LENGTH + " 个字符";
+		}
+		if (StrUtil.isBlank(data.getLastName()) || data.getLastName().length() > LAST_NAME_LENGTH) {
+			return "雇员名称为空或超过 " + LAST_NAME_LENGTH + " 个字符";
+		}
+		if (!"M".equals(data.getGender()) && !"F".equals(data.getGender())) {
+			return "雇员性别只能是 M 或 F";
+		}
+		if (data.getBirthDate() == null || data.getHireDate() == null) {
+			return "雇员生日、雇用日期不能为空";
+		}
+		return null;
+	}
+
+}
@@ -9,9 +9,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import xyz.rexlin600.easy.excel.biz.data.SimpleData;
+import xyz.rexlin600.easy.excel.biz.imports.EmployeesImporter;
+import xyz.rexlin600.easy.excel.biz.imports.ImportJob;
 import xyz.rexlin600.easy.excel.biz.listener.SimpleDataListener;
 import xyz.rexlin600.easy.excel.util.ExcelFilePathUtil;
 
+import javax.annotation.Resource;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
@@ -30,6 +33,12 @@ import java.util.List;
 @RequestMapping(value = "/excel/read")
 public class ExcelReadRest {
 
+	/**
+	 * Employees importer
+	 */
+	@Resource
+	private EmployeesImporter employeesImporter;
+
 	/**
 	 * 简单读
 	 *
@@ -100,6 +109,35 @@ public class ExcelReadRest {
 	}
 
 
+	/**
+	 * 雇员 Excel 批量导入，立即返回任务 ID，解析与入库在后台进行
+	 *
+	 * @param file file
+	 * @return the r
+	 */
+	@SneakyThrows
+	@PostMapping("/import")
+	public R importEmployees(@RequestPart(value = "file") MultipartFile file) {
+		ImportJob job = employeesImporter.submit(file);
+		return R.ok(job.getId());
+	}
+
+	/**
+	 * 查询导入进度：已解析、已入库、错误行数及明细、吞吐
+	 *
+	 * @param jobId job id
+	 * @return the r
+	 */
+	@GetMapping("/import/{jobId}")
+	public R importStatus(@PathVariable(value = "jobId") String jobId) {
+		ImportJob job = employeesImporter.get(jobId);
+		if (job == null) {
+			return R.failed("导入任务不存在或已过期");
+		}
+		return R.ok(job);
+	}
+
+
 	// -----------------------------------------------------------------------------------------------
 	// OTHER READ METHOD
 	//
@@ -9,10 +9,17 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import xyz.rexlin600.easy.excel.biz.convert.EmployeesConverter;
 import xyz.rexlin600.easy.excel.biz.data.EmployeesData;
+import xyz.rexlin600.easy.excel.biz.export.EmployeesParallelExporter;
+import xyz.rexlin600.easy.excel.biz.export.ExportMetrics;
+import xyz.rexlin600.easy.excel.biz.export.ExportProperties;
+import xyz.rexlin600.easy.excel.biz.export.SheetMode;
 import xyz.rexlin600.easy.excel.restful.mapper.EmployeesMapper;
 import xyz.rexlin600.easy.excel.restful.model.EmployeesDO;
+import xyz.rexlin600.easy.excel.restful.service.EmployeesService;
 import xyz.rexlin600.easy.excel.util.TimerContext;
 
 import javax.annotation.Resource;
@@ -20,6 +27,7 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URLEncoder;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -39,6 +47,29 @@ public class ExportExcelRest {
 	@Resource
 	private EmployeesMapper employeesMapper;
 
+	/**
+	 * Employees service
+	 */
+	@Resource
+	private EmployeesService employeesService;
+
+	/**
+	 * Employees parallel exporter
+	 */
+	@Resource
+	private EmployeesParallelExporter employeesParallelExporter;
+
+	/**
+	 * Export properties
+	 */
+	@Resource
+	private ExportProperties exportProperties;
+
+	/**
+	 * 单个 sheet 的最大数据行数，xlsx 上限为 1048576 行（含表头）
+	 */
+	private static final int MAX_SHEET_ROWS = 1_000_000;
+
 	/**
 	 * 浏览器导出
 	 *
@@ -88,6 +119,135 @@ public class ExportExcelRest {
 	}
 
 
+	/**
+	 * 浏览器流式导出
+	 * <p>
+	 * 按 emp_no 游标分页，每次只查询、转换、写出一批数据，内存占用与表大小无关；
+	 * 超过 sheetRows 行自动切换到下一个 sheet
+	 *
+	 * @param batchSize 每批查询条数
+	 * @param sheetRows 单个 sheet 的最大行数
+	 * @param response  response
+	 */
+	@SneakyThrows
+	@GetMapping("/streamExport")
+	public void streamExport(@RequestParam(value = "batchSize", defaultValue = "5000") int batchSize,
+							 @RequestParam(value = "sheetRows", defaultValue = "1000000") int sheetRows,
+							 HttpServletResponse response) {
+		TimerContext.start("EXCEL_流式导出");
+		batchSize = Math.max(1, batchSize);
+		sheetRows = Math.max(1, Math.min(sheetRows, MAX_SHEET_ROWS));
+
+		String filename = "雇员列表-" + System.currentTimeMillis() + ".xlsx";
+		OutputStream out = null;
+		try {
+			out = getOutputStream(filename, response);
+			// 先把响应头刷给浏览器，下载立即开始，不必等到数据全部写完
+			response.flushBuffer();
+		} catch (Exception ex) {
+			log.error("==>  导出失败：{}", ex.getMessage());
+			return;
+		}
+
+		ExcelWriter excelWriter = null;
+		long total = 0;
+		try {
+			excelWriter = EasyExcelFactory.write(out, EmployeesData.class).build();
+			int sheetNo = 0;
+			int sheetWritten = 0;
+			WriteSheet sheet = EasyExcelFactory.writerSheet(sheetNo, "雇员列表-" + (sheetNo + 1)).build();
+
+			Integer lastEmpNo = null;
+			List<EmployeesDO> batch;
+			do {
+				batch = employeesService.listAfter(lastEmpNo, batchSize);
+				int offset = 0;
+				while (offset < batch.size()) {
+					if (sheetWritten == sheetRows) {
+						sheetNo++;
+						sheetWritten = 0;
+						sheet = EasyExcelFactory.writerSheet(sheetNo, "雇员列表-" + (sheetNo + 1)).build();
+					}
+					int end = Math.min(batch.size(), offset + sheetRows - sheetWritten);
+					excelWriter.write(EmployeesConverter.toData(batch.subList(offset, end)), sheet);
+					sheetWritten += end - offset;
+					offset = end;
+				}
+				if (!batch.isEmpty()) {
+					lastEmpNo = batch.get(batch.size() - 1).getEmpNo();
+					total += batch.size();
+				}
+			} while (batch.size() == batchSize);
+			if (total == 0) {
+				// 空表也输出表头
+				excelWriter.write(Collections.<EmployeesData>emptyList(), sheet);
+			}
+		} finally {
+			// 千万别忘记finish 会帮忙关闭流
+			if (excelWriter != null) {
+				excelWriter.finish();
+			}
+			try {
+				out.close();
+			} catch (IOException e) {
+				log.error("==>  导出异常 {}", e.getMessage());
+			}
+			log.info("==>  流式导出 {} 条", total);
+			TimerContext.end(log, "INFO");
+		}
+	}
+
+
+	/**
+	 * 浏览器并行导出
+	 * <p>
+	 * 按 emp_no 区间分区并行查询、转换，单线程按顺序写入同一个工作簿，适合百万级以上的数据量
+	 *
+	 * @param parallelism    并行度，不传使用默认配置
+	 * @param memoryBudgetMb 在途数据的内存上限（MB），不传使用默认配置
+	 * @param mode           CONCAT：顺序拼接，写满换 sheet；RANGE：按 emp_no 区间分 sheet
+	 * @param response       response
+	 */
+	@SneakyThrows
+	@GetMapping("/parallelExport")
+	public void parallelExport(@RequestParam(value = "parallelism", required = false) Integer parallelism,
+							   @RequestParam(value = "memoryBudgetMb", required = false) Integer memoryBudgetMb,
+							   @RequestParam(value = "mode", defaultValue = "CONCAT") SheetMode mode,
+							   HttpServletResponse response) {
+		String filename = "雇员列表-" + System.currentTimeMillis() + ".xlsx";
+		OutputStream out = null;
+		try {
+			out = getOutputStream(filename, response);
+		} catch (Exception ex) {
+			log.error("==>  导出失败：{}", ex.getMessage());
+			return;
+		}
+
+		try {
+			employeesParallelExporter.export(out,
+					parallelism == null ? exportProperties.getParallelism() : parallelism,
+					memoryBudgetMb == null ? exportProperties.getMemoryBudgetMb() : memoryBudgetMb,
+					mode);
+		} finally {
+			try {
+				out.close();
+			} catch (IOException e) {
+				log.error("==>  导出异常 {}", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * 最近一次并行导出的吞吐统计
+	 *
+	 * @return the export metrics
+	 */
+	@GetMapping("/parallelExport/metrics")
+	public ExportMetrics parallelExportMetrics() {
+		return employeesParallelExporter.lastMetrics();
+	}
+
+
 	/**
 	 * Gets output stream
 	 *
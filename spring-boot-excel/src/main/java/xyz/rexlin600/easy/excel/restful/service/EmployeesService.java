@@ -4,6 +4,8 @@ package xyz.rexlin600.easy.excel.restful.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import xyz.rexlin600.easy.excel.restful.model.EmployeesDO;
 
+import java.util.List;
+
 /**
  * <p>
  * 服务类
@@ -14,4 +16,31 @@ import xyz.rexlin600.easy.excel.restful.model.EmployeesDO;
  */
 public interface EmployeesService extends IService<EmployeesDO> {
 
+	/**
+	 * 基于 emp_no 的游标分页：查询 emp_no 大于 lastEmpNo 的前 limit 条，按 emp_no 升序
+	 * <p>
+	 * 走主键索引范围扫描，翻到多深都不会像 offset 分页那样变慢
+	 *
+	 * @param lastEmpNo 上一页最后一条的 emp_no，为 null 时从头开始
+	 * @param limit     每页条数
+	 * @return the list
+	 */
+	List<EmployeesDO> listAfter(Integer lastEmpNo, int limit);
+
+	/**
+	 * 查询 emp_no 在 [fromEmpNo, toEmpNo) 区间内的数据，按 emp_no 升序
+	 *
+	 * @param fromEmpNo 起始 emp_no（含）
+	 * @param toEmpNo   结束 emp_no（不含）
+	 * @return the list
+	 */
+	List<EmployeesDO> listRange(int fromEmpNo, int toEmpNo);
+
+	/**
+	 * 查询 emp_no 的最小值、最大值
+	 *
+	 * @return [min, max]，表为空时返回 null
+	 */
+	int[] empNoRange();
+
 }
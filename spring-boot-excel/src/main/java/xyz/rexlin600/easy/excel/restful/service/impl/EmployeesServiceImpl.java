@@ -1,11 +1,16 @@
 package xyz.rexlin600.easy.excel.restful.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import org.springframework.stereotype.Service;
 import xyz.rexlin600.easy.excel.restful.mapper.EmployeesMapper;
 import xyz.rexlin600.easy.excel.restful.model.EmployeesDO;
 import xyz.rexlin600.easy.excel.restful.service.EmployeesService;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * <p>
  * 服务实现类
@@ -17,4 +22,34 @@ import xyz.rexlin600.easy.excel.restful.service.EmployeesService;
 @Service
 public class EmployeesServiceImpl extends ServiceImpl<EmployeesMapper, EmployeesDO> implements EmployeesService {
 
+	@Override
+	public List<EmployeesDO> listAfter(Integer lastEmpNo, int limit) {
+		LambdaQueryWrapper<EmployeesDO> queryWrapper = new LambdaQueryWrapper<EmployeesDO>()
+				.gt(lastEmpNo != null, EmployeesDO::getEmpNo, lastEmpNo)
+				.orderByAsc(EmployeesDO::getEmpNo)
+				.last("limit " + limit);
+		return baseMapper.selectList(queryWrapper);
+	}
+
+	@Override
+	public List<EmployeesDO> listRange(int fromEmpNo, int toEmpNo) {
+		LambdaQueryWrapper<EmployeesDO> queryWrapper = new LambdaQueryWrapper<EmployeesDO>()
+				.ge(EmployeesDO::getEmpNo, fromEmpNo)
+				.lt(EmployeesDO::getEmpNo, toEmpNo)
+				.orderByAsc(EmployeesDO::getEmpNo);
+		return baseMapper.selectList(queryWrapper);
+	}
+
+	@Override
+	public int[] empNoRange() {
+		QueryWrapper<EmployeesDO> queryWrapper = new QueryWrapper<EmployeesDO>()
+				.select("min(emp_no) as min_no", "max(emp_no) as max_no");
+		List<Map<String, Object>> maps = baseMapper.selectMaps(queryWrapper);
+		if (maps.isEmpty() || maps.get(0) == null || maps.get(0).get("min_no") == null) {
+			return null;
+		}
+		Map<String, Object> map = maps.get(0);
+		return new int[]{((Number) map.get("min_no")).intValue(), ((Number) map.get("max_no")).intValue()};
+	}
+
 }
@@ -0,0 +1,59 @@
+package xyz.rexlin600.idempotent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁布隆过滤器，直接以 64 位指纹做双重哈希（h1 + i * h2）
+ *
+ * @author hekunlin
+ */
+class BloomFilter {
+
+	private final AtomicLongArray bits;
+
+	private final long bitSize;
+
+	private final int hashFunctions;
+
+	BloomFilter(long expectedInsertions, double fpp) {
+		long n = Math.max(1, expectedInsertions);
+		long m = (long) (-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+		int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+		this.bits = new AtomicLongArray(words);
+		this.bitSize = words * 64L;
+		this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+	}
+
+	boolean mightContain(long fingerprint) {
+		int h1 = (int) fingerprint;
+		int h2 = (int) (fingerprint >>> 32);
+		for (int i = 1; i <= hashFunctions; i++) {
+			long index = index(h1 + i * h2);
+			if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	void put(long fingerprint) {
+		int h1 = (int) fingerprint;
+		int h2 = (int) (fingerprint >>> 32);
+		for (int i = 1; i <= hashFunctions; i++) {
+			long index = index(h1 + i * h2);
+			int word = (int) (index >>> 6);
+			long mask = 1L << index;
+			long current;
+			while (((current = bits.get(word)) & mask) == 0) {
+				if (bits.compareAndSet(word, current, current | mask)) {
+					break;
+				}
+			}
+		}
+	}
+
+	private long index(int combined) {
+		return (combined & Integer.MAX_VALUE) % bitSize;
+	}
+
+}
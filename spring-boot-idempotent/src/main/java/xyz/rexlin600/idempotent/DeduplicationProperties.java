@@ -0,0 +1,48 @@
+package xyz.rexlin600.idempotent;
+
+import lombok.Data;
+
+/**
+ * 消费去重配置，各模块继承后指定配置前缀和持久化目录
+ *
+ * @author hekunlin
+ */
+@Data
+public class DeduplicationProperties {
+
+	/**
+	 * 是否开启消费去重，默认关闭
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * 去重窗口，单位分钟；窗口外的重复消息不再识别
+	 */
+	private int windowMinutes = 10;
+
+	/**
+	 * 持久化分段时长，单位秒，过期按段整体删除
+	 */
+	private int bucketSeconds = 60;
+
+	/**
+	 * 一个窗口内预计的消息数，决定布隆过滤器大小
+	 */
+	private int expectedInsertions = 1000000;
+
+	/**
+	 * 布隆过滤器误判率，误判的消息会再查一次持久化窗口
+	 */
+	private double fpp = 0.01;
+
+	/**
+	 * 持久化目录
+	 */
+	private String dir = "./data/idempotent";
+
+	/**
+	 * 刷盘间隔，单位毫秒；进程崩溃最多丢失这段时间内的去重记录
+	 */
+	private long flushIntervalMillis = 1000;
+
+}
@@ -0,0 +1,278 @@
+package xyz.rexlin600.idempotent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongConsumer;
+
+/**
+ * 本地文件持久化窗口
+ * <p>
+ * 按时间分段，每段一个文件，顺序追加 8 字节指纹；内存中每段保存一份开放寻址的 long 集合（每条 11 ~ 22 字节），
+ * 启动时加载窗口内的分段，崩溃时写了一半的尾部截掉后再追加；过期分段整段删除
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class FileIdempotentStore implements IdempotentStore {
+
+	/**
+	 * 分段文件名前缀，后接分段开始时间
+	 */
+	private static final String PREFIX = "dedup-";
+
+	/**
+	 * 分段文件名后缀
+	 */
+	private static final String SUFFIX = ".bin";
+
+	/**
+	 * 持久化目录
+	 */
+	private final Path dir;
+
+	/**
+	 * 分段时长，单位毫秒
+	 */
+	private final long bucketMillis;
+
+	/**
+	 * 去重窗口，单位毫秒；开始时间早于 now - windowMillis - bucketMillis 的分段过期
+	 */
+	private final long windowMillis;
+
+	/**
+	 * 分段开始时间 -> 分段
+	 */
+	private final ConcurrentNavigableMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+
+	/**
+	 * 创建目录并加载窗口内的分段，过期的分段文件直接删除
+	 *
+	 * @param dir          持久化目录
+	 * @param windowMillis 去重窗口，单位毫秒
+	 * @param bucketMillis 分段时长，单位毫秒
+	 * @throws IOException 目录或分段文件无法读取
+	 */
+	public FileIdempotentStore(String dir, long windowMillis, long bucketMillis) throws IOException {
+		this.dir = Paths.get(dir);
+		this.windowMillis = windowMillis;
+		this.bucketMillis = bucketMillis;
+		Files.createDirectories(this.dir);
+		load();
+	}
+
+	@Override
+	public boolean contains(long fingerprint) {
+		// 新的分段命中概率更高
+		for (Bucket bucket : buckets.descendingMap().values()) {
+			if (bucket.contains(fingerprint)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void add(long fingerprint) {
+		long start = System.currentTimeMillis() / bucketMillis * bucketMillis;
+		Bucket bucket = buckets.get(start);
+		if (bucket == null) {
+			// ConcurrentSkipListMap.computeIfAbsent 不是原子的，避免同一分段打开两次文件
+			synchronized (buckets) {
+				bucket = buckets.get(start);
+				if (bucket == null) {
+					bucket = openBucket(start, new LongHashSet());
+					buckets.put(start, bucket);
+				}
+			}
+		}
+		bucket.add(fingerprint);
+	}
+
+	@Override
+	public void forEach(LongConsumer consumer) {
+		buckets.values().forEach(bucket -> bucket.forEach(consumer));
+	}
+
+	@Override
+	public void maintain() {
+		long expireBefore = System.currentTimeMillis() - windowMillis - bucketMillis;
+		for (Map.Entry<Long, Bucket> entry : buckets.entrySet()) {
+			Bucket bucket = entry.getValue();
+			if (entry.getKey() < expireBefore) {
+				buckets.remove(entry.getKey());
+				bucket.delete();
+			} else {
+				bucket.flush();
+			}
+		}
+	}
+
+	@Override
+	public long size() {
+		return buckets.values().stream().mapToLong(Bucket::size).sum();
+	}
+
+	@Override
+	public void close() {
+		buckets.values().forEach(Bucket::close);
+	}
+
+	/**
+	 * 加载窗口内的分段
+	 *
+	 * @throws IOException io exception
+	 */
+	private void load() throws IOException {
+		long expireBefore = System.currentTimeMillis() - windowMillis - bucketMillis;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				long start = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+				if (start < expireBefore) {
+					Files.deleteIfExists(file);
+					continue;
+				}
+				// 只读取完整的 8 字节，崩溃时写了一半的尾部截掉，否则之后追加的记录会整体错位
+				long count = Files.size(file) / Long.BYTES;
+				if (Files.size(file) != count * Long.BYTES) {
+					log.warn("==>  去重记录 [{}] 尾部不完整，截断到 [{}] 条", file.getFileName(), count);
+					try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+						channel.truncate(count * Long.BYTES);
+					}
+				}
+				LongHashSet set = new LongHashSet();
+				try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+					for (long i = 0; i < count; i++) {
+						set.add(in.readLong());
+					}
+				}
+				buckets.put(start, openBucket(start, set));
+			}
+		}
+		log.info("==>  加载去重窗口 [{}] 段、[{}] 条记录", buckets.size(), size());
+	}
+
+	/**
+	 * 以追加方式打开分段文件
+	 *
+	 * @param start 分段开始时间
+	 * @param set   已加载的指纹
+	 * @return the bucket
+	 */
+	private Bucket openBucket(long start, LongHashSet set) {
+		Path file = dir.resolve(PREFIX + start + SUFFIX);
+		try {
+			return new Bucket(file, set, new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile(), true), 64 * 1024)));
+		} catch (FileNotFoundException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * 时间分段
+	 */
+	private static class Bucket {
+
+		/**
+		 * 分段文件
+		 */
+		private final Path file;
+
+		/**
+		 * 分段内的指纹，同时作为 file、out 的锁
+		 */
+		private final LongHashSet set;
+
+		/**
+		 * 追加写入，定时 flush
+		 */
+		private final DataOutputStream out;
+
+		/**
+		 * Bucket
+		 *
+		 * @param file file
+		 * @param set  已加载的指纹
+		 * @param out  out
+		 */
+		private Bucket(Path file, LongHashSet set, DataOutputStream out) {
+			this.file = file;
+			this.set = set;
+			this.out = out;
+		}
+
+		private boolean contains(long fingerprint) {
+			synchronized (set) {
+				return set.contains(fingerprint);
+			}
+		}
+
+		private void add(long fingerprint) {
+			synchronized (set) {
+				if (!set.add(fingerprint)) {
+					return;
+				}
+				try {
+					out.writeLong(fingerprint);
+				} catch (IOException e) {
+					// 只影响重启后的去重
+					log.warn("==>  写入去重记录失败：[{}]", e.getMessage());
+				}
+			}
+		}
+
+		private void forEach(LongConsumer consumer) {
+			synchronized (set) {
+				set.forEach(consumer);
+			}
+		}
+
+		private long size() {
+			synchronized (set) {
+				return set.size();
+			}
+		}
+
+		private void flush() {
+			synchronized (set) {
+				try {
+					out.flush();
+				} catch (IOException e) {
+					log.warn("==>  去重记录刷盘失败：[{}]", e.getMessage());
+				}
+			}
+		}
+
+		private void close() {
+			synchronized (set) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					log.warn("==>  关闭去重记录文件失败：[{}]", e.getMessage());
+				}
+			}
+		}
+
+		private void delete() {
+			close();
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				log.warn("==>  删除过期去重记录失败：[{}]", e.getMessage());
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,47 @@
+package xyz.rexlin600.idempotent;
+
+import java.io.Closeable;
+import java.util.function.LongConsumer;
+
+/**
+ * 已处理消息的持久化窗口，按消息 id 的 64 位指纹存取
+ *
+ * @author hekunlin
+ */
+public interface IdempotentStore extends Closeable {
+
+	/**
+	 * 窗口内是否处理过
+	 *
+	 * @param fingerprint fingerprint
+	 * @return the boolean
+	 */
+	boolean contains(long fingerprint);
+
+	/**
+	 * 记录已处理
+	 *
+	 * @param fingerprint fingerprint
+	 */
+	void add(long fingerprint);
+
+	/**
+	 * 遍历窗口内全部指纹，启动时用于重建布隆过滤器
+	 *
+	 * @param consumer consumer
+	 */
+	void forEach(LongConsumer consumer);
+
+	/**
+	 * 刷盘并删除过期分段
+	 */
+	void maintain();
+
+	/**
+	 * 窗口内指纹数
+	 *
+	 * @return the long
+	 */
+	long size();
+
+}
@@ -0,0 +1,134 @@
+package xyz.rexlin600.idempotent;
+
+import java.util.function.LongConsumer;
+
+/**
+ * 开放寻址 long 集合，0 作为空槽，值为 0 的指纹映射为 1；负载超过 3/4 时容量翻倍
+ * <p>
+ * 非线程安全，由调用方加锁
+ *
+ * @author hekunlin
+ */
+class LongHashSet {
+
+	/**
+	 * 初始容量，必须是 2 的幂
+	 */
+	private static final int INITIAL_CAPACITY = 1 << 12;
+
+	/**
+	 * 线性探测的槽位，0 表示空槽
+	 */
+	private long[] table = new long[INITIAL_CAPACITY];
+
+	/**
+	 * 元素个数
+	 */
+	private int size;
+
+	/**
+	 * 是否包含
+	 *
+	 * @param value value
+	 * @return the boolean
+	 */
+	boolean contains(long value) {
+		long key = value == 0 ? 1 : value;
+		int mask = table.length - 1;
+		for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+			long current = table[i];
+			if (current == 0) {
+				return false;
+			}
+			if (current == key) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * 添加
+	 *
+	 * @param value value
+	 * @return true：新添加；false：已存在
+	 */
+	boolean add(long value) {
+		long key = value == 0 ? 1 : value;
+		if ((size + 1) * 4 > table.length * 3) {
+			resize();
+		}
+		int mask = table.length - 1;
+		for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+			long current = table[i];
+			if (current == key) {
+				return false;
+			}
+			if (current == 0) {
+				table[i] = key;
+				size++;
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * 遍历，值为 0 的指纹以 1 返回
+	 *
+	 * @param consumer consumer
+	 */
+	void forEach(LongConsumer consumer) {
+		for (long value : table) {
+			if (value != 0) {
+				consumer.accept(value);
+			}
+		}
+	}
+
+	/**
+	 * 元素个数
+	 *
+	 * @return the int
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * 槽位数
+	 *
+	 * @return the int
+	 */
+	int capacity() {
+		return table.length;
+	}
+
+	/**
+	 * 容量翻倍后重新放入
+	 */
+	private void resize() {
+		long[] old = table;
+		table = new long[old.length << 1];
+		int mask = table.length - 1;
+		for (long key : old) {
+			if (key != 0) {
+				int i = mix(key) & mask;
+				while (table[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				table[i] = key;
+			}
+		}
+	}
+
+	/**
+	 * 打散低位，指纹本身已经均匀，这里只是防止调用方传入连续值
+	 *
+	 * @param key key
+	 * @return the int
+	 */
+	private static int mix(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+}
@@ -0,0 +1,399 @@
+package xyz.rexlin600.idempotent;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 消费去重：同一消息 id 在窗口内只执行一次业务逻辑
+ * <p>
+ * 两级判断：内存布隆过滤器（当前 + 上一代，每个窗口轮换一次）判定“一定没处理过”时直接执行，绝大多数新消息不查持久化窗口；
+ * 判定“可能处理过”时再查持久化窗口确认。业务逻辑执行成功后才记录，失败的消息重投后会再次执行。
+ * 同一 id 正在处理时，并发到达的重复消息等待前一次处理结束后再判断：前一次成功则跳过，失败则由自己执行。
+ * <p>
+ * 不注册为 bean，由使用方按各自的配置前缀创建
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class MessageDeduplicator implements DisposableBean {
+
+	/**
+	 * 配置
+	 */
+	private final DeduplicationProperties properties;
+
+	/**
+	 * 持久化窗口
+	 */
+	private final IdempotentStore store;
+
+	/**
+	 * 当前时间，测试时可替换
+	 */
+	private final LongSupplier clock;
+
+	/**
+	 * 定时刷盘、删除过期分段
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * 正在处理的消息指纹 -> 处理结束时打开的门闩
+	 */
+	private final Map<Long, CountDownLatch> processing = new ConcurrentHashMap<>();
+
+	/**
+	 * 布隆过滤器轮换周期，与去重窗口相同
+	 */
+	private final long windowMillis;
+
+	/**
+	 * 当前窗口的布隆过滤器
+	 */
+	private volatile BloomFilter current;
+
+	/**
+	 * 上一个窗口的布隆过滤器
+	 */
+	private volatile BloomFilter previous;
+
+	/**
+	 * 下次轮换的时间
+	 */
+	private volatile long rotateAt;
+
+	/**
+	 * 已执行数
+	 */
+	private final LongAdder executed = new LongAdder();
+
+	/**
+	 * 跳过的重复数
+	 */
+	private final LongAdder duplicates = new LongAdder();
+
+	/**
+	 * 等待同一 id 前一次处理结束的次数
+	 */
+	private final LongAdder inFlightWaits = new LongAdder();
+
+	/**
+	 * 布隆过滤器命中后查持久化窗口的次数
+	 */
+	private final LongAdder storeLookups = new LongAdder();
+
+	/**
+	 * 使用本地文件持久化窗口
+	 *
+	 * @param properties 配置
+	 * @throws IOException 持久化目录无法读写
+	 */
+	public MessageDeduplicator(DeduplicationProperties properties) throws IOException {
+		this(properties, new FileIdempotentStore(properties.getDir(),
+				TimeUnit.MINUTES.toMillis(properties.getWindowMinutes()), TimeUnit.SECONDS.toMillis(properties.getBucketSeconds())));
+	}
+
+	/**
+	 * 使用指定的持久化窗口，启动时用窗口内的记录重建布隆过滤器
+	 *
+	 * @param properties 配置
+	 * @param store      持久化窗口，随本对象一起关闭
+	 */
+	public MessageDeduplicator(DeduplicationProperties properties, IdempotentStore store) {
+		this(properties, store, System::currentTimeMillis);
+	}
+
+	/**
+	 * Message deduplicator
+	 *
+	 * @param properties 配置
+	 * @param store      持久化窗口
+	 * @param clock      当前时间
+	 */
+	MessageDeduplicator(DeduplicationProperties properties, IdempotentStore store, LongSupplier clock) {
+		this.properties = properties;
+		this.store = store;
+		this.clock = clock;
+		this.windowMillis = TimeUnit.MINUTES.toMillis(properties.getWindowMinutes());
+		this.current = newFilter();
+		this.previous = newFilter();
+		this.rotateAt = clock.getAsLong() + windowMillis;
+		// 重启后布隆过滤器为空，用持久化窗口重建，否则重投的消息会被判定为“一定没处理过”
+		store.forEach(current::put);
+
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNamePrefix("idempotent-%d").setDaemon(true).build());
+		scheduler.scheduleWithFixedDelay(this::maintain, properties.getFlushIntervalMillis(), properties.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 执行业务逻辑，窗口内处理过的消息 id 直接跳过
+	 * <p>
+	 * 同一 id 正在处理时阻塞等待，直到前一次处理结束；前一次失败时没有记录，由本次重新执行
+	 *
+	 * @param messageId 消息 id，为空时不去重
+	 * @param action    业务逻辑
+	 * @return true：已执行；false：窗口内已处理成功过，已跳过
+	 * @throws InterruptedException 等待前一次处理时被中断，消息未处理
+	 * @throws Exception            业务逻辑异常，不记录为已处理
+	 */
+	public boolean execute(String messageId, Action action) throws Exception {
+		if (!properties.isEnabled() || messageId == null) {
+			action.run();
+			return true;
+		}
+		long fingerprint = fingerprint(messageId);
+		CountDownLatch done = new CountDownLatch(1);
+		CountDownLatch running;
+		while ((running = processing.putIfAbsent(fingerprint, done)) != null) {
+			inFlightWaits.increment();
+			log.info("==>  消息 [{}] 正在处理，等待前一次处理结束", messageId);
+			running.await();
+		}
+		try {
+			if (isProcessed(fingerprint)) {
+				duplicates.increment();
+				log.info("==>  消息 [{}] 已处理过，跳过重复投递", messageId);
+				return false;
+			}
+			action.run();
+			store.add(fingerprint);
+			current.put(fingerprint);
+			executed.increment();
+			return true;
+		} finally {
+			processing.remove(fingerprint);
+			done.countDown();
+		}
+	}
+
+	/**
+	 * 批量执行：跳过窗口内处理过的消息（包括批内重复的），其余消息整批交给业务逻辑，执行成功后整批记录
+	 * <p>
+	 * 批内任一 id 正在被其他线程处理时，先释放已占用的 id 再等待其结束，之后重新占用，两批之间不会互相等待
+	 *
+	 * @param items  消息，按投递顺序
+	 * @param idOf   取消息 id，为空时该消息不去重
+	 * @param action 业务逻辑，参数为需要处理的消息；全部是重复消息时不调用
+	 * @param <T>    消息类型
+	 * @return 交给业务逻辑的消息数
+	 * @throws InterruptedException 等待其他线程处理时被中断，整批未处理
+	 * @throws Exception            业务逻辑异常，整批不记录为已处理
+	 */
+	public <T> int executeBatch(List<T> items, Function<T, String> idOf, BatchAction<T> action) throws Exception {
+		if (items.isEmpty()) {
+			return 0;
+		}
+		if (!properties.isEnabled()) {
+			action.run(items);
+			return items.size();
+		}
+		Map<T, Long> fingerprints = new IdentityHashMap<>(items.size());
+		Set<Long> distinct = new LinkedHashSet<>();
+		for (T item : items) {
+			String messageId = idOf.apply(item);
+			if (messageId != null) {
+				long fingerprint = fingerprint(messageId);
+				fingerprints.put(item, fingerprint);
+				distinct.add(fingerprint);
+			}
+		}
+		CountDownLatch done = acquire(distinct);
+		try {
+			List<T> fresh = new ArrayList<>(items.size());
+			Set<Long> record = new HashSet<>();
+			for (T item : items) {
+				Long fingerprint = fingerprints.get(item);
+				if (fingerprint == null) {
+					fresh.add(item);
+				} else if (!record.contains(fingerprint) && !isProcessed(fingerprint)) {
+					fresh.add(item);
+					record.add(fingerprint);
+				} else {
+					duplicates.increment();
+				}
+			}
+			if (fresh.size() < items.size()) {
+				log.info("==>  批量消息 [{}] 条中 [{}] 条已处理过，跳过重复投递", items.size(), items.size() - fresh.size());
+			}
+			if (fresh.isEmpty()) {
+				return 0;
+			}
+			action.run(fresh);
+			for (Long fingerprint : record) {
+				store.add(fingerprint);
+				current.put(fingerprint);
+			}
+			executed.add(record.size());
+			return fresh.size();
+		} finally {
+			distinct.forEach(fingerprint -> processing.remove(fingerprint, done));
+			done.countDown();
+		}
+	}
+
+	/**
+	 * 已执行数、跳过的重复数、等待同一 id 处理结束的次数、查持久化窗口的次数（布隆过滤器命中）、窗口内记录数
+	 *
+	 * @return the map
+	 */
+	public Map<String, Long> metrics() {
+		Map<String, Long> metrics = new ConcurrentSkipListMap<>();
+		metrics.put("executed", executed.sum());
+		metrics.put("duplicates", duplicates.sum());
+		metrics.put("inFlightWaits", inFlightWaits.sum());
+		metrics.put("storeLookups", storeLookups.sum());
+		metrics.put("windowSize", store.size());
+		return metrics;
+	}
+
+	@Override
+	public void destroy() throws IOException {
+		scheduler.shutdown();
+		store.maintain();
+		store.close();
+	}
+
+	/**
+	 * 占用一批指纹：遇到正在处理的指纹时释放已占用的（并唤醒等待它们的线程），等待其处理结束后从头重新占用
+	 *
+	 * @param fingerprints fingerprints
+	 * @return 本次占用的门闩，处理结束时打开
+	 * @throws InterruptedException interrupted exception
+	 */
+	private CountDownLatch acquire(Set<Long> fingerprints) throws InterruptedException {
+		while (true) {
+			CountDownLatch done = new CountDownLatch(1);
+			CountDownLatch running = null;
+			List<Long> held = new ArrayList<>(fingerprints.size());
+			for (Long fingerprint : fingerprints) {
+				running = processing.putIfAbsent(fingerprint, done);
+				if (running != null) {
+					break;
+				}
+				held.add(fingerprint);
+			}
+			if (running == null) {
+				return done;
+			}
+			held.forEach(fingerprint -> processing.remove(fingerprint, done));
+			done.countDown();
+			inFlightWaits.increment();
+			running.await();
+		}
+	}
+
+	/**
+	 * 布隆过滤器判定可能处理过时，查持久化窗口确认
+	 *
+	 * @param fingerprint fingerprint
+	 * @return the boolean
+	 */
+	private boolean isProcessed(long fingerprint) {
+		rotateIfNecessary();
+		if (!current.mightContain(fingerprint) && !previous.mightContain(fingerprint)) {
+			return false;
+		}
+		storeLookups.increment();
+		return store.contains(fingerprint);
+	}
+
+	/**
+	 * 每个窗口轮换一次布隆过滤器
+	 */
+	private void rotateIfNecessary() {
+		if (clock.getAsLong() < rotateAt) {
+			return;
+		}
+		synchronized (this) {
+			if (clock.getAsLong() >= rotateAt) {
+				// 轮换后布隆过滤器覆盖 1 ~ 2 个窗口的记录，超出持久化窗口的部分查询后按新消息处理
+				previous = current;
+				current = newFilter();
+				rotateAt = clock.getAsLong() + windowMillis;
+			}
+		}
+	}
+
+	/**
+	 * 刷盘并删除过期分段
+	 */
+	private void maintain() {
+		try {
+			store.maintain();
+		} catch (Exception e) {
+			log.warn("==>  去重窗口维护失败：[{}]", e.getMessage());
+		}
+	}
+
+	/**
+	 * 按配置的容量、误判率创建布隆过滤器
+	 *
+	 * @return the bloom filter
+	 */
+	private BloomFilter newFilter() {
+		return new BloomFilter(properties.getExpectedInsertions(), properties.getFpp());
+	}
+
+	/**
+	 * 消息 id 的 64 位指纹：FNV-1a 后再做一次 murmur3 fmix64 打散
+	 *
+	 * @param messageId message id
+	 * @return the long
+	 */
+	static long fingerprint(String messageId) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : messageId.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * 业务逻辑
+	 */
+	@FunctionalInterface
+	public interface Action {
+
+		/**
+		 * Run
+		 *
+		 * @throws Exception exception
+		 */
+		void run() throws Exception;
+
+	}
+
+	/**
+	 * 批量业务逻辑
+	 *
+	 * @param <T> 消息类型
+	 */
+	@FunctionalInterface
+	public interface BatchAction<T> {
+
+		/**
+		 * Run
+		 *
+		 * @param items 需要处理的消息
+		 * @throws Exception exception
+		 */
+		void run(List<T> items) throws Exception;
+
+	}
+
+}
@@ -0,0 +1,130 @@
+package xyz.rexlin600.idempotent;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * 本地文件持久化窗口
+ *
+ * @author hekunlin
+ */
+public class FileIdempotentStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private FileIdempotentStore store;
+
+	@After
+	public void tearDown() {
+		if (store != null) {
+			store.close();
+		}
+	}
+
+	/**
+	 * 刷盘后重启，窗口内的记录全部加载
+	 */
+	@Test
+	public void reloadAfterRestart() throws IOException {
+		String dir = folder.getRoot().getPath();
+		store = new FileIdempotentStore(dir, 60_000, 10_000);
+		for (long i = 1; i <= 1000; i++) {
+			store.add(i);
+		}
+		store.maintain();
+		store.close();
+
+		store = new FileIdempotentStore(dir, 60_000, 10_000);
+		Assert.assertEquals(1000, store.size());
+		for (long i = 1; i <= 1000; i++) {
+			Assert.assertTrue(store.contains(i));
+		}
+		Assert.assertFalse(store.contains(1001));
+	}
+
+	/**
+	 * 崩溃时写了一半的尾部被忽略并截掉，之后追加的记录重启后仍能正确读取
+	 */
+	@Test
+	public void tornTailIgnored() throws IOException {
+		File dir = folder.getRoot();
+		long start = System.currentTimeMillis() / 10_000 * 10_000;
+		File file = new File(dir, "dedup-" + start + ".bin");
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+			out.writeLong(11);
+			out.writeLong(22);
+			out.write(new byte[]{1, 2, 3});
+		}
+
+		store = new FileIdempotentStore(dir.getPath(), 60_000, 10_000);
+		Assert.assertEquals(2, store.size());
+		Assert.assertTrue(store.contains(11));
+		Assert.assertTrue(store.contains(22));
+		Assert.assertEquals(2 * Long.BYTES, Files.size(file.toPath()));
+
+		store.add(33);
+		store.maintain();
+		store.close();
+
+		store = new FileIdempotentStore(dir.getPath(), 60_000, 10_000);
+		Assert.assertEquals(3, store.size());
+		Assert.assertTrue(store.contains(11));
+		Assert.assertTrue(store.contains(22));
+		Assert.assertTrue(store.contains(33));
+	}
+
+	/**
+	 * 分段开始时间早于 窗口 + 一个分段 之前的整段删除，包括文件
+	 */
+	@Test
+	public void bucketExpiry() throws Exception {
+		File dir = folder.getRoot();
+		store = new FileIdempotentStore(dir.getPath(), 200, 100);
+		store.add(1);
+		store.maintain();
+		Assert.assertTrue(store.contains(1));
+		Assert.assertEquals(1, countBuckets(dir));
+
+		// 超过 窗口 + 2 个分段，第一个分段一定过期
+		Thread.sleep(450);
+		store.add(2);
+		store.maintain();
+
+		Assert.assertFalse(store.contains(1));
+		Assert.assertTrue(store.contains(2));
+		Assert.assertEquals(1, store.size());
+		Assert.assertEquals(1, countBuckets(dir));
+	}
+
+	/**
+	 * 启动时过期的分段文件直接删除，不加载
+	 */
+	@Test
+	public void expiredBucketDeletedOnLoad() throws IOException {
+		File dir = folder.getRoot();
+		File expired = new File(dir, "dedup-" + (System.currentTimeMillis() - 3_600_000) + ".bin");
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(expired))) {
+			out.writeLong(99);
+		}
+
+		store = new FileIdempotentStore(dir.getPath(), 60_000, 10_000);
+		Assert.assertFalse(store.contains(99));
+		Assert.assertFalse(expired.exists());
+	}
+
+	private static int countBuckets(File dir) {
+		File[] files = dir.listFiles((d, name) -> name.startsWith("dedup-"));
+		return files == null ? 0 : files.length;
+	}
+
+}
@@ -0,0 +1,83 @@
+package xyz.rexlin600.idempotent;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 开放寻址 long 集合
+ *
+ * @author hekunlin
+ */
+public class LongHashSetTest {
+
+	/**
+	 * 超过 3/4 负载时扩容，扩容前后都能查到全部元素
+	 */
+	@Test
+	public void resizeKeepsAllValues() {
+		LongHashSet set = new LongHashSet();
+		int initialCapacity = set.capacity();
+		int total = initialCapacity * 4;
+		Random random = new Random(42);
+		Set<Long> expected = new HashSet<>();
+		while (expected.size() < total) {
+			long value = random.nextLong();
+			Assert.assertEquals(expected.add(value), set.add(value));
+		}
+
+		Assert.assertEquals(total, set.size());
+		Assert.assertTrue(set.capacity() > initialCapacity);
+		Assert.assertTrue(set.size() * 4 <= set.capacity() * 3);
+		for (long value : expected) {
+			Assert.assertTrue(set.contains(value));
+		}
+		for (int i = 0; i < 10_000; i++) {
+			long value = random.nextLong();
+			Assert.assertEquals(expected.contains(value), set.contains(value));
+		}
+	}
+
+	/**
+	 * 重复添加返回 false，不增加元素个数
+	 */
+	@Test
+	public void duplicateAdd() {
+		LongHashSet set = new LongHashSet();
+		Assert.assertTrue(set.add(7L));
+		Assert.assertFalse(set.add(7L));
+		Assert.assertEquals(1, set.size());
+	}
+
+	/**
+	 * 连续值经过打散后也能正确探测
+	 */
+	@Test
+	public void sequentialValues() {
+		LongHashSet set = new LongHashSet();
+		for (long i = 2; i < 100_000; i++) {
+			set.add(i);
+		}
+		for (long i = 2; i < 100_000; i++) {
+			Assert.assertTrue(set.contains(i));
+		}
+		Assert.assertFalse(set.contains(100_000L));
+	}
+
+	/**
+	 * 0 作为空槽，值为 0 的指纹映射为 1
+	 */
+	@Test
+	public void zeroMapsToOne() {
+		LongHashSet set = new LongHashSet();
+		Assert.assertFalse(set.contains(0L));
+		Assert.assertTrue(set.add(0L));
+		Assert.assertTrue(set.contains(0L));
+		Assert.assertTrue(set.contains(1L));
+		Assert.assertFalse(set.add(1L));
+	}
+
+}
@@ -0,0 +1,294 @@
+package xyz.rexlin600.idempotent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * 消费去重：内存持久化窗口 + 可调的时钟，不需要等待真实的窗口时长
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class MessageDeduplicatorTest {
+
+	private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	private final AtomicLong now = new AtomicLong(1_000_000L);
+
+	private MemoryStore store;
+
+	private MessageDeduplicator deduplicator;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		DeduplicationProperties properties = new DeduplicationProperties();
+		properties.setEnabled(true);
+		properties.setWindowMinutes(1);
+		properties.setExpectedInsertions(10_000);
+		properties.setFlushIntervalMillis(60_000);
+		store = new MemoryStore();
+		deduplicator = new MessageDeduplicator(properties, store, now::get);
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+		deduplicator.destroy();
+	}
+
+	/**
+	 * 执行成功后才记录，重复的消息跳过
+	 */
+	@Test
+	public void recordOnlyOnSuccess() throws Exception {
+		AtomicInteger runs = new AtomicInteger();
+		try {
+			deduplicator.execute("m-1", () -> {
+				runs.incrementAndGet();
+				throw new IllegalStateException("boom");
+			});
+			Assert.fail("业务异常应当抛出");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("boom", e.getMessage());
+		}
+		Assert.assertEquals(0, store.size());
+
+		// 失败的消息重投后再次执行
+		Assert.assertTrue(deduplicator.execute("m-1", runs::incrementAndGet));
+		Assert.assertEquals(2, runs.get());
+		Assert.assertEquals(1, store.size());
+
+		// 成功之后的重复投递跳过
+		Assert.assertFalse(deduplicator.execute("m-1", runs::incrementAndGet));
+		Assert.assertEquals(2, runs.get());
+		Assert.assertEquals(Long.valueOf(1), deduplicator.metrics().get("executed"));
+		Assert.assertEquals(Long.valueOf(1), deduplicator.metrics().get("duplicates"));
+	}
+
+	/**
+	 * 布隆过滤器每个窗口轮换一次：上一代仍能命中，两次轮换后不再命中，不查持久化窗口
+	 */
+	@Test
+	public void bloomRotation() throws Exception {
+		Assert.assertTrue(deduplicator.execute("m-1", () -> {
+		}));
+		Assert.assertFalse(deduplicator.execute("m-1", () -> {
+		}));
+		Assert.assertEquals(Long.valueOf(1), deduplicator.metrics().get("storeLookups"));
+
+		// 第一次轮换：记录在上一代过滤器中，仍会查持久化窗口
+		now.addAndGet(WINDOW_MILLIS);
+		Assert.assertFalse(deduplicator.execute("m-1", () -> {
+		}));
+		Assert.assertEquals(Long.valueOf(2), deduplicator.metrics().get("storeLookups"));
+
+		// 第二次轮换：两代过滤器都没有，按新消息处理，不查持久化窗口
+		now.addAndGet(WINDOW_MILLIS);
+		Assert.assertTrue(deduplicator.execute("m-1", () -> {
+		}));
+		Assert.assertEquals(Long.valueOf(2), deduplicator.metrics().get("storeLookups"));
+	}
+
+	/**
+	 * 启动时用持久化窗口重建布隆过滤器
+	 */
+	@Test
+	public void rebuildFromStore() throws Exception {
+		DeduplicationProperties properties = new DeduplicationProperties();
+		properties.setEnabled(true);
+		properties.setExpectedInsertions(10_000);
+		MemoryStore restored = new MemoryStore();
+		restored.add(MessageDeduplicator.fingerprint("m-1"));
+		MessageDeduplicator restarted = new MessageDeduplicator(properties, restored);
+		try {
+			Assert.assertFalse(restarted.execute("m-1", () -> Assert.fail("已处理的消息不应再执行")));
+		} finally {
+			restarted.destroy();
+		}
+	}
+
+	/**
+	 * 同一 id 正在处理时，重复消息等待前一次结束；前一次失败则由重复消息执行，不会被当作已处理
+	 */
+	@Test
+	public void inFlightDuplicateWaitsForFailure() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Boolean> first = executor.submit(() -> deduplicator.execute("m-1", () -> {
+			started.countDown();
+			release.await();
+			throw new IllegalStateException("first attempt failed");
+		}));
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		AtomicInteger secondRuns = new AtomicInteger();
+		Future<Boolean> second = executor.submit(() -> deduplicator.execute("m-1", secondRuns::incrementAndGet));
+		waitForInFlight(1);
+		Assert.assertFalse(second.isDone());
+
+		release.countDown();
+		try {
+			first.get(5, TimeUnit.SECONDS);
+			Assert.fail("第一次处理应当失败");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		Assert.assertTrue(second.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(1, secondRuns.get());
+		Assert.assertEquals(1, store.size());
+	}
+
+	/**
+	 * 同一 id 正在处理时，前一次成功则重复消息跳过
+	 */
+	@Test
+	public void inFlightDuplicateSkippedAfterSuccess() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Boolean> first = executor.submit(() -> deduplicator.execute("m-1", () -> {
+			started.countDown();
+			release.await();
+		}));
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		Future<Boolean> second = executor.submit(() -> deduplicator.execute("m-1", () -> Assert.fail("已处理的消息不应再执行")));
+		waitForInFlight(1);
+
+		release.countDown();
+		Assert.assertTrue(first.get(5, TimeUnit.SECONDS));
+		Assert.assertFalse(second.get(5, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * 关闭时不去重，没有 messageId 时不去重
+	 */
+	@Test
+	public void disabledOrWithoutId() throws Exception {
+		AtomicInteger runs = new AtomicInteger();
+		Assert.assertTrue(deduplicator.execute(null, runs::incrementAndGet));
+		Assert.assertTrue(deduplicator.execute(null, runs::incrementAndGet));
+
+		MessageDeduplicator disabled = new MessageDeduplicator(new DeduplicationProperties(), new MemoryStore());
+		try {
+			Assert.assertTrue(disabled.execute("m-1", runs::incrementAndGet));
+			Assert.assertTrue(disabled.execute("m-1", runs::incrementAndGet));
+		} finally {
+			disabled.destroy();
+		}
+		Assert.assertEquals(4, runs.get());
+	}
+
+	/**
+	 * 批量执行：跳过窗口内处理过的和批内重复的消息，没有 id 的消息照常处理；失败时整批不记录
+	 */
+	@Test
+	public void executeBatchSkipsDuplicates() throws Exception {
+		Assert.assertTrue(deduplicator.execute("m-1", () -> {
+		}));
+
+		List<String> handled = new ArrayList<>();
+		try {
+			deduplicator.executeBatch(Arrays.asList("m-2", "m-3"), id -> id, items -> {
+				throw new IllegalStateException("batch failed");
+			});
+			Assert.fail("业务异常应当抛出");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals(1, store.size());
+		}
+
+		int count = deduplicator.executeBatch(Arrays.asList("m-1", "m-2", "m-2", "m-3", "no-id"),
+				id -> id.startsWith("m-") ? id : null, handled::addAll);
+		Assert.assertEquals(3, count);
+		Assert.assertEquals(Arrays.asList("m-2", "m-3", "no-id"), handled);
+		Assert.assertEquals(3, store.size());
+
+		// 全部重复时不调用业务逻辑
+		Assert.assertEquals(0, deduplicator.executeBatch(Arrays.asList("m-2", "m-3"), id -> id,
+				items -> Assert.fail("已处理的消息不应再执行")));
+	}
+
+	/**
+	 * 两批消息包含相同 id 时后到的一批等待前一批结束，不会互相等待
+	 */
+	@Test
+	public void executeBatchWaitsForOverlappingBatch() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Integer> first = executor.submit(() -> deduplicator.executeBatch(Arrays.asList("m-1", "m-2"), id -> id, items -> {
+			started.countDown();
+			release.await();
+		}));
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		List<String> handled = new CopyOnWriteArrayList<>();
+		Future<Integer> second = executor.submit(() -> deduplicator.executeBatch(Arrays.asList("m-3", "m-2"), id -> id, handled::addAll));
+		waitForInFlight(1);
+		Assert.assertFalse(second.isDone());
+
+		release.countDown();
+		Assert.assertEquals(Integer.valueOf(2), first.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(Integer.valueOf(1), second.get(5, TimeUnit.SECONDS));
+		Assert.assertEquals(Collections.singletonList("m-3"), handled);
+	}
+
+	private void waitForInFlight(long expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (deduplicator.metrics().get("inFlightWaits") < expected) {
+			if (System.currentTimeMillis() > deadline) {
+				Assert.fail("重复消息没有等待前一次处理");
+			}
+			Thread.sleep(10);
+		}
+		log.info("==>  重复消息正在等待前一次处理结束");
+	}
+
+	/**
+	 * 内存持久化窗口
+	 */
+	private static class MemoryStore implements IdempotentStore {
+
+		private final Set<Long> fingerprints = ConcurrentHashMap.newKeySet();
+
+		@Override
+		public boolean contains(long fingerprint) {
+			return fingerprints.contains(fingerprint);
+		}
+
+		@Override
+		public void add(long fingerprint) {
+			fingerprints.add(fingerprint);
+		}
+
+		@Override
+		public void forEach(LongConsumer consumer) {
+			fingerprints.forEach(consumer::accept);
+		}
+
+		@Override
+		public void maintain() {
+		}
+
+		@Override
+		public long size() {
+			return fingerprints.size();
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+}
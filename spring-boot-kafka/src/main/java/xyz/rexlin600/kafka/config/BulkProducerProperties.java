@@ -0,0 +1,97 @@
+package xyz.rexlin600.kafka.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 批量生产者配置
+ *
+ * @author hekunlin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rexlin600.kafka.producer")
+public class BulkProducerProperties {
+
+	/**
+	 * 默认使用的发送档位，请求中未指定档位时使用
+	 */
+	private String defaultProfile = "throughput";
+
+	/**
+	 * 单次批量请求允许的最大消息数
+	 */
+	private int maxMessages = 100000;
+
+	/**
+	 * 发送档位：档位名称 -> 批处理、压缩参数；每个档位一个 KafkaProducer，请求只能使用这里配置的档位
+	 */
+	private Map<String, Profile> profiles = new LinkedHashMap<>();
+
+	/**
+	 * 获取档位配置，默认档位未配置时使用 Profile 默认值
+	 *
+	 * @param name 档位名称
+	 * @return 未配置的档位返回 null
+	 */
+	public Profile getProfile(String name) {
+		Profile profile = profiles.get(name);
+		if (profile == null && defaultProfile.equals(name)) {
+			return new Profile();
+		}
+		return profile;
+	}
+
+	/**
+	 * 发送档位
+	 */
+	@Data
+	public static class Profile {
+
+		/**
+		 * linger.ms：batch 未满时最多等待多久再发送，越大 batch 越满、吞吐越高、延迟越大
+		 */
+		private int lingerMs = 20;
+
+		/**
+		 * batch.size：单个分区 batch 的最大字节数
+		 */
+		private int batchSize = 128 * 1024;
+
+		/**
+		 * compression.type：none | gzip | snappy | lz4
+		 */
+		private String compressionType = "lz4";
+
+		/**
+		 * buffer.memory：生产者缓冲区大小，写满后 send 阻塞 max.block.ms
+		 */
+		private long bufferMemory = 64 * 1024 * 1024L;
+
+		/**
+		 * max.block.ms：缓冲区写满时 send 最长阻塞时间
+		 */
+		private long maxBlockMs = 60000;
+
+		/**
+		 * 开启幂等：acks 强制为 all，max.in.flight 不超过 5，重试不会产生重复消息
+		 */
+		private boolean idempotence = true;
+
+		/**
+		 * acks，开启幂等时忽略
+		 */
+		private String acks = "all";
+
+		/**
+		 * max.in.flight.requests.per.connection
+		 */
+		private int maxInFlight = 5;
+
+	}
+
+}
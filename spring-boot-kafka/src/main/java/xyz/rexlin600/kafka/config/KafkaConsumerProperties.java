@@ -0,0 +1,61 @@
+package xyz.rexlin600.kafka.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 消费者处理模式配置
+ *
+ * @author hekunlin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rexlin600.kafka.consumer")
+public class KafkaConsumerProperties {
+
+	/**
+	 * serial：监听线程逐条消费后 commitSync；parallel：按 key 分发到工作线程并行消费，按分区连续位移异步提交
+	 */
+	private String mode = "serial";
+
+	/**
+	 * 工作线程数，同一 key 的消息固定由同一工作线程按顺序处理
+	 */
+	private int workers = 16;
+
+	/**
+	 * 单个分区未提交（已分发未完成，或已完成但前面还有未完成）的最大消息数，达到后暂停拉取该分区
+	 */
+	private int maxInFlightPerPartition = 500;
+
+	/**
+	 * 单条消息处理失败的重试次数，仍失败则从该位移重新拉取
+	 */
+	private int maxRetries = 3;
+
+	/**
+	 * 重试退避，单位毫秒，按 2 的幂次递增
+	 */
+	private long retryBackoffMillis = 100;
+
+	/**
+	 * 分区全部暂停或没有新消息时，检查提交、恢复分区的间隔，单位毫秒
+	 */
+	private long idleIntervalMillis = 200;
+
+	/**
+	 * 分区被回收（Rebalance）时等待在途消息完成的最长时间，单位毫秒
+	 */
+	private long revokeTimeoutMillis = 10000;
+
+	/**
+	 * 是否并行模式
+	 *
+	 * @return the boolean
+	 */
+	public boolean isParallel() {
+		return "parallel".equalsIgnoreCase(mode);
+	}
+
+}
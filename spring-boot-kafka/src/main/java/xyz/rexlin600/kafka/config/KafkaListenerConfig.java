@@ -0,0 +1,47 @@
+package xyz.rexlin600.kafka.config;
+
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import xyz.rexlin600.kafka.consumer.ParallelBatchProcessor;
+
+/**
+ * 监听容器配置：沿用 spring.kafka.listener 配置，并行模式下额外注册 Rebalance 监听、开启空闲事件
+ *
+ * @author hekunlin
+ */
+@Configuration
+public class KafkaListenerConfig {
+
+	/**
+	 * 覆盖 KafkaAnnotationDrivenConfiguration 中的同名容器工厂
+	 *
+	 * @param configurer             configurer
+	 * @param kafkaConsumerFactory   kafka consumer factory
+	 * @param consumerProperties     consumer properties
+	 * @param parallelBatchProcessor parallel batch processor
+	 * @return the concurrent kafka listener container factory
+	 */
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<Object, Object> kafkaListenerContainerFactory(
+			ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+			ConsumerFactory<Object, Object> kafkaConsumerFactory,
+			KafkaConsumerProperties consumerProperties,
+			ParallelBatchProcessor parallelBatchProcessor) {
+		ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		configurer.configure(factory, kafkaConsumerFactory);
+		if (consumerProperties.isParallel()) {
+			ContainerProperties containerProperties = factory.getContainerProperties();
+			// 回收分区前等待在途消息并提交
+			containerProperties.setConsumerRebalanceListener(parallelBatchProcessor);
+			// 分区全部暂停时 poll 拿不到消息、监听方法不会被调用，依靠空闲事件（在消费线程中发布）提交位移、恢复分区
+			containerProperties.setIdleEventInterval(consumerProperties.getIdleIntervalMillis());
+			containerProperties.setPollTimeout(Math.min(containerProperties.getPollTimeout(), consumerProperties.getIdleIntervalMillis()));
+		}
+		return factory;
+	}
+
+}
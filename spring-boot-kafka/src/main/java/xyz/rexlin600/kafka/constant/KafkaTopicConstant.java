@@ -17,5 +17,10 @@ public class KafkaTopicConstant {
 	 */
 	public static final String ASYNC_TOPIC = "rexlin600-async";
 
+	/**
+	 * BULK_TOPIC
+	 */
+	public static final String BULK_TOPIC = "rexlin600-bulk";
+
 
 }
\ No newline at end of file
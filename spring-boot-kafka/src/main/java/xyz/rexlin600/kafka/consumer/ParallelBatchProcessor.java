@@ -0,0 +1,252 @@
+package xyz.rexlin600.kafka.consumer;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+import xyz.rexlin600.kafka.config.KafkaConsumerProperties;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 批量消息并行处理
+ * <p>
+ * 监听线程只负责分发：按 key 哈希到固定的单线程工作队列，同一 key 的消息按位移顺序处理，不同 key 并行；
+ * 每个分区按分发顺序跟踪完成情况，只提交从头开始连续完成的位移（水位），避免跳过未完成的消息；
+ * 分区未提交消息数达到上限时暂停拉取，降到一半以下再恢复。
+ * <p>
+ * KafkaConsumer 不是线程安全的，提交、暂停、恢复、seek 都在消费线程中进行：监听方法被调用时，
+ * 或分区全部暂停、没有新消息时的空闲事件中。
+ * <p>
+ * 语义为 at-least-once：重试后仍失败的消息从其位移重新拉取，同分区其后尚未开始处理的消息直接跳过、随之重新拉取，
+ * 失败前已处理过的消息会被重复消费。
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class ParallelBatchProcessor implements ConsumerAwareRebalanceListener, DisposableBean {
+
+	private final KafkaConsumerProperties properties;
+
+	/**
+	 * 单线程工作队列，按 key 哈希选择
+	 */
+	private final ThreadPoolExecutor[] lanes;
+
+	/**
+	 * 分区 -> 位移跟踪，同一分区同一时刻只属于一个消费线程
+	 */
+	private final ConcurrentMap<TopicPartition, PartitionTracker> trackers = new ConcurrentHashMap<>();
+
+	@Autowired
+	public ParallelBatchProcessor(KafkaConsumerProperties properties) {
+		this.properties = properties;
+		ThreadFactory threadFactory = new ThreadFactoryBuilder().setNamePrefix("kafka-worker-%d").build();
+		this.lanes = new ThreadPoolExecutor[Math.max(1, properties.getWorkers())];
+		for (int i = 0; i < lanes.length; i++) {
+			lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		}
+	}
+
+	/**
+	 * 分发一批消息，立即返回；在监听线程中调用
+	 *
+	 * @param records  records
+	 * @param consumer consumer
+	 * @param handler  单条消息处理逻辑
+	 * @param <K>      key
+	 * @param <V>      value
+	 */
+	public <K, V> void process(List<ConsumerRecord<K, V>> records, Consumer<?, ?> consumer, RecordHandler<K, V> handler) {
+		// 先提交上一批已完成的位移；seek 过的分区，本批中其后的消息会被重新拉取，不再分发
+		Set<TopicPartition> seeked = sync(consumer);
+
+		Set<PartitionTracker> touched = new HashSet<>();
+		for (ConsumerRecord<K, V> record : records) {
+			TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+			if (seeked.contains(partition)) {
+				continue;
+			}
+			PartitionTracker tracker = trackers.computeIfAbsent(partition, PartitionTracker::new);
+			PartitionTracker.TrackedRecord tracked = tracker.track(record.offset());
+			touched.add(tracker);
+			try {
+				lane(record).execute(() -> handle(record, handler, tracker, tracked));
+			} catch (RejectedExecutionException e) {
+				// 应用关闭中
+				tracker.fail(tracked);
+			}
+		}
+
+		for (PartitionTracker tracker : touched) {
+			if (!tracker.isPaused() && tracker.pending() >= properties.getMaxInFlightPerPartition()) {
+				consumer.pause(Collections.singleton(tracker.getPartition()));
+				tracker.setPaused(true);
+				log.debug("==>  分区 [{}] 未提交消息数 [{}] 达到上限，暂停拉取", tracker.getPartition(), tracker.pending());
+			}
+		}
+	}
+
+	/**
+	 * 空闲事件在消费线程中发布：分区全部暂停或没有新消息时，在这里提交位移、恢复分区
+	 *
+	 * @param event event
+	 */
+	@EventListener
+	public void onIdle(ListenerContainerIdleEvent event) {
+		Consumer<?, ?> consumer = event.getConsumer();
+		if (consumer != null) {
+			sync(consumer);
+		}
+	}
+
+	/**
+	 * 分区被回收前：等待在途消息完成（最多 revokeTimeoutMillis），同步提交水位
+	 *
+	 * @param consumer   consumer
+	 * @param partitions partitions
+	 */
+	@Override
+	public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+		long deadline = System.currentTimeMillis() + properties.getRevokeTimeoutMillis();
+		Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(partitions.size());
+		for (TopicPartition partition : partitions) {
+			PartitionTracker tracker = trackers.remove(partition);
+			if (tracker == null) {
+				continue;
+			}
+			while (true) {
+				long watermark = tracker.drain();
+				if (watermark > tracker.getCommitted()) {
+					tracker.setCommitted(watermark);
+					offsets.put(partition, new OffsetAndMetadata(watermark));
+				}
+				if (tracker.pending() == 0 || tracker.failedHead() != null || System.currentTimeMillis() >= deadline) {
+					break;
+				}
+				try {
+					TimeUnit.MILLISECONDS.sleep(10);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			if (tracker.pending() > 0) {
+				log.warn("==>  分区 [{}] 被回收时仍有 [{}] 条消息未完成，将由新的消费者重新消费", partition, tracker.pending());
+			}
+		}
+		if (!offsets.isEmpty()) {
+			consumer.commitSync(offsets);
+		}
+	}
+
+	@Override
+	public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+		// 新分配的分区从已提交位移开始消费，丢弃旧的跟踪状态
+		partitions.forEach(trackers::remove);
+	}
+
+	@Override
+	public void destroy() throws InterruptedException {
+		for (ThreadPoolExecutor lane : lanes) {
+			lane.shutdown();
+		}
+		for (ThreadPoolExecutor lane : lanes) {
+			lane.awaitTermination(properties.getRevokeTimeoutMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * 在消费线程中：异步提交各分区新的水位，处理失败的分区 seek 回失败位移，未提交消息降到一半以下的分区恢复拉取
+	 *
+	 * @param consumer consumer
+	 * @return 本次 seek 过的分区
+	 */
+	private Set<TopicPartition> sync(Consumer<?, ?> consumer) {
+		Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+		Set<TopicPartition> seeked = new HashSet<>();
+		for (TopicPartition partition : consumer.assignment()) {
+			PartitionTracker tracker = trackers.get(partition);
+			if (tracker == null) {
+				continue;
+			}
+			long watermark = tracker.drain();
+			if (watermark > tracker.getCommitted()) {
+				tracker.setCommitted(watermark);
+				offsets.put(partition, new OffsetAndMetadata(watermark));
+			}
+			PartitionTracker.TrackedRecord failed = tracker.failedHead();
+			if (failed != null) {
+				log.error("==>  分区 [{}] 位移 [{}] 重试 [{}] 次后仍处理失败，从该位移重新拉取", partition, failed.getOffset(), properties.getMaxRetries());
+				consumer.seek(partition, failed.getOffset());
+				tracker.reset();
+				seeked.add(partition);
+			}
+			if (tracker.isPaused() && tracker.pending() <= properties.getMaxInFlightPerPartition() / 2) {
+				consumer.resume(Collections.singleton(partition));
+				tracker.setPaused(false);
+				log.debug("==>  分区 [{}] 恢复拉取", partition);
+			}
+		}
+		if (!offsets.isEmpty()) {
+			consumer.commitAsync(offsets, (committed, e) -> {
+				if (e != null) {
+					// 后续更大的水位提交成功即可覆盖
+					log.warn("==>  异步提交位移失败：[{}]，[{}]", committed, e.getMessage());
+				}
+			});
+		}
+		return seeked;
+	}
+
+	/**
+	 * 在工作线程中处理单条消息，失败按 2 的幂次退避重试
+	 */
+	private <K, V> void handle(ConsumerRecord<K, V> record, RecordHandler<K, V> handler, PartitionTracker tracker,
+							   PartitionTracker.TrackedRecord tracked) {
+		for (int attempt = 0; ; attempt++) {
+			if (tracker.isStale(tracked)) {
+				// 会被重新拉取，跳过以保持同一 key 的处理顺序
+				tracked.fail();
+				return;
+			}
+			try {
+				handler.handle(record);
+				tracked.done();
+				return;
+			} catch (Exception e) {
+				if (attempt >= properties.getMaxRetries()) {
+					log.error("==>  消费消息发生异常：[{}]", e.getMessage());
+					tracker.fail(tracked);
+					return;
+				}
+				try {
+					TimeUnit.MILLISECONDS.sleep(properties.getRetryBackoffMillis() << attempt);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					tracker.fail(tracked);
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 同一 key 固定到同一工作线程；没有 key 的消息按分区选择，保持分区内顺序
+	 */
+	private ThreadPoolExecutor lane(ConsumerRecord<?, ?> record) {
+		int hash = record.key() != null ? record.key().hashCode() : Objects.hash(record.topic(), record.partition());
+		return lanes[(hash & Integer.MAX_VALUE) % lanes.length];
+	}
+
+}
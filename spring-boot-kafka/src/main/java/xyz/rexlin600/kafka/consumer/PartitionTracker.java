@@ -0,0 +1,171 @@
+package xyz.rexlin600.kafka.consumer;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分区位移跟踪：按分发顺序记录消息，只有从头开始连续完成的位移才能提交
+ * <p>
+ * 除 {@link TrackedRecord} 的状态、失败位移由工作线程修改外，其余状态只在该分区所属的消费线程中访问
+ *
+ * @author hekunlin
+ */
+class PartitionTracker {
+
+	private final TopicPartition partition;
+
+	private final Deque<TrackedRecord> pending = new ArrayDeque<>();
+
+	/**
+	 * 已提交的位移（下一条待消费消息的位移）
+	 */
+	private long committed = -1;
+
+	private boolean paused;
+
+	/**
+	 * seek 次数，seek 前分发的消息会被重新拉取，工作线程不再处理
+	 */
+	private volatile int generation;
+
+	/**
+	 * 重试后仍失败的最小位移，其后的消息不再处理，等 seek 后按顺序重新拉取
+	 */
+	private final AtomicLong failedOffset = new AtomicLong(Long.MAX_VALUE);
+
+	PartitionTracker(TopicPartition partition) {
+		this.partition = partition;
+	}
+
+	TrackedRecord track(long offset) {
+		TrackedRecord record = new TrackedRecord(offset, generation);
+		pending.addLast(record);
+		return record;
+	}
+
+	/**
+	 * 弹出头部连续完成的消息
+	 *
+	 * @return 新的水位（最后一条完成消息的位移 + 1），没有推进时返回 -1
+	 */
+	long drain() {
+		long watermark = -1;
+		TrackedRecord head;
+		while ((head = pending.peekFirst()) != null && head.isDone()) {
+			pending.pollFirst();
+			watermark = head.offset + 1;
+		}
+		return watermark;
+	}
+
+	/**
+	 * 头部消息重试后仍失败时返回它，需要从该位移重新拉取
+	 *
+	 * @return the tracked record
+	 */
+	TrackedRecord failedHead() {
+		TrackedRecord head = pending.peekFirst();
+		return head != null && head.isFailed() ? head : null;
+	}
+
+	/**
+	 * seek 后丢弃全部待提交记录，仍在工作线程中的消息完成后不再影响水位
+	 */
+	void reset() {
+		pending.clear();
+		generation++;
+		failedOffset.set(Long.MAX_VALUE);
+	}
+
+	/**
+	 * 工作线程中判断是否跳过：已 seek 或前面有失败的消息，该消息之后会被重新拉取
+	 *
+	 * @param record record
+	 * @return the boolean
+	 */
+	boolean isStale(TrackedRecord record) {
+		return record.generation != generation || record.offset > failedOffset.get();
+	}
+
+	/**
+	 * 工作线程中记录失败
+	 *
+	 * @param record record
+	 */
+	void fail(TrackedRecord record) {
+		failedOffset.accumulateAndGet(record.offset, Math::min);
+		record.fail();
+	}
+
+	int pending() {
+		return pending.size();
+	}
+
+	TopicPartition getPartition() {
+		return partition;
+	}
+
+	long getCommitted() {
+		return committed;
+	}
+
+	void setCommitted(long committed) {
+		this.committed = committed;
+	}
+
+	boolean isPaused() {
+		return paused;
+	}
+
+	void setPaused(boolean paused) {
+		this.paused = paused;
+	}
+
+	/**
+	 * 已分发的消息
+	 */
+	static class TrackedRecord {
+
+		private static final int RUNNING = 0;
+
+		private static final int DONE = 1;
+
+		private static final int FAILED = 2;
+
+		private final long offset;
+
+		private final int generation;
+
+		private volatile int state = RUNNING;
+
+		TrackedRecord(long offset, int generation) {
+			this.offset = offset;
+			this.generation = generation;
+		}
+
+		long getOffset() {
+			return offset;
+		}
+
+		void done() {
+			state = DONE;
+		}
+
+		void fail() {
+			state = FAILED;
+		}
+
+		boolean isDone() {
+			return state == DONE;
+		}
+
+		boolean isFailed() {
+			return state == FAILED;
+		}
+
+	}
+
+}
@@ -0,0 +1,23 @@
+package xyz.rexlin600.kafka.consumer;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * 单条消息处理逻辑
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author hekunlin
+ */
+@FunctionalInterface
+public interface RecordHandler<K, V> {
+
+	/**
+	 * Handle
+	 *
+	 * @param record record
+	 * @throws Exception 处理失败，按配置重试
+	 */
+	void handle(ConsumerRecord<K, V> record) throws Exception;
+
+}
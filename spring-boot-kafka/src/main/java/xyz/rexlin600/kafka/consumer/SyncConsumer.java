@@ -5,9 +5,13 @@ import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
+import xyz.rexlin600.idempotent.MessageDeduplicator;
+import xyz.rexlin600.kafka.config.KafkaConsumerProperties;
 import xyz.rexlin600.kafka.constant.KafkaTopicConstant;
+import xyz.rexlin600.kafka.idempotent.MessageIds;
 
 import java.util.*;
 
@@ -20,6 +24,34 @@ import java.util.*;
 @Component
 public class SyncConsumer {
 
+	/**
+	 * Consumer properties
+	 */
+	private final KafkaConsumerProperties consumerProperties;
+	/**
+	 * Parallel batch processor
+	 */
+	private final ParallelBatchProcessor parallelBatchProcessor;
+	/**
+	 * Message deduplicator
+	 */
+	private final MessageDeduplicator messageDeduplicator;
+
+	/**
+	 * Sync consumer
+	 *
+	 * @param consumerProperties     consumer properties
+	 * @param parallelBatchProcessor parallel batch processor
+	 * @param messageDeduplicator    message deduplicator
+	 */
+	@Autowired
+	public SyncConsumer(KafkaConsumerProperties consumerProperties, ParallelBatchProcessor parallelBatchProcessor,
+						MessageDeduplicator messageDeduplicator) {
+		this.consumerProperties = consumerProperties;
+		this.parallelBatchProcessor = parallelBatchProcessor;
+		this.messageDeduplicator = messageDeduplicator;
+	}
+
 	/**
 	 * On message *
 	 *
@@ -28,6 +60,12 @@ public class SyncConsumer {
 	 */
 	@KafkaListener(topics = KafkaTopicConstant.SYNC_TOPIC)
 	public void onMessage(List<ConsumerRecord<String, String>> records, Consumer consumer) {
+		// 并行模式：按 key 分发到工作线程，位移由 ParallelBatchProcessor 异步提交
+		if (consumerProperties.isParallel()) {
+			parallelBatchProcessor.process(records, consumer, this::handle);
+			return;
+		}
+
 		// map 记录消费的位移
 		Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>(records.size());
 
@@ -41,8 +79,7 @@ public class SyncConsumer {
 					continue;
 				}
 
-				// 模拟消费消息 ...
-				log.info("==>  SYNC 线程编号：[{}]，消息内容：[{}]", Thread.currentThread().getId(), records);
+				handle(record);
 
 				offsets.put(new TopicPartition(record.topic(), record.partition()), new OffsetAndMetadata(record.offset() + 1));
 			} catch (Exception e) {
@@ -56,5 +93,16 @@ public class SyncConsumer {
 		consumer.commitSync(offsets);
 	}
 
+	/**
+	 * Handle：seek 重新拉取、Rebalance 后重复投递的消息只处理一次
+	 *
+	 * @param record record
+	 * @throws Exception exception
+	 */
+	private void handle(ConsumerRecord<String, String> record) throws Exception {
+		messageDeduplicator.execute(MessageIds.of(record), () ->
+				// 模拟消费消息 ...
+				log.info("==>  SYNC 线程编号：[{}]，消息内容：[{}]", Thread.currentThread().getId(), record.value()));
+	}
 
-}
\ No newline at end of file
+}
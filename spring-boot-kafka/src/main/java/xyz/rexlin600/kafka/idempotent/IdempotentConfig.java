@@ -0,0 +1,29 @@
+package xyz.rexlin600.kafka.idempotent;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import xyz.rexlin600.idempotent.MessageDeduplicator;
+
+import java.io.IOException;
+
+/**
+ * 消费去重配置
+ *
+ * @author hekunlin
+ */
+@Configuration
+public class IdempotentConfig {
+
+	/**
+	 * 按 rexlin600.kafka.idempotent 配置创建去重器
+	 *
+	 * @param properties properties
+	 * @return the message deduplicator
+	 * @throws IOException 持久化目录无法读写
+	 */
+	@Bean
+	public MessageDeduplicator messageDeduplicator(IdempotentProperties properties) throws IOException {
+		return new MessageDeduplicator(properties);
+	}
+
+}
@@ -0,0 +1,27 @@
+package xyz.rexlin600.kafka.idempotent;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import xyz.rexlin600.idempotent.DeduplicationProperties;
+
+/**
+ * 消费幂等配置，各项说明见 {@link DeduplicationProperties}
+ *
+ * @author hekunlin
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Component
+@ConfigurationProperties(prefix = "rexlin600.kafka.idempotent")
+public class IdempotentProperties extends DeduplicationProperties {
+
+	/**
+	 * Idempotent properties，默认持久化到 ./data/idempotent/kafka
+	 */
+	public IdempotentProperties() {
+		setDir("./data/idempotent/kafka");
+	}
+
+}
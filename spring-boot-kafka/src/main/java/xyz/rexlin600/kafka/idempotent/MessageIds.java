@@ -0,0 +1,37 @@
+package xyz.rexlin600.kafka.idempotent;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 消息 id
+ *
+ * @author hekunlin
+ */
+public class MessageIds {
+
+	/**
+	 * 生产者可通过该消息头指定业务 id，生产者重试、业务重复发送的消息也能去重
+	 */
+	public static final String HEADER = "messageId";
+
+	private MessageIds() {
+	}
+
+	/**
+	 * 优先取消息头 messageId，没有则取 topic-partition@offset，seek、Rebalance 重新拉取的消息位移不变
+	 *
+	 * @param record record
+	 * @return the string
+	 */
+	public static String of(ConsumerRecord<?, ?> record) {
+		Header header = record.headers() == null ? null : record.headers().lastHeader(HEADER);
+		if (header != null && header.value() != null) {
+			return new String(header.value(), StandardCharsets.UTF_8);
+		}
+		return record.topic() + "-" + record.partition() + "@" + record.offset();
+	}
+
+}
@@ -0,0 +1,337 @@
+package xyz.rexlin600.kafka.producer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+import xyz.rexlin600.kafka.config.BulkProducerProperties;
+import xyz.rexlin600.kafka.request.BulkSendRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulk producer
+ * <p>
+ * 每个档位一个独立的 KafkaProducer（linger.ms、batch.size、压缩、幂等各不相同），批量消息逐条 send 进入缓冲区，
+ * 不等待单条 ack，由客户端按分区组批发送；ack 回调在客户端 I/O 线程中汇总，全部 ack 后完成 CompletableFuture。
+ * 缓冲区写满时 send 阻塞（max.block.ms），以此形成背压。
+ * <p>
+ * 只接受配置中的档位，KafkaProducer 的数量不超过配置的档位数，关闭时统一 destroy。
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class BulkProducer implements DisposableBean {
+
+	private final KafkaProperties kafkaProperties;
+
+	private final BulkProducerProperties properties;
+
+	/**
+	 * 档位 -> 生产者工厂
+	 */
+	private final ConcurrentMap<String, DefaultKafkaProducerFactory<String, String>> factories = new ConcurrentHashMap<>();
+
+	/**
+	 * 档位 -> 模板
+	 */
+	private final ConcurrentMap<String, KafkaTemplate<String, String>> templates = new ConcurrentHashMap<>();
+
+	/**
+	 * 主题 -> 发送计数
+	 */
+	private final ConcurrentMap<String, TopicStats> topicStats = new ConcurrentHashMap<>();
+
+	@Autowired
+	public BulkProducer(KafkaProperties kafkaProperties, BulkProducerProperties properties) {
+		this.kafkaProperties = kafkaProperties;
+		this.properties = properties;
+	}
+
+	/**
+	 * 批量发送，立即返回；所有消息 ack 后 future 完成
+	 * <p>
+	 * 注意：future 在 Kafka 客户端 I/O 线程中完成，后续的非 async 回调不要做耗时操作
+	 *
+	 * @param topic    topic
+	 * @param profile  发送档位，为空时使用默认档位
+	 * @param messages messages
+	 * @return the completable future
+	 * @throws IllegalArgumentException 未配置的档位
+	 */
+	public CompletableFuture<BulkSendResult> send(String topic, String profile, List<BulkSendRequest.Message> messages) {
+		String profileName = profile == null || profile.isEmpty() ? properties.getDefaultProfile() : profile;
+		if (properties.getProfile(profileName) == null) {
+			throw new IllegalArgumentException("unknown profile [" + profileName + "], configured: " + properties.getProfiles().keySet());
+		}
+		KafkaTemplate<String, String> template = templates.computeIfAbsent(profileName, this::createTemplate);
+		TopicStats stats = topicStats.computeIfAbsent(topic, key -> new TopicStats());
+		BulkAggregator aggregator = new BulkAggregator(topic, profileName, messages.size());
+		if (messages.isEmpty()) {
+			aggregator.complete();
+			return aggregator.future;
+		}
+
+		for (BulkSendRequest.Message message : messages) {
+			long start = System.nanoTime();
+			stats.sent.increment();
+			try {
+				template.send(topic, message.getKey(), message.getValue()).addCallback(
+						result -> {
+							long latency = System.nanoTime() - start;
+							stats.ack(latency);
+							aggregator.ack(result, latency);
+						},
+						ex -> {
+							stats.failed.increment();
+							aggregator.fail(ex);
+						});
+			} catch (Exception e) {
+				// 序列化失败、缓冲区阻塞超时等同步异常
+				stats.failed.increment();
+				aggregator.fail(e);
+			}
+		}
+		return aggregator.future;
+	}
+
+	/**
+	 * 指标：各主题发送速率、ack 延迟，各档位 batch 填充率
+	 *
+	 * @return the producer metrics
+	 */
+	public ProducerMetrics metrics() {
+		ProducerMetrics metrics = new ProducerMetrics();
+		topicStats.forEach((topic, stats) -> {
+			ProducerMetrics.TopicMetrics topicMetrics = new ProducerMetrics.TopicMetrics();
+			long acked = stats.acked.sum();
+			long failed = stats.failed.sum();
+			topicMetrics.setSent(stats.sent.sum());
+			topicMetrics.setAcked(acked);
+			topicMetrics.setFailed(failed);
+			topicMetrics.setInFlight(Math.max(0, topicMetrics.getSent() - acked - failed));
+			topicMetrics.setAvgAckLatencyMillis(acked == 0 ? 0 : toMillis(stats.ackLatency.sum() / (double) acked));
+			topicMetrics.setMaxAckLatencyMillis(toMillis(stats.maxAckLatency.get()));
+			double sendRate = 0;
+			for (KafkaTemplate<String, String> template : templates.values()) {
+				sendRate += metric(template.metrics(), "producer-topic-metrics", "record-send-rate", topic);
+			}
+			topicMetrics.setSendRate(sendRate);
+			metrics.getTopics().put(topic, topicMetrics);
+		});
+		templates.forEach((name, template) -> {
+			BulkProducerProperties.Profile profile = properties.getProfile(name);
+			Map<MetricName, ? extends Metric> clientMetrics = template.metrics();
+			ProducerMetrics.ProfileMetrics profileMetrics = new ProducerMetrics.ProfileMetrics();
+			profileMetrics.setLingerMs(profile.getLingerMs());
+			profileMetrics.setBatchSize(profile.getBatchSize());
+			profileMetrics.setCompressionType(profile.getCompressionType());
+			profileMetrics.setIdempotence(profile.isIdempotence());
+			profileMetrics.setBatchSizeAvg(metric(clientMetrics, "producer-metrics", "batch-size-avg", null));
+			profileMetrics.setBatchFillRatio(profileMetrics.getBatchSizeAvg() / profile.getBatchSize());
+			profileMetrics.setRecordsPerRequestAvg(metric(clientMetrics, "producer-metrics", "records-per-request-avg", null));
+			profileMetrics.setRecordQueueTimeAvg(metric(clientMetrics, "producer-metrics", "record-queue-time-avg", null));
+			profileMetrics.setCompressionRateAvg(metric(clientMetrics, "producer-metrics", "compression-rate-avg", null));
+			profileMetrics.setBufferAvailableBytes(metric(clientMetrics, "producer-metrics", "buffer-available-bytes", null));
+			metrics.getProfiles().put(name, profileMetrics);
+		});
+		return metrics;
+	}
+
+	@Override
+	public void destroy() {
+		// 关闭前 flush，缓冲区中未发送的消息不丢
+		templates.values().forEach(KafkaTemplate::flush);
+		factories.values().forEach(DefaultKafkaProducerFactory::destroy);
+	}
+
+	/**
+	 * 按档位创建模板，基础配置（bootstrap-servers 等）沿用 spring.kafka.producer
+	 *
+	 * @param name 档位名称
+	 * @return the kafka template
+	 */
+	private KafkaTemplate<String, String> createTemplate(String name) {
+		BulkProducerProperties.Profile profile = properties.getProfile(name);
+		Map<String, Object> configs = kafkaProperties.buildProducerProperties();
+		configs.put(ProducerConfig.CLIENT_ID_CONFIG, "bulk-" + name);
+		configs.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		configs.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		configs.put(ProducerConfig.LINGER_MS_CONFIG, profile.getLingerMs());
+		configs.put(ProducerConfig.BATCH_SIZE_CONFIG, profile.getBatchSize());
+		configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, profile.getCompressionType());
+		configs.put(ProducerConfig.BUFFER_MEMORY_CONFIG, profile.getBufferMemory());
+		configs.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, profile.getMaxBlockMs());
+		if (profile.isIdempotence()) {
+			// 幂等生产者要求 acks=all、retries>0、max.in.flight<=5
+			configs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+			configs.put(ProducerConfig.ACKS_CONFIG, "all");
+			configs.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION_CONFIG, Math.min(5, Math.max(1, profile.getMaxInFlight())));
+			Object retries = configs.get(ProducerConfig.RETRIES_CONFIG);
+			if (retries == null || Integer.parseInt(retries.toString()) <= 0) {
+				configs.put(ProducerConfig.RETRIES_CONFIG, 3);
+			}
+		} else {
+			configs.put(ProducerConfig.ACKS_CONFIG, profile.getAcks());
+			configs.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION_CONFIG, profile.getMaxInFlight());
+		}
+		log.info("==>  create bulk producer profile [{}]: linger.ms={}, batch.size={}, compression={}, idempotence={}",
+				name, profile.getLingerMs(), profile.getBatchSize(), profile.getCompressionType(), profile.isIdempotence());
+
+		DefaultKafkaProducerFactory<String, String> factory = new DefaultKafkaProducerFactory<>(configs);
+		factories.put(name, factory);
+		return new KafkaTemplate<>(factory);
+	}
+
+	/**
+	 * 读取客户端指标，不存在或尚无采样（NaN）时返回 0
+	 *
+	 * @param metrics metrics
+	 * @param group   group
+	 * @param name    name
+	 * @param topic   topic，为空时不按主题过滤
+	 * @return the double
+	 */
+	private static double metric(Map<MetricName, ? extends Metric> metrics, String group, String name, String topic) {
+		for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+			MetricName metricName = entry.getKey();
+			if (!metricName.group().equals(group) || !metricName.name().equals(name)) {
+				continue;
+			}
+			if (topic != null && !topic.equals(metricName.tags().get("topic"))) {
+				continue;
+			}
+			Object value = entry.getValue().metricValue();
+			if (value instanceof Number) {
+				double result = ((Number) value).doubleValue();
+				return Double.isNaN(result) || Double.isInfinite(result) ? 0 : result;
+			}
+		}
+		return 0;
+	}
+
+	private static double toMillis(double nanos) {
+		return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * 主题累计计数
+	 */
+	private static class TopicStats {
+
+		private final LongAdder sent = new LongAdder();
+
+		private final LongAdder acked = new LongAdder();
+
+		private final LongAdder failed = new LongAdder();
+
+		private final LongAdder ackLatency = new LongAdder();
+
+		private final AtomicLong maxAckLatency = new AtomicLong();
+
+		private void ack(long latency) {
+			acked.increment();
+			ackLatency.add(latency);
+			maxAckLatency.accumulateAndGet(latency, Math::max);
+		}
+
+	}
+
+	/**
+	 * 单次批量请求的 ack 汇总，最后一条 ack 到达时完成 future
+	 */
+	private static class BulkAggregator {
+
+		private final CompletableFuture<BulkSendResult> future = new CompletableFuture<>();
+
+		private final String topic;
+
+		private final String profile;
+
+		private final int total;
+
+		private final long start = System.nanoTime();
+
+		private final AtomicInteger remaining;
+
+		private final AtomicInteger acked = new AtomicInteger();
+
+		private final AtomicInteger failed = new AtomicInteger();
+
+		private final LongAdder ackLatency = new LongAdder();
+
+		private final AtomicLong maxAckLatency = new AtomicLong();
+
+		private final AtomicReference<String> firstError = new AtomicReference<>();
+
+		private final ConcurrentMap<Integer, AtomicInteger> partitionCounts = new ConcurrentHashMap<>();
+
+		private BulkAggregator(String topic, String profile, int total) {
+			this.topic = topic;
+			this.profile = profile;
+			this.total = total;
+			this.remaining = new AtomicInteger(total);
+		}
+
+		private void ack(SendResult<String, String> result, long latency) {
+			acked.incrementAndGet();
+			ackLatency.add(latency);
+			maxAckLatency.accumulateAndGet(latency, Math::max);
+			RecordMetadata metadata = result.getRecordMetadata();
+			partitionCounts.computeIfAbsent(metadata.partition(), key -> new AtomicInteger()).incrementAndGet();
+			countDown();
+		}
+
+		private void fail(Throwable ex) {
+			failed.incrementAndGet();
+			if (firstError.compareAndSet(null, ex.getMessage())) {
+				log.error("==>  bulk send to [{}] failed：[{}]", topic, ex.getMessage());
+			}
+			countDown();
+		}
+
+		private void countDown() {
+			if (remaining.decrementAndGet() == 0) {
+				complete();
+			}
+		}
+
+		private void complete() {
+			long elapsed = System.nanoTime() - start;
+			BulkSendResult result = new BulkSendResult();
+			result.setTopic(topic);
+			result.setProfile(profile);
+			result.setTotal(total);
+			result.setAcked(acked.get());
+			result.setFailed(failed.get());
+			result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsed));
+			result.setThroughput(elapsed == 0 ? 0 : total * (double) TimeUnit.SECONDS.toNanos(1) / elapsed);
+			result.setAvgAckLatencyMillis(acked.get() == 0 ? 0 : toMillis(ackLatency.sum() / (double) acked.get()));
+			result.setMaxAckLatencyMillis(toMillis(maxAckLatency.get()));
+			partitionCounts.forEach((partition, count) -> result.getPartitions().put(partition, count.get()));
+			result.setFirstError(firstError.get());
+			future.complete(result);
+		}
+
+	}
+
+}
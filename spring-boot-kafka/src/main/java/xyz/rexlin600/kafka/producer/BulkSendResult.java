@@ -0,0 +1,51 @@
+package xyz.rexlin600.kafka.producer;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 批量发送结果：所有消息都得到 ack（成功或失败）后汇总
+ *
+ * @author hekunlin
+ */
+@Data
+public class BulkSendResult implements Serializable {
+
+	private String topic;
+
+	private String profile;
+
+	private int total;
+
+	private int acked;
+
+	private int failed;
+
+	/**
+	 * 从第一条消息开始发送到最后一条 ack 的耗时，单位毫秒
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * 消息数 / 秒
+	 */
+	private double throughput;
+
+	private double avgAckLatencyMillis;
+
+	private double maxAckLatencyMillis;
+
+	/**
+	 * 分区 -> 成功写入的消息数
+	 */
+	private Map<Integer, Integer> partitions = new TreeMap<>();
+
+	/**
+	 * 第一条失败原因
+	 */
+	private String firstError;
+
+}
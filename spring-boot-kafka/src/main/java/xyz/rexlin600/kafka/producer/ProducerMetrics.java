@@ -0,0 +1,92 @@
+package xyz.rexlin600.kafka.producer;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 批量生产者指标
+ *
+ * @author hekunlin
+ */
+@Data
+public class ProducerMetrics implements Serializable {
+
+	/**
+	 * 主题 -> 发送指标
+	 */
+	private Map<String, TopicMetrics> topics = new TreeMap<>();
+
+	/**
+	 * 档位 -> 批处理指标
+	 */
+	private Map<String, ProfileMetrics> profiles = new TreeMap<>();
+
+	/**
+	 * 主题发送指标
+	 */
+	@Data
+	public static class TopicMetrics implements Serializable {
+
+		private long sent;
+
+		private long acked;
+
+		private long failed;
+
+		/**
+		 * 已发送未 ack 的消息数
+		 */
+		private long inFlight;
+
+		/**
+		 * 客户端 record-send-rate（各档位之和），消息数 / 秒
+		 */
+		private double sendRate;
+
+		private double avgAckLatencyMillis;
+
+		private double maxAckLatencyMillis;
+
+	}
+
+	/**
+	 * 档位批处理指标，取自 Kafka 客户端 producer-metrics
+	 */
+	@Data
+	public static class ProfileMetrics implements Serializable {
+
+		private int lingerMs;
+
+		private int batchSize;
+
+		private String compressionType;
+
+		private boolean idempotence;
+
+		/**
+		 * batch-size-avg，单位字节
+		 */
+		private double batchSizeAvg;
+
+		/**
+		 * batch 填充率：batch-size-avg / batch.size，长期偏低说明 linger.ms 太小或流量不足
+		 */
+		private double batchFillRatio;
+
+		private double recordsPerRequestAvg;
+
+		/**
+		 * record-queue-time-avg：消息在缓冲区等待组批的平均时间，单位毫秒
+		 */
+		private double recordQueueTimeAvg;
+
+		private double compressionRateAvg;
+
+		private double bufferAvailableBytes;
+
+	}
+
+}
@@ -0,0 +1,55 @@
+package xyz.rexlin600.kafka.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量发送请求类
+ *
+ * @author hekunlin
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSendRequest implements Serializable {
+
+	/**
+	 * 主题，为空时发送到 KafkaTopicConstant.BULK_TOPIC
+	 */
+	private String topic;
+
+	/**
+	 * 发送档位，为空时使用默认档位
+	 */
+	private String profile;
+
+	/**
+	 * 消息列表，同一 key 的消息进入同一分区
+	 */
+	private List<Message> messages;
+
+	/**
+	 * 单条消息
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class Message implements Serializable {
+
+		/**
+		 * 消息 key，可为空
+		 */
+		private String key;
+
+		/**
+		 * 消息内容
+		 */
+		private String value;
+
+	}
+
+}
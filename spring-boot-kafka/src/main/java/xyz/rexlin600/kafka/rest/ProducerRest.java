@@ -1,13 +1,19 @@
 package xyz.rexlin600.kafka.rest;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-import xyz.rexlin600.kafka.producer.AsyncProducer;
-import xyz.rexlin600.kafka.producer.SyncProducer;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import xyz.rexlin600.kafka.config.BulkProducerProperties;
+import xyz.rexlin600.kafka.constant.KafkaTopicConstant;
+import xyz.rexlin600.kafka.producer.*;
+import xyz.rexlin600.kafka.request.BulkSendRequest;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Kafka 生产者接口
@@ -26,17 +32,30 @@ public class ProducerRest {
 	 * A sync producer
 	 */
 	private final AsyncProducer aSyncProducer;
+	/**
+	 * Bulk producer
+	 */
+	private final BulkProducer bulkProducer;
+	/**
+	 * Bulk producer properties
+	 */
+	private final BulkProducerProperties bulkProducerProperties;
 
 	/**
 	 * Producer rest
 	 *
-	 * @param syncProducer  sync producer
-	 * @param aSyncProducer a sync producer
+	 * @param syncProducer           sync producer
+	 * @param aSyncProducer          a sync producer
+	 * @param bulkProducer           bulk producer
+	 * @param bulkProducerProperties bulk producer properties
 	 */
 	@Autowired
-	public ProducerRest(SyncProducer syncProducer, AsyncProducer aSyncProducer) {
+	public ProducerRest(SyncProducer syncProducer, AsyncProducer aSyncProducer, BulkProducer bulkProducer,
+						BulkProducerProperties bulkProducerProperties) {
 		this.syncProducer = syncProducer;
 		this.aSyncProducer = aSyncProducer;
+		this.bulkProducer = bulkProducer;
+		this.bulkProducerProperties = bulkProducerProperties;
 	}
 
 
@@ -56,5 +75,77 @@ public class ProducerRest {
 		aSyncProducer.sendMessage("I'm a ASync Message " + Instant.now().toEpochMilli());
 	}
 
+	/**
+	 * 批量发送消息，所有消息 ack 后返回汇总结果
+	 *
+	 * @param request request
+	 * @return the completable future
+	 */
+	@PostMapping("/bulk/send")
+	public CompletableFuture<BulkSendResult> sendBulk(@RequestBody BulkSendRequest request) {
+		List<BulkSendRequest.Message> messages = request.getMessages();
+		if (messages == null || messages.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "messages must not be empty");
+		}
+		checkSize(messages.size());
+		checkProfile(request.getProfile());
+		String topic = request.getTopic() == null || request.getTopic().isEmpty() ? KafkaTopicConstant.BULK_TOPIC : request.getTopic();
+		return bulkProducer.send(topic, request.getProfile(), messages);
+	}
+
+	/**
+	 * 压测：生成 count 条 size 字节的消息批量发送
+	 *
+	 * @param count   消息数
+	 * @param size    单条消息字节数
+	 * @param keys    key 个数，0 表示不带 key（按批次轮询分区）
+	 * @param profile 发送档位
+	 * @return the completable future
+	 */
+	@PostMapping("/bulk/load")
+	public CompletableFuture<BulkSendResult> load(@RequestParam(defaultValue = "10000") int count,
+												  @RequestParam(defaultValue = "512") int size,
+												  @RequestParam(defaultValue = "0") int keys,
+												  @RequestParam(required = false) String profile) {
+		checkSize(count);
+		checkProfile(profile);
+		char[] body = new char[Math.max(1, size)];
+		Arrays.fill(body, 'x');
+		String value = new String(body);
+		List<BulkSendRequest.Message> messages = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			messages.add(new BulkSendRequest.Message(keys > 0 ? String.valueOf(i % keys) : null, value));
+		}
+		return bulkProducer.send(KafkaTopicConstant.BULK_TOPIC, profile, messages);
+	}
+
+	/**
+	 * 批量生产者指标：各主题发送速率、ack 延迟，各档位 batch 填充率
+	 *
+	 * @return the producer metrics
+	 */
+	@GetMapping("/bulk/metrics")
+	public ProducerMetrics bulkMetrics() {
+		return bulkProducer.metrics();
+	}
+
+	private void checkSize(int size) {
+		if (size > bulkProducerProperties.getMaxMessages()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"too many messages, max is " + bulkProducerProperties.getMaxMessages());
+		}
+	}
+
+	/**
+	 * 只允许使用配置的档位，避免按请求参数无限创建 KafkaProducer
+	 *
+	 * @param profile 档位，为空时使用默认档位
+	 */
+	private void checkProfile(String profile) {
+		if (profile != null && !profile.isEmpty() && bulkProducerProperties.getProfile(profile) == null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"unknown profile, available: " + bulkProducerProperties.getProfiles().keySet());
+		}
+	}
 
-}
\ No newline at end of file
+}
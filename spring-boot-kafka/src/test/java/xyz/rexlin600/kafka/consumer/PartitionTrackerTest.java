@@ -0,0 +1,83 @@
+package xyz.rexlin600.kafka.consumer;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 分区位移跟踪：只有从头开始连续完成的位移才能提交
+ *
+ * @author hekunlin
+ */
+public class PartitionTrackerTest {
+
+	private final PartitionTracker tracker = new PartitionTracker(new TopicPartition("topic.test", 0));
+
+	/**
+	 * 乱序完成时水位停在第一条未完成的消息之前，补齐后一次推进到最后
+	 */
+	@Test
+	public void contiguousWatermark() {
+		PartitionTracker.TrackedRecord r10 = tracker.track(10);
+		PartitionTracker.TrackedRecord r11 = tracker.track(11);
+		PartitionTracker.TrackedRecord r12 = tracker.track(12);
+		Assert.assertEquals(-1, tracker.drain());
+
+		r11.done();
+		r12.done();
+		Assert.assertEquals(-1, tracker.drain());
+		Assert.assertEquals(3, tracker.pending());
+
+		r10.done();
+		Assert.assertEquals(13, tracker.drain());
+		Assert.assertEquals(0, tracker.pending());
+		Assert.assertEquals(-1, tracker.drain());
+	}
+
+	/**
+	 * 失败的头部消息需要从该位移重新拉取，其后的消息跳过
+	 */
+	@Test
+	public void failedHeadMakesLaterRecordsStale() {
+		PartitionTracker.TrackedRecord r10 = tracker.track(10);
+		PartitionTracker.TrackedRecord r11 = tracker.track(11);
+		PartitionTracker.TrackedRecord r12 = tracker.track(12);
+		r10.done();
+
+		tracker.fail(r11);
+		Assert.assertFalse(tracker.isStale(r10));
+		Assert.assertFalse(tracker.isStale(r11));
+		Assert.assertTrue(tracker.isStale(r12));
+
+		Assert.assertEquals(11, tracker.drain());
+		Assert.assertSame(r11, tracker.failedHead());
+	}
+
+	/**
+	 * 再平衡或 seek 后 reset：之前分发的消息都变为过期，完成后不影响水位，失败位移清除
+	 */
+	@Test
+	public void resetAfterRebalance() {
+		PartitionTracker.TrackedRecord old10 = tracker.track(10);
+		PartitionTracker.TrackedRecord old11 = tracker.track(11);
+		tracker.fail(old10);
+
+		tracker.reset();
+		Assert.assertEquals(0, tracker.pending());
+		Assert.assertNull(tracker.failedHead());
+		Assert.assertTrue(tracker.isStale(old10));
+		Assert.assertTrue(tracker.isStale(old11));
+
+		PartitionTracker.TrackedRecord r10 = tracker.track(10);
+		PartitionTracker.TrackedRecord r11 = tracker.track(11);
+		Assert.assertFalse(tracker.isStale(r10));
+		Assert.assertFalse(tracker.isStale(r11));
+
+		old11.done();
+		Assert.assertEquals(-1, tracker.drain());
+		r10.done();
+		r11.done();
+		Assert.assertEquals(12, tracker.drain());
+	}
+
+}
@@ -0,0 +1,39 @@
+package xyz.rexlin600.qrcode.base.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 二维码识别结果
+ *
+ * @author hekunlin
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DecodeResult {
+
+	/**
+	 * 图片名称（文件名或 ZIP 中的路径）
+	 */
+	private String name;
+
+	/**
+	 * 识别出的内容，一张图片中可能有多个二维码
+	 */
+	private List<String> texts;
+
+	/**
+	 * 识别耗时（毫秒）
+	 */
+	private long costMillis;
+
+	/**
+	 * 错误信息，成功时为 null
+	 */
+	private String error;
+
+}
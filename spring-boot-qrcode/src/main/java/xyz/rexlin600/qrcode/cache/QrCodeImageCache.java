@@ -0,0 +1,384 @@
+package xyz.rexlin600.qrcode.cache;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import lombok.extern.slf4j.Slf4j;
+import xyz.rexlin600.qrcode.base.constants.QrCodeConstant;
+import xyz.rexlin600.qrcode.base.entity.QrCode;
+import xyz.rexlin600.qrcode.util.QrCodeGenUtil;
+import xyz.rexlin600.qrcode.util.QrCodePngWriter;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 已生成二维码的缓存，key 为二维码内容与渲染参数的 SHA-256
+ * <p>
+ * 1. 内存层：按访问顺序淘汰（LRU），总字节数不超过 maxMemoryBytes
+ * 2. 磁盘层（可选）：保存编码后的 PNG，内存未命中时读取并回填内存
+ * 3. 同一 key 并发未命中时只渲染一次
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class QrCodeImageCache {
+
+	/**
+	 * HEX
+	 */
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	/**
+	 * 内存层，访问顺序
+	 */
+	private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(256, 0.75F, true);
+
+	/**
+	 * 正在渲染的 key
+	 */
+	private final ConcurrentMap<String, FutureTask<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * 内存层字节上限
+	 */
+	private final long maxMemoryBytes;
+
+	/**
+	 * 磁盘层目录，为 null 时不启用
+	 */
+	private final File directory;
+
+	/**
+	 * 内存层当前字节数
+	 */
+	private long memoryBytes;
+
+	/**
+	 * Memory hits
+	 */
+	private final LongAdder memoryHits = new LongAdder();
+
+	/**
+	 * Disk hits
+	 */
+	private final LongAdder diskHits = new LongAdder();
+
+	/**
+	 * Misses
+	 */
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Evictions
+	 */
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Qr code image cache，只使用内存层
+	 *
+	 * @param maxMemoryBytes max memory bytes
+	 */
+	public QrCodeImageCache(long maxMemoryBytes) {
+		this(maxMemoryBytes, null);
+	}
+
+	/**
+	 * Qr code image cache
+	 *
+	 * @param maxMemoryBytes max memory bytes
+	 * @param directory      磁盘层目录，为 null 时不启用
+	 */
+	public QrCodeImageCache(long maxMemoryBytes, File directory) {
+		this.maxMemoryBytes = maxMemoryBytes;
+		this.directory = directory;
+		if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+			throw new IllegalArgumentException(directory + " is not a directory");
+		}
+	}
+
+	/**
+	 * 缓存 key：内容、文字与渲染参数的 SHA-256（name 不影响图像，不参与计算）
+	 *
+	 * @param qrCode  qr code
+	 * @param height  height
+	 * @param width   width
+	 * @param level   level
+	 * @param logoKey logo 的标识（例如 logo 文件的摘要），无 logo 时为 null
+	 * @return the string
+	 */
+	public static String key(QrCode qrCode, int height, int width, ErrorCorrectionLevel level, String logoKey) {
+		StringBuilder sb = new StringBuilder(128);
+		sb.append(qrCode.getContent()).append('\u0000')
+				.append(qrCode.getTopText()).append('\u0000')
+				.append(qrCode.getCenterText()).append('\u0000')
+				.append(qrCode.getBottomText()).append('\u0000')
+				.append(height).append('x').append(width).append('\u0000')
+				.append(level).append('\u0000')
+				.append(logoKey).append('\u0000')
+				.append(QrCodeConstant.PNG);
+		return sha256(sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 生成（或从缓存获取）PNG，无文字时使用 {@link QrCodePngWriter} 直接编码
+	 *
+	 * @param qrCode qr code
+	 * @param height height
+	 * @param width  width
+	 * @param level  level
+	 * @return the byte [ ]
+	 * @throws IOException io exception
+	 */
+	public byte[] pngQrCode(QrCode qrCode, int height, int width, ErrorCorrectionLevel level) throws IOException {
+		String key = key(qrCode, height, width, level, null);
+		return get(key, () -> {
+			if (isEmpty(qrCode.getTopText()) && isEmpty(qrCode.getCenterText()) && isEmpty(qrCode.getBottomText())) {
+				return QrCodePngWriter.pngQrCode(qrCode.getContent(), height, width, level);
+			}
+			QrCode text = QrCode.builder()
+					.content(qrCode.getContent())
+					.topText(nullToEmpty(qrCode.getTopText()))
+					.centerText(nullToEmpty(qrCode.getCenterText()))
+					.bottomText(nullToEmpty(qrCode.getBottomText()))
+					.build();
+			BufferedImage bufferedImage = QrCodeGenUtil.simpleQrCode(qrCode.getContent(), height, width, level);
+			bufferedImage = QrCodeGenUtil.textQrCode(bufferedImage, text, new Font("宋体", Font.ITALIC, 24), Color.BLACK);
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream(8 * 1024);
+			QrCodeGenUtil.write2Stream(bufferedImage, QrCodeConstant.PNG, outputStream);
+			return outputStream.toByteArray();
+		});
+	}
+
+	/**
+	 * 获取缓存，未命中时调用 renderer 生成并放入缓存
+	 *
+	 * @param key      key
+	 * @param renderer renderer
+	 * @return the byte [ ]
+	 * @throws IOException io exception
+	 */
+	public byte[] get(String key, Callable<byte[]> renderer) throws IOException {
+		byte[] bytes = getFromMemory(key);
+		if (bytes != null) {
+			memoryHits.increment();
+			return bytes;
+		}
+
+		FutureTask<byte[]> task = new FutureTask<>(() -> load(key, renderer));
+		FutureTask<byte[]> existing = inFlight.putIfAbsent(key, task);
+		if (existing == null) {
+			try {
+				task.run();
+			} finally {
+				inFlight.remove(key, task);
+			}
+		} else {
+			task = existing;
+		}
+
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("渲染二维码被中断", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException("渲染二维码失败", cause);
+		}
+	}
+
+	/**
+	 * 命中率统计
+	 *
+	 * @return the map
+	 */
+	public Map<String, Object> stats() {
+		long memory = memoryHits.sum();
+		long disk = diskHits.sum();
+		long miss = misses.sum();
+		long total = memory + disk + miss;
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("memoryHits", memory);
+		map.put("diskHits", disk);
+		map.put("misses", miss);
+		map.put("evictions", evictions.sum());
+		map.put("hitRate", total == 0 ? 0D : (double) (memory + disk) / total);
+		synchronized (this.memory) {
+			map.put("memoryEntries", this.memory.size());
+			map.put("memoryBytes", memoryBytes);
+		}
+		return map;
+	}
+
+	/**
+	 * 清空内存层
+	 */
+	public void clear() {
+		synchronized (memory) {
+			memory.clear();
+			memoryBytes = 0;
+		}
+	}
+
+	/**
+	 * 磁盘层 -> 渲染
+	 *
+	 * @param key      key
+	 * @param renderer renderer
+	 * @return the byte [ ]
+	 * @throws Exception exception
+	 */
+	private byte[] load(String key, Callable<byte[]> renderer) throws Exception {
+		// 排队期间可能已被其它线程放入
+		byte[] bytes = getFromMemory(key);
+		if (bytes != null) {
+			memoryHits.increment();
+			return bytes;
+		}
+
+		File file = file(key);
+		if (file != null && file.isFile()) {
+			try {
+				bytes = Files.readAllBytes(file.toPath());
+				diskHits.increment();
+				putToMemory(key, bytes);
+				return bytes;
+			} catch (IOException e) {
+				log.warn("读取二维码磁盘缓存失败=[{}]，重新生成", e.getMessage());
+			}
+		}
+
+		misses.increment();
+		bytes = renderer.call();
+		putToMemory(key, bytes);
+		if (file != null) {
+			writeToDisk(file, bytes);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Get from memory
+	 *
+	 * @param key key
+	 * @return the byte [ ]
+	 */
+	private byte[] getFromMemory(String key) {
+		synchronized (memory) {
+			return memory.get(key);
+		}
+	}
+
+	/**
+	 * Put to memory，超出字节上限时淘汰最久未访问的
+	 *
+	 * @param key   key
+	 * @param bytes bytes
+	 */
+	private void putToMemory(String key, byte[] bytes) {
+		if (bytes.length > maxMemoryBytes) {
+			return;
+		}
+		synchronized (memory) {
+			byte[] old = memory.put(key, bytes);
+			memoryBytes += bytes.length - (old == null ? 0 : old.length);
+			Iterator<Map.Entry<String, byte[]>> iterator = memory.entrySet().iterator();
+			while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+				Map.Entry<String, byte[]> eldest = iterator.next();
+				memoryBytes -= eldest.getValue().length;
+				iterator.remove();
+				evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * 先写临时文件再原子移动，避免读到写了一半的文件
+	 *
+	 * @param file  file
+	 * @param bytes bytes
+	 */
+	private void writeToDisk(File file, byte[] bytes) {
+		try {
+			File parent = file.getParentFile();
+			if (!parent.isDirectory() && !parent.mkdirs()) {
+				throw new IOException(parent + " is not a directory");
+			}
+			File tmp = File.createTempFile(file.getName(), ".tmp", parent);
+			Files.write(tmp.toPath(), bytes);
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.warn("写入二维码磁盘缓存失败=[{}]", e.getMessage());
+		}
+	}
+
+	/**
+	 * 磁盘文件，按 key 前两位分目录
+	 *
+	 * @param key key
+	 * @return the file
+	 */
+	private File file(String key) {
+		if (directory == null) {
+			return null;
+		}
+		return new File(new File(directory, key.substring(0, 2)), key + "." + QrCodeConstant.PNG);
+	}
+
+	/**
+	 * Sha 256
+	 *
+	 * @param bytes bytes
+	 * @return the string
+	 */
+	private static String sha256(byte[] bytes) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+			char[] chars = new char[digest.length * 2];
+			for (int i = 0; i < digest.length; i++) {
+				chars[i * 2] = HEX[(digest[i] >>> 4) & 0x0F];
+				chars[i * 2 + 1] = HEX[digest[i] & 0x0F];
+			}
+			return new String(chars);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Is empty
+	 *
+	 * @param text text
+	 * @return the boolean
+	 */
+	private static boolean isEmpty(String text) {
+		return text == null || text.isEmpty();
+	}
+
+	/**
+	 * Null to empty
+	 *
+	 * @param text text
+	 * @return the string
+	 */
+	private static String nullToEmpty(String text) {
+		return text == null ? "" : text;
+	}
+
+}
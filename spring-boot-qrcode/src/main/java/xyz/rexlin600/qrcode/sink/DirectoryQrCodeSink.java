@@ -0,0 +1,52 @@
+package xyz.rexlin600.qrcode.sink;
+
+import xyz.rexlin600.qrcode.base.entity.QrCode;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 写入本地目录，每个二维码一个文件
+ *
+ * @author hekunlin
+ */
+public class DirectoryQrCodeSink implements QrCodeSink {
+
+	/**
+	 * Directory
+	 */
+	private final File directory;
+
+	/**
+	 * Directory qr code sink
+	 *
+	 * @param directory directory
+	 * @throws IOException io exception
+	 */
+	public DirectoryQrCodeSink(File directory) throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException(directory + " is not a directory");
+		}
+		this.directory = directory;
+	}
+
+	@Override
+	public void accept(QrCode qrCode, byte[] bytes, String format) throws IOException {
+		String base = qrCode.getName() == null || qrCode.getName().isEmpty() ? "qrcode" : qrCode.getName();
+		File file = new File(directory, base + "." + format);
+		for (int i = 1; file.exists(); i++) {
+			file = new File(directory, base + "-" + i + "." + format);
+		}
+		try (OutputStream outputStream = new FileOutputStream(file)) {
+			outputStream.write(bytes);
+		}
+	}
+
+	@Override
+	public void close() {
+		// nothing to release
+	}
+
+}
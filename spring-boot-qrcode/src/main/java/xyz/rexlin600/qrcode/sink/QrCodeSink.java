@@ -0,0 +1,27 @@
+package xyz.rexlin600.qrcode.sink;
+
+import xyz.rexlin600.qrcode.base.entity.QrCode;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 二维码输出目标，批量生成时每生成一个就写入一个，不在内存中保留图像
+ * <p>
+ * 实现类无需保证线程安全，调用方会串行调用 accept
+ *
+ * @author hekunlin
+ */
+public interface QrCodeSink extends Closeable {
+
+	/**
+	 * 写入一个已编码的二维码
+	 *
+	 * @param qrCode qr code
+	 * @param bytes  编码后的图片字节
+	 * @param format 图片格式，例如 png
+	 * @throws IOException io exception
+	 */
+	void accept(QrCode qrCode, byte[] bytes, String format) throws IOException;
+
+}
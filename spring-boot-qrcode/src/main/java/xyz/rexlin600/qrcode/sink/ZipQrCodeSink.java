@@ -0,0 +1,73 @@
+package xyz.rexlin600.qrcode.sink;
+
+import xyz.rexlin600.qrcode.base.entity.QrCode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 直接写入 ZIP 流（例如 HttpServletResponse 的输出流）
+ * <p>
+ * PNG 本身已压缩，这里使用 STORED 方式写入，避免串行的二次压缩成为瓶颈
+ *
+ * @author hekunlin
+ */
+public class ZipQrCodeSink implements QrCodeSink {
+
+	/**
+	 * Zip output stream
+	 */
+	private final ZipOutputStream zipOutputStream;
+
+	/**
+	 * 已写入的文件名，用于处理重名
+	 */
+	private final Set<String> names = new HashSet<>();
+
+	/**
+	 * Crc 32
+	 */
+	private final CRC32 crc32 = new CRC32();
+
+	/**
+	 * Zip qr code sink
+	 *
+	 * @param outputStream output stream
+	 */
+	public ZipQrCodeSink(OutputStream outputStream) {
+		this.zipOutputStream = new ZipOutputStream(outputStream);
+	}
+
+	@Override
+	public void accept(QrCode qrCode, byte[] bytes, String format) throws IOException {
+		String base = qrCode.getName() == null || qrCode.getName().isEmpty() ? "qrcode" : qrCode.getName();
+		String name = base + "." + format;
+		for (int i = 1; !names.add(name); i++) {
+			name = base + "-" + i + "." + format;
+		}
+
+		crc32.reset();
+		crc32.update(bytes, 0, bytes.length);
+		ZipEntry entry = new ZipEntry(name);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(bytes.length);
+		entry.setCompressedSize(bytes.length);
+		entry.setCrc(crc32.getValue());
+
+		zipOutputStream.putNextEntry(entry);
+		zipOutputStream.write(bytes);
+		zipOutputStream.closeEntry();
+	}
+
+	@Override
+	public void close() throws IOException {
+		zipOutputStream.finish();
+		zipOutputStream.flush();
+	}
+
+}
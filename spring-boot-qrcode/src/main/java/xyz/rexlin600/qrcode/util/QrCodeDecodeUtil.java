@@ -0,0 +1,345 @@
+package xyz.rexlin600.qrcode.util;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.google.zxing.*;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.multi.qrcode.QRCodeMultiReader;
+import lombok.extern.slf4j.Slf4j;
+import xyz.rexlin600.qrcode.base.entity.DecodeResult;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 批量并行识别二维码
+ * <p>
+ * 与 {@link QrCodeGenUtil#identifyQrCode} 不同：
+ * 1. 每个工作线程复用一个 QRCodeMultiReader，一张图片可识别多个二维码
+ * 2. 大图在解码时按 ImageReadParam 降采样，长边不超过 maxDimension，不先读出全尺寸图片
+ * 3. 在途任务数受限，结果在完成时立即回调，不在内存中汇总
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class QrCodeDecodeUtil {
+
+	/**
+	 * 默认长边上限，二维码识别不需要更高分辨率
+	 */
+	public static final int DEFAULT_MAX_DIMENSION = 1600;
+
+	/**
+	 * HINTS
+	 */
+	private static final Map<DecodeHintType, Object> HINTS;
+
+	static {
+		Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+		hints.put(DecodeHintType.CHARACTER_SET, "UTF-8");
+		hints.put(DecodeHintType.POSSIBLE_FORMATS, Collections.singletonList(BarcodeFormat.QR_CODE));
+		HINTS = Collections.unmodifiableMap(hints);
+	}
+
+	/**
+	 * 每个线程复用的 reader
+	 */
+	private static final ThreadLocal<QRCodeMultiReader> READER = ThreadLocal.withInitial(QRCodeMultiReader::new);
+
+	/**
+	 * 识别目录下的所有图片
+	 *
+	 * @param directory directory
+	 * @param consumer  结果回调，在工作线程中串行调用
+	 * @return 处理的图片数
+	 * @throws IOException          io exception
+	 * @throws InterruptedException interrupted exception
+	 */
+	public static int decodeDirectory(File directory, Consumer<DecodeResult> consumer) throws IOException, InterruptedException {
+		File[] files = directory.listFiles(File::isFile);
+		if (files == null) {
+			throw new FileNotFoundException(directory + " is not a directory");
+		}
+		Iterator<File> iterator = Arrays.asList(files).iterator();
+		Iterator<Source> sources = new Iterator<Source>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Source next() {
+				File file = iterator.next();
+				return new Source(file.getName(), () -> new FileInputStream(file));
+			}
+		};
+		return decode(sources, consumer, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_DIMENSION);
+	}
+
+	/**
+	 * 识别 ZIP 中的所有图片，ZIP 只能顺序读取，条目字节在读取线程中取出后交给工作线程
+	 *
+	 * @param zipInputStream zip input stream，不会被关闭
+	 * @param consumer       结果回调
+	 * @return 处理的图片数
+	 * @throws IOException          io exception
+	 * @throws InterruptedException interrupted exception
+	 */
+	public static int decodeZip(InputStream zipInputStream, Consumer<DecodeResult> consumer) throws IOException, InterruptedException {
+		ZipInputStream zip = new ZipInputStream(zipInputStream);
+		Iterator<Source> sources = new Iterator<Source>() {
+			private ZipEntry next = nextFile();
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public Source next() {
+				ZipEntry entry = next;
+				byte[] bytes = readEntry();
+				next = nextFile();
+				return new Source(entry.getName(), () -> new ByteArrayInputStream(bytes));
+			}
+
+			private ZipEntry nextFile() {
+				try {
+					ZipEntry entry;
+					while ((entry = zip.getNextEntry()) != null && entry.isDirectory()) {
+						// skip directory
+					}
+					return entry;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+
+			private byte[] readEntry() {
+				try {
+					ByteArrayOutputStream outputStream = new ByteArrayOutputStream(64 * 1024);
+					byte[] buffer = new byte[8 * 1024];
+					int len;
+					while ((len = zip.read(buffer)) > -1) {
+						outputStream.write(buffer, 0, len);
+					}
+					return outputStream.toByteArray();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		};
+		try {
+			return decode(sources, consumer, Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_DIMENSION);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * 并行识别
+	 *
+	 * @param sources      图片来源
+	 * @param consumer     结果回调，在工作线程中串行调用
+	 * @param parallelism  并行度
+	 * @param maxDimension 长边上限
+	 * @return 处理的图片数
+	 * @throws InterruptedException interrupted exception
+	 */
+	public static int decode(Iterator<Source> sources, Consumer<DecodeResult> consumer, int parallelism, int maxDimension)
+			throws InterruptedException {
+		parallelism = Math.max(1, parallelism);
+		int maxInFlight = parallelism * 2;
+		Semaphore semaphore = new Semaphore(maxInFlight);
+		AtomicInteger count = new AtomicInteger();
+		Object consumerLock = new Object();
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+				new ThreadFactoryBuilder().setNamePrefix("qrcode-decode-%d").build());
+		long start = Instant.now().toEpochMilli();
+		try {
+			while (sources.hasNext()) {
+				Source source = sources.next();
+				semaphore.acquire();
+				executor.execute(() -> {
+					try {
+						DecodeResult result = decode(source, maxDimension);
+						synchronized (consumerLock) {
+							consumer.accept(result);
+						}
+						count.incrementAndGet();
+					} catch (Exception e) {
+						log.error("处理图片 =[{}] 的识别结果发生错误=[{}]", source.getName(), e.getMessage());
+					} finally {
+						semaphore.release();
+					}
+				});
+			}
+			semaphore.acquire(maxInFlight);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		long cost = Instant.now().toEpochMilli() - start;
+		log.info("批量识别二维码 {} 张，共计耗时 {} ms，{} 张/秒", count.get(), cost, cost == 0 ? count.get() : count.get() * 1000L / cost);
+		return count.get();
+	}
+
+	/**
+	 * 识别单张图片
+	 *
+	 * @param source       source
+	 * @param maxDimension 长边上限
+	 * @return the decode result
+	 */
+	public static DecodeResult decode(Source source, int maxDimension) {
+		long start = System.nanoTime();
+		DecodeResult result = new DecodeResult(source.getName(), Collections.emptyList(), 0, null);
+		try (InputStream inputStream = source.open()) {
+			BufferedImage image = readScaled(inputStream, maxDimension);
+			if (image == null) {
+				result.setError("无法识别图片格式");
+			} else {
+				result.setTexts(decode(image));
+				image.flush();
+			}
+		} catch (Exception e) {
+			result.setError(e.getMessage());
+		}
+		result.setCostMillis((System.nanoTime() - start) / 1_000_000);
+		return result;
+	}
+
+	/**
+	 * 识别图片中的所有二维码，没有二维码时返回空列表
+	 *
+	 * @param image image
+	 * @return the list
+	 */
+	public static List<String> decode(BufferedImage image) {
+		BinaryBitmap binaryBitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+		QRCodeMultiReader reader = READER.get();
+		try {
+			Result[] results = reader.decodeMultiple(binaryBitmap, HINTS);
+			List<String> texts = new ArrayList<>(results.length);
+			for (Result result : results) {
+				texts.add(result.getText());
+			}
+			return texts;
+		} catch (NotFoundException e) {
+			return Collections.emptyList();
+		} finally {
+			reader.reset();
+		}
+	}
+
+	/**
+	 * 读取图片，长边超过 maxDimension 时在解码阶段降采样
+	 *
+	 * @param inputStream  input stream
+	 * @param maxDimension max dimension
+	 * @return the buffered image，格式无法识别时为 null
+	 * @throws IOException io exception
+	 */
+	private static BufferedImage readScaled(InputStream inputStream, int maxDimension) throws IOException {
+		try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+			if (imageInputStream == null) {
+				return null;
+			}
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+			if (!readers.hasNext()) {
+				return null;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(imageInputStream, true, true);
+				int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+				ImageReadParam param = reader.getDefaultReadParam();
+				if (maxDimension > 0 && longest > maxDimension) {
+					int step = (longest + maxDimension - 1) / maxDimension;
+					param.setSourceSubsampling(step, step, 0, 0);
+				}
+				return reader.read(0, param);
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	/**
+	 * 图片来源
+	 */
+	public static class Source {
+
+		/**
+		 * Name
+		 */
+		private final String name;
+
+		/**
+		 * Opener
+		 */
+		private final Opener opener;
+
+		/**
+		 * Source
+		 *
+		 * @param name   name
+		 * @param opener opener
+		 */
+		public Source(String name, Opener opener) {
+			this.name = name;
+			this.opener = opener;
+		}
+
+		/**
+		 * Gets name *
+		 *
+		 * @return the name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Open
+		 *
+		 * @return the input stream
+		 * @throws IOException io exception
+		 */
+		public InputStream open() throws IOException {
+			return opener.open();
+		}
+
+	}
+
+	/**
+	 * 延迟打开输入流，只在工作线程中打开
+	 */
+	@FunctionalInterface
+	public interface Opener {
+
+		/**
+		 * Open
+		 *
+		 * @return the input stream
+		 * @throws IOException io exception
+		 */
+		InputStream open() throws IOException;
+
+	}
+
+}
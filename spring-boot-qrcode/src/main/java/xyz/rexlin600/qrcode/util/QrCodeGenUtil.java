@@ -339,11 +339,22 @@ public class QrCodeGenUtil {
 	 * @return the buffered image
 	 */
 	public static BufferedImage textQrCode(QrCode qrCode, Font font, Color color) {
+		return textQrCode(simpleQrCode(qrCode.getContent()), qrCode, font, color);
+	}
+
+	/**
+	 * Text qr code buffered image，在已有的二维码图像（例如已绘制 logo）上绘制文字
+	 *
+	 * @param bufferedImage buffered image
+	 * @param qrCode        qr code
+	 * @param font          font
+	 * @param color         color
+	 * @return the buffered image
+	 */
+	public static BufferedImage textQrCode(BufferedImage bufferedImage, QrCode qrCode, Font font, Color color) {
 		// handle font
 		font = handleFont(qrCode.getTopText(), qrCode.getCenterText(), qrCode.getBottomText(), font);
 
-		BufferedImage bufferedImage = simpleQrCode(qrCode.getContent());
-
 		// 获取二维码的宽高
 		int imageWidth = bufferedImage.getWidth();
 		int imageHeight = bufferedImage.getHeight();
@@ -0,0 +1,215 @@
+package xyz.rexlin600.qrcode.util;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import xyz.rexlin600.qrcode.base.constants.QrCodeConstant;
+import xyz.rexlin600.qrcode.base.entity.QrCode;
+import xyz.rexlin600.qrcode.sink.QrCodeSink;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 流式批量生成二维码
+ * <p>
+ * 与 {@link QrCodeGenUtil#batchTextQrCode} 不同，这里不把所有图像放进 List：
+ * 1. 任务数由信号量限制在 parallelism * 2 以内，生产方在队列满时阻塞（背压）
+ * 2. 每个二维码在工作线程中编码为图片字节后立即写入 {@link QrCodeSink}，图像随即可回收
+ * 3. logo 只解码一次，所有线程共享
+ * 4. 线程数默认等于 CPU 核数，不再嵌套 parallelStream
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class QrCodeStreamUtil {
+
+	/**
+	 * 默认字体
+	 */
+	private static final Font DEFAULT_FONT = new Font("宋体", Font.ITALIC, 24);
+
+	/**
+	 * 流式批量生成，线程数为 CPU 核数
+	 *
+	 * @param source 二维码数据，可以是惰性的 Iterator（例如分页查询数据库）
+	 * @param logo   logo，可为 null
+	 * @param sink   sink
+	 * @return 成功写入的数量
+	 * @throws IOException          io exception
+	 * @throws InterruptedException interrupted exception
+	 */
+	public static int streamQrCode(Iterator<QrCode> source, BufferedImage logo, QrCodeSink sink) throws IOException, InterruptedException {
+		return streamQrCode(source, logo, sink, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * 流式批量生成
+	 *
+	 * @param source      二维码数据
+	 * @param logo        logo，可为 null
+	 * @param sink        sink
+	 * @param parallelism 并行度
+	 * @return 成功写入的数量
+	 * @throws IOException          写入 sink 失败时抛出，此时停止生成
+	 * @throws InterruptedException interrupted exception
+	 */
+	public static int streamQrCode(Iterator<QrCode> source, BufferedImage logo, QrCodeSink sink, int parallelism)
+			throws IOException, InterruptedException {
+		parallelism = Math.max(1, parallelism);
+		int maxInFlight = parallelism * 2;
+		Semaphore semaphore = new Semaphore(maxInFlight);
+		AtomicInteger success = new AtomicInteger();
+		AtomicInteger failed = new AtomicInteger();
+		AtomicReference<IOException> sinkError = new AtomicReference<>();
+		Object sinkLock = new Object();
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+				new ThreadFactoryBuilder().setNamePrefix("qrcode-stream-%d").build());
+		long start = Instant.now().toEpochMilli();
+		try {
+			while (source.hasNext() && sinkError.get() == null) {
+				QrCode qrCode = source.next();
+				// 背压：在途任务达到上限时阻塞生产方
+				semaphore.acquire();
+				executor.execute(() -> {
+					try {
+						byte[] bytes = render(qrCode, logo);
+						synchronized (sinkLock) {
+							if (sinkError.get() == null) {
+								sink.accept(qrCode, bytes, QrCodeConstant.PNG);
+								success.incrementAndGet();
+							}
+						}
+					} catch (IOException e) {
+						sinkError.compareAndSet(null, e);
+					} catch (Exception e) {
+						failed.incrementAndGet();
+						log.error("生成内容为 =[{}] 的二维码发生错误=[{}]，跳过！", qrCode.getContent(), e.getMessage());
+					} finally {
+						semaphore.release();
+					}
+				});
+			}
+			// 等待在途任务完成
+			semaphore.acquire(maxInFlight);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		if (sinkError.get() != null) {
+			throw sinkError.get();
+		}
+		log.info("流式生成二维码 成功 {} 个，失败 {} 个，共计耗时 {} ms", success.get(), failed.get(), Instant.now().toEpochMilli() - start);
+		return success.get();
+	}
+
+	/**
+	 * 读取 logo，批量生成前调用一次
+	 *
+	 * @param logoFile logo file
+	 * @return the buffered image
+	 * @throws IOException io exception
+	 */
+	public static BufferedImage readLogo(File logoFile) throws IOException {
+		return checkLogo(ImageIO.read(logoFile));
+	}
+
+	/**
+	 * 读取 logo，批量生成前调用一次
+	 *
+	 * @param url url
+	 * @return the buffered image
+	 * @throws IOException io exception
+	 */
+	public static BufferedImage readLogo(URL url) throws IOException {
+		return checkLogo(ImageIO.read(url));
+	}
+
+	/**
+	 * 读取 logo，批量生成前调用一次
+	 *
+	 * @param inputStream input stream
+	 * @return the buffered image
+	 * @throws IOException io exception
+	 */
+	public static BufferedImage readLogo(InputStream inputStream) throws IOException {
+		try {
+			return checkLogo(ImageIO.read(inputStream));
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * 生成单个二维码并编码为 PNG
+	 *
+	 * @param qrCode qr code
+	 * @param logo   logo
+	 * @return the byte [ ]
+	 * @throws Exception exception
+	 */
+	private static byte[] render(QrCode qrCode, BufferedImage logo) throws Exception {
+		BufferedImage bufferedImage = QrCodeGenUtil.simpleQrCode(qrCode.getContent());
+
+		// 默认处理：如果存在 logo 填充则不需要再增加中心文字，使用副本避免修改调用方的数据
+		QrCode text = QrCode.builder()
+				.name(qrCode.getName())
+				.content(qrCode.getContent())
+				.topText(nullToEmpty(qrCode.getTopText()))
+				.centerText(logo == null ? nullToEmpty(qrCode.getCenterText()) : "")
+				.bottomText(nullToEmpty(qrCode.getBottomText()))
+				.build();
+		if (logo != null) {
+			bufferedImage = QrCodeGenUtil.logoQrCode(bufferedImage, logo);
+		}
+		bufferedImage = QrCodeGenUtil.textQrCode(bufferedImage, text, DEFAULT_FONT, Color.BLACK);
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream(8 * 1024);
+		try {
+			if (!ImageIO.write(bufferedImage, QrCodeConstant.PNG, outputStream)) {
+				throw new IllegalStateException("no png writer");
+			}
+		} finally {
+			bufferedImage.flush();
+		}
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * Check logo
+	 *
+	 * @param logo logo
+	 * @return the buffered image
+	 * @throws IOException io exception
+	 */
+	private static BufferedImage checkLogo(BufferedImage logo) throws IOException {
+		if (logo == null) {
+			throw new IOException("无法识别 logo 图片格式");
+		}
+		return logo;
+	}
+
+	/**
+	 * Null to empty
+	 *
+	 * @param text text
+	 * @return the string
+	 */
+	private static String nullToEmpty(String text) {
+		return text == null ? "" : text;
+	}
+
+}
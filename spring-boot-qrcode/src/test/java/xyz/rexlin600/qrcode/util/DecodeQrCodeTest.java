@@ -0,0 +1,65 @@
+package xyz.rexlin600.qrcode.util;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.Assert;
+import org.junit.Test;
+import xyz.rexlin600.qrcode.base.entity.DecodeResult;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class DecodeQrCodeTest {
+
+	@Test
+	public void decodeZip() throws Exception {
+		ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(zipBytes)) {
+			for (int i = 0; i < 20; i++) {
+				zip.putNextEntry(new ZipEntry("code-" + i + ".png"));
+				zip.write(QrCodePngWriter.pngQrCode("content-" + i, 400, 400, ErrorCorrectionLevel.M));
+				zip.closeEntry();
+			}
+		}
+
+		Map<String, List<String>> results = new HashMap<>();
+		int count = QrCodeDecodeUtil.decodeZip(new ByteArrayInputStream(zipBytes.toByteArray()),
+				result -> results.put(result.getName(), result.getTexts()));
+
+		Assert.assertEquals(20, count);
+		Assert.assertEquals(Collections.singletonList("content-7"), results.get("code-7.png"));
+	}
+
+	@Test
+	public void decodeMultiple() throws Exception {
+		BufferedImage left = ImageIO.read(new ByteArrayInputStream(QrCodePngWriter.pngQrCode("left", 300, 300, ErrorCorrectionLevel.M)));
+		BufferedImage right = ImageIO.read(new ByteArrayInputStream(QrCodePngWriter.pngQrCode("right", 300, 300, ErrorCorrectionLevel.M)));
+		BufferedImage image = new BufferedImage(700, 300, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 0, 700, 300);
+		graphics.drawImage(left, 0, 0, null);
+		graphics.drawImage(right, 400, 0, null);
+		graphics.dispose();
+
+		List<String> texts = QrCodeDecodeUtil.decode(image);
+		Assert.assertEquals(new HashSet<>(Arrays.asList("left", "right")), new HashSet<>(texts));
+	}
+
+	@Test
+	public void decodeLargeImage() throws Exception {
+		// 4000x4000 的图片会被降采样到 1600 以内
+		byte[] png = QrCodePngWriter.pngQrCode("large", 4000, 4000, ErrorCorrectionLevel.M);
+		DecodeResult result = QrCodeDecodeUtil.decode(new QrCodeDecodeUtil.Source("large.png", () -> new ByteArrayInputStream(png)),
+				QrCodeDecodeUtil.DEFAULT_MAX_DIMENSION);
+		Assert.assertNull(result.getError());
+		Assert.assertEquals(Collections.singletonList("large"), result.getTexts());
+	}
+
+}
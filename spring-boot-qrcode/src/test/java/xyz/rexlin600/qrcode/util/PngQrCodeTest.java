@@ -0,0 +1,48 @@
+package xyz.rexlin600.qrcode.util;
+
+import com.google.zxing.Result;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Base64;
+
+public class PngQrCodeTest {
+
+	private static final String CONTENT = "This is a simple QRCode";
+
+	@Test
+	public void pngQrCode() throws Exception {
+		byte[] png = QrCodePngWriter.pngQrCode(CONTENT, 400, 400, ErrorCorrectionLevel.M);
+
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+		Assert.assertEquals(400, image.getWidth());
+		Assert.assertEquals(400, image.getHeight());
+
+		// 与旧的 BufferedImage 路径逐像素比较
+		BufferedImage expected = QrCodeGenUtil.simpleQrCode(CONTENT, 400, 400, ErrorCorrectionLevel.M);
+		for (int y = 0; y < 400; y++) {
+			for (int x = 0; x < 400; x++) {
+				boolean black = (image.getRGB(x, y) & 0xFFFFFF) == 0;
+				boolean expectedBlack = (expected.getRGB(x, y) & 0xFFFFFF) != 0xFFFFFF;
+				Assert.assertEquals(expectedBlack, black);
+			}
+		}
+
+		Result result = QrCodeGenUtil.identifyQrCode(image);
+		Assert.assertEquals(CONTENT, result.getText());
+	}
+
+	@Test
+	public void base64PngQrCode() throws Exception {
+		String dataUri = QrCodePngWriter.base64PngQrCode(CONTENT, 200, 200, ErrorCorrectionLevel.H);
+		Assert.assertTrue(dataUri.startsWith(QrCodePngWriter.DATA_URI_PREFIX));
+
+		byte[] png = Base64.getDecoder().decode(dataUri.substring(QrCodePngWriter.DATA_URI_PREFIX.length()));
+		Assert.assertArrayEquals(QrCodePngWriter.pngQrCode(CONTENT, 200, 200, ErrorCorrectionLevel.H), png);
+	}
+
+}
@@ -0,0 +1,57 @@
+package xyz.rexlin600.qrcode.util;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.Assert;
+import org.junit.Test;
+import xyz.rexlin600.qrcode.base.entity.QrCode;
+import xyz.rexlin600.qrcode.cache.QrCodeImageCache;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+
+public class QrCodeCacheTest {
+
+	@Test
+	public void memoryCache() throws Exception {
+		QrCodeImageCache cache = new QrCodeImageCache(1024 * 1024);
+		QrCode qrCode = new QrCode("campaign", "content-1", "", "", "");
+
+		byte[] first = cache.pngQrCode(qrCode, 400, 400, ErrorCorrectionLevel.M);
+		byte[] second = cache.pngQrCode(qrCode, 400, 400, ErrorCorrectionLevel.M);
+		Assert.assertSame(first, second);
+
+		// 渲染参数不同，key 不同
+		cache.pngQrCode(qrCode, 200, 200, ErrorCorrectionLevel.M);
+
+		Map<String, Object> stats = cache.stats();
+		Assert.assertEquals(1L, stats.get("memoryHits"));
+		Assert.assertEquals(2L, stats.get("misses"));
+	}
+
+	@Test
+	public void memoryBudget() throws Exception {
+		QrCodeImageCache cache = new QrCodeImageCache(100);
+		cache.get("a", () -> new byte[60]);
+		cache.get("b", () -> new byte[60]);
+
+		Map<String, Object> stats = cache.stats();
+		Assert.assertEquals(1L, stats.get("evictions"));
+		Assert.assertEquals(60L, stats.get("memoryBytes"));
+	}
+
+	@Test
+	public void diskCache() throws Exception {
+		File dir = Files.createTempDirectory("qrcode-cache").toFile();
+		QrCode qrCode = new QrCode("campaign", "content-2", "top", "", "bottom");
+
+		byte[] first = new QrCodeImageCache(1024 * 1024, dir).pngQrCode(qrCode, 400, 400, ErrorCorrectionLevel.M);
+
+		// 新实例内存为空，从磁盘读取
+		QrCodeImageCache cache = new QrCodeImageCache(1024 * 1024, dir);
+		byte[] second = cache.pngQrCode(qrCode, 400, 400, ErrorCorrectionLevel.M);
+		Assert.assertArrayEquals(first, second);
+		Assert.assertEquals(1L, cache.stats().get("diskHits"));
+	}
+
+}
@@ -0,0 +1,106 @@
+package xyz.rexlin600.qrcode.util;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量识别吞吐量
+ * <p>
+ * 每次调用识别 BATCH 张图片，结果单位为 张/秒；除以 parallelism 即为每核吞吐量
+ *
+ * @author hekunlin
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QrCodeDecodeBenchmark {
+
+	/**
+	 * BATCH
+	 */
+	private static final int BATCH = 64;
+
+	/**
+	 * Parallelism
+	 */
+	@Param({"1", "2", "4", "8"})
+	private int parallelism;
+
+	/**
+	 * 图片边长
+	 */
+	@Param({"400", "3000"})
+	private int size;
+
+	/**
+	 * Images
+	 */
+	private List<byte[]> images;
+
+	/**
+	 * Sets up
+	 *
+	 * @throws IOException io exception
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		images = new ArrayList<>(BATCH);
+		for (int i = 0; i < BATCH; i++) {
+			images.add(QrCodePngWriter.pngQrCode("content-" + i, size, size, ErrorCorrectionLevel.M));
+		}
+	}
+
+	/**
+	 * Decode batch
+	 *
+	 * @return the int
+	 * @throws InterruptedException interrupted exception
+	 */
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public int decode() throws InterruptedException {
+		Iterator<byte[]> iterator = images.iterator();
+		AtomicInteger found = new AtomicInteger();
+		return QrCodeDecodeUtil.decode(new Iterator<QrCodeDecodeUtil.Source>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public QrCodeDecodeUtil.Source next() {
+				byte[] bytes = iterator.next();
+				return new QrCodeDecodeUtil.Source("image", () -> new ByteArrayInputStream(bytes));
+			}
+		}, result -> found.addAndGet(result.getTexts().size()), parallelism, QrCodeDecodeUtil.DEFAULT_MAX_DIMENSION);
+	}
+
+	/**
+	 * Main
+	 *
+	 * @param args args
+	 * @throws RunnerException runner exception
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(QrCodeDecodeBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,87 @@
+package xyz.rexlin600.qrcode.util;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BufferedImage + JPG + Base64 与 BitMatrix 直接写 PNG 的对比
+ * <p>
+ * 运行 main 方法，GCProfiler 输出的 gc.alloc.rate.norm 即每次操作的分配字节数
+ *
+ * @author hekunlin
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QrCodeRenderBenchmark {
+
+	/**
+	 * Size
+	 */
+	@Param({"200", "400", "800"})
+	private int size;
+
+	/**
+	 * Content
+	 */
+	private final String content = "https://github.com/rexlin600/springboot-sutra-pavilion";
+
+	/**
+	 * 旧路径：BufferedImage -> JPG -> Base64 -> replaceAll
+	 *
+	 * @return the string
+	 * @throws IOException io exception
+	 */
+	@Benchmark
+	public String bufferedImageJpgBase64() throws IOException {
+		return QrCodeGenUtil.base64QrCode(QrCodeGenUtil.simpleQrCode(content, size, size, ErrorCorrectionLevel.M));
+	}
+
+	/**
+	 * 新路径：BitMatrix -> 1 位 PNG -> 流式 Base64
+	 *
+	 * @return the string
+	 * @throws IOException io exception
+	 */
+	@Benchmark
+	public String bitMatrixPngBase64() throws IOException {
+		return QrCodePngWriter.base64PngQrCode(content, size, size, ErrorCorrectionLevel.M);
+	}
+
+	/**
+	 * 新路径：只输出 PNG 字节
+	 *
+	 * @return the byte [ ]
+	 * @throws IOException io exception
+	 */
+	@Benchmark
+	public byte[] bitMatrixPng() throws IOException {
+		return QrCodePngWriter.pngQrCode(content, size, size, ErrorCorrectionLevel.M);
+	}
+
+	/**
+	 * Main
+	 *
+	 * @param args args
+	 * @throws RunnerException runner exception
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(QrCodeRenderBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
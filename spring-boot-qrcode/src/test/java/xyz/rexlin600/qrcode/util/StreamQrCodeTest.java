@@ -0,0 +1,49 @@
+package xyz.rexlin600.qrcode.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import xyz.rexlin600.qrcode.base.entity.QrCode;
+import xyz.rexlin600.qrcode.sink.ZipQrCodeSink;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.zip.ZipFile;
+
+public class StreamQrCodeTest {
+
+	@Test
+	public void streamQrCode() throws Exception {
+		int total = 200;
+		// 惰性生成数据，模拟分页读取
+		Iterator<QrCode> source = new Iterator<QrCode>() {
+			private int i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return i < total;
+			}
+
+			@Override
+			public QrCode next() {
+				i++;
+				return new QrCode("code-" + i, "content-" + i, "top", "", "bottom-" + i);
+			}
+		};
+
+		File zip = File.createTempFile("qrcode-stream", ".zip");
+		zip.deleteOnExit();
+		int count;
+		try (OutputStream outputStream = new FileOutputStream(zip);
+			 ZipQrCodeSink sink = new ZipQrCodeSink(outputStream)) {
+			count = QrCodeStreamUtil.streamQrCode(source, null, sink, 4);
+		}
+
+		Assert.assertEquals(total, count);
+		try (ZipFile zipFile = new ZipFile(zip)) {
+			Assert.assertEquals(total, zipFile.size());
+		}
+	}
+
+}
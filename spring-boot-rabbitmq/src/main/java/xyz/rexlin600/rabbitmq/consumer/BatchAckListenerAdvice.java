@@ -0,0 +1,86 @@
+package xyz.rexlin600.rabbitmq.consumer;
+
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Message;
+
+/**
+ * 监听容器切面：手动确认模式下，@RabbitHandler 抛出异常（重试之后）时通过 {@link BatchAcknowledger} 拒绝该消息
+ * <p>
+ * 手动确认模式下容器不会拒绝处理失败的消息，它会一直处于 unacked 状态，随后的累计确认会把它一并确认；
+ * 在这里先发送之前记下的 ack，再单独 nack 这条消息。放在切面链最外层，去重切面跳过的消息不经过这里的确认
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class BatchAckListenerAdvice implements MethodInterceptor {
+
+	/**
+	 * 累计确认
+	 */
+	private final BatchAcknowledger acknowledger;
+
+	/**
+	 * 容器的确认模式，只在 MANUAL 时拒绝失败的消息
+	 */
+	private final AcknowledgeMode acknowledgeMode;
+
+	/**
+	 * 对应 spring.rabbitmq.listener.simple.default-requeue-rejected
+	 */
+	private final boolean defaultRequeueRejected;
+
+	/**
+	 * Batch ack listener advice
+	 *
+	 * @param acknowledger           累计确认
+	 * @param acknowledgeMode        容器的确认模式
+	 * @param defaultRequeueRejected 失败的消息是否重新入队
+	 */
+	public BatchAckListenerAdvice(BatchAcknowledger acknowledger, AcknowledgeMode acknowledgeMode, boolean defaultRequeueRejected) {
+		this.acknowledger = acknowledger;
+		this.acknowledgeMode = acknowledgeMode;
+		this.defaultRequeueRejected = defaultRequeueRejected;
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		Object[] args = invocation.getArguments();
+		if (acknowledgeMode != AcknowledgeMode.MANUAL || args.length < 2 || !(args[0] instanceof Channel) || !(args[1] instanceof Message)) {
+			return invocation.proceed();
+		}
+		try {
+			return invocation.proceed();
+		} catch (Throwable t) {
+			Message message = (Message) args[1];
+			boolean requeue = defaultRequeueRejected && !isRejectAndDontRequeue(t);
+			try {
+				acknowledger.nack((Channel) args[0], message, false, requeue);
+				log.warn("==>  消息 [{}] 处理失败，nack requeue=[{}]", message.getMessageProperties().getDeliveryTag(), requeue);
+			} catch (Exception e) {
+				log.error("==>  nack 失败：[{}]", e.getMessage());
+			}
+			throw t;
+		}
+	}
+
+	/**
+	 * 异常链中是否有 {@link AmqpRejectAndDontRequeueException}
+	 *
+	 * @param t t
+	 * @return the boolean
+	 */
+	private static boolean isRejectAndDontRequeue(Throwable t) {
+		for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+			if (cause instanceof AmqpRejectAndDontRequeueException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
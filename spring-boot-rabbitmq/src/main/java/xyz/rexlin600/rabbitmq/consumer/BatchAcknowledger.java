@@ -0,0 +1,383 @@
+package xyz.rexlin600.rabbitmq.consumer;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 累计确认：处理完成的消息先记下，累计 ackBatchSize 条或等待超过 ackIntervalMillis 后发送一次 basicAck(tag, multiple=true)
+ * <p>
+ * 同一个 channel 上的投递由一个消费线程按 deliveryTag 顺序处理，确认最大的 tag 即确认了之前所有处理完成的消息；
+ * 处理失败的消息在 nack 之前先把已记下的 ack 发出去，避免被后续的累计确认一并确认。
+ * 同一个 tag 不能确认两次，否则 broker 会关闭 channel，因此每个 channel 只发送递增的 tag。
+ * <p>
+ * channel 在发送 ack 之前关闭时，已处理的消息会被重新投递（at-least-once）
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class BatchAcknowledger implements DisposableBean {
+
+	/**
+	 * ackBatchSize、ackIntervalMillis
+	 */
+	private final RabbitConsumerProperties properties;
+
+	/**
+	 * channel -> 记下、尚未发送的 ack
+	 */
+	private final ConcurrentMap<Channel, ChannelAcks> channels = new ConcurrentHashMap<>();
+
+	/**
+	 * 队列 -> 消费统计
+	 */
+	private final ConcurrentMap<String, QueueStats> queues = new ConcurrentHashMap<>();
+
+	/**
+	 * 发送超时的 ack、采样消费速率
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * Batch acknowledger
+	 *
+	 * @param properties properties
+	 */
+	@Autowired
+	public BatchAcknowledger(RabbitConsumerProperties properties) {
+		this.properties = properties;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNamePrefix("rabbit-ack-%d").setDaemon(true).build());
+		long interval = Math.max(1, properties.getAckIntervalMillis() / 2);
+		scheduler.scheduleWithFixedDelay(this::flushExpired, interval, interval, TimeUnit.MILLISECONDS);
+		scheduler.scheduleAtFixedRate(this::sampleRates, 1, 1, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * 记录一条处理完成的消息，达到累计条数时立即发送 ack
+	 *
+	 * @param channel channel
+	 * @param message message
+	 * @throws IOException io exception
+	 */
+	public void ack(Channel channel, Message message) throws IOException {
+		ack(channel, Collections.singletonList(message));
+	}
+
+	/**
+	 * 记录一批处理完成的消息，达到累计条数时立即发送 ack
+	 *
+	 * @param channel  channel
+	 * @param messages 按投递顺序
+	 * @throws IOException io exception
+	 */
+	public void ack(Channel channel, List<Message> messages) throws IOException {
+		if (messages.isEmpty()) {
+			return;
+		}
+		Message last = messages.get(messages.size() - 1);
+		ChannelAcks acks = channels.computeIfAbsent(channel, c -> new ChannelAcks(c, stats(last)));
+		synchronized (acks) {
+			acks.record(last.getMessageProperties().getDeliveryTag(), messages.size());
+			if (acks.count >= properties.getAckBatchSize()) {
+				acks.flush();
+			}
+		}
+	}
+
+	/**
+	 * 拒绝 tag 不大于 message 的所有未确认消息：先发送之前记下的 ack，再 nack
+	 *
+	 * @param channel  channel
+	 * @param message  message
+	 * @param multiple true：同时拒绝之前所有未确认、也没有记下 ack 的消息（一批消息）
+	 * @param requeue  是否重新入队
+	 * @throws IOException io exception
+	 */
+	public void nack(Channel channel, Message message, boolean multiple, boolean requeue) throws IOException {
+		long deliveryTag = message.getMessageProperties().getDeliveryTag();
+		ChannelAcks acks = channels.get(channel);
+		if (acks == null) {
+			channel.basicNack(deliveryTag, multiple, requeue);
+			stats(message).nacked.increment();
+			return;
+		}
+		synchronized (acks) {
+			acks.flush();
+			// 已经确认过的 tag 不能再拒绝
+			if (deliveryTag > acks.acked) {
+				channel.basicNack(deliveryTag, multiple, requeue);
+				acks.acked = deliveryTag;
+				stats(message).nacked.increment();
+			}
+		}
+	}
+
+	/**
+	 * 各队列的消费统计
+	 *
+	 * @return queue -> metrics
+	 */
+	public Map<String, QueueConsumeMetrics> metrics() {
+		Map<String, QueueConsumeMetrics> metrics = new TreeMap<>();
+		queues.forEach((queue, stats) -> {
+			QueueConsumeMetrics m = new QueueConsumeMetrics();
+			m.setQueue(queue);
+			m.setConsumed(stats.consumed.sum());
+			m.setConsumeRate(stats.rate);
+			m.setNacked(stats.nacked.sum());
+			long frames = stats.ackFrames.sum();
+			m.setAckFrames(frames);
+			m.setMessagesPerAck(frames == 0 ? 0 : (double) stats.acked.sum() / frames);
+			m.setAvgAckLagMillis(stats.acked.sum() == 0 ? 0 : stats.lagNanos.sum() / 1e6 / stats.acked.sum());
+			m.setMaxAckLagMillis(stats.maxLagNanos / 1e6);
+			metrics.put(queue, m);
+		});
+		for (ChannelAcks acks : channels.values()) {
+			QueueConsumeMetrics m = metrics.get(acks.stats.queue);
+			if (m != null) {
+				m.setPendingAcks(m.getPendingAcks() + acks.count);
+			}
+		}
+		return metrics;
+	}
+
+	@Override
+	public void destroy() {
+		scheduler.shutdown();
+		channels.values().forEach(acks -> {
+			synchronized (acks) {
+				acks.flushQuietly();
+			}
+		});
+	}
+
+	/**
+	 * 发送等待超过 ackIntervalMillis 的 ack；清理已关闭的 channel
+	 */
+	private void flushExpired() {
+		long expireBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(properties.getAckIntervalMillis());
+		for (ChannelAcks acks : channels.values()) {
+			if (!acks.channel.isOpen()) {
+				channels.remove(acks.channel);
+				if (acks.count > 0) {
+					log.warn("==>  channel 已关闭，[{}] 条已处理消息未确认，将被重新投递", acks.count);
+				}
+				continue;
+			}
+			synchronized (acks) {
+				if (acks.count > 0 && acks.firstPendingAt <= expireBefore) {
+					acks.flushQuietly();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 每秒采样一次各队列的消费速率
+	 */
+	private void sampleRates() {
+		long now = System.nanoTime();
+		for (QueueStats stats : queues.values()) {
+			long consumed = stats.consumed.sum();
+			if (stats.sampledAt > 0) {
+				stats.rate = (consumed - stats.sampledCount) * 1e9 / (now - stats.sampledAt);
+			}
+			stats.sampledCount = consumed;
+			stats.sampledAt = now;
+		}
+	}
+
+	/**
+	 * 消息所属队列的统计
+	 *
+	 * @param message message
+	 * @return the queue stats
+	 */
+	private QueueStats stats(Message message) {
+		String queue = message.getMessageProperties().getConsumerQueue();
+		return queues.computeIfAbsent(queue == null ? "unknown" : queue, QueueStats::new);
+	}
+
+	/**
+	 * 一个 channel 上记下、尚未发送的 ack
+	 */
+	private static class ChannelAcks {
+
+		/**
+		 * Channel
+		 */
+		private final Channel channel;
+
+		/**
+		 * 一个消费者只消费一个队列
+		 */
+		private final QueueStats stats;
+
+		/**
+		 * 已经发送 ack / nack 的最大 tag
+		 */
+		private long acked;
+
+		/**
+		 * 记下的最大 tag
+		 */
+		private long pending;
+
+		/**
+		 * 记下、尚未发送 ack 的消息数
+		 */
+		private int count;
+
+		/**
+		 * 第一条记下 ack 的时间
+		 */
+		private long firstPendingAt;
+
+		/**
+		 * 记下 ack 时的时间之和，用于计算平均延迟
+		 */
+		private long pendingAtSum;
+
+		/**
+		 * Channel acks
+		 *
+		 * @param channel channel
+		 * @param stats   channel 消费的队列的统计
+		 */
+		private ChannelAcks(Channel channel, QueueStats stats) {
+			this.channel = channel;
+			this.stats = stats;
+		}
+
+		/**
+		 * 记下处理完成的消息
+		 *
+		 * @param deliveryTag 最大的 tag
+		 * @param messages    消息数
+		 */
+		private void record(long deliveryTag, int messages) {
+			long now = System.nanoTime();
+			if (count == 0) {
+				firstPendingAt = now;
+			}
+			pending = Math.max(pending, deliveryTag);
+			count += messages;
+			pendingAtSum += now * messages;
+			stats.consumed.add(messages);
+		}
+
+		/**
+		 * 发送一次 basicAck(pending, multiple=true)；记下的 tag 已经确认过时只清空计数
+		 *
+		 * @throws IOException io exception
+		 */
+		private void flush() throws IOException {
+			if (count == 0 || pending <= acked) {
+				count = 0;
+				pendingAtSum = 0;
+				return;
+			}
+			channel.basicAck(pending, true);
+			long now = System.nanoTime();
+			acked = pending;
+			stats.ackFrames.increment();
+			stats.acked.add(count);
+			stats.lagNanos.add(now * count - pendingAtSum);
+			stats.maxLagNanos = Math.max(stats.maxLagNanos, now - firstPendingAt);
+			count = 0;
+			pendingAtSum = 0;
+		}
+
+		/**
+		 * 发送 ack，失败只记录日志
+		 */
+		private void flushQuietly() {
+			try {
+				flush();
+			} catch (Exception e) {
+				log.warn("==>  发送 ack 失败：[{}]", e.getMessage());
+			}
+		}
+
+	}
+
+	/**
+	 * 队列统计
+	 */
+	private static class QueueStats {
+
+		/**
+		 * Queue
+		 */
+		private final String queue;
+
+		/**
+		 * 处理完成的消息数
+		 */
+		private final LongAdder consumed = new LongAdder();
+
+		/**
+		 * 已发送 ack 的消息数
+		 */
+		private final LongAdder acked = new LongAdder();
+
+		/**
+		 * nack 次数
+		 */
+		private final LongAdder nacked = new LongAdder();
+
+		/**
+		 * 发送 basicAck 的次数
+		 */
+		private final LongAdder ackFrames = new LongAdder();
+
+		/**
+		 * 每条消息从记下到发送 ack 的延迟之和
+		 */
+		private final LongAdder lagNanos = new LongAdder();
+
+		/**
+		 * 最大 ack 延迟
+		 */
+		private volatile long maxLagNanos;
+
+		/**
+		 * 最近一秒的消费速率（条/秒）
+		 */
+		private volatile double rate;
+
+		/**
+		 * 上次采样时的 consumed，只在采样线程中读写
+		 */
+		private long sampledCount;
+
+		/**
+		 * 上次采样的时间，只在采样线程中读写
+		 */
+		private long sampledAt;
+
+		/**
+		 * Queue stats
+		 *
+		 * @param queue queue
+		 */
+		private QueueStats(String queue) {
+			this.queue = queue;
+		}
+
+	}
+
+}
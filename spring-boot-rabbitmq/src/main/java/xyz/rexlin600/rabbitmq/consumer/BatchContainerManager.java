@@ -0,0 +1,311 @@
+package xyz.rexlin600.rabbitmq.consumer;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import xyz.rexlin600.idempotent.MessageDeduplicator;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.*;
+
+/**
+ * 批量消费容器：创建批量监听的容器，定时处理超时的不足一批，按队列堆积调整消费者数
+ * <p>
+ * 消费者数 = 堆积消息数 / messagesPerConsumer，限制在 [minConsumers, maxConsumers]；扩容一次到位，缩容每次减一个，避免抖动
+ * <p>
+ * 批量容器不使用 rabbitListenerContainerFactory 的切面链（切面只包住单条消息的投递，不包住整批处理），
+ * 去重、重试、失败 nack 在 {@link BatchMessageListener} 中按批进行；缩容、停止容器前先处理所有不足一批的消息，
+ * 避免 channel 关闭时丢弃已攒下的批次
+ * <p>
+ * 定时找出超时批次、调整消费者数各用一个线程，超时批次交给 flushThreads 个处理线程：
+ * 业务处理及重试退避只占用处理线程，不会推迟其它队列、其它 channel 的超时处理和伸缩
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class BatchContainerManager implements DisposableBean {
+
+	/**
+	 * Connection factory
+	 */
+	private final ConnectionFactory connectionFactory;
+
+	/**
+	 * 查询队列堆积消息数
+	 */
+	private final AmqpAdmin amqpAdmin;
+
+	/**
+	 * 累计确认
+	 */
+	private final BatchAcknowledger acknowledger;
+
+	/**
+	 * 消费去重
+	 */
+	private final MessageDeduplicator deduplicator;
+
+	/**
+	 * Properties
+	 */
+	private final RabbitConsumerProperties properties;
+
+	/**
+	 * 对应 spring.rabbitmq.listener.simple.default-requeue-rejected，只影响容器自身拒绝的消息
+	 */
+	private final boolean defaultRequeueRejected;
+
+	/**
+	 * 整批处理的重试，对应 spring.rabbitmq.listener.simple.retry
+	 */
+	private final RetryTemplate retryTemplate;
+
+	/**
+	 * 定时找出超时批次，交给 flushWorkers 处理
+	 */
+	private final ScheduledExecutorService flushScheduler;
+
+	/**
+	 * 处理超时批次，同一 channel 的批次互斥
+	 */
+	private final ExecutorService flushWorkers;
+
+	/**
+	 * 按队列堆积调整消费者数
+	 */
+	private final ScheduledExecutorService scaleScheduler;
+
+	/**
+	 * 队列 -> 容器
+	 */
+	private final ConcurrentMap<String, ManagedContainer> containers = new ConcurrentHashMap<>();
+
+	/**
+	 * Batch container manager
+	 *
+	 * @param connectionFactory connection factory
+	 * @param amqpAdmin         amqp admin
+	 * @param acknowledger      累计确认
+	 * @param deduplicator      消费去重
+	 * @param properties        properties
+	 * @param rabbitProperties  spring.rabbitmq，读取 listener.simple 的重试与拒绝配置
+	 */
+	@Autowired
+	public BatchContainerManager(ConnectionFactory connectionFactory,
+								 AmqpAdmin amqpAdmin,
+								 BatchAcknowledger acknowledger,
+								 MessageDeduplicator deduplicator,
+								 RabbitConsumerProperties properties,
+								 RabbitProperties rabbitProperties) {
+		this.connectionFactory = connectionFactory;
+		this.amqpAdmin = amqpAdmin;
+		this.acknowledger = acknowledger;
+		this.deduplicator = deduplicator;
+		this.properties = properties;
+		Boolean requeue = rabbitProperties.getListener().getSimple().getDefaultRequeueRejected();
+		this.defaultRequeueRejected = requeue == null || requeue;
+		this.retryTemplate = retryTemplate(rabbitProperties.getListener().getSimple().getRetry());
+		this.flushScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNamePrefix("rabbit-batch-timer-%d").setDaemon(true).build());
+		this.flushWorkers = Executors.newFixedThreadPool(Math.max(1, properties.getFlushThreads()),
+				new ThreadFactoryBuilder().setNamePrefix("rabbit-batch-flush-%d").setDaemon(true).build());
+		this.scaleScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNamePrefix("rabbit-batch-scale-%d").setDaemon(true).build());
+		long interval = Math.max(1, properties.getBatchTimeoutMillis() / 2);
+		flushScheduler.scheduleWithFixedDelay(this::flushExpired, interval, interval, TimeUnit.MILLISECONDS);
+		scaleScheduler.scheduleWithFixedDelay(this::scale, properties.getScaleIntervalMillis(), properties.getScaleIntervalMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 创建批量监听的容器，由调用方注册为 bean 以管理生命周期
+	 *
+	 * @param queue   queue
+	 * @param handler 批量处理逻辑
+	 * @return the simple message listener container
+	 */
+	public SimpleMessageListenerContainer create(String queue, BatchMessageHandler handler) {
+		BatchMessageListener listener = new BatchMessageListener(queue, handler, acknowledger, deduplicator, retryTemplate, properties);
+		int prefetch = properties.effectivePrefetch();
+		if (prefetch != properties.getPrefetch()) {
+			log.warn("==>  prefetch [{}] 小于每批消息数，调整为 [{}]", properties.getPrefetch(), prefetch);
+		}
+
+		SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory) {
+			@Override
+			protected void doShutdown() {
+				// 关闭 channel 之前处理已攒下的批次
+				listener.flushAll();
+				super.doShutdown();
+			}
+		};
+		container.setQueueNames(queue);
+		container.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+		container.setPrefetchCount(prefetch);
+		container.setConcurrentConsumers(Math.max(1, properties.getMinConsumers()));
+		container.setDefaultRequeueRejected(defaultRequeueRejected);
+		container.setMessageListener(listener);
+		containers.put(queue, new ManagedContainer(container, listener, Math.max(1, properties.getMinConsumers())));
+		return container;
+	}
+
+	/**
+	 * 消费统计，批量消费的队列附带堆积消息数和消费者数
+	 *
+	 * @return queue -> metrics
+	 */
+	public Map<String, QueueConsumeMetrics> metrics() {
+		Map<String, QueueConsumeMetrics> metrics = acknowledger.metrics();
+		containers.forEach((queue, managed) -> {
+			QueueConsumeMetrics m = metrics.computeIfAbsent(queue, q -> {
+				QueueConsumeMetrics empty = new QueueConsumeMetrics();
+				empty.setQueue(q);
+				return empty;
+			});
+			m.setDepth(managed.depth);
+			m.setConsumers(managed.consumers);
+		});
+		return metrics;
+	}
+
+	@Override
+	public void destroy() {
+		flushScheduler.shutdownNow();
+		scaleScheduler.shutdownNow();
+		flushWorkers.shutdown();
+		containers.values().forEach(managed -> managed.listener.flushAll());
+	}
+
+	/**
+	 * 目标消费者数：ceil(depth / messagesPerConsumer)，限制在 [minConsumers, maxConsumers]；需要缩容时每次只减一个
+	 *
+	 * @param depth      队列堆积消息数
+	 * @param current    当前消费者数
+	 * @param properties properties
+	 * @return the int
+	 */
+	static int targetConsumers(long depth, int current, RabbitConsumerProperties properties) {
+		int min = Math.max(1, properties.getMinConsumers());
+		int max = Math.max(min, properties.getMaxConsumers());
+		int perConsumer = Math.max(1, properties.getMessagesPerConsumer());
+		long wanted = (depth + perConsumer - 1) / perConsumer;
+		int target = (int) Math.max(min, Math.min(max, wanted));
+		if (target < current) {
+			target = Math.max(target, current - 1);
+		}
+		return target;
+	}
+
+	/**
+	 * 按 spring.rabbitmq.listener.simple.retry 创建整批处理的重试，未开启时只执行一次
+	 *
+	 * @param retry retry
+	 * @return the retry template
+	 */
+	static RetryTemplate retryTemplate(RabbitProperties.ListenerRetry retry) {
+		RetryTemplate template = new RetryTemplate();
+		template.setRetryPolicy(new SimpleRetryPolicy(retry.isEnabled() ? Math.max(1, retry.getMaxAttempts()) : 1));
+		ExponentialBackOffPolicy backOff = new ExponentialBackOffPolicy();
+		backOff.setInitialInterval(retry.getInitialInterval().toMillis());
+		backOff.setMultiplier(retry.getMultiplier());
+		backOff.setMaxInterval(retry.getMaxInterval().toMillis());
+		template.setBackOffPolicy(backOff);
+		return template;
+	}
+
+	/**
+	 * 把所有容器中等待超时的批次交给处理线程池
+	 */
+	private void flushExpired() {
+		for (ManagedContainer managed : containers.values()) {
+			try {
+				managed.listener.flushExpired(flushWorkers);
+			} catch (Exception e) {
+				log.error("==>  队列 [{}] 处理超时批次发生异常：[{}]", managed.listener.getQueue(), e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * 按队列堆积调整消费者数
+	 */
+	private void scale() {
+		for (Map.Entry<String, ManagedContainer> entry : containers.entrySet()) {
+			ManagedContainer managed = entry.getValue();
+			if (!managed.container.isRunning()) {
+				continue;
+			}
+			try {
+				Properties queueProperties = amqpAdmin.getQueueProperties(entry.getKey());
+				if (queueProperties == null) {
+					continue;
+				}
+				long depth = ((Number) queueProperties.get(RabbitAdmin.QUEUE_MESSAGE_COUNT)).longValue();
+				managed.depth = depth;
+				int target = targetConsumers(depth, managed.consumers, properties);
+				if (target != managed.consumers) {
+					log.info("==>  队列 [{}] 堆积 [{}] 条，消费者数 [{}] -> [{}]", entry.getKey(), depth, managed.consumers, target);
+					if (target < managed.consumers) {
+						// 缩容会关闭某个消费者的 channel，先处理已攒下的批次
+						managed.listener.flushAll();
+					}
+					managed.container.setConcurrentConsumers(target);
+					managed.consumers = target;
+				}
+			} catch (Exception e) {
+				log.warn("==>  队列 [{}] 调整消费者数失败：[{}]", entry.getKey(), e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * 容器及其当前状态
+	 */
+	private static class ManagedContainer {
+
+		/**
+		 * Container
+		 */
+		private final SimpleMessageListenerContainer container;
+
+		/**
+		 * Listener
+		 */
+		private final BatchMessageListener listener;
+
+		/**
+		 * 当前消费者数
+		 */
+		private volatile int consumers;
+
+		/**
+		 * 最近一次查询的堆积消息数，尚未查询时为空
+		 */
+		private volatile Long depth;
+
+		/**
+		 * Managed container
+		 *
+		 * @param container container
+		 * @param listener  listener
+		 * @param consumers 初始消费者数
+		 */
+		private ManagedContainer(SimpleMessageListenerContainer container, BatchMessageListener listener, int consumers) {
+			this.container = container;
+			this.listener = listener;
+			this.consumers = consumers;
+		}
+
+	}
+
+}
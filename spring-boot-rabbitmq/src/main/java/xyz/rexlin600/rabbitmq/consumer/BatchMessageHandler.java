@@ -0,0 +1,23 @@
+package xyz.rexlin600.rabbitmq.consumer;
+
+import org.springframework.amqp.core.Message;
+
+import java.util.List;
+
+/**
+ * 批量消息处理逻辑
+ *
+ * @author hekunlin
+ */
+@FunctionalInterface
+public interface BatchMessageHandler {
+
+	/**
+	 * 处理一批消息，抛出异常时整批 nack
+	 *
+	 * @param messages 同一个 channel 上按投递顺序的消息
+	 * @throws Exception exception
+	 */
+	void handle(List<Message> messages) throws Exception;
+
+}
@@ -0,0 +1,265 @@
+package xyz.rexlin600.rabbitmq.consumer;
+
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.retry.support.RetryTemplate;
+import xyz.rexlin600.idempotent.MessageDeduplicator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * 批量监听：每个消费者（channel）把投递的消息攒成一批，达到 batchSize 或等待超过 batchTimeoutMillis 后交给 {@link BatchMessageHandler}
+ * <p>
+ * 攒满一批在消费线程中处理；超时的不足一批由 {@link BatchContainerManager} 的定时线程找出、交给处理线程池处理，
+ * 定时线程不持有批次的锁，一个批次处理慢不影响其它 channel；同一 channel 的批次互斥，保持投递顺序。
+ * 整批先经过 {@link MessageDeduplicator} 去掉窗口内处理过的消息，再按 spring.rabbitmq.listener.simple.retry 重试；
+ * 成功后整批交给 {@link BatchAcknowledger} 累计确认，重试用尽后整批 nack：
+ * {@link AmqpRejectAndDontRequeueException}、消息转换异常等无法通过重投恢复的错误不再入队，其余错误重新入队
+ *
+ * @author hekunlin
+ */
+@Slf4j
+class BatchMessageListener implements ChannelAwareMessageListener {
+
+	/**
+	 * 监听的队列
+	 */
+	private final String queue;
+
+	/**
+	 * 批量处理逻辑
+	 */
+	private final BatchMessageHandler handler;
+
+	/**
+	 * 累计确认
+	 */
+	private final BatchAcknowledger acknowledger;
+
+	/**
+	 * 消费去重，关闭时整批直接处理
+	 */
+	private final MessageDeduplicator deduplicator;
+
+	/**
+	 * 整批处理的重试，重试期间占用处理该批次的线程
+	 */
+	private final RetryTemplate retryTemplate;
+
+	/**
+	 * batchSize、batchTimeoutMillis
+	 */
+	private final RabbitConsumerProperties properties;
+
+	/**
+	 * channel -> 正在攒的批次
+	 */
+	private final ConcurrentMap<Channel, Batch> batches = new ConcurrentHashMap<>();
+
+	/**
+	 * Batch message listener
+	 *
+	 * @param queue         监听的队列
+	 * @param handler       批量处理逻辑
+	 * @param acknowledger  累计确认
+	 * @param deduplicator  消费去重
+	 * @param retryTemplate 整批处理的重试
+	 * @param properties    properties
+	 */
+	BatchMessageListener(String queue, BatchMessageHandler handler, BatchAcknowledger acknowledger,
+						 MessageDeduplicator deduplicator, RetryTemplate retryTemplate, RabbitConsumerProperties properties) {
+		this.queue = queue;
+		this.handler = handler;
+		this.acknowledger = acknowledger;
+		this.deduplicator = deduplicator;
+		this.retryTemplate = retryTemplate;
+		this.properties = properties;
+	}
+
+	@Override
+	public void onMessage(Message message, Channel channel) {
+		Batch batch = batches.computeIfAbsent(channel, Batch::new);
+		synchronized (batch) {
+			if (batch.messages.isEmpty()) {
+				batch.firstAt = System.nanoTime();
+			}
+			batch.messages.add(message);
+			if (batch.messages.size() >= properties.getBatchSize()) {
+				flush(batch);
+			}
+		}
+	}
+
+	/**
+	 * 把等待超时的不足一批、已关闭 channel 上的批次交给 executor 处理，不等待处理结束；
+	 * 已关闭 channel 上的批次直接丢弃，这些消息会被重新投递。同一批次同时只有一个处理任务
+	 *
+	 * @param executor 处理线程池
+	 */
+	void flushExpired(Executor executor) {
+		long expireBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(properties.getBatchTimeoutMillis());
+		for (Batch batch : batches.values()) {
+			boolean closed = !batch.channel.isOpen();
+			if ((closed || batch.firstAt <= expireBefore) && batch.queued.compareAndSet(false, true)) {
+				try {
+					executor.execute(() -> flushExpired(batch));
+				} catch (RejectedExecutionException e) {
+					batch.queued.set(false);
+					throw e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 不等超时，处理所有不足一批的消息；缩容、停止容器关闭 channel 之前调用
+	 */
+	void flushAll() {
+		flush(batch -> !batch.messages.isEmpty());
+	}
+
+	/**
+	 * Gets queue
+	 *
+	 * @return the queue
+	 */
+	String getQueue() {
+		return queue;
+	}
+
+	/**
+	 * 在处理线程中重新检查并处理超时的批次
+	 *
+	 * @param batch batch
+	 */
+	private void flushExpired(Batch batch) {
+		synchronized (batch) {
+			batch.queued.set(false);
+			long expireBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(properties.getBatchTimeoutMillis());
+			if (!batch.channel.isOpen()) {
+				batches.remove(batch.channel);
+				batch.clear();
+			} else if (!batch.messages.isEmpty() && batch.firstAt <= expireBefore) {
+				flush(batch);
+			}
+		}
+	}
+
+	/**
+	 * 处理满足条件的批次
+	 *
+	 * @param condition 批次条件
+	 */
+	private void flush(Predicate<Batch> condition) {
+		for (Batch batch : batches.values()) {
+			synchronized (batch) {
+				if (!batch.channel.isOpen()) {
+					batches.remove(batch.channel);
+					batch.clear();
+				} else if (condition.test(batch)) {
+					flush(batch);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 整批去重、重试处理后确认，失败时 nack
+	 *
+	 * @param batch 调用方持有 batch 的锁
+	 */
+	private void flush(Batch batch) {
+		List<Message> messages = new ArrayList<>(batch.messages);
+		batch.clear();
+		try {
+			retryTemplate.execute(context -> deduplicator.executeBatch(messages,
+					message -> message.getMessageProperties().getMessageId(), handler::handle));
+			acknowledger.ack(batch.channel, messages);
+		} catch (Exception e) {
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			boolean requeue = !isFatal(e);
+			log.error("==>  队列 [{}] 批量消费 [{}] 条消息发生异常，nack requeue=[{}]：[{}]", queue, messages.size(), requeue, e.getMessage());
+			try {
+				acknowledger.nack(batch.channel, messages.get(messages.size() - 1), true, requeue);
+			} catch (Exception ne) {
+				log.error("==>  nack 失败：[{}]", ne.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * 重投也无法恢复的错误
+	 *
+	 * @param t t
+	 * @return the boolean
+	 */
+	static boolean isFatal(Throwable t) {
+		for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+			if (cause instanceof AmqpRejectAndDontRequeueException
+					|| cause instanceof MessageConversionException
+					|| cause instanceof ClassCastException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 一个 channel 上攒的消息
+	 */
+	private static class Batch {
+
+		/**
+		 * Channel
+		 */
+		private final Channel channel;
+
+		/**
+		 * 按投递顺序
+		 */
+		private final List<Message> messages = new ArrayList<>();
+
+		/**
+		 * 批次中第一条消息到达的时间，没有消息时为 Long.MAX_VALUE；定时线程不加锁读取
+		 */
+		private volatile long firstAt = Long.MAX_VALUE;
+
+		/**
+		 * 已经交给处理线程池、尚未开始处理
+		 */
+		private final AtomicBoolean queued = new AtomicBoolean();
+
+		/**
+		 * Batch
+		 *
+		 * @param channel channel
+		 */
+		private Batch(Channel channel) {
+			this.channel = channel;
+		}
+
+		/**
+		 * 清空批次，调用方持有 batch 的锁
+		 */
+		private void clear() {
+			messages.clear();
+			firstAt = Long.MAX_VALUE;
+		}
+
+	}
+
+}
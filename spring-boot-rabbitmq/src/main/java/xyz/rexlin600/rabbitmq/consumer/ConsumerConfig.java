@@ -0,0 +1,60 @@
+package xyz.rexlin600.rabbitmq.consumer;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import xyz.rexlin600.idempotent.MessageDeduplicator;
+import xyz.rexlin600.rabbitmq.idempotent.IdempotentListenerAdvice;
+
+/**
+ * 消费配置
+ *
+ * @author hekunlin
+ */
+@Configuration
+public class ConsumerConfig {
+
+	/**
+	 * 覆盖 RabbitAnnotationDrivenConfiguration 中的同名容器工厂：沿用 spring.rabbitmq.listener.simple 配置（含重试），
+	 * prefetch 不小于累计确认的条数；切面链最外层依次为失败 nack、消费去重
+	 *
+	 * @param configurer          configurer
+	 * @param connectionFactory   connection factory
+	 * @param rabbitProperties    rabbit properties
+	 * @param consumerProperties  consumer properties
+	 * @param acknowledger        acknowledger
+	 * @param messageDeduplicator message deduplicator
+	 * @return the simple rabbit listener container factory
+	 */
+	@Bean
+	public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer,
+																			   ConnectionFactory connectionFactory,
+																			   RabbitProperties rabbitProperties,
+																			   RabbitConsumerProperties consumerProperties,
+																			   BatchAcknowledger acknowledger,
+																			   MessageDeduplicator messageDeduplicator) {
+		SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+		configurer.configure(factory, connectionFactory);
+		factory.setPrefetchCount(consumerProperties.effectivePrefetch());
+
+		RabbitProperties.SimpleContainer simple = rabbitProperties.getListener().getSimple();
+		AcknowledgeMode acknowledgeMode = simple.getAcknowledgeMode();
+		boolean defaultRequeueRejected = simple.getDefaultRequeueRejected() == null || simple.getDefaultRequeueRejected();
+		Advice[] adviceChain = factory.getAdviceChain();
+		int length = adviceChain == null ? 0 : adviceChain.length;
+		Advice[] chain = new Advice[length + 2];
+		chain[0] = new BatchAckListenerAdvice(acknowledger, acknowledgeMode, defaultRequeueRejected);
+		chain[1] = new IdempotentListenerAdvice(messageDeduplicator, acknowledgeMode);
+		if (length > 0) {
+			System.arraycopy(adviceChain, 0, chain, 2, length);
+		}
+		factory.setAdviceChain(chain);
+		return factory;
+	}
+
+}
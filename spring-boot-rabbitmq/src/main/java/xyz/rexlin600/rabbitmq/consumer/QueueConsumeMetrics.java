@@ -0,0 +1,67 @@
+package xyz.rexlin600.rabbitmq.consumer;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 单个队列的消费统计
+ *
+ * @author hekunlin
+ */
+@Data
+public class QueueConsumeMetrics implements Serializable {
+
+	private String queue;
+
+	/**
+	 * 已确认的消息数
+	 */
+	private long consumed;
+
+	/**
+	 * 最近一秒的消费速率，条 / 秒
+	 */
+	private double consumeRate;
+
+	/**
+	 * nack 的消息数
+	 */
+	private long nacked;
+
+	/**
+	 * 发送的 basicAck 帧数
+	 */
+	private long ackFrames;
+
+	/**
+	 * 平均每个 ack 帧确认的消息数
+	 */
+	private double messagesPerAck;
+
+	/**
+	 * 处理完成、尚未发送 ack 的消息数
+	 */
+	private long pendingAcks;
+
+	/**
+	 * 处理完成到发送 ack 的平均延迟，单位毫秒
+	 */
+	private double avgAckLagMillis;
+
+	/**
+	 * 处理完成到发送 ack 的最大延迟，单位毫秒
+	 */
+	private double maxAckLagMillis;
+
+	/**
+	 * 队列中待投递的消息数，仅批量消费的队列
+	 */
+	private Long depth;
+
+	/**
+	 * 当前消费者数，仅批量消费的队列
+	 */
+	private Integer consumers;
+
+}
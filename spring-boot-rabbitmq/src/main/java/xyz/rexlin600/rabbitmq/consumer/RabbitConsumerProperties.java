@@ -0,0 +1,95 @@
+package xyz.rexlin600.rabbitmq.consumer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 消费配置
+ *
+ * @author hekunlin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rexlin600.rabbitmq.consumer")
+public class RabbitConsumerProperties {
+
+	public static final String MODE_SINGLE = "single";
+
+	public static final String MODE_BATCH = "batch";
+
+	/**
+	 * 工作队列消费方式：single 逐条消费（WorkCustomer）；batch 批量消费（WorkBatchConsumer），消费者数随队列堆积伸缩
+	 */
+	private String mode = MODE_SINGLE;
+
+	/**
+	 * 每个消费者未确认消息数上限（basicQos），不小于 ackBatchSize、batchSize，否则要等超时才能确认
+	 */
+	private int prefetch = 250;
+
+	/**
+	 * 累计多少条消息发送一次 basicAck(tag, multiple=true)，1 表示逐条确认
+	 */
+	private int ackBatchSize = 50;
+
+	/**
+	 * 未确认的消息最多等待多久发送 ack，单位毫秒
+	 */
+	private long ackIntervalMillis = 100;
+
+	/**
+	 * 批量消费：每批最多消息数
+	 */
+	private int batchSize = 100;
+
+	/**
+	 * 批量消费：不足一批时最多等待多久，单位毫秒
+	 */
+	private long batchTimeoutMillis = 200;
+
+	/**
+	 * 批量消费：处理超时批次的线程数，批次处理（含重试退避）占用这些线程，不占用定时线程
+	 */
+	private int flushThreads = 4;
+
+	/**
+	 * 批量消费：最少消费者数
+	 */
+	private int minConsumers = 1;
+
+	/**
+	 * 批量消费：最多消费者数
+	 */
+	private int maxConsumers = 8;
+
+	/**
+	 * 批量消费：每个消费者负责的堆积消息数，消费者数 = 堆积消息数 / messagesPerConsumer
+	 */
+	private int messagesPerConsumer = 1000;
+
+	/**
+	 * 批量消费：检查队列堆积的间隔，单位毫秒
+	 */
+	private long scaleIntervalMillis = 5000;
+
+	/**
+	 * 有效的 prefetch
+	 *
+	 * @return the int
+	 */
+	public int effectivePrefetch() {
+		int prefetch = Math.max(this.prefetch, ackBatchSize);
+		return isBatch() ? Math.max(prefetch, batchSize) : prefetch;
+	}
+
+	/**
+	 * 是否批量消费
+	 *
+	 * @return the boolean
+	 */
+	public boolean isBatch() {
+		return MODE_BATCH.equals(mode);
+	}
+
+}
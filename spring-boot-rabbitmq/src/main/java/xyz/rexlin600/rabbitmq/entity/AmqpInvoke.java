@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.lang.reflect.Method;
+import java.util.Map;
 
 /**
  * Amqp invoke
@@ -17,9 +18,9 @@ import java.lang.reflect.Method;
 public class AmqpInvoke {
 
 	/**
-	 * Methods
+	 * Methods：方法名 -> 方法，启动时解析一次
 	 */
-	public Method[] methods;
+	public Map<String, Method> methods;
 
 	/**
 	 * Object
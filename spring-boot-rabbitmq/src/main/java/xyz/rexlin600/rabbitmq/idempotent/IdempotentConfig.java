@@ -0,0 +1,43 @@
+package xyz.rexlin600.rabbitmq.idempotent;
+
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import xyz.rexlin600.idempotent.MessageDeduplicator;
+
+import java.io.IOException;
+
+/**
+ * 消费去重配置，去重切面由 ConsumerConfig 加到监听容器工厂
+ *
+ * @author hekunlin
+ */
+@Configuration
+public class IdempotentConfig {
+
+	/**
+	 * 发送时自动生成 messageId（UUID），RabbitTemplate 与监听容器都会使用该转换器
+	 *
+	 * @return the message converter
+	 */
+	@Bean
+	public MessageConverter messageConverter() {
+		SimpleMessageConverter converter = new SimpleMessageConverter();
+		converter.setCreateMessageIds(true);
+		return converter;
+	}
+
+	/**
+	 * 按 rexlin600.rabbitmq.idempotent 配置创建去重器
+	 *
+	 * @param properties properties
+	 * @return the message deduplicator
+	 * @throws IOException 持久化目录无法读写
+	 */
+	@Bean
+	public MessageDeduplicator messageDeduplicator(IdempotentProperties properties) throws IOException {
+		return new MessageDeduplicator(properties);
+	}
+
+}
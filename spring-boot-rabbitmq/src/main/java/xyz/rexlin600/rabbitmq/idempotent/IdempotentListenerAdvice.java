@@ -0,0 +1,76 @@
+package xyz.rexlin600.rabbitmq.idempotent;
+
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Message;
+import xyz.rexlin600.idempotent.MessageDeduplicator;
+
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * 监听容器切面：按 messageId 去重，重复投递的消息不再调用 @RabbitHandler
+ * <p>
+ * 拦截 ContainerDelegate#invokeListener(Channel, Message)，对所有使用该容器工厂的消费者生效；
+ * 手动确认模式下，窗口内已处理成功的重复消息在这里 ack，避免一直处于 unacked 状态；
+ * 同一 messageId 正在处理时，重复消息等待前一次处理结束，前一次失败则照常执行，不会被 ack 掉
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class IdempotentListenerAdvice implements MethodInterceptor {
+
+	/**
+	 * 去重器
+	 */
+	private final MessageDeduplicator deduplicator;
+
+	/**
+	 * 容器的确认模式，MANUAL 时由切面 ack 跳过的重复消息
+	 */
+	private final AcknowledgeMode acknowledgeMode;
+
+	/**
+	 * Idempotent listener advice
+	 *
+	 * @param deduplicator    去重器
+	 * @param acknowledgeMode 容器的确认模式
+	 */
+	public IdempotentListenerAdvice(MessageDeduplicator deduplicator, AcknowledgeMode acknowledgeMode) {
+		this.deduplicator = deduplicator;
+		this.acknowledgeMode = acknowledgeMode;
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		Object[] args = invocation.getArguments();
+		if (args.length < 2 || !(args[0] instanceof Channel) || !(args[1] instanceof Message)) {
+			return invocation.proceed();
+		}
+		Channel channel = (Channel) args[0];
+		Message message = (Message) args[1];
+		String messageId = message.getMessageProperties().getMessageId();
+		if (messageId == null) {
+			log.debug("==>  消息没有 messageId，不去重");
+			return invocation.proceed();
+		}
+
+		Object[] result = new Object[1];
+		boolean executed = deduplicator.execute(messageId, () -> {
+			try {
+				result[0] = invocation.proceed();
+			} catch (Exception | Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new UndeclaredThrowableException(t);
+			}
+		});
+		if (!executed && acknowledgeMode == AcknowledgeMode.MANUAL) {
+			channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+		}
+		return result[0];
+	}
+
+}
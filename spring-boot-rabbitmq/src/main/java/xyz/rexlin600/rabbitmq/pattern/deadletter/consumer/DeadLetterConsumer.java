@@ -6,6 +6,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitHandler;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import xyz.rexlin600.rabbitmq.consumer.BatchAcknowledger;
 import xyz.rexlin600.rabbitmq.pattern.deadletter.config.DeadLetterConfig;
 
 import java.time.Instant;
@@ -19,6 +21,12 @@ import java.time.Instant;
 @RabbitListener(queues = DeadLetterConfig.DEAD_LETTER_QUEUE)
 public class DeadLetterConsumer {
 
+	/**
+	 * Batch acknowledger
+	 */
+	@Autowired
+	private BatchAcknowledger batchAcknowledger;
+
 	/**
 	 * Handler dl str *
 	 *
@@ -31,8 +39,8 @@ public class DeadLetterConsumer {
 	public void handlerDlStr(String content, Channel channel, Message message) {
 		long milli = Instant.now().toEpochMilli();
 		log.info("==>  DeadLetter consume content=[{}] at [{}]", content, milli);
-		// true表示一次确认所有小于tag的消息
-		channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+		// 累计确认：攒够条数或超时后一次 basicAck(tag, true)
+		batchAcknowledger.ack(channel, message);
 	}
 
 }
\ No newline at end of file
@@ -2,14 +2,15 @@ package xyz.rexlin600.rabbitmq.pattern.deadletter.provider;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.amqp.core.MessagePostProcessor;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import xyz.rexlin600.rabbitmq.pattern.deadletter.config.DeadLetterConfig;
+import xyz.rexlin600.rabbitmq.publisher.RabbitPublisher;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Dead letter provider
@@ -22,16 +23,18 @@ import java.time.Instant;
 public class DeadLetterProvider {
 
 	/**
-	 * Amqp template
+	 * Rabbit publisher
 	 */
 	@Autowired
-	private AmqpTemplate amqpTemplate;
+	private RabbitPublisher rabbitPublisher;
 
 	/**
 	 * Product dl expire str
+	 *
+	 * @return broker confirm
 	 */
 	@SneakyThrows
-	public void productDlExpireStr() {
+	public CompletableFuture<Boolean> productDlExpireStr() {
 		long milli = Instant.now().toEpochMilli();
 		String content = "DeadLetter product message at " + milli;
 
@@ -45,7 +48,7 @@ public class DeadLetterProvider {
 		};
 
 		// 注意 API 变化
-		amqpTemplate.convertAndSend(DeadLetterConfig.DL_EXCHANGE, DeadLetterConfig.DEAD_LETTER_ROUTING_KEY, content, messagePostProcessor);
+		return rabbitPublisher.publish(DeadLetterConfig.DL_EXCHANGE, DeadLetterConfig.DEAD_LETTER_ROUTING_KEY, content, messagePostProcessor);
 	}
 
 	// TODO 拒绝
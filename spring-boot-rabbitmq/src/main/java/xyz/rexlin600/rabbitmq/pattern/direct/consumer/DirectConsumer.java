@@ -6,7 +6,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitHandler;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import xyz.rexlin600.rabbitmq.consumer.BatchAcknowledger;
 import xyz.rexlin600.rabbitmq.pattern.direct.config.DirectConfig;
 
 import java.time.Instant;
@@ -21,6 +23,12 @@ import java.time.Instant;
 @RabbitListener(queues = DirectConfig.DIRECT_QUEUE)
 public class DirectConsumer {
 
+	/**
+	 * Batch acknowledger
+	 */
+	@Autowired
+	private BatchAcknowledger batchAcknowledger;
+
 	/**
 	 * Handler direct str *
 	 *
@@ -33,8 +41,8 @@ public class DirectConsumer {
 	public void handlerDirectStr(String content, Channel channel, Message message) {
 		long milli = Instant.now().toEpochMilli();
 		log.info("==>  Direct consume content=[{}] at [{}]", content, milli);
-		// true表示一次确认所有小于tag的消息
-		channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+		// 累计确认：攒够条数或超时后一次 basicAck(tag, true)
+		batchAcknowledger.ack(channel, message);
 	}
 
 }
\ No newline at end of file
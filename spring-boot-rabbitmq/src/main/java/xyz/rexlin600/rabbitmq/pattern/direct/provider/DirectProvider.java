@@ -2,12 +2,13 @@ package xyz.rexlin600.rabbitmq.pattern.direct.provider;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import xyz.rexlin600.rabbitmq.pattern.direct.config.DirectConfig;
+import xyz.rexlin600.rabbitmq.publisher.RabbitPublisher;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Direct provider
@@ -19,20 +20,22 @@ import java.time.Instant;
 public class DirectProvider {
 
 	/**
-	 * Amqp template
+	 * Rabbit publisher
 	 */
 	@Autowired
-	private AmqpTemplate amqpTemplate;
+	private RabbitPublisher rabbitPublisher;
 
 	/**
 	 * Direct product str
+	 *
+	 * @return broker confirm
 	 */
 	@SneakyThrows
-	public void directProductStr() {
+	public CompletableFuture<Boolean> directProductStr() {
 		long milli = Instant.now().toEpochMilli();
 		String content = "Direct product message at " + milli;
 		log.info("==> " + content + " to queue=[{}] and at [{}]", DirectConfig.DIRECT_QUEUE, milli);
-		amqpTemplate.convertAndSend(DirectConfig.DIRECT_QUEUE, content);
+		return rabbitPublisher.publish("", DirectConfig.DIRECT_QUEUE, content);
 	}
 
 
@@ -6,7 +6,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitHandler;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import xyz.rexlin600.rabbitmq.consumer.BatchAcknowledger;
 import xyz.rexlin600.rabbitmq.pattern.fanout.config.FanoutConfig;
 
 import java.time.Instant;
@@ -21,6 +23,12 @@ import java.time.Instant;
 @RabbitListener(queues = FanoutConfig.FANOUT_QUEUE_A)
 public class FanoutCustomA {
 
+	/**
+	 * Batch acknowledger
+	 */
+	@Autowired
+	private BatchAcknowledger batchAcknowledger;
+
 	/**
 	 * Handler fan out str a *
 	 *
@@ -33,8 +41,8 @@ public class FanoutCustomA {
 	public void handlerFanOutStrA(String content, Channel channel, Message message) {
 		long milli = Instant.now().toEpochMilli();
 		log.info("==>  Fanout A consume content=[{}] at [{}]", content, milli);
-		// true表示一次确认所有小于tag的消息
-		channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+		// 累计确认：攒够条数或超时后一次 basicAck(tag, true)
+		batchAcknowledger.ack(channel, message);
 	}
 
 }
\ No newline at end of file
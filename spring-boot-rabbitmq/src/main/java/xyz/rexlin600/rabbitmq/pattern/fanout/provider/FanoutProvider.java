@@ -1,12 +1,13 @@
 package xyz.rexlin600.rabbitmq.pattern.fanout.provider;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import xyz.rexlin600.rabbitmq.pattern.fanout.config.FanoutConfig;
+import xyz.rexlin600.rabbitmq.publisher.RabbitPublisher;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Fanout provider
@@ -19,20 +20,22 @@ import java.time.Instant;
 public class FanoutProvider {
 
 	/**
-	 * Amqp template
+	 * Rabbit publisher
 	 */
 	@Autowired
-	private AmqpTemplate amqpTemplate;
+	private RabbitPublisher rabbitPublisher;
 
 	/**
 	 * Fanout product str
+	 *
+	 * @return broker confirm
 	 */
-	public void fanoutProductStr() {
+	public CompletableFuture<Boolean> fanoutProductStr() {
 		long milli = Instant.now().toEpochMilli();
 		String content = "Fanout message at " + milli;
 		log.info("==>  " + content + " to queues and at [{}]", milli);
 		// 广播
-		amqpTemplate.convertAndSend(FanoutConfig.FANOUT_EXCHANGE, "", content);
+		return rabbitPublisher.publish(FanoutConfig.FANOUT_EXCHANGE, "", content);
 	}
 
 }
\ No newline at end of file
@@ -2,12 +2,13 @@ package xyz.rexlin600.rabbitmq.pattern.simple.provider;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import xyz.rexlin600.rabbitmq.pattern.simple.config.SimpleConfig;
+import xyz.rexlin600.rabbitmq.publisher.RabbitPublisher;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Simple provider
@@ -19,20 +20,22 @@ import java.time.Instant;
 public class SimpleProvider {
 
 	/**
-	 * Amqp template
+	 * Rabbit publisher
 	 */
 	@Autowired
-	private AmqpTemplate amqpTemplate;
+	private RabbitPublisher rabbitPublisher;
 
 	/**
 	 * Simple product str
+	 *
+	 * @return broker confirm
 	 */
 	@SneakyThrows
-	public void simpleProductStr() {
+	public CompletableFuture<Boolean> simpleProductStr() {
 		long milli = Instant.now().toEpochMilli();
 		String content = "Simple product message at " + milli;
 		log.info("==>  " + content + " to queue=[{}] and at [{}]", SimpleConfig.SIMPLE_QUEUE, milli);
-		amqpTemplate.convertAndSend(SimpleConfig.SIMPLE_QUEUE, content);
+		return rabbitPublisher.publish("", SimpleConfig.SIMPLE_QUEUE, content);
 	}
 
 }
\ No newline at end of file
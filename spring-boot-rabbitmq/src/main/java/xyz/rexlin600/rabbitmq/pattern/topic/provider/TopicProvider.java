@@ -2,12 +2,13 @@ package xyz.rexlin600.rabbitmq.pattern.topic.provider;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import xyz.rexlin600.rabbitmq.pattern.topic.config.TopicConfig;
+import xyz.rexlin600.rabbitmq.publisher.RabbitPublisher;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Topic provider
@@ -20,44 +21,50 @@ import java.time.Instant;
 public class TopicProvider {
 
 	/**
-	 * Amqp template
+	 * Rabbit publisher
 	 */
 	@Autowired
-	private AmqpTemplate amqpTemplate;
+	private RabbitPublisher rabbitPublisher;
 
 	/**
 	 * Topic product str 1
+	 *
+	 * @return broker confirm
 	 */
 	@SneakyThrows
-	public void topicProductStr1() {
+	public CompletableFuture<Boolean> topicProductStr1() {
 		long milli = Instant.now().toEpochMilli();
 		String content = "Topic product at " + TopicConfig.TOPIC_QUEUE_A + " config " + milli;
 		log.info("==> " + content + " to queue=[{}] and at [{}]", TopicConfig.TOPIC_QUEUE_A, milli);
-		amqpTemplate.convertAndSend(TopicConfig.TOPIC_EXCHANGE, TopicConfig.TOPIC_ROUTINGKEY_A, content);
+		return rabbitPublisher.publish(TopicConfig.TOPIC_EXCHANGE, TopicConfig.TOPIC_ROUTINGKEY_A, content);
 	}
 
 
 	/**
 	 * Topic product str 2
+	 *
+	 * @return broker confirm
 	 */
 	@SneakyThrows
-	public void topicProductStr2() {
+	public CompletableFuture<Boolean> topicProductStr2() {
 		long milli = Instant.now().toEpochMilli();
 		String content = "Topic product at " + TopicConfig.TOPIC_QUEUE_ALL + " config " + milli;
 		log.info("==> " + content + " to queue=[{}] and at [{}]", TopicConfig.TOPIC_QUEUE_ALL, milli);
-		amqpTemplate.convertAndSend(TopicConfig.TOPIC_EXCHANGE, TopicConfig.TOPIC_ROUTINGKEY_ALL, content);
+		return rabbitPublisher.publish(TopicConfig.TOPIC_EXCHANGE, TopicConfig.TOPIC_ROUTINGKEY_ALL, content);
 	}
 
 
 	/**
 	 * Topic product str 3
+	 *
+	 * @return broker confirm
 	 */
 	@SneakyThrows
-	public void topicProductStr3() {
+	public CompletableFuture<Boolean> topicProductStr3() {
 		long milli = Instant.now().toEpochMilli();
 		String content = "Topic product at " + TopicConfig.TOPIC_QUEUE_ALL + " config " + milli;
 		log.info("==> " + content + " to queue=[{}] and at [{}]", TopicConfig.TOPIC_QUEUE_ALL, milli);
-		amqpTemplate.convertAndSend(TopicConfig.TOPIC_EXCHANGE, "routingKey.rexlin600.config.1", content);
+		return rabbitPublisher.publish(TopicConfig.TOPIC_EXCHANGE, "routingKey.rexlin600.config.1", content);
 	}
 
 
@@ -1,8 +1,13 @@
 package xyz.rexlin600.rabbitmq.pattern.work.config;
 
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import xyz.rexlin600.rabbitmq.consumer.BatchContainerManager;
+import xyz.rexlin600.rabbitmq.consumer.RabbitConsumerProperties;
+import xyz.rexlin600.rabbitmq.pattern.work.consumer.WorkBatchConsumer;
 
 /**
  * Work config
@@ -28,4 +33,17 @@ public class WorkConfig {
 		return new Queue(WORK_QUEUE);
 	}
 
+	/**
+	 * 批量消费模式下的工作队列容器：批量监听、累计确认，消费者数随队列堆积伸缩
+	 *
+	 * @param manager  manager
+	 * @param consumer consumer
+	 * @return the simple message listener container
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "rexlin600.rabbitmq.consumer", name = "mode", havingValue = RabbitConsumerProperties.MODE_BATCH)
+	public SimpleMessageListenerContainer workBatchContainer(BatchContainerManager manager, WorkBatchConsumer consumer) {
+		return manager.create(WORK_QUEUE, consumer::handle);
+	}
+
 }
\ No newline at end of file
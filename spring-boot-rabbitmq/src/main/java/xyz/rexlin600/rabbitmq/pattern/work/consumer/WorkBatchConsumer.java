@@ -0,0 +1,37 @@
+package xyz.rexlin600.rabbitmq.pattern.work.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import xyz.rexlin600.rabbitmq.consumer.RabbitConsumerProperties;
+import xyz.rexlin600.rabbitmq.pattern.work.config.WorkConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Work batch consumer：批量消费工作队列，容器见 WorkConfig#workBatchContainer
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "rexlin600.rabbitmq.consumer", name = "mode", havingValue = RabbitConsumerProperties.MODE_BATCH)
+public class WorkBatchConsumer {
+
+	/**
+	 * Handle
+	 *
+	 * @param messages messages
+	 */
+	public void handle(List<Message> messages) {
+		long milli = Instant.now().toEpochMilli();
+		log.info("==>  Work batch consume [{}] messages from queue=[{}] at [{}]", messages.size(), WorkConfig.WORK_QUEUE, milli);
+		for (Message message : messages) {
+			log.debug("==>  Work batch consume content=[{}]", new String(message.getBody(), StandardCharsets.UTF_8));
+		}
+	}
+
+}
@@ -7,20 +7,31 @@ import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.Queue;
 import org.springframework.amqp.rabbit.annotation.RabbitHandler;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import xyz.rexlin600.rabbitmq.consumer.BatchAcknowledger;
+import xyz.rexlin600.rabbitmq.consumer.RabbitConsumerProperties;
 import xyz.rexlin600.rabbitmq.pattern.work.config.WorkConfig;
 
 import java.time.Instant;
 
 /**
- * Work customer
+ * Work customer：逐条消费，批量消费模式下由 WorkBatchConsumer 代替
  *
  * @author hekunlin
  */
 @Slf4j
 @Component
+@ConditionalOnProperty(prefix = "rexlin600.rabbitmq.consumer", name = "mode", havingValue = RabbitConsumerProperties.MODE_SINGLE, matchIfMissing = true)
 public class WorkCustomer {
 
+	/**
+	 * Batch acknowledger
+	 */
+	@Autowired
+	private BatchAcknowledger batchAcknowledger;
+
 	/**
 	 * Handler work one *
 	 *
@@ -36,8 +47,8 @@ public class WorkCustomer {
 	public void handlerWorkOne(String content, Channel channel, Message message) {
 		long milli = Instant.now().toEpochMilli();
 		log.info("==>  Work one consume content=[{}] at [{}]", content, milli);
-		// true表示一次确认所有小于tag的消息
-		channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+		// 累计确认：攒够条数或超时后一次 basicAck(tag, true)
+		batchAcknowledger.ack(channel, message);
 	}
 
 	/**
@@ -55,8 +66,8 @@ public class WorkCustomer {
 	public void handlerWorkTwo(String content, Channel channel, Message message) {
 		long milli = Instant.now().toEpochMilli();
 		log.info("==>  Work two consume content=[{}] at [{}]", content, milli);
-		// true表示一次确认所有小于tag的消息
-		channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+		// 累计确认：攒够条数或超时后一次 basicAck(tag, true)
+		batchAcknowledger.ack(channel, message);
 	}
 
 }
\ No newline at end of file
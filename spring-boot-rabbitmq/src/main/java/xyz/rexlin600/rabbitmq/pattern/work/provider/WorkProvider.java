@@ -2,12 +2,13 @@ package xyz.rexlin600.rabbitmq.pattern.work.provider;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.core.AmqpTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import xyz.rexlin600.rabbitmq.pattern.work.config.WorkConfig;
+import xyz.rexlin600.rabbitmq.publisher.RabbitPublisher;
 
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Work provider
@@ -19,20 +20,22 @@ import java.time.Instant;
 public class WorkProvider {
 
 	/**
-	 * Amqp template
+	 * Rabbit publisher
 	 */
 	@Autowired
-	private AmqpTemplate amqpTemplate;
+	private RabbitPublisher rabbitPublisher;
 
 	/**
 	 * Work product str
+	 *
+	 * @return broker confirm
 	 */
 	@SneakyThrows
-	public void workProductStr() {
+	public CompletableFuture<Boolean> workProductStr() {
 		long milli = Instant.now().toEpochMilli();
 		String content = "Work product message at " + milli;
 		log.info("==>  " + content + " to queue=[{}] and at [{}]", WorkConfig.WORK_QUEUE, milli);
-		amqpTemplate.convertAndSend(WorkConfig.WORK_QUEUE, content);
+		return rabbitPublisher.publish("", WorkConfig.WORK_QUEUE, content);
 	}
 
 }
\ No newline at end of file
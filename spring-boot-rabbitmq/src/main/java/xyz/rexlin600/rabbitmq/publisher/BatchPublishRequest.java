@@ -0,0 +1,40 @@
+package xyz.rexlin600.rabbitmq.publisher;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量发布请求
+ *
+ * @author hekunlin
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPublishRequest implements Serializable {
+
+	/**
+	 * 交换机，为空时使用默认交换机（routingKey 即队列名）
+	 */
+	private String exchange;
+
+	/**
+	 * 路由键，使用默认交换机时为队列名
+	 */
+	private String routingKey;
+
+	/**
+	 * 消息内容
+	 */
+	private List<String> messages;
+
+	/**
+	 * messages 为空时生成 count 条消息，用于压测
+	 */
+	private int count;
+
+}
@@ -0,0 +1,45 @@
+package xyz.rexlin600.rabbitmq.publisher;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 批量发布结果：所有消息都得到 confirm（或超时）后汇总
+ *
+ * @author hekunlin
+ */
+@Data
+public class BatchPublishResult implements Serializable {
+
+	/**
+	 * 请求发送的消息数
+	 */
+	private int total;
+
+	/**
+	 * broker 确认（ack）的消息数
+	 */
+	private int acked;
+
+	/**
+	 * broker 拒绝（nack）或不可路由被退回的消息数
+	 */
+	private int nacked;
+
+	/**
+	 * 发送异常或等待 confirm 超时的消息数
+	 */
+	private int failed;
+
+	/**
+	 * 从开始发送到全部 confirm（或超时）的耗时
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * 消息数 / 秒
+	 */
+	private double throughput;
+
+}
@@ -0,0 +1,256 @@
+package xyz.rexlin600.rabbitmq.publisher;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 消息发布：异步 publisher confirm + 批量发送
+ * <p>
+ * 每条消息带一个 {@link CorrelationData}，broker 的 ack/nack 通过 {@link CompletableFuture} 返回，发送线程不等待 confirm；
+ * 开启 mandatory 时不可路由被退回的消息按 nack 处理。
+ * <p>
+ * 批量发送在 {@link RabbitTemplate#invoke} 中进行，整批消息绑定同一个 channel，不再逐条从 channel 缓存中取出、归还；
+ * 整批只设一个 confirm 超时。
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class RabbitPublisher implements DisposableBean {
+
+	/**
+	 * 开启 publisher confirm 的 template，mandatory 时还需开启 publisher returns
+	 */
+	private final RabbitTemplate rabbitTemplate;
+
+	/**
+	 * confirmTimeoutMillis、maxBatchSize
+	 */
+	private final RabbitPublisherProperties properties;
+
+	/**
+	 * confirm 超时检查
+	 */
+	private final ScheduledThreadPoolExecutor timer;
+
+	/**
+	 * 已发送的消息数
+	 */
+	private final LongAdder published = new LongAdder();
+
+	/**
+	 * broker 确认的消息数
+	 */
+	private final LongAdder acked = new LongAdder();
+
+	/**
+	 * broker 拒绝或不可路由被退回的消息数
+	 */
+	private final LongAdder nacked = new LongAdder();
+
+	/**
+	 * 发送异常或等待 confirm 超时的消息数
+	 */
+	private final LongAdder failed = new LongAdder();
+
+	/**
+	 * Rabbit publisher
+	 *
+	 * @param rabbitTemplate rabbit template
+	 * @param properties     properties
+	 */
+	@Autowired
+	public RabbitPublisher(RabbitTemplate rabbitTemplate, RabbitPublisherProperties properties) {
+		this.rabbitTemplate = rabbitTemplate;
+		this.properties = properties;
+		this.timer = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNamePrefix("rabbit-confirm-%d").setDaemon(true).build());
+		// 大部分超时任务会在 confirm 后取消，及时从队列中移除
+		this.timer.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * 发送一条消息
+	 *
+	 * @param exchange   exchange，默认交换机传 ""
+	 * @param routingKey routing key
+	 * @param payload    payload
+	 * @return true：broker 已确认；false：broker 拒绝或消息不可路由；发送异常或 confirm 超时时异常完成
+	 */
+	public CompletableFuture<Boolean> publish(String exchange, String routingKey, Object payload) {
+		return publish(exchange, routingKey, payload, null);
+	}
+
+	/**
+	 * 发送一条消息
+	 *
+	 * @param exchange             exchange，默认交换机传 ""
+	 * @param routingKey           routing key
+	 * @param payload              payload
+	 * @param messagePostProcessor 消息后置处理，可为空
+	 * @return true：broker 已确认；false：broker 拒绝或消息不可路由；发送异常或 confirm 超时时异常完成
+	 */
+	public CompletableFuture<Boolean> publish(String exchange, String routingKey, Object payload, MessagePostProcessor messagePostProcessor) {
+		CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
+		CompletableFuture<Boolean> future = track(correlationData);
+		ScheduledFuture<?> timeout = timer.schedule(() -> expire(future, correlationData.getId()),
+				properties.getConfirmTimeoutMillis(), TimeUnit.MILLISECONDS);
+		future.whenComplete((ack, e) -> timeout.cancel(false));
+		try {
+			if (messagePostProcessor == null) {
+				rabbitTemplate.convertAndSend(exchange, routingKey, payload, correlationData);
+			} else {
+				rabbitTemplate.convertAndSend(exchange, routingKey, payload, messagePostProcessor, correlationData);
+			}
+		} catch (AmqpException e) {
+			fail(future, e);
+		}
+		return future;
+	}
+
+	/**
+	 * 批量发送：同一个 channel 连续发送，不等待 confirm，全部确认（或超时）后汇总
+	 *
+	 * @param exchange   exchange，默认交换机传 ""
+	 * @param routingKey routing key
+	 * @param payloads   payloads
+	 * @return the completable future
+	 */
+	public CompletableFuture<BatchPublishResult> publishBatch(String exchange, String routingKey, List<?> payloads) {
+		if (payloads.size() > properties.getMaxBatchSize()) {
+			throw new IllegalArgumentException("batch size " + payloads.size() + " exceeds " + properties.getMaxBatchSize());
+		}
+		long start = System.nanoTime();
+		List<CompletableFuture<Boolean>> futures = new ArrayList<>(payloads.size());
+		try {
+			rabbitTemplate.invoke(operations -> {
+				for (Object payload : payloads) {
+					CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
+					futures.add(track(correlationData));
+					operations.convertAndSend(exchange, routingKey, payload, correlationData);
+				}
+				return null;
+			});
+		} catch (AmqpException e) {
+			// 最后一条的发送失败了，之前的仍可能得到 confirm
+			log.error("==>  批量发送第 [{}] 条消息时发生异常：[{}]", futures.size(), e.getMessage());
+			if (!futures.isEmpty()) {
+				fail(futures.get(futures.size() - 1), e);
+			}
+		}
+
+		CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+		ScheduledFuture<?> timeout = timer.schedule(() -> futures.forEach(future -> expire(future, null)),
+				properties.getConfirmTimeoutMillis(), TimeUnit.MILLISECONDS);
+		return all.handle((v, e) -> {
+			timeout.cancel(false);
+			BatchPublishResult result = new BatchPublishResult();
+			result.setTotal(payloads.size());
+			for (CompletableFuture<Boolean> future : futures) {
+				if (future.isCompletedExceptionally()) {
+					result.setFailed(result.getFailed() + 1);
+				} else if (future.join()) {
+					result.setAcked(result.getAcked() + 1);
+				} else {
+					result.setNacked(result.getNacked() + 1);
+				}
+			}
+			// 没能发出去的消息
+			result.setFailed(result.getFailed() + payloads.size() - futures.size());
+			long elapsedNanos = System.nanoTime() - start;
+			result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+			result.setThroughput(elapsedNanos == 0 ? 0 : payloads.size() * 1e9 / elapsedNanos);
+			return result;
+		});
+	}
+
+	/**
+	 * 已发送、已确认、被拒绝（含退回）、失败（发送异常、超时）、等待 confirm 的消息数
+	 *
+	 * @return the map
+	 */
+	public Map<String, Long> metrics() {
+		Map<String, Long> metrics = new ConcurrentSkipListMap<>();
+		long publishedCount = published.sum();
+		long ackedCount = acked.sum();
+		long nackedCount = nacked.sum();
+		long failedCount = failed.sum();
+		metrics.put("published", publishedCount);
+		metrics.put("acked", ackedCount);
+		metrics.put("nacked", nackedCount);
+		metrics.put("failed", failedCount);
+		metrics.put("inFlight", Math.max(0, publishedCount - ackedCount - nackedCount - failedCount));
+		return metrics;
+	}
+
+	@Override
+	public void destroy() {
+		timer.shutdownNow();
+	}
+
+	/**
+	 * 把 confirm 结果转换为 future，先完成的一方生效（confirm、发送异常、超时）
+	 *
+	 * @param correlationData correlation data
+	 * @return the completable future
+	 */
+	private CompletableFuture<Boolean> track(CorrelationData correlationData) {
+		published.increment();
+		CompletableFuture<Boolean> future = new CompletableFuture<>();
+		correlationData.getFuture().addCallback(confirm -> {
+			// 不可路由的消息 broker 也会 ack，退回的消息在 confirm 之前已经填充
+			boolean ack = confirm != null && confirm.isAck() && correlationData.getReturnedMessage() == null;
+			if (future.complete(ack)) {
+				if (ack) {
+					acked.increment();
+				} else {
+					nacked.increment();
+					log.warn("==>  消息 [{}] 未被 broker 确认：[{}]", correlationData.getId(),
+							correlationData.getReturnedMessage() != null ? "returned" : confirm == null ? null : confirm.getReason());
+				}
+			}
+		}, e -> fail(future, e));
+		return future;
+	}
+
+	/**
+	 * 异常完成，只有第一次完成时计数
+	 *
+	 * @param future future
+	 * @param e      e
+	 */
+	private void fail(CompletableFuture<Boolean> future, Throwable e) {
+		if (future.completeExceptionally(e)) {
+			failed.increment();
+		}
+	}
+
+	/**
+	 * 尚未完成时以 {@link TimeoutException} 完成
+	 *
+	 * @param future future
+	 * @param id     消息 id，批量发送时为空，不逐条打印日志
+	 */
+	private void expire(CompletableFuture<Boolean> future, String id) {
+		if (!future.isDone()) {
+			fail(future, new TimeoutException("confirm timeout"));
+			if (id != null) {
+				log.warn("==>  消息 [{}] 等待 confirm 超时", id);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+package xyz.rexlin600.rabbitmq.publisher;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 发布配置
+ *
+ * @author hekunlin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rexlin600.rabbitmq.publisher")
+public class RabbitPublisherProperties {
+
+	/**
+	 * 等待 broker confirm 的超时时间，单位毫秒
+	 */
+	private long confirmTimeoutMillis = 5000;
+
+	/**
+	 * 单次批量发送允许的最大消息数
+	 */
+	private int maxBatchSize = 10000;
+
+}
@@ -3,13 +3,14 @@ package xyz.rexlin600.rabbitmq.rest;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
 import xyz.rexlin600.rabbitmq.common.apiparam.Response;
 import xyz.rexlin600.rabbitmq.common.apiparam.ResponseGenerator;
 import xyz.rexlin600.rabbitmq.common.enums.InvokeTypeEnum;
+import xyz.rexlin600.rabbitmq.consumer.BatchContainerManager;
+import xyz.rexlin600.rabbitmq.consumer.QueueConsumeMetrics;
 import xyz.rexlin600.rabbitmq.entity.AmqpInvoke;
 import xyz.rexlin600.rabbitmq.pattern.deadletter.provider.DeadLetterProvider;
 import xyz.rexlin600.rabbitmq.pattern.direct.provider.DirectProvider;
@@ -17,11 +18,18 @@ import xyz.rexlin600.rabbitmq.pattern.fanout.provider.FanoutProvider;
 import xyz.rexlin600.rabbitmq.pattern.simple.provider.SimpleProvider;
 import xyz.rexlin600.rabbitmq.pattern.topic.provider.TopicProvider;
 import xyz.rexlin600.rabbitmq.pattern.work.provider.WorkProvider;
+import xyz.rexlin600.rabbitmq.publisher.BatchPublishRequest;
+import xyz.rexlin600.rabbitmq.publisher.BatchPublishResult;
+import xyz.rexlin600.rabbitmq.publisher.RabbitPublisher;
+import xyz.rexlin600.rabbitmq.publisher.RabbitPublisherProperties;
 
 import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Optional;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * RabbitMQ 接口
@@ -58,17 +66,36 @@ public class AmqpRest {
 	 * Dead letter provider
 	 */
 	private DeadLetterProvider deadLetterProvider;
+	/**
+	 * Rabbit publisher
+	 */
+	private RabbitPublisher rabbitPublisher;
+	/**
+	 * Rabbit publisher properties
+	 */
+	private RabbitPublisherProperties rabbitPublisherProperties;
+	/**
+	 * Batch container manager
+	 */
+	private BatchContainerManager batchContainerManager;
+	/**
+	 * type -> 生产者及其方法，启动时解析一次
+	 */
+	private Map<String, AmqpInvoke> invokes;
 
 
 	/**
 	 * Amqp rest
 	 *
-	 * @param simpleProvider     simple provider
-	 * @param workProvider       work provider
-	 * @param directProvider     direct provider
-	 * @param fanoutProvider     fanout provider
-	 * @param topicProvider      topic provider
-	 * @param deadLetterProvider dead letter provider
+	 * @param simpleProvider        simple provider
+	 * @param workProvider          work provider
+	 * @param directProvider        direct provider
+	 * @param fanoutProvider        fanout provider
+	 * @param topicProvider         topic provider
+	 * @param deadLetterProvider    dead letter provider
+	 * @param rabbitPublisher           rabbit publisher
+	 * @param rabbitPublisherProperties rabbit publisher properties
+	 * @param batchContainerManager     batch container manager
 	 */
 	@Autowired
 	public AmqpRest(SimpleProvider simpleProvider,
@@ -76,13 +103,26 @@ public class AmqpRest {
 					DirectProvider directProvider,
 					FanoutProvider fanoutProvider,
 					TopicProvider topicProvider,
-					DeadLetterProvider deadLetterProvider) {
+					DeadLetterProvider deadLetterProvider,
+					RabbitPublisher rabbitPublisher,
+					RabbitPublisherProperties rabbitPublisherProperties,
+					BatchContainerManager batchContainerManager) {
 		this.simpleProvider = simpleProvider;
 		this.workProvider = workProvider;
 		this.directProvider = directProvider;
 		this.fanoutProvider = fanoutProvider;
 		this.topicProvider = topicProvider;
 		this.deadLetterProvider = deadLetterProvider;
+		this.rabbitPublisher = rabbitPublisher;
+		this.rabbitPublisherProperties = rabbitPublisherProperties;
+		this.batchContainerManager = batchContainerManager;
+		this.invokes = new HashMap<>(InvokeTypeEnum.values().length);
+		for (InvokeTypeEnum invokeType : InvokeTypeEnum.values()) {
+			AmqpInvoke amqpInvoke = codeConvertAmqpInvoke(invokeType.getCode());
+			if (amqpInvoke != null) {
+				invokes.put(invokeType.getType(), amqpInvoke);
+			}
+		}
 	}
 
 	/**
@@ -98,38 +138,93 @@ public class AmqpRest {
 	public Response invoke(@PathVariable(value = "type") String type,
 						   @PathVariable(value = "method") String method) {
 		// type check
-		Optional<InvokeTypeEnum> any = Arrays.stream(InvokeTypeEnum.values()).filter(m -> m.getType().equals(type)).findAny();
-		if (!any.isPresent()) {
-			log.error("==>  Don't match this type=[{}]", type);
-			return ResponseGenerator.fail("not have type");
-		}
-		Integer code = any.get().getCode();
-
-		// get AmqpInvoke class
-		AmqpInvoke amqpInvoke = codeConvertAmqpInvoke(code);
+		AmqpInvoke amqpInvoke = invokes.get(type);
 		if (amqpInvoke == null) {
 			log.error("==>  Don't match this type=[{}]", type);
 			return ResponseGenerator.fail("not have type");
 		}
 
 		// methods check
-		Method[] methods = amqpInvoke.getMethods();
-		Optional<Method> optional = Arrays.stream(methods).filter(m -> m.getName().equals(method)).findAny();
-		if (!optional.isPresent()) {
-			log.error("==>  Don't match this type=[{}]", type);
+		Method m = amqpInvoke.getMethods().get(method);
+		if (m == null) {
+			log.error("==>  Don't match this method=[{}]", method);
 			return ResponseGenerator.fail("not have method");
 		}
 
-		// get instance obj
-		Object obj = amqpInvoke.getObject();
-
-		// invoke
-		Method m = optional.get();
-		m.invoke(obj, Collections.emptyList());
+		// invoke, wait for broker confirm
+		Object result = m.invoke(amqpInvoke.getObject());
+		if (result instanceof CompletableFuture) {
+			try {
+				if (!Boolean.TRUE.equals(((CompletableFuture<?>) result).get())) {
+					return ResponseGenerator.fail("not confirmed by broker");
+				}
+			} catch (ExecutionException e) {
+				return ResponseGenerator.fail("publish failed", e.getCause().getMessage());
+			}
+		}
 
 		return ResponseGenerator.success();
 	}
 
+	/**
+	 * 批量发送消息：同一个 channel 连续发送，全部 confirm 后返回汇总结果
+	 *
+	 * @param request request
+	 * @return the response
+	 */
+	@PostMapping("/publish/batch")
+	public CompletableFuture<Response<BatchPublishResult>> publishBatch(@RequestBody BatchPublishRequest request) {
+		if (StringUtils.isEmpty(request.getRoutingKey()) && StringUtils.isEmpty(request.getExchange())) {
+			return CompletableFuture.completedFuture(ResponseGenerator.fail("exchange or routingKey is required"));
+		}
+		List<String> messages = request.getMessages();
+		if (CollectionUtils.isEmpty(messages)) {
+			// 先校验再生成，避免超大的 count 生成整个列表
+			if (request.getCount() > rabbitPublisherProperties.getMaxBatchSize()) {
+				return CompletableFuture.completedFuture(ResponseGenerator.fail(
+						"count " + request.getCount() + " exceeds " + rabbitPublisherProperties.getMaxBatchSize()));
+			}
+			long milli = System.currentTimeMillis();
+			messages = IntStream.range(0, request.getCount())
+					.mapToObj(i -> "Batch message " + i + " at " + milli)
+					.collect(Collectors.toList());
+		}
+		if (messages.isEmpty()) {
+			return CompletableFuture.completedFuture(ResponseGenerator.fail("messages is empty"));
+		}
+		String exchange = request.getExchange() == null ? "" : request.getExchange();
+		String routingKey = request.getRoutingKey() == null ? "" : request.getRoutingKey();
+		try {
+			return rabbitPublisher.publishBatch(exchange, routingKey, messages).thenApply(result -> {
+				log.info("==>  批量发送 [{}] 条消息：ack [{}]、nack [{}]、失败 [{}]，耗时 [{}] ms",
+						result.getTotal(), result.getAcked(), result.getNacked(), result.getFailed(), result.getElapsedMillis());
+				return ResponseGenerator.success(result);
+			});
+		} catch (IllegalArgumentException e) {
+			return CompletableFuture.completedFuture(ResponseGenerator.fail(e.getMessage()));
+		}
+	}
+
+	/**
+	 * 发送统计
+	 *
+	 * @return the response
+	 */
+	@GetMapping("/publish/metrics")
+	public Response<Map<String, Long>> publishMetrics() {
+		return ResponseGenerator.success(rabbitPublisher.metrics());
+	}
+
+	/**
+	 * 各队列的消费统计：消费速率、ack 帧数、ack 延迟，批量消费的队列附带堆积消息数和消费者数
+	 *
+	 * @return the response
+	 */
+	@GetMapping("/consumer/metrics")
+	public Response<Map<String, QueueConsumeMetrics>> consumerMetrics() {
+		return ResponseGenerator.success(batchContainerManager.metrics());
+	}
+
 
 	// -----------------------------------------------------------------------------------------------
 	// OTHER METHODS
@@ -149,30 +244,30 @@ public class AmqpRest {
 				break;
 			// direct
 			case 1:
-				amqpInvoke = new AmqpInvoke(directProvider.getClass().getDeclaredMethods(), directProvider);
+				amqpInvoke = new AmqpInvoke(handlers(directProvider), directProvider);
 				break;
 			// fanout
 			case 2:
-				amqpInvoke = new AmqpInvoke(fanoutProvider.getClass().getDeclaredMethods(), fanoutProvider);
+				amqpInvoke = new AmqpInvoke(handlers(fanoutProvider), fanoutProvider);
 				break;
 			// header
 			case 3:
 				break;
 			// topic
 			case 4:
-				amqpInvoke = new AmqpInvoke(topicProvider.getClass().getDeclaredMethods(), topicProvider);
+				amqpInvoke = new AmqpInvoke(handlers(topicProvider), topicProvider);
 				break;
 			// simple
 			case 5:
-				amqpInvoke = new AmqpInvoke(simpleProvider.getClass().getDeclaredMethods(), simpleProvider);
+				amqpInvoke = new AmqpInvoke(handlers(simpleProvider), simpleProvider);
 				break;
 			// work
 			case 6:
-				amqpInvoke = new AmqpInvoke(workProvider.getClass().getDeclaredMethods(), workProvider);
+				amqpInvoke = new AmqpInvoke(handlers(workProvider), workProvider);
 				break;
 			// dl
 			case 7:
-				amqpInvoke = new AmqpInvoke(deadLetterProvider.getClass().getDeclaredMethods(), deadLetterProvider);
+				amqpInvoke = new AmqpInvoke(handlers(deadLetterProvider), deadLetterProvider);
 				break;
 			// custom
 			case 8:
@@ -183,5 +278,17 @@ public class AmqpRest {
 		return amqpInvoke;
 	}
 
+	/**
+	 * 生产者中可通过接口调用的方法：public、无参
+	 *
+	 * @param provider provider
+	 * @return 方法名 -> 方法
+	 */
+	private Map<String, Method> handlers(Object provider) {
+		return Arrays.stream(provider.getClass().getDeclaredMethods())
+				.filter(m -> Modifier.isPublic(m.getModifiers()) && !Modifier.isStatic(m.getModifiers()) && m.getParameterCount() == 0)
+				.collect(Collectors.toMap(Method::getName, m -> m));
+	}
+
 
 }
\ No newline at end of file
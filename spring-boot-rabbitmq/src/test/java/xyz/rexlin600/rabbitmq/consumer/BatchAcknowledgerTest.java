@@ -0,0 +1,130 @@
+package xyz.rexlin600.rabbitmq.consumer;
+
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 累计确认：mock 的 channel 记录发送的 basicAck / basicNack
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class BatchAcknowledgerTest {
+
+	private static final String QUEUE = "queue.test";
+
+	private BatchAcknowledger acknowledger;
+
+	@After
+	public void tearDown() {
+		if (acknowledger != null) {
+			acknowledger.destroy();
+		}
+	}
+
+	/**
+	 * 累计 ackBatchSize 条发送一次 multiple ack，每个 channel 发送的 tag 严格递增
+	 */
+	@Test
+	public void acksStrictlyIncreasing() throws Exception {
+		acknowledger = new BatchAcknowledger(properties(3, 60_000));
+		Channel channel = channel(true);
+		for (long tag = 1; tag <= 7; tag++) {
+			acknowledger.ack(channel, message(tag));
+		}
+		acknowledger.destroy();
+
+		InOrder inOrder = inOrder(channel);
+		inOrder.verify(channel).basicAck(3, true);
+		inOrder.verify(channel).basicAck(6, true);
+		inOrder.verify(channel).basicAck(7, true);
+		verify(channel, times(3)).basicAck(anyLong(), anyBoolean());
+	}
+
+	/**
+	 * nack 之前先发送已记下的 ack，避免失败的消息被随后的累计确认一并确认
+	 */
+	@Test
+	public void nackAfterFlush() throws Exception {
+		acknowledger = new BatchAcknowledger(properties(10, 60_000));
+		Channel channel = channel(true);
+		acknowledger.ack(channel, Arrays.asList(message(1), message(2)));
+		acknowledger.nack(channel, message(3), false, true);
+		acknowledger.ack(channel, message(4));
+		acknowledger.destroy();
+
+		InOrder inOrder = inOrder(channel);
+		inOrder.verify(channel).basicAck(2, true);
+		inOrder.verify(channel).basicNack(3, false, true);
+		inOrder.verify(channel).basicAck(4, true);
+		Assert.assertEquals(1, acknowledger.metrics().get(QUEUE).getNacked());
+	}
+
+	/**
+	 * 已经确认过的 tag 不再 nack，否则 broker 会关闭 channel
+	 */
+	@Test
+	public void skipNackForAckedTag() throws Exception {
+		acknowledger = new BatchAcknowledger(properties(2, 60_000));
+		Channel channel = channel(true);
+		acknowledger.ack(channel, Arrays.asList(message(1), message(2)));
+		verify(channel).basicAck(2, true);
+
+		acknowledger.nack(channel, message(2), true, true);
+		verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+		verify(channel, times(1)).basicAck(anyLong(), anyBoolean());
+	}
+
+	/**
+	 * 已关闭的 channel 被清理，不再发送 ack，也不计入待确认数
+	 */
+	@Test
+	public void closedChannelRemoved() throws Exception {
+		acknowledger = new BatchAcknowledger(properties(10, 20));
+		Channel channel = channel(false);
+		acknowledger.ack(channel, message(1));
+		Assert.assertEquals(1, acknowledger.metrics().get(QUEUE).getPendingAcks());
+
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (acknowledger.metrics().get(QUEUE).getPendingAcks() > 0) {
+			if (System.currentTimeMillis() > deadline) {
+				Assert.fail("已关闭的 channel 没有被清理");
+			}
+			Thread.sleep(10);
+		}
+		log.info("==>  已关闭的 channel 已清理");
+		verify(channel, never()).basicAck(anyLong(), anyBoolean());
+	}
+
+	private static RabbitConsumerProperties properties(int ackBatchSize, long ackIntervalMillis) {
+		RabbitConsumerProperties properties = new RabbitConsumerProperties();
+		properties.setAckBatchSize(ackBatchSize);
+		properties.setAckIntervalMillis(ackIntervalMillis);
+		return properties;
+	}
+
+	private static Channel channel(boolean open) {
+		Channel channel = mock(Channel.class);
+		when(channel.isOpen()).thenReturn(open);
+		return channel;
+	}
+
+	private static Message message(long deliveryTag) {
+		MessageProperties properties = new MessageProperties();
+		properties.setDeliveryTag(deliveryTag);
+		properties.setConsumerQueue(QUEUE);
+		return new Message(new byte[0], properties);
+	}
+
+}
@@ -0,0 +1,57 @@
+package xyz.rexlin600.rabbitmq.consumer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 批量消费容器：消费者数随队列堆积伸缩
+ *
+ * @author hekunlin
+ */
+public class BatchContainerManagerTest {
+
+	/**
+	 * 扩容按 ceil(堆积 / messagesPerConsumer) 一次到位，限制在 [minConsumers, maxConsumers]
+	 */
+	@Test
+	public void scaleUp() {
+		RabbitConsumerProperties properties = properties();
+		Assert.assertEquals(2, BatchContainerManager.targetConsumers(0, 2, properties));
+		Assert.assertEquals(2, BatchContainerManager.targetConsumers(1000, 2, properties));
+		Assert.assertEquals(3, BatchContainerManager.targetConsumers(2001, 2, properties));
+		Assert.assertEquals(6, BatchContainerManager.targetConsumers(5500, 2, properties));
+		Assert.assertEquals(8, BatchContainerManager.targetConsumers(1_000_000, 2, properties));
+	}
+
+	/**
+	 * 缩容每次只减一个，不低于 minConsumers
+	 */
+	@Test
+	public void scaleDownOneAtATime() {
+		RabbitConsumerProperties properties = properties();
+		Assert.assertEquals(7, BatchContainerManager.targetConsumers(0, 8, properties));
+		Assert.assertEquals(5, BatchContainerManager.targetConsumers(4000, 6, properties));
+		Assert.assertEquals(2, BatchContainerManager.targetConsumers(0, 2, properties));
+	}
+
+	/**
+	 * 配置不合法时按 1 处理，不会除零
+	 */
+	@Test
+	public void invalidProperties() {
+		RabbitConsumerProperties properties = new RabbitConsumerProperties();
+		properties.setMinConsumers(0);
+		properties.setMaxConsumers(0);
+		properties.setMessagesPerConsumer(0);
+		Assert.assertEquals(1, BatchContainerManager.targetConsumers(100, 1, properties));
+	}
+
+	private static RabbitConsumerProperties properties() {
+		RabbitConsumerProperties properties = new RabbitConsumerProperties();
+		properties.setMinConsumers(2);
+		properties.setMaxConsumers(8);
+		properties.setMessagesPerConsumer(1000);
+		return properties;
+	}
+
+}
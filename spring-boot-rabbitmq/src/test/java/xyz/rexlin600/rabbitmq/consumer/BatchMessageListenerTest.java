@@ -0,0 +1,299 @@
+package xyz.rexlin600.rabbitmq.consumer;
+
+import com.rabbitmq.client.Channel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import xyz.rexlin600.idempotent.DeduplicationProperties;
+import xyz.rexlin600.idempotent.IdempotentStore;
+import xyz.rexlin600.idempotent.MessageDeduplicator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量监听：mock 的 channel 和累计确认，校验攒批、重试、去重和失败时的 nack
+ *
+ * @author hekunlin
+ */
+public class BatchMessageListenerTest {
+
+	private RabbitConsumerProperties properties;
+
+	private BatchAcknowledger acknowledger;
+
+	private Channel channel;
+
+	private MessageDeduplicator deduplicator;
+
+	private List<List<Message>> handled;
+
+	@Before
+	public void setUp() {
+		properties = new RabbitConsumerProperties();
+		properties.setBatchSize(3);
+		properties.setBatchTimeoutMillis(50);
+		acknowledger = mock(BatchAcknowledger.class);
+		channel = mock(Channel.class);
+		when(channel.isOpen()).thenReturn(true);
+		handled = new CopyOnWriteArrayList<>();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (deduplicator != null) {
+			deduplicator.destroy();
+		}
+	}
+
+	/**
+	 * 攒满 batchSize 条立即处理并确认
+	 */
+	@Test
+	public void flushOnSize() throws Exception {
+		BatchMessageListener listener = listener(false, batch -> handled.add(new ArrayList<>(batch)));
+		listener.onMessage(message(1, "m-1"), channel);
+		listener.onMessage(message(2, "m-2"), channel);
+		Assert.assertTrue(handled.isEmpty());
+
+		listener.onMessage(message(3, "m-3"), channel);
+		Assert.assertEquals(1, handled.size());
+		Assert.assertEquals(3, handled.get(0).size());
+		verify(acknowledger).ack(eq(channel), anyList());
+	}
+
+	/**
+	 * 不足一批时等待 batchTimeoutMillis 后处理
+	 */
+	@Test
+	public void flushOnTimeout() throws Exception {
+		BatchMessageListener listener = listener(false, batch -> handled.add(new ArrayList<>(batch)));
+		listener.onMessage(message(1, "m-1"), channel);
+		listener.flushExpired(Runnable::run);
+		Assert.assertTrue(handled.isEmpty());
+
+		Thread.sleep(properties.getBatchTimeoutMillis() * 2);
+		listener.flushExpired(Runnable::run);
+		Assert.assertEquals(1, handled.size());
+		Assert.assertEquals(1, handled.get(0).size());
+		verify(acknowledger).ack(eq(channel), anyList());
+	}
+
+	/**
+	 * 超时批次在处理线程池中处理：一个 channel 的批次处理慢时，定时线程不被阻塞，其它 channel 的超时批次照常处理，
+	 * 慢批次也不会被重复提交
+	 */
+	@Test
+	public void slowBatchDoesNotBlockOtherChannels() throws Exception {
+		Channel slowChannel = mock(Channel.class);
+		when(slowChannel.isOpen()).thenReturn(true);
+		CountDownLatch slowStarted = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger slowRuns = new AtomicInteger();
+		BatchMessageListener listener = listener(false, batch -> {
+			if ("slow".equals(batch.get(0).getMessageProperties().getMessageId())) {
+				slowRuns.incrementAndGet();
+				slowStarted.countDown();
+				release.await();
+			}
+			handled.add(new ArrayList<>(batch));
+		});
+		ExecutorService workers = Executors.newFixedThreadPool(2);
+		try {
+			listener.onMessage(message(1, "slow"), slowChannel);
+			Thread.sleep(properties.getBatchTimeoutMillis() * 2);
+			listener.flushExpired(workers);
+			Assert.assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+
+			listener.onMessage(message(1, "m-1"), channel);
+			Thread.sleep(properties.getBatchTimeoutMillis() * 2);
+			// 慢批次占着 slowChannel 的锁，定时线程仍能立即返回
+			long start = System.nanoTime();
+			listener.flushExpired(workers);
+			listener.flushExpired(workers);
+			Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+
+			long deadline = System.currentTimeMillis() + 5_000;
+			while (handled.isEmpty() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			Assert.assertEquals(1, handled.size());
+			Assert.assertEquals("m-1", handled.get(0).get(0).getMessageProperties().getMessageId());
+
+			release.countDown();
+			deadline = System.currentTimeMillis() + 5_000;
+			while (handled.size() < 2 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			Assert.assertEquals(2, handled.size());
+			Assert.assertEquals(1, slowRuns.get());
+		} finally {
+			release.countDown();
+			workers.shutdownNow();
+		}
+	}
+
+	/**
+	 * 已关闭 channel 上的批次直接丢弃，由 broker 重新投递
+	 */
+	@Test
+	public void dropBatchOfClosedChannel() throws Exception {
+		BatchMessageListener listener = listener(false, batch -> handled.add(new ArrayList<>(batch)));
+		listener.onMessage(message(1, "m-1"), channel);
+		when(channel.isOpen()).thenReturn(false);
+		listener.flushAll();
+		Assert.assertTrue(handled.isEmpty());
+		verifyZeroInteractions(acknowledger);
+	}
+
+	/**
+	 * 失败后按重试配置再次处理，成功后确认
+	 */
+	@Test
+	public void retryBeforeNack() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		BatchMessageListener listener = listener(false, batch -> {
+			if (attempts.incrementAndGet() == 1) {
+				throw new IllegalStateException("first attempt failed");
+			}
+		});
+		sendBatch(listener);
+		Assert.assertEquals(2, attempts.get());
+		verify(acknowledger).ack(eq(channel), anyList());
+		verify(acknowledger, never()).nack(any(), any(), anyBoolean(), anyBoolean());
+	}
+
+	/**
+	 * 重试用尽后整批 nack，可恢复的错误重新入队
+	 */
+	@Test
+	public void requeueOnNonFatalError() throws Exception {
+		AtomicInteger attempts = new AtomicInteger();
+		BatchMessageListener listener = listener(false, batch -> {
+			attempts.incrementAndGet();
+			throw new IllegalStateException("database unavailable");
+		});
+		List<Message> messages = sendBatch(listener);
+		Assert.assertEquals(3, attempts.get());
+		verify(acknowledger).nack(channel, messages.get(2), true, true);
+		verify(acknowledger, never()).ack(any(), anyList());
+	}
+
+	/**
+	 * 无法通过重投恢复的错误不再入队
+	 */
+	@Test
+	public void rejectOnFatalError() throws Exception {
+		BatchMessageListener listener = listener(false, batch -> {
+			throw new AmqpRejectAndDontRequeueException("bad payload");
+		});
+		List<Message> messages = sendBatch(listener);
+		verify(acknowledger).nack(channel, messages.get(2), true, false);
+	}
+
+	/**
+	 * 开启去重时重复投递的消息不再交给业务逻辑，但仍然确认
+	 */
+	@Test
+	public void skipDuplicates() throws Exception {
+		BatchMessageListener listener = listener(true, batch -> handled.add(new ArrayList<>(batch)));
+		sendBatch(listener);
+		listener.onMessage(message(4, "m-1"), channel);
+		listener.onMessage(message(5, "m-4"), channel);
+		listener.onMessage(message(6, "m-2"), channel);
+
+		Assert.assertEquals(2, handled.size());
+		Assert.assertEquals(1, handled.get(1).size());
+		Assert.assertEquals("m-4", handled.get(1).get(0).getMessageProperties().getMessageId());
+		verify(acknowledger, times(2)).ack(eq(channel), anyList());
+	}
+
+	private BatchMessageListener listener(boolean dedup, BatchMessageHandler handler) {
+		DeduplicationProperties dedupProperties = new DeduplicationProperties();
+		dedupProperties.setEnabled(dedup);
+		dedupProperties.setExpectedInsertions(10_000);
+		deduplicator = new MessageDeduplicator(dedupProperties, new MemoryStore());
+
+		RabbitProperties.ListenerRetry retry = new RabbitProperties.ListenerRetry();
+		retry.setEnabled(true);
+		retry.setMaxAttempts(3);
+		retry.setInitialInterval(Duration.ofMillis(1));
+		retry.setMaxInterval(Duration.ofMillis(5));
+		return new BatchMessageListener("queue.test", handler, acknowledger, deduplicator,
+				BatchContainerManager.retryTemplate(retry), properties);
+	}
+
+	private List<Message> sendBatch(BatchMessageListener listener) {
+		List<Message> messages = new ArrayList<>();
+		for (int i = 1; i <= properties.getBatchSize(); i++) {
+			Message message = message(i, "m-" + i);
+			messages.add(message);
+			listener.onMessage(message, channel);
+		}
+		return messages;
+	}
+
+	private static Message message(long deliveryTag, String messageId) {
+		MessageProperties properties = new MessageProperties();
+		properties.setDeliveryTag(deliveryTag);
+		properties.setMessageId(messageId);
+		properties.setConsumerQueue("queue.test");
+		return new Message(new byte[0], properties);
+	}
+
+	/**
+	 * 内存持久化窗口
+	 */
+	private static class MemoryStore implements IdempotentStore {
+
+		private final Set<Long> fingerprints = ConcurrentHashMap.newKeySet();
+
+		@Override
+		public boolean contains(long fingerprint) {
+			return fingerprints.contains(fingerprint);
+		}
+
+		@Override
+		public void add(long fingerprint) {
+			fingerprints.add(fingerprint);
+		}
+
+		@Override
+		public void forEach(LongConsumer consumer) {
+			fingerprints.forEach(consumer::accept);
+		}
+
+		@Override
+		public void maintain() {
+		}
+
+		@Override
+		public long size() {
+			return fingerprints.size();
+		}
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+}
@@ -0,0 +1,214 @@
+package xyz.rexlin600.rabbitmq.publisher;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 发布方式的吞吐对比：不开 confirm / 逐条同步等待 confirm / 异步 confirm / 同一 channel 批量发送
+ * <p>
+ * 不需要 RabbitMQ：用 mock 的 amqp-client 作为 broker 替身，basicPublish 后由单独的线程延迟 confirmLatencyMicros 回调 ack，
+ * 模拟一次网络往返；结果只用于比较几种方式的相对差异，不代表真实 broker 的吞吐
+ *
+ * @author hekunlin
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RabbitPublisherBenchmark {
+
+	/**
+	 * 每次操作发送的消息数
+	 */
+	private static final int MESSAGES = 1000;
+
+	/**
+	 * Confirm 延迟（微秒）
+	 */
+	@Param({"0", "200"})
+	private long confirmLatencyMicros;
+
+	/**
+	 * Broker 替身回调 confirm 的线程
+	 */
+	private ScheduledExecutorService broker;
+
+	/**
+	 * Connection factories
+	 */
+	private List<CachingConnectionFactory> connectionFactories;
+
+	/**
+	 * 不开 confirm 的 template
+	 */
+	private RabbitTemplate plainTemplate;
+
+	/**
+	 * Rabbit publisher
+	 */
+	private RabbitPublisher publisher;
+
+	/**
+	 * Payloads
+	 */
+	private List<String> payloads;
+
+	/**
+	 * Sets up
+	 *
+	 * @throws Exception exception
+	 */
+	@Setup
+	public void setUp() throws Exception {
+		broker = Executors.newSingleThreadScheduledExecutor();
+		connectionFactories = new ArrayList<>();
+
+		plainTemplate = new RabbitTemplate(connectionFactory(false));
+
+		RabbitPublisherProperties properties = new RabbitPublisherProperties();
+		properties.setMaxBatchSize(MESSAGES);
+		publisher = new RabbitPublisher(new RabbitTemplate(connectionFactory(true)), properties);
+
+		payloads = new ArrayList<>(MESSAGES);
+		for (int i = 0; i < MESSAGES; i++) {
+			payloads.add("Benchmark message " + i);
+		}
+	}
+
+	/**
+	 * Tear down
+	 */
+	@TearDown
+	public void tearDown() {
+		publisher.destroy();
+		connectionFactories.forEach(CachingConnectionFactory::destroy);
+		broker.shutdownNow();
+	}
+
+	/**
+	 * 原来的做法：逐条发送，不知道 broker 是否收到
+	 */
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void noConfirm() {
+		for (String payload : payloads) {
+			plainTemplate.convertAndSend("", "queue.benchmark", payload);
+		}
+	}
+
+	/**
+	 * 逐条发送，每条等待 confirm 后再发下一条
+	 *
+	 * @throws Exception exception
+	 */
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void awaitEach() throws Exception {
+		for (String payload : payloads) {
+			publisher.publish("", "queue.benchmark", payload).get();
+		}
+	}
+
+	/**
+	 * 逐条发送，confirm 异步返回，最后等待全部确认
+	 */
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void async() {
+		List<CompletableFuture<Boolean>> futures = new ArrayList<>(MESSAGES);
+		for (String payload : payloads) {
+			futures.add(publisher.publish("", "queue.benchmark", payload));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+	}
+
+	/**
+	 * 同一个 channel 批量发送，等待全部确认
+	 *
+	 * @return the batch publish result
+	 */
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public BatchPublishResult batch() {
+		return publisher.publishBatch("", "queue.benchmark", payloads).join();
+	}
+
+	/**
+	 * Broker 替身：每个 channel 维护自己的 publish 序号，publish 后异步回调 ack
+	 */
+	private CachingConnectionFactory connectionFactory(boolean publisherConfirms) throws Exception {
+		ConnectionFactory rabbitConnectionFactory = mock(ConnectionFactory.class);
+		Connection connection = mock(Connection.class);
+		when(connection.isOpen()).thenReturn(true);
+		when(connection.createChannel()).thenAnswer(invocation -> channel());
+		when(rabbitConnectionFactory.newConnection(any(ExecutorService.class), anyString())).thenReturn(connection);
+
+		CachingConnectionFactory connectionFactory = new CachingConnectionFactory(rabbitConnectionFactory);
+		connectionFactory.setPublisherConfirms(publisherConfirms);
+		connectionFactory.setChannelCacheSize(64);
+		connectionFactories.add(connectionFactory);
+		return connectionFactory;
+	}
+
+	private Channel channel() throws IOException {
+		Channel channel = mock(Channel.class);
+		AtomicLong nextSeqNo = new AtomicLong(1);
+		List<ConfirmListener> listeners = new CopyOnWriteArrayList<>();
+		when(channel.isOpen()).thenReturn(true);
+		when(channel.getNextPublishSeqNo()).thenAnswer(invocation -> nextSeqNo.get());
+		doAnswer(invocation -> listeners.add(invocation.getArgument(0)))
+				.when(channel).addConfirmListener(any(ConfirmListener.class));
+		doAnswer(invocation -> {
+			long deliveryTag = nextSeqNo.getAndIncrement();
+			if (listeners.isEmpty()) {
+				// 没开 confirm
+				return null;
+			}
+			broker.schedule(() -> {
+				for (ConfirmListener listener : listeners) {
+					try {
+						listener.handleAck(deliveryTag, false);
+					} catch (IOException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}, confirmLatencyMicros, TimeUnit.MICROSECONDS);
+			return null;
+		}).when(channel).basicPublish(anyString(), anyString(), anyBoolean(), any(), any());
+		return channel;
+	}
+
+	/**
+	 * Main
+	 *
+	 * @param args args
+	 * @throws RunnerException runner exception
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(RabbitPublisherBenchmark.class.getSimpleName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,225 @@
+package xyz.rexlin600.rabbitmq.publisher;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+import com.rabbitmq.client.ReturnListener;
+import com.rabbitmq.client.impl.LongStringHelper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 消息发布：与 {@link RabbitPublisherBenchmark} 一样用 mock 的 amqp-client 作为 broker 替身，按 routing key 决定回调
+ * <p>
+ * queue.ack 确认、queue.nack 拒绝、queue.returned 先退回再确认、queue.broken 发送时抛出异常、queue.silent 不回调
+ *
+ * @author hekunlin
+ */
+public class RabbitPublisherTest {
+
+	/**
+	 * Broker 替身回调 confirm 的线程
+	 */
+	private ScheduledExecutorService broker;
+
+	/**
+	 * Connection factory
+	 */
+	private CachingConnectionFactory connectionFactory;
+
+	/**
+	 * Rabbit publisher
+	 */
+	private RabbitPublisher publisher;
+
+	@Before
+	public void setUp() throws Exception {
+		broker = Executors.newSingleThreadScheduledExecutor();
+
+		ConnectionFactory rabbitConnectionFactory = mock(ConnectionFactory.class);
+		Connection connection = mock(Connection.class);
+		when(connection.isOpen()).thenReturn(true);
+		when(connection.createChannel()).thenAnswer(invocation -> channel());
+		when(rabbitConnectionFactory.newConnection(any(ExecutorService.class), anyString())).thenReturn(connection);
+
+		connectionFactory = new CachingConnectionFactory(rabbitConnectionFactory);
+		connectionFactory.setPublisherConfirms(true);
+		connectionFactory.setPublisherReturns(true);
+		RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+		rabbitTemplate.setMandatory(true);
+
+		RabbitPublisherProperties properties = new RabbitPublisherProperties();
+		properties.setConfirmTimeoutMillis(200);
+		properties.setMaxBatchSize(10);
+		publisher = new RabbitPublisher(rabbitTemplate, properties);
+	}
+
+	@After
+	public void tearDown() {
+		publisher.destroy();
+		connectionFactory.destroy();
+		broker.shutdownNow();
+	}
+
+	/**
+	 * broker 确认时以 true 完成
+	 */
+	@Test
+	public void ack() throws Exception {
+		Assert.assertTrue(publisher.publish("", "queue.ack", "hello").get(5, TimeUnit.SECONDS));
+		assertMetrics(1, 1, 0, 0);
+	}
+
+	/**
+	 * broker 拒绝时以 false 完成
+	 */
+	@Test
+	public void nack() throws Exception {
+		Assert.assertFalse(publisher.publish("", "queue.nack", "hello").get(5, TimeUnit.SECONDS));
+		assertMetrics(1, 0, 1, 0);
+	}
+
+	/**
+	 * 不可路由被退回的消息 broker 也会确认，按 false 完成
+	 */
+	@Test
+	public void returned() throws Exception {
+		Assert.assertFalse(publisher.publish("", "queue.returned", "hello").get(5, TimeUnit.SECONDS));
+		assertMetrics(1, 0, 1, 0);
+	}
+
+	/**
+	 * 发送异常时异常完成
+	 */
+	@Test
+	public void sendFailure() throws Exception {
+		CompletableFuture<Boolean> future = publisher.publish("", "queue.broken", "hello");
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			Assert.fail("发送异常时 future 应当异常完成");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof AmqpException);
+		}
+		assertMetrics(1, 0, 0, 1);
+	}
+
+	/**
+	 * 超过 confirmTimeoutMillis 没有 confirm 时以 TimeoutException 完成
+	 */
+	@Test
+	public void timeout() throws Exception {
+		CompletableFuture<Boolean> future = publisher.publish("", "queue.silent", "hello");
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			Assert.fail("confirm 超时时 future 应当异常完成");
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof TimeoutException);
+		}
+		assertMetrics(1, 0, 0, 1);
+	}
+
+	/**
+	 * 批量发送汇总 ack / nack / 超时，超过 maxBatchSize 时拒绝
+	 */
+	@Test
+	public void publishBatch() throws Exception {
+		BatchPublishResult result = publisher.publishBatch("", "queue.ack", Arrays.asList("a", "b", "c"))
+				.get(5, TimeUnit.SECONDS);
+		Assert.assertEquals(3, result.getTotal());
+		Assert.assertEquals(3, result.getAcked());
+
+		result = publisher.publishBatch("", "queue.silent", Arrays.asList("a", "b")).get(5, TimeUnit.SECONDS);
+		Assert.assertEquals(2, result.getFailed());
+
+		try {
+			publisher.publishBatch("", "queue.ack", Collections.nCopies(11, "a"));
+			Assert.fail("超过 maxBatchSize 应当拒绝");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	private void assertMetrics(long published, long acked, long nacked, long failed) {
+		Map<String, Long> metrics = publisher.metrics();
+		Assert.assertEquals(Long.valueOf(published), metrics.get("published"));
+		Assert.assertEquals(Long.valueOf(acked), metrics.get("acked"));
+		Assert.assertEquals(Long.valueOf(nacked), metrics.get("nacked"));
+		Assert.assertEquals(Long.valueOf(failed), metrics.get("failed"));
+		Assert.assertEquals(Long.valueOf(0), metrics.get("inFlight"));
+	}
+
+	/**
+	 * Broker 替身：每个 channel 维护自己的 publish 序号，按 routing key 异步回调
+	 */
+	private Channel channel() throws IOException {
+		Channel channel = mock(Channel.class);
+		AtomicLong nextSeqNo = new AtomicLong(1);
+		List<ConfirmListener> confirmListeners = new CopyOnWriteArrayList<>();
+		List<ReturnListener> returnListeners = new CopyOnWriteArrayList<>();
+		when(channel.isOpen()).thenReturn(true);
+		when(channel.getNextPublishSeqNo()).thenAnswer(invocation -> nextSeqNo.get());
+		doAnswer(invocation -> confirmListeners.add(invocation.getArgument(0)))
+				.when(channel).addConfirmListener(any(ConfirmListener.class));
+		doAnswer(invocation -> returnListeners.add(invocation.getArgument(0)))
+				.when(channel).addReturnListener(any(ReturnListener.class));
+		doAnswer(invocation -> {
+			String exchange = invocation.getArgument(0);
+			String routingKey = invocation.getArgument(1);
+			AMQP.BasicProperties properties = invocation.getArgument(3);
+			byte[] body = invocation.getArgument(4);
+			if ("queue.broken".equals(routingKey)) {
+				throw new IOException("connection reset");
+			}
+			long deliveryTag = nextSeqNo.getAndIncrement();
+			if ("queue.silent".equals(routingKey)) {
+				return null;
+			}
+			broker.execute(() -> {
+				try {
+					if ("queue.returned".equals(routingKey)) {
+						// broker 返回的 header 值是 LongString
+						AMQP.BasicProperties returned = properties.builder().headers(longStringHeaders(properties.getHeaders())).build();
+						for (ReturnListener listener : returnListeners) {
+							listener.handleReturn(312, "NO_ROUTE", exchange, routingKey, returned, body);
+						}
+					}
+					for (ConfirmListener listener : confirmListeners) {
+						if ("queue.nack".equals(routingKey)) {
+							listener.handleNack(deliveryTag, false);
+						} else {
+							listener.handleAck(deliveryTag, false);
+						}
+					}
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			return null;
+		}).when(channel).basicPublish(anyString(), anyString(), anyBoolean(), any(), any());
+		return channel;
+	}
+
+	private static Map<String, Object> longStringHeaders(Map<String, Object> headers) {
+		Map<String, Object> converted = new HashMap<>();
+		if (headers != null) {
+			headers.forEach((key, value) -> converted.put(key, value instanceof String ? LongStringHelper.asLongString((String) value) : value));
+		}
+		return converted;
+	}
+
+}
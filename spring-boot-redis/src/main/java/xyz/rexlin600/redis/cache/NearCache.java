@@ -0,0 +1,208 @@
+package xyz.rexlin600.redis.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存：本地 Caffeine 作为 L1，RedisCache 作为 L2
+ * <p>
+ * 读：L1 -> L2 -> 回填 L1
+ * 写/失效：先写 L2，再更新本地 L1，最后广播失效消息让其它节点丢弃 L1
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class NearCache extends AbstractValueAdaptingCache {
+
+	/**
+	 * Name
+	 */
+	private final String name;
+
+	/**
+	 * L1 本地缓存
+	 */
+	private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+
+	/**
+	 * L2 Redis 缓存
+	 */
+	private final Cache remote;
+
+	/**
+	 * 用于广播失效消息
+	 */
+	private final RedisTemplate<String, Object> redisTemplate;
+
+	/**
+	 * Topic
+	 */
+	private final String topic;
+
+	/**
+	 * Node id
+	 */
+	private final String nodeId;
+
+	/**
+	 * L2 命中次数
+	 */
+	private final LongAdder remoteHits = new LongAdder();
+
+	/**
+	 * L2 未命中次数
+	 */
+	private final LongAdder remoteMisses = new LongAdder();
+
+	/**
+	 * Near cache
+	 *
+	 * @param name          name
+	 * @param local         local
+	 * @param remote        remote
+	 * @param redisTemplate redis template
+	 * @param topic         topic
+	 * @param nodeId        node id
+	 */
+	public NearCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> local, Cache remote,
+					 RedisTemplate<String, Object> redisTemplate, String topic, String nodeId) {
+		// L2 已经禁止缓存空值，这里保持一致
+		super(false);
+		this.name = name;
+		this.local = local;
+		this.remote = remote;
+		this.redisTemplate = redisTemplate;
+		this.topic = topic;
+		this.nodeId = nodeId;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this;
+	}
+
+	@Override
+	protected Object lookup(Object key) {
+		Object value = local.getIfPresent(key);
+		if (value != null) {
+			return value;
+		}
+
+		ValueWrapper wrapper = remote.get(key);
+		if (wrapper == null || wrapper.get() == null) {
+			remoteMisses.increment();
+			return null;
+		}
+		remoteHits.increment();
+		value = wrapper.get();
+		local.put(key, value);
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		Object value = lookup(key);
+		if (value != null) {
+			return (T) value;
+		}
+		// 由 L2 保证同一节点的加载只执行一次
+		T loaded = remote.get(key, valueLoader);
+		if (loaded != null) {
+			local.put(key, loaded);
+		}
+		return loaded;
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		if (value == null) {
+			evict(key);
+			return;
+		}
+		remote.put(key, value);
+		local.put(key, value);
+		publish(key);
+	}
+
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		ValueWrapper existing = remote.putIfAbsent(key, value);
+		if (existing == null && value != null) {
+			local.put(key, value);
+			publish(key);
+		}
+		return existing;
+	}
+
+	@Override
+	public void evict(Object key) {
+		remote.evict(key);
+		local.invalidate(key);
+		publish(key);
+	}
+
+	@Override
+	public void clear() {
+		remote.clear();
+		local.invalidateAll();
+		publish(null);
+	}
+
+	/**
+	 * 处理其它节点发来的失效消息，只清理本地 L1
+	 *
+	 * @param key key，为 null 时清空
+	 */
+	public void invalidateLocal(Object key) {
+		if (key == null) {
+			local.invalidateAll();
+		} else {
+			local.invalidate(key);
+		}
+	}
+
+	/**
+	 * 命中/未命中/淘汰统计
+	 *
+	 * @return the stats
+	 */
+	public Map<String, Object> stats() {
+		com.github.benmanes.caffeine.cache.stats.CacheStats stats = local.stats();
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("localSize", local.estimatedSize());
+		map.put("localHits", stats.hitCount());
+		map.put("localMisses", stats.missCount());
+		map.put("localEvictions", stats.evictionCount());
+		map.put("localHitRate", stats.hitRate());
+		map.put("remoteHits", remoteHits.sum());
+		map.put("remoteMisses", remoteMisses.sum());
+		return map;
+	}
+
+	/**
+	 * 广播失效消息，失败时只打印日志，其它节点的 L1 将在 TTL 后自然过期
+	 *
+	 * @param key key
+	 */
+	private void publish(Object key) {
+		try {
+			redisTemplate.convertAndSend(topic, new NearCacheMessage(nodeId, name, key));
+		} catch (Exception e) {
+			log.error("Near cache publish invalidate message error：cache -> [{}]；key -> [{}]", name, key, e);
+		}
+	}
+
+}
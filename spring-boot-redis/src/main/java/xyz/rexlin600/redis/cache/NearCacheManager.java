@@ -0,0 +1,114 @@
+package xyz.rexlin600.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 二级缓存管理器，包装 RedisCacheManager，为每个缓存名增加本地 L1
+ *
+ * @author hekunlin
+ */
+public class NearCacheManager implements CacheManager {
+
+	/**
+	 * 当前节点ID
+	 */
+	private final String nodeId = UUID.randomUUID().toString();
+
+	/**
+	 * Cache map
+	 */
+	private final ConcurrentMap<String, NearCache> cacheMap = new ConcurrentHashMap<>(16);
+
+	/**
+	 * L2 cache manager
+	 */
+	private final CacheManager remoteCacheManager;
+
+	/**
+	 * Redis template
+	 */
+	private final RedisTemplate<String, Object> redisTemplate;
+
+	/**
+	 * Properties
+	 */
+	private final NearCacheProperties properties;
+
+	/**
+	 * Near cache manager
+	 *
+	 * @param remoteCacheManager remote cache manager
+	 * @param redisTemplate      redis template
+	 * @param properties         properties
+	 */
+	public NearCacheManager(CacheManager remoteCacheManager, RedisTemplate<String, Object> redisTemplate,
+							NearCacheProperties properties) {
+		this.remoteCacheManager = remoteCacheManager;
+		this.redisTemplate = redisTemplate;
+		this.properties = properties;
+	}
+
+	@Override
+	public Cache getCache(String name) {
+		return cacheMap.computeIfAbsent(name, this::createCache);
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return remoteCacheManager.getCacheNames();
+	}
+
+	/**
+	 * 处理失效消息
+	 *
+	 * @param message message
+	 */
+	public void onInvalidate(NearCacheMessage message) {
+		if (message == null || nodeId.equals(message.getNodeId())) {
+			return;
+		}
+		NearCache cache = cacheMap.get(message.getCacheName());
+		if (cache != null) {
+			cache.invalidateLocal(message.getKey());
+		}
+	}
+
+	/**
+	 * 所有缓存的统计信息
+	 *
+	 * @return the map
+	 */
+	public Map<String, Map<String, Object>> stats() {
+		Map<String, Map<String, Object>> map = new LinkedHashMap<>();
+		cacheMap.forEach((name, cache) -> map.put(name, cache.stats()));
+		return map;
+	}
+
+	/**
+	 * Create cache
+	 *
+	 * @param name name
+	 * @return the near cache
+	 */
+	private NearCache createCache(String name) {
+		NearCacheProperties.Spec spec = properties.getSpec(name);
+		com.github.benmanes.caffeine.cache.Cache<Object, Object> local = Caffeine.newBuilder()
+				.maximumSize(spec.getMaximumSize())
+				.expireAfterWrite(spec.getExpireAfterWrite().toMillis(), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+		return new NearCache(name, local, remoteCacheManager.getCache(name), redisTemplate, properties.getTopic(), nodeId);
+	}
+
+}
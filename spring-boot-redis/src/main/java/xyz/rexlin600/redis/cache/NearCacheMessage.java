@@ -0,0 +1,36 @@
+package xyz.rexlin600.redis.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.Serializable;
+
+/**
+ * 一级缓存失效消息，通过 Redis pub/sub 广播给其它节点
+ *
+ * @author hekunlin
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class NearCacheMessage implements Serializable {
+
+	/**
+	 * 发送消息的节点ID，节点忽略自己发出的消息
+	 */
+	private String nodeId;
+
+	/**
+	 * Cache name
+	 */
+	private String cacheName;
+
+	/**
+	 * Key，为 null 时表示清空整个缓存
+	 */
+	private Object key;
+
+}
@@ -0,0 +1,78 @@
+package xyz.rexlin600.redis.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 二级缓存（本地 L1 + Redis L2）配置
+ *
+ * @author hekunlin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rexlin600.redis.near-cache")
+public class NearCacheProperties {
+
+	/**
+	 * 是否开启本地一级缓存，默认关闭（仅使用 RedisCacheManager）
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * 缓存失效广播的 channel
+	 */
+	private String topic = "near-cache:invalidate";
+
+	/**
+	 * 默认每个缓存的最大条目数
+	 */
+	private long maximumSize = 10000;
+
+	/**
+	 * 默认写入后过期时间，应不大于 Redis 的 entryTtl
+	 */
+	private Duration expireAfterWrite = Duration.ofSeconds(5);
+
+	/**
+	 * 按缓存名单独配置，key 为 cacheName
+	 */
+	private Map<String, Spec> caches = new HashMap<>();
+
+	/**
+	 * 获取指定缓存的配置，未单独配置时使用默认值
+	 *
+	 * @param cacheName cache name
+	 * @return the spec
+	 */
+	public Spec getSpec(String cacheName) {
+		Spec spec = caches.get(cacheName);
+		Spec result = new Spec();
+		result.setMaximumSize(spec != null && spec.getMaximumSize() != null ? spec.getMaximumSize() : maximumSize);
+		result.setExpireAfterWrite(spec != null && spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite() : expireAfterWrite);
+		return result;
+	}
+
+	/**
+	 * 单个缓存的配置
+	 */
+	@Data
+	public static class Spec {
+
+		/**
+		 * 最大条目数
+		 */
+		private Long maximumSize;
+
+		/**
+		 * 写入后过期时间
+		 */
+		private Duration expireAfterWrite;
+
+	}
+
+}
@@ -4,7 +4,9 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
@@ -18,10 +20,18 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import xyz.rexlin600.redis.cache.NearCacheManager;
+import xyz.rexlin600.redis.cache.NearCacheMessage;
+import xyz.rexlin600.redis.cache.NearCacheProperties;
+import xyz.rexlin600.redis.entity.Blog;
+import xyz.rexlin600.redis.serializer.BinaryClassRegistry;
+import xyz.rexlin600.redis.serializer.BinaryRedisSerializer;
 
 import java.lang.reflect.Method;
 import java.time.Duration;
@@ -38,6 +48,18 @@ import java.time.Duration;
 @AutoConfigureAfter(RedisAutoConfiguration.class)
 public class RedisConfig extends CachingConfigurerSupport {
 
+	/**
+	 * Value 序列化方式：jackson / binary
+	 */
+	@Value("${rexlin600.redis.value-serializer:jackson}")
+	private String valueSerializerType;
+
+	/**
+	 * binary 序列化的压缩阈值（字节）
+	 */
+	@Value("${rexlin600.redis.compress-threshold:1024}")
+	private int compressThreshold;
+
 	/**
 	 * Key generator key generator
 	 *
@@ -64,21 +86,19 @@ public class RedisConfig extends CachingConfigurerSupport {
 	/**
 	 * Cache manager cache manager
 	 *
-	 * @param connectionFactory connection factory
+	 * @param connectionFactory   connection factory
+	 * @param redisTemplate       redis template
+	 * @param nearCacheProperties near cache properties
 	 * @return the cache manager
 	 */
 	@Bean("cacheManager")
-	public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+	public CacheManager cacheManager(RedisConnectionFactory connectionFactory, RedisTemplate<String, Object> redisTemplate,
+									 NearCacheProperties nearCacheProperties) {
 		log.info("初始化 -> [{}]", "CacheManager RedisCacheManager Start");
 
-		Jackson2JsonRedisSerializer<Object> jsonRedisSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
+		RedisSerializer<Object> jsonRedisSerializer = valueSerializer();
 		StringRedisSerializer stringRedisSerializer = new StringRedisSerializer();
 
-		ObjectMapper om = new ObjectMapper();
-		om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-		om.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
-		jsonRedisSerializer.setObjectMapper(om);
-
 		// 设置缓存的默认过期时间，也是使用Duration设置，默认永久、不缓存空值、配置序列化
 		RedisCacheConfiguration redisCacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
 				.entryTtl(Duration.ofSeconds(5))
@@ -90,9 +110,45 @@ public class RedisConfig extends CachingConfigurerSupport {
 				.cacheDefaults(redisCacheConfiguration)
 				.build();
 
+		// 开启本地一级缓存时，在 RedisCacheManager 外再包一层
+		if (nearCacheProperties.isEnabled()) {
+			log.info("初始化 -> [{}]", "CacheManager NearCacheManager Start");
+			return new NearCacheManager(cacheManager, redisTemplate, nearCacheProperties);
+		}
+
 		return cacheManager;
 	}
 
+	/**
+	 * 订阅一级缓存失效消息
+	 *
+	 * @param connectionFactory connection factory
+	 * @param cacheManager      cache manager
+	 * @param redisTemplate     redis template
+	 * @param properties        properties
+	 * @return the redis message listener container
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "rexlin600.redis.near-cache", name = "enabled", havingValue = "true")
+	public RedisMessageListenerContainer nearCacheListenerContainer(RedisConnectionFactory connectionFactory,
+																	CacheManager cacheManager,
+																	RedisTemplate<String, Object> redisTemplate,
+																	NearCacheProperties properties) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		if (cacheManager instanceof NearCacheManager) {
+			NearCacheManager nearCacheManager = (NearCacheManager) cacheManager;
+			RedisSerializer<?> valueSerializer = redisTemplate.getValueSerializer();
+			container.addMessageListener((message, pattern) -> {
+				Object body = valueSerializer.deserialize(message.getBody());
+				if (body instanceof NearCacheMessage) {
+					nearCacheManager.onInvalidate((NearCacheMessage) body);
+				}
+			}, new ChannelTopic(properties.getTopic()));
+		}
+		return container;
+	}
+
 	/**
 	 * Redis template redis template
 	 *
@@ -107,12 +163,7 @@ public class RedisConfig extends CachingConfigurerSupport {
 		// 使用 Jackson2JsonRedisSerializer 序列代替默认 GenericJackson2JsonRedisSerializer
 		RedisSerializer stringSerializer = new StringRedisSerializer();
 		//GenericJackson2JsonRedisSerializer jsonRedisSerializer = new GenericJackson2JsonRedisSerializer();
-		Jackson2JsonRedisSerializer<Object> jsonRedisSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
-
-		ObjectMapper om = new ObjectMapper();
-		om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-		om.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
-		jsonRedisSerializer.setObjectMapper(om);
+		RedisSerializer<Object> jsonRedisSerializer = valueSerializer();
 
 		// 设置连接工厂
 		redisTemplate.setConnectionFactory(jedisConnectionFactory);
@@ -131,6 +182,30 @@ public class RedisConfig extends CachingConfigurerSupport {
 		return redisTemplate;
 	}
 
+	/**
+	 * Value 序列化方式
+	 * <p>
+	 * jackson：Jackson2JsonRedisSerializer + default typing（默认）
+	 * binary：BinaryRedisSerializer，只写类ID，超过阈值时压缩
+	 *
+	 * @return the redis serializer
+	 */
+	private RedisSerializer<Object> valueSerializer() {
+		if ("binary".equalsIgnoreCase(valueSerializerType)) {
+			BinaryClassRegistry registry = new BinaryClassRegistry()
+					.register(1, Blog.class)
+					.register(2, NearCacheMessage.class);
+			return new BinaryRedisSerializer(registry, compressThreshold);
+		}
+
+		Jackson2JsonRedisSerializer<Object> jsonRedisSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
+		ObjectMapper om = new ObjectMapper();
+		om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+		om.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
+		jsonRedisSerializer.setObjectMapper(om);
+		return jsonRedisSerializer;
+	}
+
 	/**
 	 * Error handler cache error handler
 	 *
@@ -0,0 +1,32 @@
+package xyz.rexlin600.redis.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 排行榜条目
+ *
+ * @author hekunlin
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+
+	/**
+	 * Member
+	 */
+	private String member;
+
+	/**
+	 * Score
+	 */
+	private Double score;
+
+	/**
+	 * 名次（从 1 开始，同分同名次）
+	 */
+	private Long rank;
+
+}
@@ -0,0 +1,42 @@
+package xyz.rexlin600.redis.leaderboard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 排行榜配置
+ *
+ * @author hekunlin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rexlin600.redis.leaderboard")
+public class LeaderboardProperties {
+
+	/**
+	 * 每个排行榜拆分的 SortedSet 数量，单个 SortedSet 过大时增加
+	 */
+	private int shards = 4;
+
+	/**
+	 * 本地缓存的榜首条数
+	 */
+	private int headSize = 100;
+
+	/**
+	 * 榜首缓存刷新间隔（毫秒）
+	 */
+	private long headRefreshMillis = 1000;
+
+	/**
+	 * 单个 pipeline 中的分数更新数量
+	 */
+	private int ingestBatchSize = 500;
+
+	/**
+	 * 异步累加分数的刷新间隔（毫秒）
+	 */
+	private long flushMillis = 100;
+
+}
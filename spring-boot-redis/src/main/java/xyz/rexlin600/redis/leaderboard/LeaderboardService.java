@@ -0,0 +1,621 @@
+package xyz.rexlin600.redis.leaderboard;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 SortedSet 的排行榜
+ * <p>
+ * 1. 每个排行榜按 member 的 hash 拆分到多个 SortedSet，避免单个 key 过大
+ * 2. 分数更新使用 Lua 脚本，INCR/BEST 两种模式都是原子的
+ * 3. 名次 = 所有分片中分数严格大于自己的数量 + 1，每个分片一次 ZCOUNT，均为 O(log n)，在同一个 pipeline 中完成
+ * 4. 榜首在本地缓存 headRefreshMillis，翻页在榜首范围内时不访问 Redis
+ * 5. 批量更新按 pipeline 发送 EVALSHA；offer 会在本地合并同一 member 的增量后定时刷新
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class LeaderboardService {
+
+	/**
+	 * KEY_PREFIX
+	 */
+	private static final String KEY_PREFIX = "LEADERBOARD:";
+
+	/**
+	 * KEYS[1] 分片 key；ARGV[1] member；ARGV[2] score；ARGV[3] INCR / BEST
+	 */
+	private static final String UPDATE_SCRIPT =
+			"if ARGV[3] == 'BEST' then\n" +
+					"  local cur = redis.call('ZSCORE', KEYS[1], ARGV[1])\n" +
+					"  if (not cur) or tonumber(ARGV[2]) > tonumber(cur) then\n" +
+					"    redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])\n" +
+					"    return ARGV[2]\n" +
+					"  end\n" +
+					"  return cur\n" +
+					"end\n" +
+					"return redis.call('ZINCRBY', KEYS[1], ARGV[2], ARGV[1])";
+
+	/**
+	 * around 中其他分片同分成员的分页大小
+	 */
+	private static final int TIE_PAGE_SIZE = 100;
+
+	/**
+	 * 排序：分数降序，同分时 member 降序（与单个 SortedSet 的 ZREVRANGE 一致）
+	 */
+	private static final Comparator<LeaderboardEntry> ORDER = Comparator
+			.comparing(LeaderboardEntry::getScore, Comparator.reverseOrder())
+			.thenComparing(LeaderboardEntry::getMember, Comparator.reverseOrder());
+
+	/**
+	 * String redis template
+	 */
+	private final StringRedisTemplate stringRedisTemplate;
+
+	/**
+	 * Properties
+	 */
+	private final LeaderboardProperties properties;
+
+	/**
+	 * Update script
+	 */
+	private final DefaultRedisScript<String> updateScript = new DefaultRedisScript<>(UPDATE_SCRIPT, String.class);
+
+	/**
+	 * 榜首缓存
+	 */
+	private final ConcurrentMap<String, Head> heads = new ConcurrentHashMap<>();
+
+	/**
+	 * 待刷新的增量：board -> member -> delta
+	 */
+	private final ConcurrentMap<String, ConcurrentMap<String, Double>> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * Flusher
+	 */
+	private ScheduledExecutorService flusher;
+
+	/**
+	 * Leaderboard service
+	 *
+	 * @param stringRedisTemplate string redis template
+	 * @param properties          properties
+	 */
+	@Autowired
+	public LeaderboardService(StringRedisTemplate stringRedisTemplate, LeaderboardProperties properties) {
+		this.stringRedisTemplate = stringRedisTemplate;
+		this.properties = properties;
+	}
+
+	/**
+	 * Init
+	 */
+	@PostConstruct
+	public void init() {
+		flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "leaderboard-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(this::flush, properties.getFlushMillis(), properties.getFlushMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Destroy，等待正在进行的定时刷新结束后，把剩余的增量写入
+	 */
+	@PreDestroy
+	public void destroy() {
+		flusher.shutdown();
+		try {
+			if (!flusher.awaitTermination(properties.getFlushMillis() + 10_000L, TimeUnit.MILLISECONDS)) {
+				log.warn("==>  Leaderboard flusher 未能按时停止，跳过最后一次刷新");
+				return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		flush();
+	}
+
+	/**
+	 * 原子更新单个 member 的分数
+	 *
+	 * @param board  board
+	 * @param member member
+	 * @param score  score
+	 * @param mode   mode
+	 * @return 更新后的分数
+	 */
+	public double update(String board, String member, double score, ScoreMode mode) {
+		String result = stringRedisTemplate.execute(updateScript, Collections.singletonList(shardKey(board, member)),
+				member, String.valueOf(score), mode.name());
+		return Double.parseDouble(result);
+	}
+
+	/**
+	 * 批量更新，按 ingestBatchSize 切分后 pipeline 执行
+	 *
+	 * @param board  board
+	 * @param scores member -> score
+	 * @param mode   mode
+	 * @return 更新的数量
+	 */
+	public int ingest(String board, Map<String, Double> scores, ScoreMode mode) {
+		List<Map.Entry<String, Double>> entries = new ArrayList<>(scores.entrySet());
+		int batchSize = Math.max(1, properties.getIngestBatchSize());
+		for (int from = 0; from < entries.size(); from += batchSize) {
+			List<Map.Entry<String, Double>> chunk = entries.subList(from, Math.min(from + batchSize, entries.size()));
+			try {
+				ingestChunk(board, chunk, mode);
+			} catch (RuntimeException e) {
+				// Redis 重启后脚本缓存会丢失，只有 NOSCRIPT 时重试，避免 INCR 被重复执行
+				if (!isNoScript(e)) {
+					throw e;
+				}
+				loadScript();
+				ingestChunk(board, chunk, mode);
+			}
+		}
+		return entries.size();
+	}
+
+	/**
+	 * 异步累加分数：同一 member 的多次增量在本地合并，每 flushMillis 批量写入一次
+	 *
+	 * @param board  board
+	 * @param member member
+	 * @param delta  delta
+	 */
+	public void offer(String board, String member, double delta) {
+		// 在 compute 中合并，与 flush 移除空 map 互斥，不会写入已被移除的 map
+		pending.compute(board, (k, deltas) -> {
+			ConcurrentMap<String, Double> map = deltas == null ? new ConcurrentHashMap<>() : deltas;
+			map.merge(member, delta, Double::sum);
+			return map;
+		});
+	}
+
+	/**
+	 * 名次，不在榜上时返回 null
+	 *
+	 * @param board  board
+	 * @param member member
+	 * @return the long
+	 */
+	public Long rank(String board, String member) {
+		Double score = stringRedisTemplate.opsForZSet().score(shardKey(board, member), member);
+		if (score == null) {
+			return null;
+		}
+		return countGreater(board, Collections.singletonList(score)).get(0) + 1;
+	}
+
+	/**
+	 * 前后各 n 名
+	 * <p>
+	 * 自己所在的分片用 ZREVRANK 定位后直接取前后 n 名；其他分片取分数严格高于、严格低于自己的各 n 名，
+	 * 同分的成员按 member 分页查找与自己相邻的各 n 名。归并后即为全局顺序中紧邻自己的前后 n 名
+	 *
+	 * @param board  board
+	 * @param member member
+	 * @param n      n
+	 * @return 不在榜上时返回空列表
+	 */
+	@SuppressWarnings("unchecked")
+	public List<LeaderboardEntry> around(String board, String member, int n) {
+		int own = shard(member);
+		byte[] rawMember = member.getBytes(StandardCharsets.UTF_8);
+		List<Object> located = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			connection.zScore(rawKey(board, own), rawMember);
+			connection.zRevRank(rawKey(board, own), rawMember);
+			return null;
+		});
+		Double score = (Double) located.get(0);
+		Long position = (Long) located.get(1);
+		if (score == null || position == null) {
+			return Collections.emptyList();
+		}
+
+		List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (int shard = 0; shard < shards(); shard++) {
+				byte[] key = rawKey(board, shard);
+				if (shard == own) {
+					connection.zRevRangeWithScores(key, Math.max(0, position - n), position + n);
+				} else {
+					connection.zRangeByScoreWithScores(key, Math.nextUp(score), Double.POSITIVE_INFINITY, 0, n);
+					connection.zRevRangeByScoreWithScores(key, Double.NEGATIVE_INFINITY, Math.nextDown(score), 0, n);
+					connection.zRangeByScoreWithScores(key, score, score, 0, TIE_PAGE_SIZE);
+				}
+			}
+			return null;
+		});
+		Map<String, Double> merged = new HashMap<>();
+		int cursor = 0;
+		for (int shard = 0; shard < shards(); shard++) {
+			int fetched = shard == own ? 1 : 2;
+			for (int i = 0; i < fetched; i++) {
+				for (ZSetOperations.TypedTuple<String> tuple : (Set<ZSetOperations.TypedTuple<String>>) results.get(cursor++)) {
+					merged.put(tuple.getValue(), tuple.getScore());
+				}
+			}
+			if (shard != own) {
+				collectTies(board, shard, score, member, n, (Set<ZSetOperations.TypedTuple<String>>) results.get(cursor++), merged);
+			}
+		}
+		List<LeaderboardEntry> list = new ArrayList<>(merged.size());
+		merged.forEach((m, s) -> list.add(new LeaderboardEntry(m, s, null)));
+		list.sort(ORDER);
+
+		int index = -1;
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i).getMember().equals(member)) {
+				index = i;
+				break;
+			}
+		}
+		if (index < 0) {
+			// 两次查询之间被移除
+			return Collections.emptyList();
+		}
+		List<LeaderboardEntry> window = new ArrayList<>(list.subList(Math.max(0, index - n), Math.min(list.size(), index + n + 1)));
+
+		List<Double> scores = new ArrayList<>(window.size());
+		window.forEach(entry -> scores.add(entry.getScore()));
+		List<Long> greater = countGreater(board, scores);
+		for (int i = 0; i < window.size(); i++) {
+			window.get(i).setRank(greater.get(i) + 1);
+		}
+		return window;
+	}
+
+	/**
+	 * 分页查询榜单，榜首范围内的页使用本地缓存
+	 *
+	 * @param board board
+	 * @param page  页码，从 1 开始
+	 * @param size  size
+	 * @return the list
+	 */
+	public List<LeaderboardEntry> top(String board, int page, int size) {
+		int offset = (Math.max(page, 1) - 1) * size;
+		int end = offset + size;
+		List<LeaderboardEntry> list = end <= properties.getHeadSize() ? head(board) : fetchTop(board, end);
+		if (offset >= list.size()) {
+			return Collections.emptyList();
+		}
+		return list.subList(offset, Math.min(end, list.size()));
+	}
+
+	/**
+	 * 榜单人数
+	 *
+	 * @param board board
+	 * @return the long
+	 */
+	public long size(String board) {
+		List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (int shard = 0; shard < shards(); shard++) {
+				connection.zCard(rawKey(board, shard));
+			}
+			return null;
+		});
+		long size = 0;
+		for (Object result : results) {
+			size += (Long) result;
+		}
+		return size;
+	}
+
+	/**
+	 * 将 offer 合并的增量写入 Redis，只把没有写入成功的增量放回，已执行的 ZINCRBY 不会被重复执行
+	 */
+	public void flush() {
+		pending.forEach((board, deltas) -> {
+			List<Map.Entry<String, Double>> batch = new ArrayList<>(deltas.size());
+			for (String member : deltas.keySet()) {
+				// remove 是原子的，之后的 offer 会写入新的 entry，不会丢失增量
+				Double delta = deltas.remove(member);
+				if (delta != null) {
+					batch.add(new AbstractMap.SimpleImmutableEntry<>(member, delta));
+				}
+			}
+			// 没有增量的榜单移除，避免 pending 随榜单名无限增长
+			pending.computeIfPresent(board, (k, map) -> map.isEmpty() ? null : map);
+			if (batch.isEmpty()) {
+				return;
+			}
+			int batchSize = Math.max(1, properties.getIngestBatchSize());
+			List<Map.Entry<String, Double>> failed = new ArrayList<>();
+			for (int from = 0; from < batch.size(); from += batchSize) {
+				failed.addAll(flushChunk(board, batch.subList(from, Math.min(from + batchSize, batch.size())), true));
+			}
+			if (!failed.isEmpty()) {
+				log.error("==>  Leaderboard flush error：board -> [{}]；failed -> [{}] / [{}]", board, failed.size(), batch.size());
+				// 写入失败的放回，等待下次刷新
+				failed.forEach(entry -> offer(board, entry.getKey(), entry.getValue()));
+			}
+		});
+	}
+
+	/**
+	 * 写入一批增量，返回没有写入成功的条目
+	 * <p>
+	 * pipeline 中每条 EVALSHA 各自返回结果，部分失败时按结果逐条判断；获取连接失败等其他异常时整批都未发出
+	 *
+	 * @param board       board
+	 * @param chunk       chunk
+	 * @param retryScript NOSCRIPT 时是否加载脚本后重试失败的条目
+	 * @return 写入失败的条目
+	 */
+	private List<Map.Entry<String, Double>> flushChunk(String board, List<Map.Entry<String, Double>> chunk, boolean retryScript) {
+		List<Map.Entry<String, Double>> failed = new ArrayList<>();
+		boolean noScript = false;
+		try {
+			ingestChunk(board, chunk, ScoreMode.INCR);
+			return failed;
+		} catch (RedisPipelineException e) {
+			List<Object> results = e.getResults();
+			for (int i = 0; i < chunk.size(); i++) {
+				Object result = i < results.size() ? results.get(i) : e;
+				if (result instanceof Throwable) {
+					failed.add(chunk.get(i));
+					noScript |= isNoScript((Throwable) result);
+				}
+			}
+		} catch (RuntimeException e) {
+			log.warn("==>  Leaderboard flush error：board -> [{}]；[{}]", board, e.getMessage());
+			return new ArrayList<>(chunk);
+		}
+		if (noScript && retryScript) {
+			loadScript();
+			return flushChunk(board, failed, false);
+		}
+		return failed;
+	}
+
+	/**
+	 * 查找其他分片中与 member 同分、按 member 排序紧邻的前后各 n 个
+	 * <p>
+	 * 同分的成员在 SortedSet 中按 member 升序排列，逐页向后查找，保留最后 n 个小于 member 的（排在自己之后）
+	 * 和最先 n 个大于 member 的（排在自己之前）
+	 *
+	 * @param board     board
+	 * @param shard     shard
+	 * @param score     score
+	 * @param member    member
+	 * @param n         n
+	 * @param firstPage 第一页，与其他查询在同一个 pipeline 中获取
+	 * @param merged    结果
+	 */
+	private void collectTies(String board, int shard, double score, String member, int n,
+							 Set<ZSetOperations.TypedTuple<String>> firstPage, Map<String, Double> merged) {
+		if (n <= 0) {
+			return;
+		}
+		String key = KEY_PREFIX + board + ":" + shard;
+		Deque<String> after = new ArrayDeque<>(n);
+		int before = 0;
+		Set<ZSetOperations.TypedTuple<String>> page = firstPage;
+		for (long offset = TIE_PAGE_SIZE; ; offset += TIE_PAGE_SIZE) {
+			for (ZSetOperations.TypedTuple<String> tuple : page) {
+				String tied = tuple.getValue();
+				if (tied.compareTo(member) < 0) {
+					if (after.size() == n) {
+						after.pollFirst();
+					}
+					after.addLast(tied);
+				} else if (before < n) {
+					merged.put(tied, score);
+					before++;
+				}
+			}
+			if (before >= n || page.size() < TIE_PAGE_SIZE) {
+				break;
+			}
+			page = stringRedisTemplate.opsForZSet().rangeByScoreWithScores(key, score, score, offset, TIE_PAGE_SIZE);
+		}
+		after.forEach(tied -> merged.put(tied, score));
+	}
+
+	/**
+	 * 批量 EVALSHA
+	 *
+	 * @param board board
+	 * @param chunk chunk
+	 * @param mode  mode
+	 */
+	private void ingestChunk(String board, List<Map.Entry<String, Double>> chunk, ScoreMode mode) {
+		byte[] rawMode = mode.name().getBytes(StandardCharsets.UTF_8);
+		String sha = updateScript.getSha1();
+		stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (Map.Entry<String, Double> entry : chunk) {
+				connection.evalSha(sha, ReturnType.VALUE, 1,
+						rawKey(board, shard(entry.getKey())),
+						entry.getKey().getBytes(StandardCharsets.UTF_8),
+						String.valueOf(entry.getValue()).getBytes(StandardCharsets.UTF_8),
+						rawMode);
+			}
+			return null;
+		});
+	}
+
+	/**
+	 * 对每个分数，统计所有分片中分数严格大于它的数量
+	 *
+	 * @param board  board
+	 * @param scores scores
+	 * @return the list
+	 */
+	private List<Long> countGreater(String board, List<Double> scores) {
+		int shards = shards();
+		List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (Double score : scores) {
+				for (int shard = 0; shard < shards; shard++) {
+					connection.zCount(rawKey(board, shard), Math.nextUp(score), Double.POSITIVE_INFINITY);
+				}
+			}
+			return null;
+		});
+		List<Long> counts = new ArrayList<>(scores.size());
+		for (int i = 0; i < scores.size(); i++) {
+			long count = 0;
+			for (int shard = 0; shard < shards; shard++) {
+				count += (Long) results.get(i * shards + shard);
+			}
+			counts.add(count);
+		}
+		return counts;
+	}
+
+	/**
+	 * 榜首缓存，过期后重新加载
+	 *
+	 * @param board board
+	 * @return the list
+	 */
+	private List<LeaderboardEntry> head(String board) {
+		long now = System.currentTimeMillis();
+		return heads.compute(board, (k, old) -> old != null && now - old.loadedAt < properties.getHeadRefreshMillis()
+				? old : new Head(Collections.unmodifiableList(fetchTop(board, properties.getHeadSize())), now)).entries;
+	}
+
+	/**
+	 * 取每个分片的前 k 名后归并
+	 *
+	 * @param board board
+	 * @param k     k
+	 * @return the list
+	 */
+	@SuppressWarnings("unchecked")
+	private List<LeaderboardEntry> fetchTop(String board, int k) {
+		List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (int shard = 0; shard < shards(); shard++) {
+				connection.zRevRangeWithScores(rawKey(board, shard), 0, k - 1);
+			}
+			return null;
+		});
+		List<LeaderboardEntry> list = new ArrayList<>();
+		for (Object result : results) {
+			for (ZSetOperations.TypedTuple<String> tuple : (Set<ZSetOperations.TypedTuple<String>>) result) {
+				list.add(new LeaderboardEntry(tuple.getValue(), tuple.getScore(), null));
+			}
+		}
+		list.sort(ORDER);
+		if (list.size() > k) {
+			list = new ArrayList<>(list.subList(0, k));
+		}
+		// 前面的条目即为所有分数更高的条目，同分取第一个出现的位置
+		for (int i = 0; i < list.size(); i++) {
+			LeaderboardEntry entry = list.get(i);
+			boolean tie = i > 0 && list.get(i - 1).getScore().equals(entry.getScore());
+			entry.setRank(tie ? list.get(i - 1).getRank() : i + 1);
+		}
+		return list;
+	}
+
+	/**
+	 * Load script
+	 */
+	private void loadScript() {
+		stringRedisTemplate.execute((RedisCallback<String>) connection ->
+				connection.scriptLoad(UPDATE_SCRIPT.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Is no script
+	 *
+	 * @param e e
+	 * @return the boolean
+	 */
+	private boolean isNoScript(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t.getMessage() != null && t.getMessage().contains("NOSCRIPT")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Shards
+	 *
+	 * @return the int
+	 */
+	private int shards() {
+		return Math.max(1, properties.getShards());
+	}
+
+	/**
+	 * Shard
+	 *
+	 * @param member member
+	 * @return the int
+	 */
+	private int shard(String member) {
+		return (member.hashCode() & 0x7FFFFFFF) % shards();
+	}
+
+	/**
+	 * Shard key
+	 *
+	 * @param board  board
+	 * @param member member
+	 * @return the string
+	 */
+	private String shardKey(String board, String member) {
+		return KEY_PREFIX + board + ":" + shard(member);
+	}
+
+	/**
+	 * Raw key
+	 *
+	 * @param board board
+	 * @param shard shard
+	 * @return the byte [ ]
+	 */
+	private byte[] rawKey(String board, int shard) {
+		return (KEY_PREFIX + board + ":" + shard).getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * 榜首缓存
+	 */
+	@AllArgsConstructor
+	private static class Head {
+
+		/**
+		 * Entries
+		 */
+		private final List<LeaderboardEntry> entries;
+
+		/**
+		 * Loaded at
+		 */
+		private final long loadedAt;
+
+	}
+
+}
@@ -0,0 +1,20 @@
+package xyz.rexlin600.redis.leaderboard;
+
+/**
+ * 分数更新方式
+ *
+ * @author hekunlin
+ */
+public enum ScoreMode {
+
+	/**
+	 * 在原分数上累加
+	 */
+	INCR,
+
+	/**
+	 * 只保留最高分
+	 */
+	BEST
+
+}
@@ -0,0 +1,108 @@
+package xyz.rexlin600.redis.rest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import xyz.rexlin600.redis.entity.Blog;
+import xyz.rexlin600.redis.util.BulkResult;
+import xyz.rexlin600.redis.util.RedisUtil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis 批量（pipeline）接口
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@RestController
+@RequestMapping("/redis/bulk")
+public class RedisBulkRest {
+
+	/**
+	 * BULK_KEY
+	 */
+	private static final String BULK_KEY = "BULK_KEY:";
+
+	/**
+	 * Redis util
+	 */
+	private final RedisUtil redisUtil;
+
+	/**
+	 * Redis bulk rest
+	 *
+	 * @param redisUtil redis util
+	 */
+	@Autowired
+	public RedisBulkRest(RedisUtil redisUtil) {
+		this.redisUtil = redisUtil;
+	}
+
+	/**
+	 * 批量预热
+	 *
+	 * @param count count
+	 * @param ttl   ttl
+	 * @return the bulk result
+	 */
+	@PostMapping
+	public BulkResult<Boolean> warm(@RequestParam(value = "count", defaultValue = "10000") Integer count,
+									@RequestParam(value = "ttl", defaultValue = "600") Long ttl) {
+		Map<String, Object> map = new LinkedHashMap<>(count * 4 / 3 + 1);
+		for (long i = 0; i < count; i++) {
+			map.put(BULK_KEY + i, Blog.builder()
+					.id(i)
+					.title("bulk-" + i)
+					.content("bulk-" + i)
+					.popular(false)
+					.createDate("2020-1-6 15:46:03")
+					.build());
+		}
+		BulkResult<Boolean> result = redisUtil.multiSet(map, ttl);
+		log.info("==>  redis bulk warm : {}", result);
+		return result;
+	}
+
+	/**
+	 * 批量读取
+	 *
+	 * @param count count
+	 * @return the bulk result
+	 */
+	@GetMapping
+	public BulkResult<Object> get(@RequestParam(value = "count", defaultValue = "10000") Integer count) {
+		return redisUtil.multiGet(keys(count));
+	}
+
+	/**
+	 * 批量删除
+	 *
+	 * @param count count
+	 * @return the bulk result
+	 */
+	@DeleteMapping
+	public BulkResult<Boolean> del(@RequestParam(value = "count", defaultValue = "10000") Integer count) {
+		BulkResult<Boolean> result = redisUtil.delAll(keys(count));
+		log.info("==>  redis bulk del : {}", result);
+		return result;
+	}
+
+	/**
+	 * Keys
+	 *
+	 * @param count count
+	 * @return the list
+	 */
+	private List<String> keys(int count) {
+		List<String> keys = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			keys.add(BULK_KEY + i);
+		}
+		return keys;
+	}
+
+}
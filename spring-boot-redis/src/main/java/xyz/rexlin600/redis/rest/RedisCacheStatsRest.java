@@ -0,0 +1,50 @@
+package xyz.rexlin600.redis.rest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import xyz.rexlin600.redis.cache.NearCacheManager;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Redis 二级缓存统计接口
+ *
+ * @author hekunlin
+ */
+@RestController
+@RequestMapping("/redis/cache")
+public class RedisCacheStatsRest {
+
+	/**
+	 * Cache manager
+	 */
+	private final CacheManager cacheManager;
+
+	/**
+	 * Redis cache stats rest
+	 *
+	 * @param cacheManager cache manager
+	 */
+	@Autowired
+	public RedisCacheStatsRest(CacheManager cacheManager) {
+		this.cacheManager = cacheManager;
+	}
+
+	/**
+	 * 按缓存名查看一级缓存命中/未命中/淘汰次数
+	 *
+	 * @return the map
+	 */
+	@GetMapping("/stats")
+	public Map<String, Map<String, Object>> stats() {
+		if (cacheManager instanceof NearCacheManager) {
+			return ((NearCacheManager) cacheManager).stats();
+		}
+		return Collections.emptyMap();
+	}
+
+}
@@ -0,0 +1,138 @@
+package xyz.rexlin600.redis.rest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import xyz.rexlin600.redis.leaderboard.LeaderboardEntry;
+import xyz.rexlin600.redis.leaderboard.LeaderboardService;
+import xyz.rexlin600.redis.leaderboard.ScoreMode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis SortedSet 排行榜接口
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@RestController
+@RequestMapping("/redis/leaderboard")
+public class RedisLeaderboardRest {
+
+	/**
+	 * Leaderboard service
+	 */
+	private final LeaderboardService leaderboardService;
+
+	/**
+	 * Redis leaderboard rest
+	 *
+	 * @param leaderboardService leaderboard service
+	 */
+	@Autowired
+	public RedisLeaderboardRest(LeaderboardService leaderboardService) {
+		this.leaderboardService = leaderboardService;
+	}
+
+	/**
+	 * 更新分数
+	 *
+	 * @param board  board
+	 * @param member member
+	 * @param score  score
+	 * @param mode   mode
+	 * @return the double
+	 */
+	@PostMapping("/{board}/score")
+	public Double update(@PathVariable(value = "board") String board,
+						 @RequestParam(value = "member") String member,
+						 @RequestParam(value = "score") Double score,
+						 @RequestParam(value = "mode", defaultValue = "INCR") ScoreMode mode) {
+		return leaderboardService.update(board, member, score, mode);
+	}
+
+	/**
+	 * 批量更新分数
+	 *
+	 * @param board  board
+	 * @param mode   mode
+	 * @param scores member -> score
+	 * @return the integer
+	 */
+	@PostMapping("/{board}/ingest")
+	public Integer ingest(@PathVariable(value = "board") String board,
+						  @RequestParam(value = "mode", defaultValue = "INCR") ScoreMode mode,
+						  @RequestBody Map<String, Double> scores) {
+		return leaderboardService.ingest(board, scores, mode);
+	}
+
+	/**
+	 * 异步累加分数
+	 *
+	 * @param board  board
+	 * @param member member
+	 * @param delta  delta
+	 */
+	@PostMapping("/{board}/offer")
+	public void offer(@PathVariable(value = "board") String board,
+					  @RequestParam(value = "member") String member,
+					  @RequestParam(value = "delta") Double delta) {
+		leaderboardService.offer(board, member, delta);
+	}
+
+	/**
+	 * 分页查询榜单
+	 *
+	 * @param board board
+	 * @param page  page
+	 * @param size  size
+	 * @return the list
+	 */
+	@GetMapping("/{board}/top")
+	public List<LeaderboardEntry> top(@PathVariable(value = "board") String board,
+									  @RequestParam(value = "page", defaultValue = "1") Integer page,
+									  @RequestParam(value = "size", defaultValue = "10") Integer size) {
+		return leaderboardService.top(board, page, size);
+	}
+
+	/**
+	 * 名次
+	 *
+	 * @param board  board
+	 * @param member member
+	 * @return the long
+	 */
+	@GetMapping("/{board}/rank")
+	public Long rank(@PathVariable(value = "board") String board,
+					 @RequestParam(value = "member") String member) {
+		return leaderboardService.rank(board, member);
+	}
+
+	/**
+	 * 前后各 n 名
+	 *
+	 * @param board  board
+	 * @param member member
+	 * @param n      n
+	 * @return the list
+	 */
+	@GetMapping("/{board}/around")
+	public List<LeaderboardEntry> around(@PathVariable(value = "board") String board,
+										 @RequestParam(value = "member") String member,
+										 @RequestParam(value = "n", defaultValue = "5") Integer n) {
+		return leaderboardService.around(board, member, n);
+	}
+
+	/**
+	 * 榜单人数
+	 *
+	 * @param board board
+	 * @return the long
+	 */
+	@GetMapping("/{board}/size")
+	public Long size(@PathVariable(value = "board") String board) {
+		return leaderboardService.size(board);
+	}
+
+}
@@ -0,0 +1,68 @@
+package xyz.rexlin600.redis.rest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import xyz.rexlin600.redis.util.RedisScanner;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Redis SCAN接口
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@RestController
+@RequestMapping("/redis/scan")
+public class RedisScanRest {
+
+	/**
+	 * Redis scanner
+	 */
+	private final RedisScanner redisScanner;
+
+	/**
+	 * Redis scan rest
+	 *
+	 * @param redisScanner redis scanner
+	 */
+	@Autowired
+	public RedisScanRest(RedisScanner redisScanner) {
+		this.redisScanner = redisScanner;
+	}
+
+	/**
+	 * 按 pattern 查询 key，最多返回 limit 个
+	 *
+	 * @param pattern pattern
+	 * @param limit   limit
+	 * @return the list
+	 */
+	@GetMapping
+	public List<String> keys(@RequestParam(value = "pattern") String pattern,
+							 @RequestParam(value = "limit", defaultValue = "100") Integer limit) {
+		try (Stream<String> keys = redisScanner.scan(pattern, 1000)) {
+			return keys.limit(limit).collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * 按 pattern 分批删除
+	 *
+	 * @param pattern          pattern
+	 * @param batchSize        batch size
+	 * @param maxKeysPerSecond max keys per second
+	 * @return the long
+	 */
+	@DeleteMapping
+	public Long unlink(@RequestParam(value = "pattern") String pattern,
+					   @RequestParam(value = "batchSize", defaultValue = "500") Integer batchSize,
+					   @RequestParam(value = "maxKeysPerSecond", defaultValue = "10000") Integer maxKeysPerSecond) {
+		return redisScanner.unlink(pattern, batchSize, maxKeysPerSecond,
+				(scanned, deleted) -> log.info("==>  redis unlink [{}] scanned = {}, deleted = {}", pattern, scanned, deleted));
+	}
+
+}
@@ -0,0 +1,66 @@
+package xyz.rexlin600.redis.serializer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类ID注册表
+ * <p>
+ * 值中只写入类ID而不是完整类名，所有读写同一份数据的节点必须以相同的ID注册相同的类
+ *
+ * @author hekunlin
+ */
+public class BinaryClassRegistry {
+
+	/**
+	 * Class -> schema
+	 */
+	private final Map<Class<?>, BinarySchema> byClass = new ConcurrentHashMap<>();
+
+	/**
+	 * Id -> schema
+	 */
+	private final Map<Integer, BinarySchema> byId = new ConcurrentHashMap<>();
+
+	/**
+	 * 注册类，支持带无参构造的 POJO 及枚举
+	 *
+	 * @param classId class id
+	 * @param type    type
+	 * @return the binary class registry
+	 */
+	public synchronized BinaryClassRegistry register(int classId, Class<?> type) {
+		if (classId < 0) {
+			throw new IllegalArgumentException("classId must not be negative");
+		}
+		BinarySchema exists = byId.get(classId);
+		if (exists != null && exists.getType() != type) {
+			throw new IllegalArgumentException("classId " + classId + " already registered for " + exists.getType().getName());
+		}
+		BinarySchema schema = new BinarySchema(type, classId);
+		byClass.put(type, schema);
+		byId.put(classId, schema);
+		return this;
+	}
+
+	/**
+	 * Find schema by class
+	 *
+	 * @param type type
+	 * @return the binary schema, null if absent
+	 */
+	BinarySchema get(Class<?> type) {
+		return byClass.get(type);
+	}
+
+	/**
+	 * Find schema by id
+	 *
+	 * @param classId class id
+	 * @return the binary schema, null if absent
+	 */
+	BinarySchema get(int classId) {
+		return byId.get(classId);
+	}
+
+}
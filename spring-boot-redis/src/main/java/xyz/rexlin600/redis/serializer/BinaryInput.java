@@ -0,0 +1,131 @@
+package xyz.rexlin600.redis.serializer;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字节输入，与 {@link BinaryOutput} 对应
+ *
+ * @author hekunlin
+ */
+class BinaryInput {
+
+	/**
+	 * Buf
+	 */
+	private final byte[] buf;
+
+	/**
+	 * Position
+	 */
+	private int pos;
+
+	/**
+	 * Binary input
+	 *
+	 * @param buf    buf
+	 * @param offset offset
+	 */
+	BinaryInput(byte[] buf, int offset) {
+		this.buf = buf;
+		this.pos = offset;
+	}
+
+	/**
+	 * Read byte
+	 *
+	 * @return the byte
+	 */
+	byte readByte() {
+		check(1);
+		return buf[pos++];
+	}
+
+	/**
+	 * Read bytes
+	 *
+	 * @return the byte [ ]
+	 */
+	byte[] readBytes() {
+		int len = readVarInt();
+		check(len);
+		byte[] bytes = new byte[len];
+		System.arraycopy(buf, pos, bytes, 0, len);
+		pos += len;
+		return bytes;
+	}
+
+	/**
+	 * Read var int
+	 *
+	 * @return the int
+	 */
+	int readVarInt() {
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			byte b = readByte();
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new SerializationException("Malformed varint");
+	}
+
+	/**
+	 * Read var long
+	 *
+	 * @return the long
+	 */
+	long readVarLong() {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = readByte();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (result >>> 1) ^ -(result & 1);
+			}
+		}
+		throw new SerializationException("Malformed varlong");
+	}
+
+	/**
+	 * Read fixed long
+	 *
+	 * @return the long
+	 */
+	long readLong() {
+		check(8);
+		long value = 0;
+		for (int i = 0; i < 8; i++) {
+			value = (value << 8) | (buf[pos++] & 0xFF);
+		}
+		return value;
+	}
+
+	/**
+	 * Read string
+	 *
+	 * @return the string
+	 */
+	String readString() {
+		int len = readVarInt();
+		check(len);
+		String value = new String(buf, pos, len, StandardCharsets.UTF_8);
+		pos += len;
+		return value;
+	}
+
+	/**
+	 * Check
+	 *
+	 * @param n n
+	 */
+	private void check(int n) {
+		if (n < 0 || pos + n > buf.length) {
+			throw new SerializationException("Unexpected end of binary redis value");
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+package xyz.rexlin600.redis.serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 可扩容的字节输出，支持 varint 编码
+ *
+ * @author hekunlin
+ */
+class BinaryOutput {
+
+	/**
+	 * Buf
+	 */
+	private byte[] buf;
+
+	/**
+	 * Position
+	 */
+	private int pos;
+
+	/**
+	 * Binary output
+	 *
+	 * @param initialCapacity initial capacity
+	 */
+	BinaryOutput(int initialCapacity) {
+		this.buf = new byte[initialCapacity];
+	}
+
+	/**
+	 * Write byte
+	 *
+	 * @param b b
+	 */
+	void writeByte(int b) {
+		ensure(1);
+		buf[pos++] = (byte) b;
+	}
+
+	/**
+	 * Write bytes
+	 *
+	 * @param bytes bytes
+	 */
+	void writeBytes(byte[] bytes) {
+		writeVarInt(bytes.length);
+		ensure(bytes.length);
+		System.arraycopy(bytes, 0, buf, pos, bytes.length);
+		pos += bytes.length;
+	}
+
+	/**
+	 * 无符号 varint，小数值只占 1 个字节
+	 *
+	 * @param value value
+	 */
+	void writeVarInt(int value) {
+		ensure(5);
+		while ((value & ~0x7F) != 0) {
+			buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buf[pos++] = (byte) value;
+	}
+
+	/**
+	 * zigzag + varint 编码的 long
+	 *
+	 * @param value value
+	 */
+	void writeVarLong(long value) {
+		ensure(10);
+		long v = (value << 1) ^ (value >> 63);
+		while ((v & ~0x7FL) != 0) {
+			buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		buf[pos++] = (byte) v;
+	}
+
+	/**
+	 * Write fixed long
+	 *
+	 * @param value value
+	 */
+	void writeLong(long value) {
+		ensure(8);
+		for (int i = 56; i >= 0; i -= 8) {
+			buf[pos++] = (byte) (value >>> i);
+		}
+	}
+
+	/**
+	 * Write string
+	 *
+	 * @param value value
+	 */
+	void writeString(String value) {
+		int len = value.length();
+		// 纯 ASCII 时直接写入，避免 getBytes 的额外分配
+		boolean ascii = true;
+		for (int i = 0; i < len; i++) {
+			if (value.charAt(i) >= 0x80) {
+				ascii = false;
+				break;
+			}
+		}
+		if (!ascii) {
+			writeBytes(value.getBytes(StandardCharsets.UTF_8));
+			return;
+		}
+		writeVarInt(len);
+		ensure(len);
+		for (int i = 0; i < len; i++) {
+			buf[pos++] = (byte) value.charAt(i);
+		}
+	}
+
+	/**
+	 * 重置写入位置，复用缓冲
+	 */
+	void reset() {
+		pos = 0;
+	}
+
+	/**
+	 * Size
+	 *
+	 * @return the int
+	 */
+	int size() {
+		return pos;
+	}
+
+	/**
+	 * To byte array
+	 *
+	 * @return the byte [ ]
+	 */
+	byte[] toByteArray() {
+		return Arrays.copyOf(buf, pos);
+	}
+
+	/**
+	 * Raw buffer
+	 *
+	 * @return the byte [ ]
+	 */
+	byte[] buffer() {
+		return buf;
+	}
+
+	/**
+	 * Ensure
+	 *
+	 * @param n n
+	 */
+	private void ensure(int n) {
+		if (pos + n > buf.length) {
+			buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + n));
+		}
+	}
+
+}
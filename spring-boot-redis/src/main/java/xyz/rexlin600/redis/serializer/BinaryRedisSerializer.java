@@ -0,0 +1,386 @@
+package xyz.rexlin600.redis.serializer;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 紧凑二进制 Redis 序列化
+ * <p>
+ * 与 Jackson default typing / fastjson WriteClassName 不同，值中只写入注册表中的类ID，
+ * 字段按预先解析好的布局顺序写入，不写字段名；超过阈值的值使用 Deflater 压缩
+ * <p>
+ * 格式：[header][tagged value]，header 低位表示是否压缩，压缩时后跟原始长度
+ *
+ * @author hekunlin
+ */
+public class BinaryRedisSerializer implements RedisSerializer<Object> {
+
+	/**
+	 * Header
+	 */
+	private static final int HEADER = 0xB0;
+	private static final int FLAG_COMPRESSED = 0x01;
+
+	/**
+	 * Tags
+	 */
+	private static final byte NULL = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = 2;
+	private static final byte INT = 3;
+	private static final byte LONG = 4;
+	private static final byte DOUBLE = 5;
+	private static final byte FLOAT = 6;
+	private static final byte STRING = 7;
+	private static final byte BYTES = 8;
+	private static final byte LIST = 9;
+	private static final byte SET = 10;
+	private static final byte MAP = 11;
+	private static final byte OBJECT = 12;
+	private static final byte ENUM = 13;
+	private static final byte SHORT = 14;
+	private static final byte BYTE = 15;
+	private static final byte CHAR = 16;
+	private static final byte BIG_DECIMAL = 17;
+	private static final byte DATE = 18;
+
+	/**
+	 * 复用的输出缓冲，避免每次序列化都从小数组开始扩容
+	 */
+	private static final ThreadLocal<BinaryOutput> OUTPUT = ThreadLocal.withInitial(() -> new BinaryOutput(256));
+
+	/**
+	 * 超过该大小的缓冲不再复用，防止大值长期占用内存
+	 */
+	private static final int MAX_REUSED_BUFFER = 64 * 1024;
+
+	/**
+	 * Registry
+	 */
+	private final BinaryClassRegistry registry;
+
+	/**
+	 * 压缩阈值（字节），小于等于 0 表示不压缩
+	 */
+	private final int compressThreshold;
+
+	/**
+	 * Binary redis serializer
+	 *
+	 * @param registry          registry
+	 * @param compressThreshold compress threshold
+	 */
+	public BinaryRedisSerializer(BinaryClassRegistry registry, int compressThreshold) {
+		this.registry = registry;
+		this.compressThreshold = compressThreshold;
+	}
+
+	@Override
+	public byte[] serialize(Object value) throws SerializationException {
+		if (value == null) {
+			return new byte[0];
+		}
+		BinaryOutput out = OUTPUT.get();
+		if (out.buffer().length > MAX_REUSED_BUFFER) {
+			out = new BinaryOutput(256);
+			OUTPUT.set(out);
+		}
+		out.reset();
+		out.writeByte(HEADER);
+		writeValue(out, value);
+
+		int bodyLength = out.size() - 1;
+		if (compressThreshold > 0 && bodyLength > compressThreshold) {
+			byte[] compressed = compress(out.buffer(), 1, bodyLength);
+			if (compressed != null) {
+				return compressed;
+			}
+		}
+		return out.toByteArray();
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws SerializationException {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		int header = bytes[0] & 0xFF;
+		if ((header & 0xF0) != HEADER) {
+			throw new SerializationException("Not a binary redis value");
+		}
+		if ((header & FLAG_COMPRESSED) != 0) {
+			BinaryInput in = new BinaryInput(bytes, 1);
+			int length = in.readVarInt();
+			return readValue(new BinaryInput(decompress(bytes, length), 0));
+		}
+		return readValue(new BinaryInput(bytes, 1));
+	}
+
+	/**
+	 * Write tagged value
+	 *
+	 * @param out   out
+	 * @param value value
+	 */
+	void writeValue(BinaryOutput out, Object value) {
+		if (value == null) {
+			out.writeByte(NULL);
+		} else if (value instanceof String) {
+			out.writeByte(STRING);
+			out.writeString((String) value);
+		} else if (value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeVarLong((Long) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(INT);
+			out.writeVarLong((Integer) value);
+		} else if (value instanceof Boolean) {
+			out.writeByte((Boolean) value ? TRUE : FALSE);
+		} else if (value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeLong(Double.doubleToRawLongBits((Double) value));
+		} else if (value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeVarInt(Float.floatToRawIntBits((Float) value));
+		} else if (value instanceof Short) {
+			out.writeByte(SHORT);
+			out.writeVarLong((Short) value);
+		} else if (value instanceof Byte) {
+			out.writeByte(BYTE);
+			out.writeByte((Byte) value);
+		} else if (value instanceof Character) {
+			out.writeByte(CHAR);
+			out.writeVarInt((Character) value);
+		} else if (value instanceof BigDecimal) {
+			out.writeByte(BIG_DECIMAL);
+			out.writeString(value.toString());
+		} else if (value instanceof Date) {
+			out.writeByte(DATE);
+			out.writeVarLong(((Date) value).getTime());
+		} else if (value instanceof byte[]) {
+			out.writeByte(BYTES);
+			out.writeBytes((byte[]) value);
+		} else if (value instanceof List) {
+			List<?> list = (List<?>) value;
+			out.writeByte(LIST);
+			out.writeVarInt(list.size());
+			for (Object o : list) {
+				writeValue(out, o);
+			}
+		} else if (value instanceof Set) {
+			Set<?> set = (Set<?>) value;
+			out.writeByte(SET);
+			out.writeVarInt(set.size());
+			for (Object o : set) {
+				writeValue(out, o);
+			}
+		} else if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			out.writeByte(MAP);
+			out.writeVarInt(map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				writeValue(out, entry.getKey());
+				writeValue(out, entry.getValue());
+			}
+		} else if (value instanceof Enum) {
+			BinarySchema schema = schema(((Enum<?>) value).getDeclaringClass());
+			out.writeByte(ENUM);
+			out.writeVarInt(schema.getClassId());
+			out.writeString(((Enum<?>) value).name());
+		} else {
+			BinarySchema schema = schema(value.getClass());
+			out.writeByte(OBJECT);
+			out.writeVarInt(schema.getClassId());
+			schema.write(out, value, this);
+		}
+	}
+
+	/**
+	 * Read tagged value
+	 *
+	 * @param in in
+	 * @return the object
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	Object readValue(BinaryInput in) {
+		byte tag = in.readByte();
+		switch (tag) {
+			case NULL:
+				return null;
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			case INT:
+				return (int) in.readVarLong();
+			case LONG:
+				return in.readVarLong();
+			case DOUBLE:
+				return Double.longBitsToDouble(in.readLong());
+			case FLOAT:
+				return Float.intBitsToFloat(in.readVarInt());
+			case SHORT:
+				return (short) in.readVarLong();
+			case BYTE:
+				return in.readByte();
+			case CHAR:
+				return (char) in.readVarInt();
+			case STRING:
+				return in.readString();
+			case BIG_DECIMAL:
+				return new BigDecimal(in.readString());
+			case DATE:
+				return new Date(in.readVarLong());
+			case BYTES:
+				return in.readBytes();
+			case LIST: {
+				int size = in.readVarInt();
+				List<Object> list = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					list.add(readValue(in));
+				}
+				return list;
+			}
+			case SET: {
+				int size = in.readVarInt();
+				Set<Object> set = new LinkedHashSet<>(size * 4 / 3 + 1);
+				for (int i = 0; i < size; i++) {
+					set.add(readValue(in));
+				}
+				return set;
+			}
+			case MAP: {
+				int size = in.readVarInt();
+				Map<Object, Object> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+				for (int i = 0; i < size; i++) {
+					map.put(readValue(in), readValue(in));
+				}
+				return map;
+			}
+			case ENUM: {
+				BinarySchema schema = schema(in.readVarInt());
+				String name = in.readString();
+				try {
+					return Enum.valueOf((Class<Enum>) schema.getType(), name);
+				} catch (IllegalArgumentException e) {
+					throw new SerializationException("No enum constant " + schema.getType().getName() + "." + name, e);
+				}
+			}
+			case OBJECT:
+				return schema(in.readVarInt()).read(in, this);
+			default:
+				throw new SerializationException("Unknown binary redis tag " + tag);
+		}
+	}
+
+	/**
+	 * Schema by class，未注册时抛出 SerializationException 并说明如何注册
+	 * <p>
+	 * 不按需自动注册：类ID写入了值中，各节点自动分配的ID无法保证一致
+	 *
+	 * @param type type
+	 * @return the binary schema
+	 */
+	private BinarySchema schema(Class<?> type) {
+		BinarySchema schema = registry.get(type);
+		if (schema != null) {
+			return schema;
+		}
+		if (type.isArray()) {
+			throw new SerializationException("Array type " + type.getName() + " is not supported by BinaryRedisSerializer, use byte[] or a List instead");
+		}
+		throw new SerializationException("Class " + type.getName() + " is not registered in BinaryClassRegistry, "
+				+ "register it with the same id on every node, e.g. registry.register(<classId>, " + type.getSimpleName() + ".class)");
+	}
+
+	/**
+	 * Schema by id，未注册时抛出 SerializationException
+	 *
+	 * @param classId class id
+	 * @return the binary schema
+	 */
+	private BinarySchema schema(int classId) {
+		BinarySchema schema = registry.get(classId);
+		if (schema == null) {
+			throw new SerializationException("Class id " + classId + " is not registered in BinaryClassRegistry, "
+					+ "the value was written by a node whose registry contains a class this node does not register");
+		}
+		return schema;
+	}
+
+	/**
+	 * 压缩，压缩后没有变小则返回 null
+	 *
+	 * @param buf    buf
+	 * @param offset offset
+	 * @param length length
+	 * @return the byte [ ]
+	 */
+	private byte[] compress(byte[] buf, int offset, int length) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(buf, offset, length);
+			deflater.finish();
+			BinaryOutput out = new BinaryOutput(length / 2 + 16);
+			out.writeByte(HEADER | FLAG_COMPRESSED);
+			out.writeVarInt(length);
+			ByteArrayOutputStream bos = new ByteArrayOutputStream(length / 2);
+			byte[] chunk = new byte[4096];
+			while (!deflater.finished()) {
+				int n = deflater.deflate(chunk);
+				bos.write(chunk, 0, n);
+			}
+			if (bos.size() + out.size() >= length + 1) {
+				return null;
+			}
+			byte[] header = out.toByteArray();
+			byte[] result = new byte[header.length + bos.size()];
+			System.arraycopy(header, 0, result, 0, header.length);
+			System.arraycopy(bos.toByteArray(), 0, result, header.length, bos.size());
+			return result;
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * 解压
+	 *
+	 * @param bytes  bytes
+	 * @param length 原始长度
+	 * @return the byte [ ]
+	 */
+	private byte[] decompress(byte[] bytes, int length) {
+		// 跳过 header 和原始长度
+		int offset = 1;
+		while ((bytes[offset++] & 0x80) != 0) {
+			// skip varint
+		}
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(bytes, offset, bytes.length - offset);
+			byte[] result = new byte[length];
+			int n = 0;
+			while (n < length && !inflater.finished()) {
+				int read = inflater.inflate(result, n, length - n);
+				if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new SerializationException("Truncated binary redis value");
+				}
+				n += read;
+			}
+			return result;
+		} catch (DataFormatException e) {
+			throw new SerializationException("Cannot decompress binary redis value", e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+}
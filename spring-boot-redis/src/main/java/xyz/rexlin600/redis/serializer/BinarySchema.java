@@ -0,0 +1,186 @@
+package xyz.rexlin600.redis.serializer;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 单个类的字段布局，注册时通过反射解析一次并缓存
+ * <p>
+ * 基本类型字段按声明类型直接写值，不带类型标记；其它字段按值写入（带类型标记）
+ *
+ * @author hekunlin
+ */
+class BinarySchema {
+
+	/**
+	 * Type
+	 */
+	private final Class<?> type;
+
+	/**
+	 * Class id
+	 */
+	private final int classId;
+
+	/**
+	 * No-args constructor
+	 */
+	private final Constructor<?> constructor;
+
+	/**
+	 * Fields，按字段名排序保证各节点一致
+	 */
+	private final Field[] fields;
+
+	/**
+	 * Binary schema
+	 *
+	 * @param type    type
+	 * @param classId class id
+	 */
+	BinarySchema(Class<?> type, int classId) {
+		this.type = type;
+		this.classId = classId;
+		if (type.isEnum()) {
+			this.constructor = null;
+			this.fields = new Field[0];
+			return;
+		}
+		try {
+			this.constructor = type.getDeclaredConstructor();
+			this.constructor.setAccessible(true);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException("Class " + type.getName() + " must have a no-args constructor", e);
+		}
+		List<Field> list = new ArrayList<>();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				int mod = field.getModifiers();
+				if (Modifier.isStatic(mod) || Modifier.isTransient(mod)) {
+					continue;
+				}
+				field.setAccessible(true);
+				list.add(field);
+			}
+		}
+		list.sort(Comparator.comparing(Field::getName));
+		this.fields = list.toArray(new Field[0]);
+	}
+
+	/**
+	 * Gets type *
+	 *
+	 * @return the type
+	 */
+	Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Gets class id *
+	 *
+	 * @return the class id
+	 */
+	int getClassId() {
+		return classId;
+	}
+
+	/**
+	 * Write fields
+	 *
+	 * @param out    out
+	 * @param value  value
+	 * @param writer writer
+	 */
+	void write(BinaryOutput out, Object value, BinaryRedisSerializer writer) {
+		try {
+			for (Field field : fields) {
+				Class<?> ft = field.getType();
+				if (ft == int.class) {
+					out.writeVarLong(field.getInt(value));
+				} else if (ft == long.class) {
+					out.writeVarLong(field.getLong(value));
+				} else if (ft == boolean.class) {
+					out.writeByte(field.getBoolean(value) ? 1 : 0);
+				} else if (ft == double.class) {
+					out.writeLong(Double.doubleToRawLongBits(field.getDouble(value)));
+				} else if (ft == float.class) {
+					out.writeVarInt(Float.floatToRawIntBits(field.getFloat(value)));
+				} else if (ft == short.class) {
+					out.writeVarLong(field.getShort(value));
+				} else if (ft == byte.class) {
+					out.writeByte(field.getByte(value));
+				} else if (ft == char.class) {
+					out.writeVarInt(field.getChar(value));
+				} else {
+					writer.writeValue(out, field.get(value));
+				}
+			}
+		} catch (IllegalAccessException e) {
+			throw new SerializationException("Cannot serialize " + type.getName(), e);
+		}
+	}
+
+	/**
+	 * Read fields
+	 *
+	 * @param in     in
+	 * @param reader reader
+	 * @return the object
+	 */
+	Object read(BinaryInput in, BinaryRedisSerializer reader) {
+		try {
+			Object value = constructor.newInstance();
+			for (Field field : fields) {
+				Class<?> ft = field.getType();
+				if (ft == int.class) {
+					field.setInt(value, (int) in.readVarLong());
+				} else if (ft == long.class) {
+					field.setLong(value, in.readVarLong());
+				} else if (ft == boolean.class) {
+					field.setBoolean(value, in.readByte() != 0);
+				} else if (ft == double.class) {
+					field.setDouble(value, Double.longBitsToDouble(in.readLong()));
+				} else if (ft == float.class) {
+					field.setFloat(value, Float.intBitsToFloat(in.readVarInt()));
+				} else if (ft == short.class) {
+					field.setShort(value, (short) in.readVarLong());
+				} else if (ft == byte.class) {
+					field.setByte(value, in.readByte());
+				} else if (ft == char.class) {
+					field.setChar(value, (char) in.readVarInt());
+				} else {
+					set(field, value, reader.readValue(in));
+				}
+			}
+			return value;
+		} catch (ReflectiveOperationException e) {
+			throw new SerializationException("Cannot deserialize " + type.getName(), e);
+		}
+	}
+
+	/**
+	 * 设置引用类型字段，值与字段类型不兼容（如类的字段类型在写入后被修改）时抛出 SerializationException
+	 *
+	 * @param field  field
+	 * @param target target
+	 * @param value  value
+	 * @throws IllegalAccessException illegal access exception
+	 */
+	private void set(Field field, Object target, Object value) throws IllegalAccessException {
+		try {
+			field.set(target, value);
+		} catch (IllegalArgumentException e) {
+			throw new SerializationException("Cannot deserialize " + type.getName() + "." + field.getName()
+					+ ": field type " + field.getType().getName() + " is not assignable from "
+					+ (value == null ? "null" : value.getClass().getName()), e);
+		}
+	}
+
+}
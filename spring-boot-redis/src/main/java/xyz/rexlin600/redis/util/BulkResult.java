@@ -0,0 +1,49 @@
+package xyz.rexlin600.redis.util;
+
+import lombok.Data;
+import lombok.ToString;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 批量（pipeline）操作结果
+ *
+ * @param <T> 单个 key 的结果类型
+ * @author hekunlin
+ */
+@Data
+@ToString(exclude = "results")
+public class BulkResult<T> {
+
+	/**
+	 * 每个 key 的结果，按传入顺序
+	 */
+	private final Map<String, T> results = new LinkedHashMap<>();
+
+	/**
+	 * pipeline 批次数
+	 */
+	private int chunks;
+
+	/**
+	 * 失败的批次数
+	 */
+	private int failedChunks;
+
+	/**
+	 * 单个 pipeline 中最多的命令数
+	 */
+	private int pipelineDepth;
+
+	/**
+	 * 总耗时（毫秒）
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * 最慢批次耗时（毫秒）
+	 */
+	private long maxChunkMillis;
+
+}
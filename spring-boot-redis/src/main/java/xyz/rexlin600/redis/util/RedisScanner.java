@@ -0,0 +1,215 @@
+package xyz.rexlin600.redis.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 基于 SCAN/HSCAN/SSCAN/ZSCAN 的 key 遍历，代替会阻塞 Redis 的 KEYS
+ * <p>
+ * 返回的 Stream 是惰性的：只有消费方拉取时才会发送下一次 SCAN，消费慢时不会堆积数据。
+ * Stream 持有一个独占连接，使用完必须关闭（try-with-resources）
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class RedisScanner {
+
+	/**
+	 * 默认每次 SCAN 的 COUNT
+	 */
+	private static final int DEFAULT_COUNT = 1000;
+
+	/**
+	 * Redis template
+	 */
+	private final RedisTemplate<String, Object> redisTemplate;
+
+	/**
+	 * Redis scanner
+	 *
+	 * @param redisTemplate redis template
+	 */
+	@Autowired
+	public RedisScanner(RedisTemplate<String, Object> redisTemplate) {
+		this.redisTemplate = redisTemplate;
+	}
+
+	/**
+	 * SCAN
+	 *
+	 * @param pattern pattern
+	 * @param count   每次 SCAN 的 COUNT
+	 * @return the stream
+	 */
+	@SuppressWarnings("unchecked")
+	public Stream<String> scan(String pattern, int count) {
+		RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+		Cursor<byte[]> cursor = redisTemplate.executeWithStickyConnection(
+				connection -> connection.scan(options(pattern, count)));
+		return stream(cursor).map(keySerializer::deserialize);
+	}
+
+	/**
+	 * HSCAN
+	 *
+	 * @param key     key
+	 * @param pattern pattern
+	 * @param count   count
+	 * @return the stream
+	 */
+	public Stream<Map.Entry<Object, Object>> hscan(String key, String pattern, int count) {
+		return stream(redisTemplate.opsForHash().scan(key, options(pattern, count)));
+	}
+
+	/**
+	 * SSCAN
+	 *
+	 * @param key     key
+	 * @param pattern pattern
+	 * @param count   count
+	 * @return the stream
+	 */
+	public Stream<Object> sscan(String key, String pattern, int count) {
+		return stream(redisTemplate.opsForSet().scan(key, options(pattern, count)));
+	}
+
+	/**
+	 * ZSCAN
+	 *
+	 * @param key     key
+	 * @param pattern pattern
+	 * @param count   count
+	 * @return the stream
+	 */
+	public Stream<ZSetOperations.TypedTuple<Object>> zscan(String key, String pattern, int count) {
+		return stream(redisTemplate.opsForZSet().scan(key, options(pattern, count)));
+	}
+
+	/**
+	 * 按 pattern 分批 UNLINK，UNLINK 在后台线程回收内存，不会阻塞 Redis
+	 *
+	 * @param pattern          pattern
+	 * @param batchSize        每批删除的 key 数量
+	 * @param maxKeysPerSecond 每秒最多删除的 key 数量，小于等于 0 表示不限速
+	 * @param listener         进度回调，可为 null
+	 * @return 删除的 key 数量；限速等待时被中断则提前结束，保留线程的中断状态
+	 */
+	public long unlink(String pattern, int batchSize, int maxKeysPerSecond, ScanProgressListener listener) {
+		long start = System.nanoTime();
+		long scanned = 0;
+		long deleted = 0;
+		List<String> batch = new ArrayList<>(batchSize);
+		try (Stream<String> keys = scan(pattern, Math.max(batchSize, DEFAULT_COUNT))) {
+			Iterator<String> iterator = keys.iterator();
+			while (iterator.hasNext()) {
+				batch.add(iterator.next());
+				scanned++;
+				if (batch.size() >= batchSize || !iterator.hasNext()) {
+					deleted += unlink(batch);
+					batch.clear();
+					if (listener != null) {
+						listener.onProgress(scanned, deleted);
+					}
+					if (!throttle(start, scanned, maxKeysPerSecond)) {
+						log.warn("==>  redis unlink pattern [{}] interrupted, scanned = {}, deleted = {}", pattern, scanned, deleted);
+						break;
+					}
+				}
+			}
+		}
+		log.info("==>  redis unlink pattern [{}] scanned = {}, deleted = {}, cost = {}ms", pattern, scanned, deleted,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		return deleted;
+	}
+
+	/**
+	 * Unlink batch
+	 *
+	 * @param keys keys
+	 * @return the long
+	 */
+	@SuppressWarnings("unchecked")
+	private long unlink(List<String> keys) {
+		RedisSerializer<String> keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+		byte[][] rawKeys = new byte[keys.size()][];
+		for (int i = 0; i < keys.size(); i++) {
+			rawKeys[i] = keySerializer.serialize(keys.get(i));
+		}
+		Long count = redisTemplate.execute((RedisCallback<Long>) connection -> connection.unlink(rawKeys));
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * 按照限速计算应耗时间，处理过快时 sleep
+	 *
+	 * @param start            start
+	 * @param processed        processed
+	 * @param maxKeysPerSecond max keys per second
+	 * @return false 表示等待时被中断，已恢复中断状态，调用方应停止
+	 */
+	private boolean throttle(long start, long processed, int maxKeysPerSecond) {
+		if (maxKeysPerSecond <= 0) {
+			return true;
+		}
+		long expectedNanos = processed * TimeUnit.SECONDS.toNanos(1) / maxKeysPerSecond;
+		long aheadNanos = expectedNanos - (System.nanoTime() - start);
+		if (aheadNanos > 0) {
+			try {
+				TimeUnit.NANOSECONDS.sleep(aheadNanos);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Scan options
+	 *
+	 * @param pattern pattern
+	 * @param count   count
+	 * @return the scan options
+	 */
+	private ScanOptions options(String pattern, int count) {
+		return ScanOptions.scanOptions()
+				.match(pattern == null ? "*" : pattern)
+				.count(count > 0 ? count : DEFAULT_COUNT)
+				.build();
+	}
+
+	/**
+	 * 将 Cursor 包装为惰性 Stream，Stream 关闭时释放连接
+	 *
+	 * @param cursor cursor
+	 * @param <T>    parameter
+	 * @return the stream
+	 */
+	private <T> Stream<T> stream(Cursor<T> cursor) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(() -> {
+					try {
+						cursor.close();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+	}
+
+}
@@ -1,21 +1,29 @@
 package xyz.rexlin600.redis.util;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import java.security.InvalidParameterException;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * Redis util
  *
  * @author hekunlin
  */
+@Slf4j
 @Component
 public class RedisUtil {
 
@@ -24,6 +32,11 @@ public class RedisUtil {
 	 */
 	private final RedisTemplate<String, Object> redisTemplate;
 
+	/**
+	 * 单个 pipeline 中的 key 数量
+	 */
+	private int pipelineChunkSize = 500;
+
 	/**
 	 * Redis util
 	 *
@@ -582,4 +595,164 @@ public class RedisUtil {
 		}
 	}
 
-}
\ No newline at end of file
+	//===============================bulk=================================
+
+	/**
+	 * Multi set，通过 pipeline 批量写入
+	 *
+	 * @param map  key -> value
+	 * @param time 过期时间（秒），小于等于 0 表示不过期
+	 * @return the bulk result
+	 */
+	@SuppressWarnings("unchecked")
+	public BulkResult<Boolean> multiSet(Map<String, Object> map, long time) {
+		RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+		return pipelined(map.keySet(), (connection, key) -> {
+			byte[] rawKey = rawKey(key);
+			byte[] rawValue = valueSerializer.serialize(map.get(key));
+			if (time > 0) {
+				connection.set(rawKey, rawValue, Expiration.seconds(time), RedisStringCommands.SetOption.upsert());
+			} else {
+				connection.set(rawKey, rawValue);
+			}
+		}, r -> r == null || Boolean.TRUE.equals(r), false);
+	}
+
+	/**
+	 * Multi get，通过 pipeline 批量读取
+	 *
+	 * @param keys keys
+	 * @return the bulk result，不存在的 key 对应 null
+	 */
+	public BulkResult<Object> multiGet(Collection<String> keys) {
+		return pipelined(keys, (connection, key) -> connection.get(rawKey(key)), r -> r, null);
+	}
+
+	/**
+	 * Hmset all，通过 pipeline 批量写入多个 hash
+	 *
+	 * @param hashes key -> hash
+	 * @param time   过期时间（秒），小于等于 0 表示不过期
+	 * @return the bulk result，空 hash 不写入，也不出现在结果中
+	 */
+	@SuppressWarnings("unchecked")
+	public BulkResult<Boolean> hmsetAll(Map<String, Map<String, Object>> hashes, long time) {
+		RedisSerializer<Object> hashKeySerializer = (RedisSerializer<Object>) redisTemplate.getHashKeySerializer();
+		RedisSerializer<Object> hashValueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+		// 空 hash 不发送命令，必须在切分前去掉，否则结果与 key 错位
+		List<String> keys = new ArrayList<>(hashes.size());
+		hashes.forEach((key, hash) -> {
+			if (!CollectionUtils.isEmpty(hash)) {
+				keys.add(key);
+			}
+		});
+		return pipelined(keys, (connection, key) -> {
+			Map<String, Object> hash = hashes.get(key);
+			Map<byte[], byte[]> raw = new LinkedHashMap<>(hash.size() * 4 / 3 + 1);
+			hash.forEach((k, v) -> raw.put(hashKeySerializer.serialize(k), hashValueSerializer.serialize(v)));
+			byte[] rawKey = rawKey(key);
+			connection.hMSet(rawKey, raw);
+			if (time > 0) {
+				connection.expire(rawKey, time);
+			}
+			// hMSet 在 pipeline 中只返回 status，不计入结果；只有 expire 的结果能与 key 对应
+		}, r -> !(r instanceof Boolean) || (Boolean) r, false);
+	}
+
+	/**
+	 * Expire all，通过 pipeline 批量设置过期时间
+	 *
+	 * @param keys keys
+	 * @param time 过期时间（秒）
+	 * @return the bulk result
+	 */
+	public BulkResult<Boolean> expireAll(Collection<String> keys, long time) {
+		return pipelined(keys, (connection, key) -> connection.expire(rawKey(key), time),
+				r -> Boolean.TRUE.equals(r), false);
+	}
+
+	/**
+	 * Del all，通过 pipeline 批量删除
+	 *
+	 * @param keys keys
+	 * @return the bulk result，key 存在并被删除时为 true
+	 */
+	public BulkResult<Boolean> delAll(Collection<String> keys) {
+		return pipelined(keys, (connection, key) -> connection.del(rawKey(key)),
+				r -> r instanceof Long && (Long) r > 0, false);
+	}
+
+	/**
+	 * Sets pipeline chunk size *
+	 *
+	 * @param pipelineChunkSize pipeline chunk size
+	 */
+	@Value("${rexlin600.redis.pipeline-chunk-size:500}")
+	public void setPipelineChunkSize(int pipelineChunkSize) {
+		this.pipelineChunkSize = pipelineChunkSize > 0 ? pipelineChunkSize : 500;
+	}
+
+	/**
+	 * 按 chunk 切分后逐批 pipeline 执行，每个 key 必须恰好产生一个非 status 结果
+	 * <p>
+	 * 某一批失败时只打印异常并将该批 key 标记为 failed，不影响其它批次
+	 *
+	 * @param keys    keys
+	 * @param command 单个 key 的命令
+	 * @param mapper  结果转换，结果数量与 key 数量不一致时传入 null
+	 * @param failed  失败时的结果
+	 * @param <T>     result type
+	 * @return the bulk result
+	 */
+	private <T> BulkResult<T> pipelined(Collection<String> keys, BiConsumer<RedisConnection, String> command,
+										Function<Object, T> mapper, T failed) {
+		BulkResult<T> bulkResult = new BulkResult<>();
+		if (CollectionUtils.isEmpty(keys)) {
+			return bulkResult;
+		}
+
+		List<String> all = keys instanceof List ? (List<String>) keys : new ArrayList<>(keys);
+		long start = System.nanoTime();
+		for (int from = 0; from < all.size(); from += pipelineChunkSize) {
+			List<String> chunk = all.subList(from, Math.min(from + pipelineChunkSize, all.size()));
+			long chunkStart = System.nanoTime();
+			try {
+				List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+					for (String key : chunk) {
+						command.accept(connection, key);
+					}
+					return null;
+				});
+				boolean aligned = results.size() == chunk.size();
+				for (int i = 0; i < chunk.size(); i++) {
+					bulkResult.getResults().put(chunk.get(i), mapper.apply(aligned ? results.get(i) : null));
+				}
+			} catch (Exception e) {
+				e.printStackTrace();
+				bulkResult.setFailedChunks(bulkResult.getFailedChunks() + 1);
+				for (String key : chunk) {
+					bulkResult.getResults().put(key, failed);
+				}
+			}
+			long chunkMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - chunkStart);
+			bulkResult.setChunks(bulkResult.getChunks() + 1);
+			bulkResult.setPipelineDepth(Math.max(bulkResult.getPipelineDepth(), chunk.size()));
+			bulkResult.setMaxChunkMillis(Math.max(bulkResult.getMaxChunkMillis(), chunkMillis));
+		}
+		bulkResult.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		log.debug("==>  redis pipeline bulk result : {}", bulkResult);
+		return bulkResult;
+	}
+
+	/**
+	 * Raw key
+	 *
+	 * @param key key
+	 * @return the byte [ ]
+	 */
+	@SuppressWarnings("unchecked")
+	private byte[] rawKey(String key) {
+		return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+	}
+
+}
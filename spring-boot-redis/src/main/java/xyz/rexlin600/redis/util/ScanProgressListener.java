@@ -0,0 +1,19 @@
+package xyz.rexlin600.redis.util;
+
+/**
+ * 按 pattern 批量删除时的进度回调
+ *
+ * @author hekunlin
+ */
+@FunctionalInterface
+public interface ScanProgressListener {
+
+	/**
+	 * 每删除一批后回调
+	 *
+	 * @param scanned 已扫描的 key 数量
+	 * @param deleted 已删除的 key 数量
+	 */
+	void onProgress(long scanned, long deleted);
+
+}
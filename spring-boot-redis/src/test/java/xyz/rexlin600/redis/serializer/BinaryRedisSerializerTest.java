@@ -0,0 +1,121 @@
+package xyz.rexlin600.redis.serializer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * 二进制序列化：往返一致，未注册的类、字段类型不兼容时抛出 SerializationException
+ *
+ * @author hekunlin
+ */
+public class BinaryRedisSerializerTest {
+
+	/**
+	 * 注册的类及嵌套的注册类往返一致
+	 */
+	@Test
+	public void roundTrip() {
+		BinaryRedisSerializer serializer = new BinaryRedisSerializer(new BinaryClassRegistry()
+				.register(1, Item.class)
+				.register(2, Level.class), 64);
+		Item item = new Item();
+		item.id = 42;
+		item.name = "item";
+		item.level = Level.HIGH;
+		item.tags = new ArrayList<>(Arrays.asList("a", "b"));
+
+		Item copy = (Item) serializer.deserialize(serializer.serialize(item));
+		Assert.assertEquals(42, copy.id);
+		Assert.assertEquals("item", copy.name);
+		Assert.assertEquals(Level.HIGH, copy.level);
+		Assert.assertEquals(Arrays.asList("a", "b"), copy.tags);
+	}
+
+	/**
+	 * 未注册的类：错误信息包含类名及注册方式
+	 */
+	@Test
+	public void unregisteredClass() {
+		BinaryRedisSerializer serializer = new BinaryRedisSerializer(new BinaryClassRegistry().register(1, Item.class), 0);
+		Item item = new Item();
+		item.level = Level.LOW;
+		try {
+			serializer.serialize(item);
+			Assert.fail("未注册的枚举应当抛出 SerializationException");
+		} catch (SerializationException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains(Level.class.getName()));
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("register(<classId>, Level.class)"));
+		}
+
+		try {
+			serializer.serialize(new int[]{1});
+			Assert.fail("数组应当抛出 SerializationException");
+		} catch (SerializationException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("not supported"));
+		}
+	}
+
+	/**
+	 * 读取时类ID未注册
+	 */
+	@Test
+	public void unregisteredClassId() {
+		byte[] bytes = new BinaryRedisSerializer(new BinaryClassRegistry().register(7, Item.class), 0).serialize(new Item());
+		try {
+			new BinaryRedisSerializer(new BinaryClassRegistry(), 0).deserialize(bytes);
+			Assert.fail("未注册的类ID应当抛出 SerializationException");
+		} catch (SerializationException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("Class id 7"));
+		}
+	}
+
+	/**
+	 * 读出的值与字段类型不兼容时包装为 SerializationException，而不是抛出 IllegalArgumentException
+	 */
+	@Test
+	public void incompatibleField() {
+		BinaryRedisSerializer serializer = new BinaryRedisSerializer(new BinaryClassRegistry().register(1, Queue.class), 0);
+		Queue queue = new Queue();
+		queue.items = new LinkedList<>(Arrays.asList("a", "b"));
+		byte[] bytes = serializer.serialize(queue);
+		try {
+			serializer.deserialize(bytes);
+			Assert.fail("字段类型不兼容应当抛出 SerializationException");
+		} catch (SerializationException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains(Queue.class.getName() + ".items"));
+		}
+	}
+
+	private enum Level {
+		LOW, HIGH
+	}
+
+	private static class Item {
+
+		private int id;
+
+		private String name;
+
+		private Level level;
+
+		private List<String> tags;
+
+	}
+
+	private static class Queue {
+
+		/**
+		 * 列表按 ArrayList 读出，无法赋给 LinkedList 字段
+		 */
+		private LinkedList<String> items;
+
+	}
+
+}
@@ -0,0 +1,133 @@
+package xyz.rexlin600.redis.serializer;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import xyz.rexlin600.redis.config.FastJsonRedisSerializer;
+import xyz.rexlin600.redis.entity.Blog;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson / FastJson / Binary 三种 value 序列化的对比
+ * <p>
+ * 运行 main 方法即可，GCProfiler 输出的 gc.alloc.rate.norm 即每次操作的分配字节数；
+ * 每种序列化的字节数在 setup 时打印
+ *
+ * @author hekunlin
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+	/**
+	 * Serializer
+	 */
+	@Param({"jackson", "fastjson", "binary"})
+	private String serializer;
+
+	/**
+	 * 正文长度，较大时 binary 会触发压缩
+	 */
+	@Param({"16", "2048"})
+	private int contentLength;
+
+	/**
+	 * Redis serializer
+	 */
+	private RedisSerializer<Object> redisSerializer;
+
+	/**
+	 * Blog
+	 */
+	private Blog blog;
+
+	/**
+	 * Bytes
+	 */
+	private byte[] bytes;
+
+	/**
+	 * Sets up
+	 */
+	@SuppressWarnings("deprecation")
+	@Setup
+	public void setUp() {
+		StringBuilder sb = new StringBuilder(contentLength);
+		for (int i = 0; i < contentLength; i++) {
+			sb.append((char) ('a' + i % 26));
+		}
+		blog = Blog.builder()
+				.id(999L)
+				.title("update-999")
+				.content(sb.toString())
+				.popular(true)
+				.createDate("2020-1-6 15:46:03")
+				.build();
+
+		switch (serializer) {
+			case "fastjson":
+				redisSerializer = new FastJsonRedisSerializer<>(Object.class);
+				break;
+			case "binary":
+				redisSerializer = new BinaryRedisSerializer(new BinaryClassRegistry().register(1, Blog.class), 1024);
+				break;
+			default:
+				Jackson2JsonRedisSerializer<Object> jackson = new Jackson2JsonRedisSerializer<>(Object.class);
+				ObjectMapper om = new ObjectMapper();
+				om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+				om.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
+				jackson.setObjectMapper(om);
+				redisSerializer = jackson;
+		}
+		bytes = redisSerializer.serialize(blog);
+		System.out.println("==>  " + serializer + " content=" + contentLength + " bytes on the wire : " + bytes.length);
+	}
+
+	/**
+	 * Encode
+	 *
+	 * @return the byte [ ]
+	 */
+	@Benchmark
+	public byte[] encode() {
+		return redisSerializer.serialize(blog);
+	}
+
+	/**
+	 * Decode
+	 *
+	 * @return the object
+	 */
+	@Benchmark
+	public Object decode() {
+		return redisSerializer.deserialize(bytes);
+	}
+
+	/**
+	 * Main
+	 *
+	 * @param args args
+	 * @throws RunnerException runner exception
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(RedisSerializerBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
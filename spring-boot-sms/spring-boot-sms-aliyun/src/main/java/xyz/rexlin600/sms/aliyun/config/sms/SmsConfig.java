@@ -63,4 +63,85 @@ public class SmsConfig {
 	 */
 	private Integer maxIntervalSecondsValue = 60;
 
-}
\ No newline at end of file
+	/**
+	 * 短信网关：aliyun 阿里云（默认）；fake 进程内假网关，不发短信，用于离线压测
+	 */
+	private String gateway = "aliyun";
+
+	/**
+	 * 假网关配置
+	 */
+	private Fake fake = new Fake();
+
+	/**
+	 * 批量发送配置
+	 */
+	private Bulk bulk = new Bulk();
+
+	/**
+	 * 假网关配置
+	 */
+	@Data
+	public static class Fake {
+
+		/**
+		 * 每次请求的固定延迟，单位：毫秒
+		 */
+		private long latencyMillis = 20;
+
+		/**
+		 * 随机附加延迟上限，单位：毫秒
+		 */
+		private long jitterMillis = 10;
+
+		/**
+		 * 失败率 [0, 1]，失败时一半抛出网络异常、一半返回流控错误码
+		 */
+		private double failureRate = 0;
+
+	}
+
+	/**
+	 * 批量发送配置
+	 */
+	@Data
+	public static class Bulk {
+
+		/**
+		 * 同时向网关发出的请求数
+		 */
+		private int concurrency = 8;
+
+		/**
+		 * 每个请求的手机号数，阿里云上限 1000
+		 */
+		private int batchSize = 100;
+
+		/**
+		 * 排队中的短信条数上限，超过时拒绝新的批量任务
+		 */
+		private int queueCapacity = 100000;
+
+		/**
+		 * 最大重试次数
+		 */
+		private int maxRetries = 3;
+
+		/**
+		 * 首次重试等待时间，之后每次翻倍，单位：毫秒
+		 */
+		private long initialBackoffMillis = 200;
+
+		/**
+		 * 重试等待时间上限，单位：毫秒
+		 */
+		private long maxBackoffMillis = 5000;
+
+		/**
+		 * 已结束任务的保留时间，单位：分钟
+		 */
+		private long jobRetentionMinutes = 60;
+
+	}
+
+}
@@ -1,25 +1,18 @@
 package xyz.rexlin600.sms.aliyun.core;
 
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
-import com.aliyuncs.CommonRequest;
-import com.aliyuncs.CommonResponse;
-import com.aliyuncs.DefaultAcsClient;
-import com.aliyuncs.IAcsClient;
 import com.aliyuncs.exceptions.ClientException;
-import com.aliyuncs.http.MethodType;
-import com.aliyuncs.profile.DefaultProfile;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import xyz.rexlin600.sms.aliyun.config.sms.SmsConfig;
-import xyz.rexlin600.sms.aliyun.core.cache.CacheHelper;
 import xyz.rexlin600.sms.aliyun.core.cache.CheckHelper;
 import xyz.rexlin600.sms.aliyun.core.constant.SmsConst;
+import xyz.rexlin600.sms.aliyun.core.gateway.SmsGateway;
 import xyz.rexlin600.sms.aliyun.core.request.SmsRequest;
 import xyz.rexlin600.sms.aliyun.core.request.SmsResponse;
 
+import java.util.Collections;
+
 /**
  * 阿里云信实例
  *
@@ -30,11 +23,6 @@ import xyz.rexlin600.sms.aliyun.core.request.SmsResponse;
 @Component
 public class SmsClient {
 
-	/**
-	 * The constant instance.
-	 */
-	public static IAcsClient instance = null;
-
 	/**
 	 * The Sms client.
 	 */
@@ -46,47 +34,26 @@ public class SmsClient {
 	private final CheckHelper checkHelper;
 
 	/**
-	 * The Cache helper.
+	 * The Sms gateway.
 	 */
-	private final CacheHelper cacheHelper;
+	private final SmsGateway smsGateway;
 
 	/**
 	 * 构造器
 	 *
 	 * @param smsConfig   the sms config
-	 * @param checkHelper
-	 * @param cacheHelper
+	 * @param checkHelper the check helper
+	 * @param smsGateway  the sms gateway
 	 */
 	@Autowired
 	public SmsClient(SmsConfig smsConfig,
 					 CheckHelper checkHelper,
-					 CacheHelper cacheHelper) {
+					 SmsGateway smsGateway) {
 		this.smsConfig = smsConfig;
 		this.checkHelper = checkHelper;
-		this.cacheHelper = cacheHelper;
-		init();
-	}
-
-	/**
-	 * 初始化
-	 */
-	private void init() {
-		log.info("==>  初始化 SMS instance 开始 ...");
-		if (instance == null) {
-			synchronized (SmsClient.class) {
-				if (instance == null) {
-					DefaultProfile profile = DefaultProfile.getProfile(
-							smsConfig.getRegionId(),
-							smsConfig.getAccessKey(),
-							smsConfig.getAccessSecret());
-					instance = new DefaultAcsClient(profile);
-					log.info("==>  初始化 SMS instance 完成 ...");
-				}
-			}
-		}
+		this.smsGateway = smsGateway;
 	}
 
-
 	/**
 	 * 发送消息
 	 *
@@ -101,33 +68,22 @@ public class SmsClient {
 			return;
 		}
 
-		// 超过阈值校验
+		// 超过阈值校验，通过时已预占每日阈值、模板阈值
 		checkHelper.isOverThreshold(req.getPhone(), req.getTemplateCode());
 
-		// 构建通用短信请求对象
-		CommonRequest commonRequest = new CommonRequest();
-		commonRequest.setSysMethod(MethodType.POST);
-		commonRequest.setSysAction(SmsConst.SEND_SMS);
-		commonRequest.setSysDomain(smsConfig.getDomain());
-		commonRequest.setSysVersion(SmsConst.VERSION);
-		commonRequest.putQueryParameter(SmsConst.REGION_PARAM, smsConfig.getRegionId());
-		commonRequest.putQueryParameter("PhoneNumbers", req.getPhone());
-		commonRequest.putQueryParameter("SignName", req.getSignName());
-		commonRequest.putQueryParameter("TemplateCode", req.getTemplateCode());
-		commonRequest.putQueryParameter("TemplateParam", JSONUtil.toJsonStr(req.getTemplateParam()));
-
-		// 发送短信
-		CommonResponse response = SmsClient.instance.getCommonResponse(commonRequest);
-		if (response.getHttpStatus() == HttpStatus.OK.value()) {
-			JSONObject jsonObject = JSONUtil.parseObj(response.getData());
-			SmsResponse smsResponse = SmsResponse.build(jsonObject);
+		// 发送短信，失败时归还预占的阈值
+		boolean sent = false;
+		try {
+			SmsResponse smsResponse = smsGateway.send(Collections.singletonList(req.getPhone()), req.getSignName(),
+					req.getTemplateCode(), req.getTemplateParam());
 			if (!smsResponse.isSuccess()) {
 				throw new ClientException(SmsConst.ERROR_CODE, smsResponse.getMessage());
 			}
-
-			// 发送成功后需记录阈值防盗刷：每日阈值、模板阈值
-			cacheHelper.cacheDailyThreshold(req.getPhone(), req.getTemplateCode());
-			cacheHelper.cacheTemplateThreshold(req.getPhone(), req.getTemplateCode());
+			sent = true;
+		} finally {
+			if (!sent) {
+				checkHelper.releaseThreshold(req.getPhone(), req.getTemplateCode());
+			}
 		}
 	}
 
@@ -1,6 +1,8 @@
 package xyz.rexlin600.sms.aliyun.core;
 
 import com.aliyuncs.exceptions.ClientException;
+import xyz.rexlin600.sms.aliyun.core.bulk.BulkSmsJob;
+import xyz.rexlin600.sms.aliyun.core.request.BulkSmsRequest;
 import xyz.rexlin600.sms.aliyun.core.request.SmsRequest;
 import xyz.rexlin600.sms.aliyun.core.request.VerifyCodeRequest;
 
@@ -30,6 +32,26 @@ public interface SmsService {
 	void sendNotifySms(SmsRequest req) throws ClientException;
 
 
+	/**
+	 * 批量发送通知短信，入队后立即返回
+	 *
+	 * @param req the req
+	 * @return 任务ID
+	 * @throws ClientException the client exception
+	 */
+	String sendBulkNotifySms(BulkSmsRequest req) throws ClientException;
+
+
+	/**
+	 * 查询批量短信任务
+	 *
+	 * @param jobId the job id
+	 * @return the bulk sms job
+	 * @throws ClientException the client exception
+	 */
+	BulkSmsJob getBulkSmsJob(String jobId) throws ClientException;
+
+
 	/**
 	 * 校验Code
 	 *
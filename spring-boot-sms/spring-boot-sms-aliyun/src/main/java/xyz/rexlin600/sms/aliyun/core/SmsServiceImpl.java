@@ -7,9 +7,12 @@ import com.aliyuncs.exceptions.ClientException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import xyz.rexlin600.sms.aliyun.core.bulk.BulkSmsJob;
+import xyz.rexlin600.sms.aliyun.core.bulk.BulkSmsSender;
 import xyz.rexlin600.sms.aliyun.core.cache.CacheHelper;
 import xyz.rexlin600.sms.aliyun.core.cache.CheckHelper;
 import xyz.rexlin600.sms.aliyun.core.constant.SmsConst;
+import xyz.rexlin600.sms.aliyun.core.request.BulkSmsRequest;
 import xyz.rexlin600.sms.aliyun.core.request.SmsRequest;
 import xyz.rexlin600.sms.aliyun.core.request.VerifyCodeRequest;
 
@@ -41,20 +44,28 @@ public class SmsServiceImpl implements SmsService {
 	 */
 	private final CheckHelper checkHelper;
 
+	/**
+	 * The Bulk sms sender.
+	 */
+	private final BulkSmsSender bulkSmsSender;
+
 	/**
 	 * Instantiates a new Sms service.
 	 *
-	 * @param smsClient   the sms client
-	 * @param cacheHelper the cache helper
-	 * @param checkHelper the check helper
+	 * @param smsClient     the sms client
+	 * @param cacheHelper   the cache helper
+	 * @param checkHelper   the check helper
+	 * @param bulkSmsSender the bulk sms sender
 	 */
 	@Autowired
 	public SmsServiceImpl(SmsClient smsClient,
 						  CacheHelper cacheHelper,
-						  CheckHelper checkHelper) {
+						  CheckHelper checkHelper,
+						  BulkSmsSender bulkSmsSender) {
 		this.smsClient = smsClient;
 		this.cacheHelper = cacheHelper;
 		this.checkHelper = checkHelper;
+		this.bulkSmsSender = bulkSmsSender;
 	}
 
 	/**
@@ -110,6 +121,36 @@ public class SmsServiceImpl implements SmsService {
 	}
 
 
+	/**
+	 * 批量发送通知短信
+	 *
+	 * @param req the req
+	 * @return 任务ID
+	 * @throws ClientException the client exception
+	 */
+	@Override
+	public String sendBulkNotifySms(BulkSmsRequest req) throws ClientException {
+		return bulkSmsSender.submit(req);
+	}
+
+
+	/**
+	 * 查询批量短信任务
+	 *
+	 * @param jobId the job id
+	 * @return the bulk sms job
+	 * @throws ClientException the client exception
+	 */
+	@Override
+	public BulkSmsJob getBulkSmsJob(String jobId) throws ClientException {
+		BulkSmsJob job = bulkSmsSender.job(jobId);
+		if (job == null) {
+			throw new ClientException(SmsConst.ERROR_CODE, "批量短信任务不存在或已过期");
+		}
+		return job;
+	}
+
+
 	/**
 	 * 校验验证码
 	 *
@@ -0,0 +1,114 @@
+package xyz.rexlin600.sms.aliyun.core.bulk;
+
+import lombok.Data;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量短信任务
+ *
+ * @author hekunlin
+ */
+@Data
+public class BulkSmsJob {
+
+	/**
+	 * 任务ID
+	 */
+	private final String jobId;
+
+	/**
+	 * 短信模板 Code
+	 */
+	private final String templateCode;
+
+	/**
+	 * 创建时间
+	 */
+	private final long createTime = System.currentTimeMillis();
+
+	/**
+	 * 手机号 -> 短信，创建后不再增删
+	 */
+	private final Map<String, SmsMessage> messages = new LinkedHashMap<>();
+
+	/**
+	 * 已发送数
+	 */
+	private final AtomicInteger sent = new AtomicInteger();
+
+	/**
+	 * 失败数
+	 */
+	private final AtomicInteger failed = new AtomicInteger();
+
+	/**
+	 * 已有结果的短信数
+	 */
+	private final AtomicInteger completed = new AtomicInteger();
+
+	/**
+	 * 重试次数（按请求计）
+	 */
+	private final AtomicInteger retries = new AtomicInteger();
+
+	/**
+	 * 结束时间，未结束为 0
+	 */
+	private volatile long finishTime;
+
+	/**
+	 * 短信总数
+	 *
+	 * @return the total
+	 */
+	public int getTotal() {
+		return messages.size();
+	}
+
+	/**
+	 * 是否全部发送成功或失败
+	 *
+	 * @return the boolean
+	 */
+	public boolean isDone() {
+		return finishTime > 0;
+	}
+
+	/**
+	 * 单条短信
+	 *
+	 * @param phone the phone
+	 * @return the sms message
+	 */
+	public SmsMessage message(String phone) {
+		return messages.get(phone);
+	}
+
+	/**
+	 * 全部短信
+	 *
+	 * @return the messages
+	 */
+	public Collection<SmsMessage> messages() {
+		return messages.values();
+	}
+
+	/**
+	 * 记录一批短信的最终结果，全部有结果时结束任务
+	 *
+	 * @param sent   发送成功数
+	 * @param failed 失败数
+	 */
+	void complete(int sent, int failed) {
+		this.sent.addAndGet(sent);
+		this.failed.addAndGet(failed);
+		if (completed.addAndGet(sent + failed) >= getTotal()) {
+			finishTime = System.currentTimeMillis();
+		}
+	}
+
+}
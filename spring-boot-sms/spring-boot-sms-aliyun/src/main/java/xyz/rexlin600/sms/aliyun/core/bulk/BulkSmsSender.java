@@ -0,0 +1,354 @@
+package xyz.rexlin600.sms.aliyun.core.bulk;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import cn.hutool.core.util.BooleanUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.aliyuncs.exceptions.ClientException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import xyz.rexlin600.sms.aliyun.config.sms.SmsConfig;
+import xyz.rexlin600.sms.aliyun.core.constant.SmsConst;
+import xyz.rexlin600.sms.aliyun.core.gateway.SmsGateway;
+import xyz.rexlin600.sms.aliyun.core.request.BulkSmsRequest;
+import xyz.rexlin600.sms.aliyun.core.request.SmsResponse;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 批量通知短信
+ * <p>
+ * 1. 提交时按 batchSize 拆成多个请求（PhoneNumbers 逗号分隔）入队，立即返回任务ID，不占用请求线程
+ * 2. concurrency 个线程消费队列，同时向网关发出的请求数不超过 concurrency
+ * 3. 网络异常、流控、服务端错误按指数退避重试，其余错误码直接失败；每条短信单独记录状态
+ * 4. 队列只在内存中，进程退出时等待重试、未发送的短信记为失败
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class BulkSmsSender implements DisposableBean {
+
+	/**
+	 * 可重试的错误码：流控、服务端错误
+	 */
+	private static final Set<String> RETRYABLE_CODES = new HashSet<>(Arrays.asList(
+			"isv.BUSINESS_LIMIT_CONTROL", "isp.SYSTEM_ERROR", "Throttling", "Throttling.User",
+			"500", "502", "503", "504"));
+
+	/**
+	 * 手机号格式
+	 */
+	private static final Pattern PHONE = Pattern.compile("^1\\d{10}$");
+
+	/**
+	 * The bulk config.
+	 */
+	private final SmsConfig.Bulk bulk;
+
+	/**
+	 * The Sms config.
+	 */
+	private final SmsConfig smsConfig;
+
+	/**
+	 * The Sms gateway.
+	 */
+	private final SmsGateway smsGateway;
+
+	/**
+	 * 发送线程池，队列即待发送的请求
+	 */
+	private final ThreadPoolExecutor senders;
+
+	/**
+	 * 重试、清理
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * 任务ID -> 任务
+	 */
+	private final Map<String, BulkSmsJob> jobs = new ConcurrentHashMap<>();
+
+	/**
+	 * 等待重试的请求，关闭时取消并记为失败；从中移除成功的一方负责重新提交或记为失败
+	 */
+	private final Set<Batch> retrying = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * 尚未有结果的短信数
+	 */
+	private final AtomicInteger pending = new AtomicInteger();
+
+	/**
+	 * Instantiates a new Bulk sms sender.
+	 *
+	 * @param smsConfig  the sms config
+	 * @param smsGateway the sms gateway
+	 */
+	@Autowired
+	public BulkSmsSender(SmsConfig smsConfig, SmsGateway smsGateway) {
+		this.smsConfig = smsConfig;
+		this.bulk = smsConfig.getBulk();
+		this.smsGateway = smsGateway;
+		int concurrency = Math.max(1, bulk.getConcurrency());
+		this.senders = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setNamePrefix("bulk-sms-%d").build());
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNamePrefix("bulk-sms-retry-%d").setDaemon(true).build());
+		this.scheduler.scheduleWithFixedDelay(this::evictJobs, 1, 1, TimeUnit.MINUTES);
+	}
+
+	/**
+	 * 提交批量任务
+	 *
+	 * @param req the req
+	 * @return 任务ID
+	 * @throws ClientException 参数不合法或队列已满
+	 */
+	public String submit(BulkSmsRequest req) throws ClientException {
+		if (CollUtil.isEmpty(req.getPhones()) || StrUtil.isBlank(req.getTemplateCode())
+				|| StrUtil.isBlank(req.getSignName())) {
+			throw new ClientException(SmsConst.ERROR_CODE, "批量短信参数不合法，原因：手机号、签名、模板不可为空");
+		}
+
+		BulkSmsJob job = new BulkSmsJob(IdUtil.fastSimpleUUID(), req.getTemplateCode());
+		List<SmsMessage> valid = new ArrayList<>();
+		List<SmsMessage> invalid = new ArrayList<>();
+		for (String phone : new LinkedHashSet<>(req.getPhones())) {
+			SmsMessage message = new SmsMessage(job.getJobId() + "-" + job.getMessages().size(), phone);
+			job.getMessages().put(phone, message);
+			if (phone != null && PHONE.matcher(phone).matches()) {
+				valid.add(message);
+			} else {
+				message.update(SmsMessageStatus.FAILED, "手机号格式不正确");
+				invalid.add(message);
+			}
+		}
+		reserve(valid.size());
+
+		jobs.put(job.getJobId(), job);
+		job.complete(0, invalid.size());
+
+		// 绿色通道打开时不发短信
+		if (BooleanUtil.isTrue(smsConfig.getIsGreenChannelOpen())) {
+			valid.forEach(message -> message.update(SmsMessageStatus.SENT, null));
+			job.complete(valid.size(), 0);
+			pending.addAndGet(-valid.size());
+			log.info("==>  已开启短信绿色通道，批量任务 {} 共 {} 条短信不发送", job.getJobId(), valid.size());
+			return job.getJobId();
+		}
+
+		int batchSize = Math.max(1, Math.min(1000, bulk.getBatchSize()));
+		for (int from = 0; from < valid.size(); from += batchSize) {
+			List<SmsMessage> messages = valid.subList(from, Math.min(valid.size(), from + batchSize));
+			senders.execute(new Batch(job, req, new ArrayList<>(messages)));
+		}
+		log.info("==>  批量短信任务 {} 模板 {} 共 {} 条，无效手机号 {} 条", job.getJobId(), req.getTemplateCode(),
+				job.getTotal(), invalid.size());
+		return job.getJobId();
+	}
+
+	/**
+	 * 查询任务
+	 *
+	 * @param jobId the job id
+	 * @return the bulk sms job, or null
+	 */
+	public BulkSmsJob job(String jobId) {
+		return jobs.get(jobId);
+	}
+
+	/**
+	 * 排队中和发送中的短信数
+	 *
+	 * @return the pending
+	 */
+	public int getPending() {
+		return pending.get();
+	}
+
+	/**
+	 * 关闭：取消等待中的重试，已在队列中的请求最多再发送 30 秒，之后仍未发送的记为失败
+	 *
+	 * @throws InterruptedException interrupted exception
+	 */
+	@Override
+	public void destroy() throws InterruptedException {
+		// 关闭后发送线程不再安排新的重试，失败即记为失败
+		scheduler.shutdownNow();
+		failRetrying();
+		senders.shutdown();
+		if (!senders.awaitTermination(30, TimeUnit.SECONDS)) {
+			log.warn("==>  批量短信仍有 {} 条未发送，放弃", pending.get());
+			for (Runnable task : senders.shutdownNow()) {
+				((Batch) task).fail("进程关闭，短信未发送");
+			}
+		}
+		// 关闭前已取出、尚未放回的重试
+		failRetrying();
+	}
+
+	/**
+	 * 占用队列容量
+	 *
+	 * @param size the size
+	 * @throws ClientException 队列已满
+	 */
+	private void reserve(int size) throws ClientException {
+		while (true) {
+			int current = pending.get();
+			if (current + size > bulk.getQueueCapacity()) {
+				throw new ClientException(SmsConst.ERROR_CODE,
+						"批量短信队列已满，排队 " + current + " 条，上限 " + bulk.getQueueCapacity() + " 条");
+			}
+			if (pending.compareAndSet(current, current + size)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 等待重试的请求记为失败
+	 */
+	private void failRetrying() {
+		for (Batch batch : retrying) {
+			if (retrying.remove(batch)) {
+				batch.fail("进程关闭，重试取消");
+			}
+		}
+	}
+
+	/**
+	 * 清理已结束且超过保留时间的任务
+	 */
+	private void evictJobs() {
+		long expire = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(bulk.getJobRetentionMinutes());
+		jobs.values().removeIf(job -> job.isDone() && job.getFinishTime() < expire);
+	}
+
+	/**
+	 * 第 attempt 次重试前的等待时间：指数退避，附加最多一半的随机抖动，避免同时重试
+	 *
+	 * @param attempt the attempt
+	 * @return the millis
+	 */
+	private long backoff(int attempt) {
+		long delay = Math.min(bulk.getMaxBackoffMillis(), bulk.getInitialBackoffMillis() << Math.min(20, attempt - 1));
+		return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+	}
+
+	/**
+	 * 一次网关请求
+	 */
+	private final class Batch implements Runnable {
+
+		private final BulkSmsJob job;
+
+		private final BulkSmsRequest req;
+
+		private final List<SmsMessage> messages;
+
+		private final List<String> phones;
+
+		private int attempt;
+
+		Batch(BulkSmsJob job, BulkSmsRequest req, List<SmsMessage> messages) {
+			this.job = job;
+			this.req = req;
+			this.messages = messages;
+			this.phones = new ArrayList<>(messages.size());
+			messages.forEach(message -> phones.add(message.getPhone()));
+		}
+
+		@Override
+		public void run() {
+			attempt++;
+			for (SmsMessage message : messages) {
+				message.setAttempts(attempt);
+				message.update(SmsMessageStatus.SENDING, message.getError());
+			}
+
+			String error;
+			boolean retryable;
+			try {
+				SmsResponse response = smsGateway.send(phones, req.getSignName(), req.getTemplateCode(),
+						req.getTemplateParam());
+				if (response.isSuccess()) {
+					for (SmsMessage message : messages) {
+						message.setBizId(response.getBizId());
+						message.update(SmsMessageStatus.SENT, null);
+					}
+					finish(messages.size(), 0);
+					return;
+				}
+				error = response.getCode() + ": " + response.getMessage();
+				retryable = RETRYABLE_CODES.contains(response.getCode());
+			} catch (ClientException | RuntimeException e) {
+				// 网络异常、SDK 异常均视为可重试
+				error = e.getMessage();
+				retryable = true;
+			}
+
+			if (retryable && attempt <= bulk.getMaxRetries() && !scheduler.isShutdown()) {
+				long delay = backoff(attempt);
+				for (SmsMessage message : messages) {
+					message.update(SmsMessageStatus.RETRYING, error);
+				}
+				job.getRetries().incrementAndGet();
+				log.warn("==>  批量短信任务 {} 请求失败 [{}]，{}ms 后第 {} 次重试", job.getJobId(), error, delay, attempt);
+				retrying.add(this);
+				try {
+					scheduler.schedule(this::resubmit, delay, TimeUnit.MILLISECONDS);
+					return;
+				} catch (RejectedExecutionException e) {
+					// 正在关闭，按失败处理
+					if (!retrying.remove(this)) {
+						return;
+					}
+				}
+			}
+			fail(error);
+		}
+
+		/**
+		 * 退避结束，重新提交到发送线程池；关闭时已被取消的不再提交
+		 */
+		private void resubmit() {
+			if (!retrying.remove(this)) {
+				return;
+			}
+			try {
+				senders.execute(this);
+			} catch (RejectedExecutionException e) {
+				fail("进程关闭，重试取消");
+			}
+		}
+
+		/**
+		 * 整个请求记为失败
+		 *
+		 * @param error the error
+		 */
+		private void fail(String error) {
+			for (SmsMessage message : messages) {
+				message.update(SmsMessageStatus.FAILED, error);
+			}
+			finish(0, messages.size());
+			log.warn("==>  批量短信任务 {} 有 {} 条发送失败 [{}]", job.getJobId(), messages.size(), error);
+		}
+
+		private void finish(int sent, int failed) {
+			pending.addAndGet(-(sent + failed));
+			job.complete(sent, failed);
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package xyz.rexlin600.sms.aliyun.core.bulk;
+
+import lombok.Data;
+
+/**
+ * 批量任务中的单条短信
+ *
+ * @author hekunlin
+ */
+@Data
+public class SmsMessage {
+
+	/**
+	 * 消息ID
+	 */
+	private final String messageId;
+
+	/**
+	 * 手机号
+	 */
+	private final String phone;
+
+	/**
+	 * 状态
+	 */
+	private volatile SmsMessageStatus status = SmsMessageStatus.PENDING;
+
+	/**
+	 * 已请求网关的次数
+	 */
+	private volatile int attempts;
+
+	/**
+	 * 发送回执ID，同一请求内的手机号相同
+	 */
+	private volatile String bizId;
+
+	/**
+	 * 最近一次失败原因
+	 */
+	private volatile String error;
+
+	/**
+	 * 最近一次状态变更时间
+	 */
+	private volatile long updateTime = System.currentTimeMillis();
+
+	/**
+	 * 变更状态
+	 *
+	 * @param status the status
+	 * @param error  the error
+	 */
+	void update(SmsMessageStatus status, String error) {
+		this.status = status;
+		this.error = error;
+		this.updateTime = System.currentTimeMillis();
+	}
+
+}
@@ -0,0 +1,35 @@
+package xyz.rexlin600.sms.aliyun.core.bulk;
+
+/**
+ * 单条短信状态
+ *
+ * @author hekunlin
+ */
+public enum SmsMessageStatus {
+
+	/**
+	 * 排队中
+	 */
+	PENDING,
+
+	/**
+	 * 请求网关中
+	 */
+	SENDING,
+
+	/**
+	 * 发送失败，等待重试
+	 */
+	RETRYING,
+
+	/**
+	 * 网关已受理
+	 */
+	SENT,
+
+	/**
+	 * 失败且不再重试
+	 */
+	FAILED
+
+}
@@ -6,9 +6,6 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import xyz.rexlin600.sms.aliyun.core.constant.SmsConst;
 
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -55,57 +52,4 @@ public class CacheHelper {
 		redisTemplate.opsForValue().set(k1, code, 600, TimeUnit.SECONDS);
 	}
 
-	/**
-	 * 缓存每日调用总数
-	 *
-	 * @param phone        the phone
-	 * @param templateCode the template code
-	 */
-	public void cacheDailyThreshold(String phone, String templateCode) {
-		String k1 = SmsConst.DAILY_THRESHOLD_KEY.concat(":")
-				.concat(phone).concat(":")
-				.concat(templateCode);
-		Optional<Boolean> optional = Optional.ofNullable(redisTemplate.hasKey(k1));
-		boolean hasKey = false;
-		if (optional.isPresent()) {
-			hasKey = optional.get();
-		}
-
-		if (hasKey) {
-			// 每日阈值 +1
-			redisTemplate.opsForValue().increment(k1, 1L);
-		} else {
-			// 每日阈值保留一天
-			LocalDateTime midnight = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
-			long seconds = ChronoUnit.SECONDS.between(LocalDateTime.now(), midnight);
-			redisTemplate.opsForValue().set(k1, 1L, seconds, TimeUnit.SECONDS);
-		}
-	}
-
-	/**
-	 * 缓存模板调用总数
-	 *
-	 * @param phone        the phone
-	 * @param templateCode the template code
-	 */
-	public void cacheTemplateThreshold(String phone, String templateCode) {
-		String k1 = SmsConst.TEMPLATE_THRESHOLD_KEY.concat(":")
-				.concat(phone);
-		Optional<Boolean> optional = Optional.ofNullable(redisTemplate.hasKey(k1));
-		boolean hasKey = false;
-		if (optional.isPresent()) {
-			hasKey = optional.get();
-		}
-
-		if (hasKey) {
-			// 模板阈值 +1
-			redisTemplate.opsForValue().increment(k1, 1L);
-		} else {
-			// 模板总阈值保留一天
-			LocalDateTime midnight = LocalDateTime.now().plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
-			long seconds = ChronoUnit.SECONDS.between(LocalDateTime.now(), midnight);
-			redisTemplate.opsForValue().set(k1, 1L, seconds, TimeUnit.SECONDS);
-		}
-	}
-
 }
\ No newline at end of file
@@ -11,7 +11,6 @@ import xyz.rexlin600.sms.aliyun.core.constant.SmsConst;
 import xyz.rexlin600.sms.aliyun.core.request.VerifyCodeRequest;
 
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
 
 /**
  * The type Sms check service.
@@ -33,17 +32,25 @@ public class CheckHelper {
 	 */
 	private final RedisTemplate<String, Object> redisTemplate;
 
+	/**
+	 * The Sms rate limiter.
+	 */
+	private final SmsRateLimiter smsRateLimiter;
+
 	/**
 	 * Instantiates a new Sms check service.
 	 *
-	 * @param smsConfig     the sms config
-	 * @param redisTemplate the redis template
+	 * @param smsConfig      the sms config
+	 * @param redisTemplate  the redis template
+	 * @param smsRateLimiter the sms rate limiter
 	 */
 	@Autowired
 	public CheckHelper(SmsConfig smsConfig,
-					   RedisTemplate<String, Object> redisTemplate) {
+					   RedisTemplate<String, Object> redisTemplate,
+					   SmsRateLimiter smsRateLimiter) {
 		this.smsConfig = smsConfig;
 		this.redisTemplate = redisTemplate;
+		this.smsRateLimiter = smsRateLimiter;
 	}
 
 	// -----------------------------------------------------------------------------------------------
@@ -60,17 +67,37 @@ public class CheckHelper {
 	}
 
 	/**
-	 * 超过阈值校验
+	 * 超过阈值校验，通过时同时预占本次发送的计数，发送失败需调用 {@link #releaseThreshold}
 	 *
 	 * @param phone        the phone
 	 * @param templateCode the template code
 	 * @throws ClientException the client exception
 	 */
 	public void isOverThreshold(String phone, String templateCode) throws ClientException {
-		// 防盗刷：发送间隔阈值、每日阈值、总模板阈值等校验
-		isOverIntervalThreshold(phone, templateCode);
-		isOverDailyThreshold(phone, templateCode);
-		isOverTemplateThreshold(phone);
+		// 防盗刷：发送间隔阈值、每日阈值、总模板阈值在一个脚本内原子校验并计数
+		long result = smsRateLimiter.acquire(phone, templateCode);
+		if (result == SmsRateLimiter.OVER_INTERVAL) {
+			throw new ClientException(SmsConst.ERROR_CODE,
+					"发送短信的间隔时间必须大于" + smsConfig.getMaxIntervalSecondsValue() + "秒");
+		}
+		if (result == SmsRateLimiter.OVER_DAILY) {
+			log.info("==>  手机号为 {} 发送短信模板 Code为 {} 的总次数已超过每日阈值", phone, templateCode);
+			throw new ClientException(SmsConst.ERROR_CODE, "今日发送短信已超过每日最大阈值");
+		}
+		if (result == SmsRateLimiter.OVER_TEMPLATE) {
+			log.info("==>  手机号为 {} 发送各类模板的总次数已超过模板总阈值", phone);
+			throw new ClientException(SmsConst.ERROR_CODE, "今日发送短信已超过模板最大阈值");
+		}
+	}
+
+	/**
+	 * 发送失败，归还 {@link #isOverThreshold} 预占的计数
+	 *
+	 * @param phone        the phone
+	 * @param templateCode the template code
+	 */
+	public void releaseThreshold(String phone, String templateCode) {
+		smsRateLimiter.release(phone, templateCode);
 	}
 
 	/**
@@ -120,74 +147,4 @@ public class CheckHelper {
 		}
 	}
 
-	// -----------------------------------------------------------------------------------------------
-	// EXTRA METHOD
-	// -----------------------------------------------------------------------------------------------
-
-	/**
-	 * 检查是否超过每日总阈值
-	 *
-	 * @param phone        the phone
-	 * @param templateCode 短信模板Code
-	 * @return the boolean
-	 * @throws ClientException business exception
-	 */
-	private void isOverDailyThreshold(String phone, String templateCode) throws ClientException {
-		String k1 = SmsConst.DAILY_THRESHOLD_KEY.concat(":")
-				.concat(phone).concat(":")
-				.concat(templateCode);
-		int t1 = 0;
-		Optional<Object> o1 = Optional.ofNullable(redisTemplate.opsForValue().get(k1));
-		if (o1.isPresent()) {
-			t1 = (int) o1.get();
-		}
-
-		if (t1 >= smsConfig.getMaxDailyThresholdValue()) {
-			log.info("==>  手机号为 {} 发送短信模板 Code为 {} 的总次数已超过每日阈值", phone, templateCode);
-			throw new ClientException(SmsConst.ERROR_CODE, "今日发送短信已超过每日最大阈值");
-		}
-	}
-
-	/**
-	 * 检查是否超过模板总阈值
-	 *
-	 * @param phone the phone
-	 * @return the boolean
-	 * @throws ClientException business exception
-	 */
-	private void isOverTemplateThreshold(String phone) throws ClientException {
-		String k1 = SmsConst.TEMPLATE_THRESHOLD_KEY.concat(":")
-				.concat(phone);
-		int t1 = 0;
-		Optional<Object> o1 = Optional.ofNullable(redisTemplate.opsForValue().get(k1));
-		if (o1.isPresent()) {
-			t1 = (int) o1.get();
-		}
-
-		if (t1 >= smsConfig.getMaxTemplateThresholdValue()) {
-			log.info("==>  手机号为 {} 发送各类模板的总次数已超过模板总阈值", phone);
-			throw new ClientException(SmsConst.ERROR_CODE, "今日发送短信已超过模板最大阈值");
-		}
-	}
-
-	/**
-	 * 检查是否超过时间间隔阈值
-	 *
-	 * @param phone        the phone
-	 * @param templateCode 短信模板Code
-	 * @return the boolean
-	 * @throws ClientException business exception
-	 */
-	private void isOverIntervalThreshold(String phone, String templateCode) throws ClientException {
-		String k1 = SmsConst.VERIFY_CODE_KEY.concat(":")
-				.concat(phone).concat(":")
-				.concat(templateCode);
-		Long expireSeconds = redisTemplate.getExpire(k1, TimeUnit.SECONDS);
-		if (expireSeconds != null
-				&& expireSeconds > 0
-				&& 600 - expireSeconds < smsConfig.getMaxIntervalSecondsValue()) {
-			throw new ClientException(SmsConst.ERROR_CODE, "发送短信的间隔时间必须大于1分钟");
-		}
-	}
-
 }
\ No newline at end of file
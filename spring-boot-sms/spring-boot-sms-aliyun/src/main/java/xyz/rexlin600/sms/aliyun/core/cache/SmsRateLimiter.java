@@ -0,0 +1,174 @@
+package xyz.rexlin600.sms.aliyun.core.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import xyz.rexlin600.sms.aliyun.config.sms.SmsConfig;
+import xyz.rexlin600.sms.aliyun.core.constant.SmsConst;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 短信防盗刷限流
+ * <p>
+ * 发送间隔、每日阈值、模板总阈值的校验与计数放在同一个 Lua 脚本中，一次往返完成且原子执行，
+ * 同一手机号并发发送时不会出现都读到旧计数而一起放行的情况。计数在发送前预占，发送失败时调用 {@link #release} 归还
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Service
+public class SmsRateLimiter {
+
+	/**
+	 * 通过
+	 */
+	public static final long PASS = 0L;
+
+	/**
+	 * 发送间隔内重复发送
+	 */
+	public static final long OVER_INTERVAL = -1L;
+
+	/**
+	 * 超过每日阈值
+	 */
+	public static final long OVER_DAILY = -2L;
+
+	/**
+	 * 超过模板总阈值
+	 */
+	public static final long OVER_TEMPLATE = -3L;
+
+	/**
+	 * KEYS[1] 间隔 key；KEYS[2] 每日 key；KEYS[3] 模板总 key
+	 * ARGV[1] 间隔秒数；ARGV[2] 每日阈值；ARGV[3] 模板总阈值；ARGV[4] 距离零点的秒数
+	 */
+	private static final String ACQUIRE_SCRIPT =
+			"local interval = tonumber(ARGV[1])\n" +
+					"if interval > 0 and redis.call('EXISTS', KEYS[1]) == 1 then\n" +
+					"  return -1\n" +
+					"end\n" +
+					"if tonumber(redis.call('GET', KEYS[2]) or '0') >= tonumber(ARGV[2]) then\n" +
+					"  return -2\n" +
+					"end\n" +
+					"if tonumber(redis.call('GET', KEYS[3]) or '0') >= tonumber(ARGV[3]) then\n" +
+					"  return -3\n" +
+					"end\n" +
+					"if interval > 0 then\n" +
+					"  redis.call('SET', KEYS[1], '1', 'EX', interval)\n" +
+					"end\n" +
+					"for i = 2, 3 do\n" +
+					"  redis.call('INCR', KEYS[i])\n" +
+					"  if redis.call('TTL', KEYS[i]) < 0 then\n" +
+					"    redis.call('EXPIRE', KEYS[i], ARGV[4])\n" +
+					"  end\n" +
+					"end\n" +
+					"return 0";
+
+	/**
+	 * KEYS 同上；计数大于 0 时才归还，避免跨零点后减成负数
+	 */
+	private static final String RELEASE_SCRIPT =
+			"redis.call('DEL', KEYS[1])\n" +
+					"for i = 2, 3 do\n" +
+					"  if tonumber(redis.call('GET', KEYS[i]) or '0') > 0 then\n" +
+					"    redis.call('DECR', KEYS[i])\n" +
+					"  end\n" +
+					"end\n" +
+					"return 0";
+
+	/**
+	 * Acquire script
+	 */
+	private final DefaultRedisScript<Long> acquireScript = new DefaultRedisScript<>(ACQUIRE_SCRIPT, Long.class);
+
+	/**
+	 * Release script
+	 */
+	private final DefaultRedisScript<Long> releaseScript = new DefaultRedisScript<>(RELEASE_SCRIPT, Long.class);
+
+	/**
+	 * The Sms config.
+	 */
+	private final SmsConfig smsConfig;
+
+	/**
+	 * String redis template
+	 */
+	private final StringRedisTemplate stringRedisTemplate;
+
+	/**
+	 * Instantiates a new Sms rate limiter.
+	 *
+	 * @param smsConfig           the sms config
+	 * @param stringRedisTemplate the string redis template
+	 */
+	@Autowired
+	public SmsRateLimiter(SmsConfig smsConfig, StringRedisTemplate stringRedisTemplate) {
+		this.smsConfig = smsConfig;
+		this.stringRedisTemplate = stringRedisTemplate;
+	}
+
+	/**
+	 * 校验并预占一次发送
+	 *
+	 * @param phone        the phone
+	 * @param templateCode the template code
+	 * @return {@link #PASS} 或拒绝原因
+	 */
+	public long acquire(String phone, String templateCode) {
+		Long result = stringRedisTemplate.execute(acquireScript, keys(phone, templateCode),
+				String.valueOf(smsConfig.getMaxIntervalSecondsValue()),
+				String.valueOf(smsConfig.getMaxDailyThresholdValue()),
+				String.valueOf(smsConfig.getMaxTemplateThresholdValue()),
+				String.valueOf(secondsUntilMidnight()));
+		return result == null ? PASS : result;
+	}
+
+	/**
+	 * 发送失败时归还预占的计数与发送间隔
+	 *
+	 * @param phone        the phone
+	 * @param templateCode the template code
+	 */
+	public void release(String phone, String templateCode) {
+		try {
+			stringRedisTemplate.execute(releaseScript, keys(phone, templateCode));
+		} catch (RuntimeException e) {
+			// 归还失败只会让该手机号少发几条，不影响本次异常的抛出
+			log.warn("==>  手机号 {} 模板 {} 归还短信阈值失败", phone, templateCode, e);
+		}
+	}
+
+	/**
+	 * 间隔 key、每日 key、模板总 key，与原有 key 保持一致，已有计数继续生效
+	 *
+	 * @param phone        the phone
+	 * @param templateCode the template code
+	 * @return the keys
+	 */
+	private List<String> keys(String phone, String templateCode) {
+		return Arrays.asList(
+				SmsConst.INTERVAL_KEY.concat(":").concat(phone).concat(":").concat(templateCode),
+				SmsConst.DAILY_THRESHOLD_KEY.concat(":").concat(phone).concat(":").concat(templateCode),
+				SmsConst.TEMPLATE_THRESHOLD_KEY.concat(":").concat(phone));
+	}
+
+	/**
+	 * 距离次日零点的秒数
+	 *
+	 * @return the seconds
+	 */
+	private static long secondsUntilMidnight() {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime midnight = now.plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+		return Math.max(1, ChronoUnit.SECONDS.between(now, midnight));
+	}
+
+}
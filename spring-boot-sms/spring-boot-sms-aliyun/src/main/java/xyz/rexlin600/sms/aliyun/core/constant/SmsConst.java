@@ -44,6 +44,11 @@ public class SmsConst {
 	 */
 	public static final String VERIFY_CODE_KEY = "sms:ali:code";
 
+	/**
+	 * 发送间隔：针对某个具体的短信Code模板
+	 */
+	public static final String INTERVAL_KEY = "sms:ali:interval";
+
 	/**
 	 * 每日总阈值：针对某个具体的短信Code模板
 	 */
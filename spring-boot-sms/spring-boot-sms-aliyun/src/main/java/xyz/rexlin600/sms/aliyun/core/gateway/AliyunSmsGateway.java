@@ -0,0 +1,85 @@
+package xyz.rexlin600.sms.aliyun.core.gateway;
+
+import cn.hutool.json.JSONUtil;
+import com.aliyuncs.CommonRequest;
+import com.aliyuncs.CommonResponse;
+import com.aliyuncs.DefaultAcsClient;
+import com.aliyuncs.IAcsClient;
+import com.aliyuncs.exceptions.ClientException;
+import com.aliyuncs.http.MethodType;
+import com.aliyuncs.profile.DefaultProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import xyz.rexlin600.sms.aliyun.config.sms.SmsConfig;
+import xyz.rexlin600.sms.aliyun.core.constant.SmsConst;
+import xyz.rexlin600.sms.aliyun.core.request.SmsResponse;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 阿里云短信网关，默认网关
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "sms.ali", name = "gateway", havingValue = "aliyun", matchIfMissing = true)
+public class AliyunSmsGateway implements SmsGateway {
+
+	/**
+	 * The Sms config.
+	 */
+	private final SmsConfig smsConfig;
+
+	/**
+	 * The acs client.
+	 */
+	private final IAcsClient client;
+
+	/**
+	 * 构造器
+	 *
+	 * @param smsConfig the sms config
+	 */
+	@Autowired
+	public AliyunSmsGateway(SmsConfig smsConfig) {
+		this.smsConfig = smsConfig;
+		log.info("==>  初始化 SMS instance 开始 ...");
+		DefaultProfile profile = DefaultProfile.getProfile(
+				smsConfig.getRegionId(),
+				smsConfig.getAccessKey(),
+				smsConfig.getAccessSecret());
+		this.client = new DefaultAcsClient(profile);
+		log.info("==>  初始化 SMS instance 完成 ...");
+	}
+
+	@Override
+	public SmsResponse send(List<String> phones, String signName, String templateCode,
+							Map<String, String> templateParam) throws ClientException {
+		// 构建通用短信请求对象，多个手机号以英文逗号分隔
+		CommonRequest commonRequest = new CommonRequest();
+		commonRequest.setSysMethod(MethodType.POST);
+		commonRequest.setSysAction(SmsConst.SEND_SMS);
+		commonRequest.setSysDomain(smsConfig.getDomain());
+		commonRequest.setSysVersion(SmsConst.VERSION);
+		commonRequest.putQueryParameter(SmsConst.REGION_PARAM, smsConfig.getRegionId());
+		commonRequest.putQueryParameter("PhoneNumbers", String.join(",", phones));
+		commonRequest.putQueryParameter("SignName", signName);
+		commonRequest.putQueryParameter("TemplateCode", templateCode);
+		commonRequest.putQueryParameter("TemplateParam", JSONUtil.toJsonStr(templateParam));
+
+		CommonResponse response = client.getCommonResponse(commonRequest);
+		if (response.getHttpStatus() != HttpStatus.OK.value()) {
+			return SmsResponse.builder()
+					.code(String.valueOf(response.getHttpStatus()))
+					.message(response.getData())
+					.build();
+		}
+		return SmsResponse.build(JSONUtil.parseObj(response.getData()));
+	}
+
+}
@@ -0,0 +1,119 @@
+package xyz.rexlin600.sms.aliyun.core.gateway;
+
+import cn.hutool.core.util.IdUtil;
+import com.aliyuncs.exceptions.ClientException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import xyz.rexlin600.sms.aliyun.config.sms.SmsConfig;
+import xyz.rexlin600.sms.aliyun.core.request.SmsResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内的假网关，不发短信，只模拟延迟和失败，用于离线压测
+ * <p>
+ * sms.ali.gateway=fake 时启用，延迟与失败率见 {@link SmsConfig.Fake}
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "sms.ali", name = "gateway", havingValue = "fake")
+public class FakeSmsGateway implements SmsGateway {
+
+	/**
+	 * 限流错误码，与阿里云一致
+	 */
+	public static final String BUSINESS_LIMIT_CONTROL = "isv.BUSINESS_LIMIT_CONTROL";
+
+	/**
+	 * The fake config.
+	 */
+	private final SmsConfig.Fake fake;
+
+	/**
+	 * 请求数
+	 */
+	private final LongAdder requests = new LongAdder();
+
+	/**
+	 * 成功送达的手机号数
+	 */
+	private final LongAdder delivered = new LongAdder();
+
+	/**
+	 * Instantiates a new Fake sms gateway.
+	 *
+	 * @param smsConfig the sms config
+	 */
+	@Autowired
+	public FakeSmsGateway(SmsConfig smsConfig) {
+		this(smsConfig.getFake());
+	}
+
+	/**
+	 * Instantiates a new Fake sms gateway.
+	 *
+	 * @param fake the fake config
+	 */
+	public FakeSmsGateway(SmsConfig.Fake fake) {
+		this.fake = fake;
+		log.warn("==>  使用假短信网关，短信不会真正发出，latency={}ms, failureRate={}",
+				fake.getLatencyMillis(), fake.getFailureRate());
+	}
+
+	@Override
+	public SmsResponse send(List<String> phones, String signName, String templateCode,
+							Map<String, String> templateParam) throws ClientException {
+		requests.increment();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long latency = fake.getLatencyMillis() + (fake.getJitterMillis() > 0 ? random.nextLong(fake.getJitterMillis()) : 0);
+		if (latency > 0) {
+			try {
+				TimeUnit.MILLISECONDS.sleep(latency);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ClientException("SDK.ServerUnreachable", "interrupted");
+			}
+		}
+		if (random.nextDouble() < fake.getFailureRate()) {
+			// 一半模拟网络异常，一半模拟限流
+			if (random.nextBoolean()) {
+				throw new ClientException("SDK.ServerUnreachable", "fake gateway timeout");
+			}
+			return SmsResponse.builder().code(BUSINESS_LIMIT_CONTROL).message("触发流控").build();
+		}
+		delivered.add(phones.size());
+		return SmsResponse.builder()
+				.code("OK")
+				.message("OK")
+				.bizId(IdUtil.fastSimpleUUID())
+				.requestId(IdUtil.fastSimpleUUID())
+				.build();
+	}
+
+	/**
+	 * 请求数
+	 *
+	 * @return the requests
+	 */
+	public long getRequests() {
+		return requests.sum();
+	}
+
+	/**
+	 * 成功送达的手机号数
+	 *
+	 * @return the delivered
+	 */
+	public long getDelivered() {
+		return delivered.sum();
+	}
+
+}
@@ -0,0 +1,29 @@
+package xyz.rexlin600.sms.aliyun.core.gateway;
+
+import com.aliyuncs.exceptions.ClientException;
+import xyz.rexlin600.sms.aliyun.core.request.SmsResponse;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 短信网关：一次请求向一批手机号发送同一模板、同一参数的短信
+ *
+ * @author hekunlin
+ */
+public interface SmsGateway {
+
+	/**
+	 * 发送短信
+	 *
+	 * @param phones        手机号，阿里云单次最多 1000 个
+	 * @param signName      短信签名
+	 * @param templateCode  短信模板 Code
+	 * @param templateParam 模板参数
+	 * @return the sms response
+	 * @throws ClientException 网络异常、服务端异常
+	 */
+	SmsResponse send(List<String> phones, String signName, String templateCode, Map<String, String> templateParam)
+			throws ClientException;
+
+}
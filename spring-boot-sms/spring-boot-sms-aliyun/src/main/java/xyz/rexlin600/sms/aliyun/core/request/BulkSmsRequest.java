@@ -0,0 +1,46 @@
+package xyz.rexlin600.sms.aliyun.core.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量通知短信请求类：同一模板、同一参数发送给一批手机号
+ *
+ * @author hekunlin
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSmsRequest implements Serializable {
+
+	/**
+	 * 手机号列表，重复的手机号只发一次
+	 */
+	@NotEmpty(message = "参数错误：手机号列表不可为空")
+	private List<String> phones;
+
+	/**
+	 * 短信签名
+	 */
+	@NotBlank(message = "参数错误：短信签名不可为空")
+	private String signName;
+
+	/**
+	 * 短信模板 Code
+	 */
+	@NotBlank(message = "参数错误：短信模板不可为空")
+	private String templateCode;
+
+	/**
+	 * 模板参数
+	 */
+	private Map<String, String> templateParam;
+
+}
@@ -1,16 +1,23 @@
 package xyz.rexlin600.sms.aliyun.core;
 
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
+import xyz.rexlin600.sms.aliyun.core.bulk.BulkSmsJob;
+import xyz.rexlin600.sms.aliyun.core.bulk.SmsMessageStatus;
+import xyz.rexlin600.sms.aliyun.core.request.BulkSmsRequest;
 import xyz.rexlin600.sms.aliyun.core.request.SmsRequest;
 import xyz.rexlin600.sms.aliyun.core.request.VerifyCodeRequest;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The type Sms service test.
@@ -18,6 +25,7 @@ import java.util.Map;
  * @author rexlin600
  * @date: 2020 /9/6
  */
+@Slf4j
 @SpringBootTest
 @RunWith(SpringRunner.class)
 public class SmsServiceTest {
@@ -66,6 +74,38 @@ public class SmsServiceTest {
 		smsService.sendNotifySms(smsRequest);
 	}
 
+	/**
+	 * Send bulk notify sms.
+	 */
+	@SneakyThrows
+	@Test
+	public void sendBulkNotifySms() {
+		BulkSmsRequest request = new BulkSmsRequest();
+		request.setPhones(Arrays.asList("17628066212", "17628066213"));
+		Map<String, String> templateParam = new HashMap<>();
+		templateParam.put("pwd", "876543");
+		request.setTemplateParam(templateParam);
+		// 随机密码通知
+		request.setTemplateCode("SMS_176537745");
+		request.setSignName("斑马信用");
+
+		String jobId = smsService.sendBulkNotifySms(request);
+		BulkSmsJob job = smsService.getBulkSmsJob(jobId);
+		Assert.assertNotNull(job);
+		long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+		while (!job.isDone() && System.currentTimeMillis() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(100);
+		}
+		Assert.assertTrue("job not done in time", job.isDone());
+		job.messages().forEach(message -> log.info("==>  {}", message));
+
+		// 每条短信都有最终结果：网关已受理或失败且不再重试
+		Assert.assertEquals(2, job.getTotal());
+		Assert.assertEquals(job.getTotal(), job.getSent().get() + job.getFailed().get());
+		job.messages().forEach(message -> Assert.assertTrue(message.getStatus() == SmsMessageStatus.SENT
+				|| message.getStatus() == SmsMessageStatus.FAILED));
+	}
+
 	/**
 	 * Verify code.
 	 */
@@ -0,0 +1,199 @@
+package xyz.rexlin600.sms.aliyun.core.bulk;
+
+import com.aliyuncs.exceptions.ClientException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import xyz.rexlin600.sms.aliyun.config.sms.SmsConfig;
+import xyz.rexlin600.sms.aliyun.core.gateway.FakeSmsGateway;
+import xyz.rexlin600.sms.aliyun.core.gateway.SmsGateway;
+import xyz.rexlin600.sms.aliyun.core.request.BulkSmsRequest;
+import xyz.rexlin600.sms.aliyun.core.request.SmsResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量短信：基于假网关，不需要 Redis 与阿里云账号
+ *
+ * @author hekunlin
+ */
+@Slf4j
+public class BulkSmsSenderTest {
+
+	private BulkSmsSender sender;
+
+	@After
+	public void tearDown() throws InterruptedException {
+		if (sender != null) {
+			sender.destroy();
+		}
+	}
+
+	/**
+	 * 10 万条短信，5% 的请求失败，重试后全部发送成功，输出吞吐
+	 */
+	@Test
+	public void throughput() throws Exception {
+		SmsConfig config = config(32, 100, 5);
+		SmsConfig.Fake fake = new SmsConfig.Fake();
+		fake.setLatencyMillis(20);
+		fake.setJitterMillis(10);
+		fake.setFailureRate(0.05);
+		FakeSmsGateway gateway = new FakeSmsGateway(fake);
+		sender = new BulkSmsSender(config, gateway);
+
+		int total = 100_000;
+		long start = System.nanoTime();
+		BulkSmsJob job = sender.job(sender.submit(request(phones(total))));
+		await(job);
+		long elapsed = System.nanoTime() - start;
+
+		Assert.assertEquals(total, job.getSent().get());
+		Assert.assertEquals(0, job.getFailed().get());
+		Assert.assertEquals(0, sender.getPending());
+		Assert.assertEquals(total, gateway.getDelivered());
+		for (SmsMessage message : job.messages()) {
+			Assert.assertEquals(SmsMessageStatus.SENT, message.getStatus());
+			Assert.assertNotNull(message.getBizId());
+		}
+		log.info("==>  {} 条短信，{} 次网关请求，{} 次重试，耗时 {}ms，{} 条/秒", total, gateway.getRequests(),
+				job.getRetries().get(), elapsed / 1_000_000, total * 1_000_000_000L / elapsed);
+	}
+
+	/**
+	 * 不可重试的错误码直接失败，只请求一次
+	 */
+	@Test
+	public void nonRetryable() throws Exception {
+		SmsGateway gateway = (phones, signName, templateCode, templateParam) -> SmsResponse.builder()
+				.code("isv.TEMPLATE_MISSING_PARAMETERS").message("模板缺少变量").build();
+		sender = new BulkSmsSender(config(4, 10, 3), gateway);
+
+		BulkSmsJob job = sender.job(sender.submit(request(phones(25))));
+		await(job);
+
+		Assert.assertEquals(25, job.getFailed().get());
+		Assert.assertEquals(0, job.getRetries().get());
+		for (SmsMessage message : job.messages()) {
+			Assert.assertEquals(SmsMessageStatus.FAILED, message.getStatus());
+			Assert.assertEquals(1, message.getAttempts());
+		}
+	}
+
+	/**
+	 * 可重试的异常超过最大重试次数后失败
+	 */
+	@Test
+	public void retryExhausted() throws Exception {
+		SmsGateway gateway = (phones, signName, templateCode, templateParam) -> {
+			throw new ClientException("SDK.ServerUnreachable", "timeout");
+		};
+		SmsConfig config = config(2, 10, 2);
+		config.getBulk().setInitialBackoffMillis(10);
+		sender = new BulkSmsSender(config, gateway);
+
+		BulkSmsJob job = sender.job(sender.submit(request(phones(10))));
+		await(job);
+
+		Assert.assertEquals(10, job.getFailed().get());
+		Assert.assertEquals(2, job.getRetries().get());
+		Assert.assertEquals(3, job.message(phones(1).get(0)).getAttempts());
+	}
+
+	/**
+	 * 关闭时等待重试的短信记为失败，任务结束，不再占用队列容量
+	 */
+	@Test
+	public void destroyFailsPendingRetries() throws Exception {
+		SmsGateway gateway = (phones, signName, templateCode, templateParam) -> {
+			throw new ClientException("SDK.ServerUnreachable", "timeout");
+		};
+		SmsConfig config = config(2, 10, 3);
+		config.getBulk().setInitialBackoffMillis(60_000);
+		config.getBulk().setMaxBackoffMillis(60_000);
+		sender = new BulkSmsSender(config, gateway);
+
+		BulkSmsJob job = sender.job(sender.submit(request(phones(20))));
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+		while (job.getRetries().get() < 2 && System.currentTimeMillis() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(10);
+		}
+		Assert.assertEquals(2, job.getRetries().get());
+		Assert.assertFalse(job.isDone());
+
+		BulkSmsSender destroyed = sender;
+		sender = null;
+		destroyed.destroy();
+
+		Assert.assertEquals(0, destroyed.getPending());
+		Assert.assertTrue(job.isDone());
+		Assert.assertEquals(20, job.getFailed().get());
+		Assert.assertEquals(0, job.getSent().get());
+		for (SmsMessage message : job.messages()) {
+			Assert.assertEquals(SmsMessageStatus.FAILED, message.getStatus());
+		}
+	}
+
+	/**
+	 * 重复手机号只发一次，格式不正确的直接失败
+	 */
+	@Test
+	public void invalidAndDuplicatePhones() throws Exception {
+		sender = new BulkSmsSender(config(2, 10, 0), new FakeSmsGateway(new SmsConfig.Fake()));
+
+		BulkSmsJob job = sender.job(sender.submit(request(Arrays.asList("13800000001", "13800000001", "12345", "13800000002"))));
+		await(job);
+
+		Assert.assertEquals(3, job.getTotal());
+		Assert.assertEquals(2, job.getSent().get());
+		Assert.assertEquals(SmsMessageStatus.FAILED, job.message("12345").getStatus());
+	}
+
+	/**
+	 * 超过队列容量时拒绝
+	 */
+	@Test(expected = ClientException.class)
+	public void queueFull() throws Exception {
+		SmsConfig config = config(1, 10, 0);
+		config.getBulk().setQueueCapacity(100);
+		sender = new BulkSmsSender(config, new FakeSmsGateway(new SmsConfig.Fake()));
+		sender.submit(request(phones(101)));
+	}
+
+	private static SmsConfig config(int concurrency, int batchSize, int maxRetries) {
+		SmsConfig config = new SmsConfig();
+		config.setIsGreenChannelOpen(false);
+		config.getBulk().setConcurrency(concurrency);
+		config.getBulk().setBatchSize(batchSize);
+		config.getBulk().setMaxRetries(maxRetries);
+		config.getBulk().setInitialBackoffMillis(50);
+		config.getBulk().setMaxBackoffMillis(500);
+		return config;
+	}
+
+	private static List<String> phones(int size) {
+		List<String> phones = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			phones.add(String.valueOf(13_000_000_000L + i));
+		}
+		return phones;
+	}
+
+	private static BulkSmsRequest request(List<String> phones) {
+		return new BulkSmsRequest(phones, "测试签名", "SMS_176537745", Collections.singletonMap("pwd", "876543"));
+	}
+
+	private static void await(BulkSmsJob job) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+		while (!job.isDone() && System.currentTimeMillis() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(20);
+		}
+		Assert.assertTrue("job not done in time", job.isDone());
+	}
+
+}
@@ -0,0 +1,163 @@
+package xyz.rexlin600.sms.aliyun.core.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import xyz.rexlin600.sms.aliyun.config.sms.SmsConfig;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 限流脚本的并发正确性与压测，需要可用的 Redis
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@SpringBootTest
+@RunWith(SpringRunner.class)
+public class SmsRateLimiterTest {
+
+	/**
+	 * 测试用手机号前缀，结束后清理
+	 */
+	private static final String PHONE_PREFIX = "1990000";
+
+	@Autowired
+	private StringRedisTemplate stringRedisTemplate;
+
+	@After
+	public void clean() {
+		Set<String> keys = stringRedisTemplate.keys("sms:ali:*:" + PHONE_PREFIX + "*");
+		if (keys != null && !keys.isEmpty()) {
+			stringRedisTemplate.delete(keys);
+		}
+	}
+
+	/**
+	 * 同一手机号同一模板并发发送，间隔内只放行一条
+	 */
+	@Test
+	public void interval() throws InterruptedException {
+		SmsRateLimiter limiter = limiter(60, 5, 20);
+		int passed = concurrent(200, i -> limiter.acquire(PHONE_PREFIX + "0001", "SMS_1"));
+		Assert.assertEquals(1, passed);
+	}
+
+	/**
+	 * 同一手机号同一模板并发发送，只放行每日阈值条
+	 */
+	@Test
+	public void daily() throws InterruptedException {
+		SmsRateLimiter limiter = limiter(0, 5, 20);
+		int passed = concurrent(200, i -> limiter.acquire(PHONE_PREFIX + "0002", "SMS_1"));
+		Assert.assertEquals(5, passed);
+	}
+
+	/**
+	 * 同一手机号不同模板并发发送，只放行模板总阈值条
+	 */
+	@Test
+	public void template() throws InterruptedException {
+		SmsRateLimiter limiter = limiter(0, 5, 20);
+		int passed = concurrent(200, i -> limiter.acquire(PHONE_PREFIX + "0003", "SMS_" + (i % 50)));
+		Assert.assertEquals(20, passed);
+	}
+
+	/**
+	 * 发送失败归还后可以再次发送
+	 */
+	@Test
+	public void release() {
+		SmsRateLimiter limiter = limiter(60, 1, 20);
+		String phone = PHONE_PREFIX + "0004";
+		Assert.assertEquals(SmsRateLimiter.PASS, limiter.acquire(phone, "SMS_1"));
+		Assert.assertEquals(SmsRateLimiter.OVER_INTERVAL, limiter.acquire(phone, "SMS_1"));
+		limiter.release(phone, "SMS_1");
+		Assert.assertEquals(SmsRateLimiter.PASS, limiter.acquire(phone, "SMS_1"));
+	}
+
+	/**
+	 * 压测：2000 个手机号 * 10 次，64 线程并发，每个手机号放行数不超过每日阈值，输出吞吐与延迟分位
+	 */
+	@Test
+	public void load() throws InterruptedException {
+		SmsRateLimiter limiter = limiter(0, 5, 20);
+		int phones = 2000;
+		int perPhone = 10;
+		int total = phones * perPhone;
+		long[] latencies = new long[total];
+		AtomicInteger[] passed = new AtomicInteger[phones];
+		Arrays.setAll(passed, i -> new AtomicInteger());
+
+		long start = System.nanoTime();
+		concurrent(total, i -> {
+			int phone = i % phones;
+			long begin = System.nanoTime();
+			long result = limiter.acquire(PHONE_PREFIX + String.format("%04d", phone), "SMS_1");
+			latencies[i] = System.nanoTime() - begin;
+			if (result == SmsRateLimiter.PASS) {
+				passed[phone].incrementAndGet();
+			}
+			return result;
+		});
+		long elapsed = System.nanoTime() - start;
+
+		for (AtomicInteger count : passed) {
+			Assert.assertEquals(5, count.get());
+		}
+		Arrays.sort(latencies);
+		log.info("==>  {} sends in {} ms, {} sends/s, p50={}us p99={}us max={}us", total, elapsed / 1_000_000,
+				total * 1_000_000_000L / elapsed, latencies[total / 2] / 1000, latencies[total * 99 / 100] / 1000,
+				latencies[total - 1] / 1000);
+	}
+
+	private SmsRateLimiter limiter(int interval, int daily, int template) {
+		SmsConfig config = new SmsConfig();
+		config.setMaxIntervalSecondsValue(interval);
+		config.setMaxDailyThresholdValue(daily);
+		config.setMaxTemplateThresholdValue(template);
+		return new SmsRateLimiter(config, stringRedisTemplate);
+	}
+
+	/**
+	 * 64 线程并发执行，返回放行数
+	 */
+	private int concurrent(int times, Acquire acquire) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(64);
+		CountDownLatch ready = new CountDownLatch(1);
+		AtomicInteger passed = new AtomicInteger();
+		for (int i = 0; i < times; i++) {
+			int index = i;
+			pool.execute(() -> {
+				try {
+					ready.await();
+					if (acquire.apply(index) == SmsRateLimiter.PASS) {
+						passed.incrementAndGet();
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		ready.countDown();
+		pool.shutdown();
+		Assert.assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+		return passed.get();
+	}
+
+	private interface Acquire {
+
+		long apply(int index);
+
+	}
+
+}
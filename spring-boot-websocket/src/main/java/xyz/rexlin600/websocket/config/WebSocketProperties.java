@@ -0,0 +1,37 @@
+package xyz.rexlin600.websocket.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * WebSocket 推送配置
+ *
+ * @author hekunlin
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rexlin600.websocket")
+public class WebSocketProperties {
+
+	/**
+	 * 每个连接待发送消息数上限，超出视为慢消费者并断开
+	 */
+	private int outboundQueueCapacity = 256;
+
+	/**
+	 * 单条消息发送超时，超时视为慢消费者并断开，单位毫秒
+	 */
+	private long sendTimeoutMillis = 5000;
+
+	/**
+	 * 发送线程数，只负责发起异步发送和断开慢连接，不会阻塞在网络写上
+	 */
+	private int senderThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * 慢消费者检查间隔，单位毫秒
+	 */
+	private long sweepIntervalMillis = 1000;
+
+}
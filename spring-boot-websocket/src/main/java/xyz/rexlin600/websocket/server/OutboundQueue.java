@@ -0,0 +1,149 @@
+package xyz.rexlin600.websocket.server;
+
+import javax.websocket.RemoteEndpoint;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 单个连接的发送队列
+ * <p>
+ * 同一连接同一时刻只能有一个异步发送，发送完成的回调里再发下一条；回调交给发送线程池执行，
+ * 避免同步完成时在回调里递归发送。入队不阻塞，队列满即说明对端读得太慢；写出失败时交给 onFailure 断开连接
+ *
+ * @author hekunlin
+ */
+class OutboundQueue {
+
+	private final RemoteEndpoint.Async remote;
+
+	private final int capacity;
+
+	private final Executor executor;
+
+	/**
+	 * 写出失败时调用，参数为原因；由注册表断开连接并计入慢连接断开数
+	 */
+	private final Consumer<String> onFailure;
+
+	private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final AtomicBoolean sending = new AtomicBoolean();
+
+	/**
+	 * 当前这条消息开始发送的时间，没有在途消息时为 0
+	 */
+	private volatile long sendingSince;
+
+	private volatile boolean closed;
+
+	OutboundQueue(RemoteEndpoint.Async remote, int capacity, long sendTimeoutMillis, Executor executor,
+				  Consumer<String> onFailure) {
+		this.remote = remote;
+		this.capacity = capacity;
+		this.executor = executor;
+		this.onFailure = onFailure;
+		remote.setSendTimeout(sendTimeoutMillis);
+	}
+
+	/**
+	 * 入队
+	 *
+	 * @param text text
+	 * @return false 表示已关闭或队列已满
+	 */
+	boolean offer(String text) {
+		if (closed) {
+			return false;
+		}
+		if (size.incrementAndGet() > capacity) {
+			size.decrementAndGet();
+			return false;
+		}
+		queue.offer(text);
+		drain();
+		return true;
+	}
+
+	/**
+	 * 在途消息是否已超时
+	 *
+	 * @param now           now millis
+	 * @param timeoutMillis timeout millis
+	 * @return the boolean
+	 */
+	boolean isStuck(long now, long timeoutMillis) {
+		long since = sendingSince;
+		return since > 0 && now - since > timeoutMillis;
+	}
+
+	boolean isClosed() {
+		return closed;
+	}
+
+	int size() {
+		return size.get();
+	}
+
+	/**
+	 * 关闭并丢弃待发送的消息
+	 */
+	void close() {
+		closed = true;
+		queue.clear();
+		size.set(0);
+	}
+
+	private void drain() {
+		if (closed || !sending.compareAndSet(false, true)) {
+			return;
+		}
+		String text = queue.poll();
+		if (text == null) {
+			sending.set(false);
+			// 释放标记前可能有消息入队但没抢到发送权
+			if (!queue.isEmpty()) {
+				drain();
+			}
+			return;
+		}
+		size.decrementAndGet();
+		sendingSince = System.currentTimeMillis();
+		try {
+			remote.sendText(text, result -> {
+				sendingSince = 0;
+				if (!result.isOK()) {
+					fail("send failed: " + (result.getException() == null ? "unknown" : result.getException().getMessage()));
+					return;
+				}
+				sending.set(false);
+				if (!queue.isEmpty()) {
+					executor.execute(this::drain);
+				}
+			});
+		} catch (RuntimeException e) {
+			// 连接已关闭
+			sendingSince = 0;
+			fail("send failed: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * 写出失败：交给注册表断开连接，随后关闭队列（注册表已关闭时不重复处理）
+	 *
+	 * @param reason reason
+	 */
+	private void fail(String reason) {
+		try {
+			onFailure.accept(reason);
+		} finally {
+			close();
+		}
+	}
+
+}
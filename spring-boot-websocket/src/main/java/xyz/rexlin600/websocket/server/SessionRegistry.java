@@ -0,0 +1,246 @@
+package xyz.rexlin600.websocket.server;
+
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import xyz.rexlin600.websocket.config.WebSocketProperties;
+
+import javax.websocket.CloseReason;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 连接注册表
+ * <p>
+ * 按 id、name 两个维度索引连接（同一 id / name 可以有多个连接），按接收人查找是 O(接收人数)，
+ * 连接上下线只改动自己的索引项。发送只是入队，由各连接的 {@link OutboundQueue} 异步写出，
+ * 一个慢连接不会拖住其他连接；队列满、单条消息发送超时或写出失败的连接会被断开
+ *
+ * @author hekunlin
+ */
+@Slf4j
+@Component
+public class SessionRegistry implements DisposableBean {
+
+	private final WebSocketProperties properties;
+
+	/**
+	 * id -> session id -> 连接
+	 */
+	private final Map<String, Map<String, WebSocketServer>> byId = new ConcurrentHashMap<>();
+
+	/**
+	 * name -> session id -> 连接
+	 */
+	private final Map<String, Map<String, WebSocketServer>> byName = new ConcurrentHashMap<>();
+
+	/**
+	 * session id -> 发送队列
+	 */
+	private final Map<String, OutboundQueue> outbounds = new ConcurrentHashMap<>();
+
+	private final ExecutorService sender;
+
+	private final ScheduledExecutorService sweeper;
+
+	private final LongAdder dropped = new LongAdder();
+
+	private final LongAdder slowDisconnects = new LongAdder();
+
+	public SessionRegistry(WebSocketProperties properties) {
+		this.properties = properties;
+		this.sender = Executors.newFixedThreadPool(Math.max(1, properties.getSenderThreads()),
+				new ThreadFactoryBuilder().setNamePrefix("ws-sender-%d").setDaemon(true).build());
+		this.sweeper = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNamePrefix("ws-sweeper-%d").setDaemon(true).build());
+		long interval = Math.max(100, properties.getSweepIntervalMillis());
+		this.sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 连接上线
+	 *
+	 * @param server server
+	 */
+	public void register(WebSocketServer server) {
+		String sessionId = server.getSession().getId();
+		outbounds.put(sessionId, new OutboundQueue(server.getSession().getAsyncRemote(),
+				properties.getOutboundQueueCapacity(), properties.getSendTimeoutMillis(), sender,
+				reason -> disconnect(server, reason)));
+		add(byId, server.getId(), sessionId, server);
+		add(byName, server.getName(), sessionId, server);
+	}
+
+	/**
+	 * 连接下线
+	 *
+	 * @param server server
+	 */
+	public void unregister(WebSocketServer server) {
+		String sessionId = server.getSession().getId();
+		OutboundQueue outbound = outbounds.remove(sessionId);
+		if (outbound != null) {
+			outbound.close();
+		}
+		remove(byId, server.getId(), sessionId);
+		remove(byName, server.getName(), sessionId);
+	}
+
+	/**
+	 * 按 id 查找连接
+	 *
+	 * @param ids ids
+	 * @return the connections
+	 */
+	public List<WebSocketServer> byIds(Collection<String> ids) {
+		return lookup(byId, ids);
+	}
+
+	/**
+	 * 按 name 查找连接
+	 *
+	 * @param names names
+	 * @return the connections
+	 */
+	public List<WebSocketServer> byNames(Collection<String> names) {
+		return lookup(byName, names);
+	}
+
+	/**
+	 * 异步发送
+	 *
+	 * @param servers 接收连接
+	 * @param text    text
+	 * @return 入队成功的连接数
+	 */
+	public int send(Collection<WebSocketServer> servers, String text) {
+		int enqueued = 0;
+		for (WebSocketServer server : servers) {
+			OutboundQueue outbound = outbounds.get(server.getSession().getId());
+			if (outbound == null) {
+				continue;
+			}
+			if (outbound.offer(text)) {
+				enqueued++;
+			} else if (!outbound.isClosed()) {
+				dropped.increment();
+				disconnect(server, "outbound queue full");
+			}
+		}
+		return enqueued;
+	}
+
+	/**
+	 * 在线连接数
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return outbounds.size();
+	}
+
+	/**
+	 * 因队列满而丢弃的消息数
+	 *
+	 * @return the dropped
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * 因慢消费（队列满、发送超时、写出失败）被断开的连接数
+	 *
+	 * @return the slow disconnects
+	 */
+	public long getSlowDisconnects() {
+		return slowDisconnects.sum();
+	}
+
+	@Override
+	public void destroy() {
+		sweeper.shutdownNow();
+		sender.shutdownNow();
+	}
+
+	/**
+	 * 断开发送超时的连接
+	 */
+	private void sweep() {
+		long now = System.currentTimeMillis();
+		long timeout = properties.getSendTimeoutMillis();
+		for (Map<String, WebSocketServer> servers : byId.values()) {
+			for (WebSocketServer server : servers.values()) {
+				OutboundQueue outbound = outbounds.get(server.getSession().getId());
+				if (outbound != null && !outbound.isClosed() && outbound.isStuck(now, timeout)) {
+					disconnect(server, "send timeout");
+				}
+			}
+		}
+	}
+
+	/**
+	 * 断开慢连接或写出失败的连接：先停止入队，关闭放到发送线程，避免阻塞调用方
+	 *
+	 * @param server server
+	 * @param reason reason
+	 */
+	private void disconnect(WebSocketServer server, String reason) {
+		OutboundQueue outbound = outbounds.get(server.getSession().getId());
+		if (outbound == null || outbound.isClosed()) {
+			return;
+		}
+		int pending = outbound.size();
+		outbound.close();
+		slowDisconnects.increment();
+		log.warn("==>  [SLOW] 用户=[{}] 连接=[{}] 消费过慢({})，待发送=[{}]，断开连接", server.getName(),
+				server.getSession().getId(), reason, pending);
+		sender.execute(() -> {
+			try {
+				server.getSession().close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "slow consumer"));
+			} catch (IOException | RuntimeException e) {
+				log.warn("==>  [SLOW] 关闭连接=[{}] 失败，原因=[{}]", server.getSession().getId(), e.getMessage());
+			}
+		});
+	}
+
+	private static List<WebSocketServer> lookup(Map<String, Map<String, WebSocketServer>> index, Collection<String> keys) {
+		if (CollectionUtil.isEmpty(keys)) {
+			return Collections.emptyList();
+		}
+		List<WebSocketServer> servers = new ArrayList<>();
+		for (String key : new HashSet<>(keys)) {
+			Map<String, WebSocketServer> sessions = key == null ? null : index.get(key);
+			if (sessions != null) {
+				servers.addAll(sessions.values());
+			}
+		}
+		return servers;
+	}
+
+	private static void add(Map<String, Map<String, WebSocketServer>> index, String key, String sessionId,
+							WebSocketServer server) {
+		// 与 remove 一样在 compute 中修改，避免加入一个刚被删除的空 map
+		index.compute(key, (k, sessions) -> {
+			Map<String, WebSocketServer> target = sessions == null ? new ConcurrentHashMap<>() : sessions;
+			target.put(sessionId, server);
+			return target;
+		});
+	}
+
+	private static void remove(Map<String, Map<String, WebSocketServer>> index, String key, String sessionId) {
+		if (key == null) {
+			return;
+		}
+		// 在 compute 中删除，避免与同一 key 的上线并发时删掉刚加入的连接
+		index.computeIfPresent(key, (k, sessions) -> {
+			sessions.remove(sessionId);
+			return sessions.isEmpty() ? null : sessions;
+		});
+	}
+
+}
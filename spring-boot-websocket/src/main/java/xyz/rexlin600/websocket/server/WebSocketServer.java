@@ -6,8 +6,8 @@ import com.google.gson.JsonSyntaxException;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import xyz.rexlin600.websocket.entity.ReceiveMsg;
 import xyz.rexlin600.websocket.entity.SendMsg;
@@ -17,10 +17,7 @@ import javax.websocket.server.PathParam;
 import javax.websocket.server.ServerEndpoint;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 
 /**
  * Web socket server
@@ -41,9 +38,9 @@ public class WebSocketServer {
 	private static AtomicLong onlineCount = new AtomicLong();
 
 	/**
-	 * webSocketServerSet
+	 * 连接注册表：每个连接一个 WebSocketServer 实例，由容器而非 Spring 创建，只能通过静态字段共享
 	 */
-	private static CopyOnWriteArrayList<WebSocketServer> webSocketServerSet = new CopyOnWriteArrayList<>();
+	private static SessionRegistry registry;
 
 	/**
 	 * Session
@@ -59,6 +56,16 @@ public class WebSocketServer {
 	 */
 	private String name;
 
+	/**
+	 * Sets registry
+	 *
+	 * @param registry registry
+	 */
+	@Autowired
+	public void setRegistry(SessionRegistry registry) {
+		WebSocketServer.registry = registry;
+	}
+
 	// -----------------------------------------------------------------------------------------------
 	// WebSocket Server Impl：建立连接、断开连接、接收消息、发生错误
 	// -----------------------------------------------------------------------------------------------
@@ -76,8 +83,8 @@ public class WebSocketServer {
 		this.id = id;
 		this.name = name;
 
-		// 将当前连接纳入到队列、在线人数 + 1
-		webSocketServerSet.add(this);
+		// 将当前连接纳入到注册表、在线人数 + 1
+		registry.register(this);
 		onlineCount.incrementAndGet();
 
 		log.info("==>  [OPEN] 用户=[{}] 已上线, 当前在线人数=[{}]", name, onlineCount);
@@ -88,9 +95,9 @@ public class WebSocketServer {
 	 */
 	@OnClose
 	public void onClose() {
-		// 在线人数 - 1 并从队列中剔除对应连接
+		// 在线人数 - 1 并从注册表中剔除对应连接
 		onlineCount.decrementAndGet();
-		webSocketServerSet.remove(this);
+		registry.unregister(this);
 
 		log.info("==>  [CLOSE] 用户=[{}] 已下线，当前剩余在线人数=[{}]", name, onlineCount);
 	}
@@ -120,8 +127,7 @@ public class WebSocketServer {
 
 		// 发送给指定用户的消息Kobe
 		List<String> nameList = receiveMsg.getNameList();
-		Set<WebSocketServer> set = webSocketServerSet.stream().filter(m -> nameList.contains(m.getName())).collect(Collectors.toSet());
-		this.sendMsg(new SendMsg(set.stream().map(WebSocketServer::getId).collect(Collectors.toList()), receiveMsg.getContent()));
+		registry.send(registry.byNames(nameList), receiveMsg.getContent());
 	}
 
 	/**
@@ -144,7 +150,6 @@ public class WebSocketServer {
 	 *
 	 * @param sendMsg send msg
 	 */
-	@SneakyThrows
 	public void sendMsg(SendMsg sendMsg) {
 		// 如果未指定接收人则不发送消息
 		List<String> list = sendMsg.getList();
@@ -152,19 +157,8 @@ public class WebSocketServer {
 			return;
 		}
 
-		// 发送消息给指定人
-		Set<WebSocketServer> set = webSocketServerSet.stream().filter(m -> list.contains(m.getId())).collect(Collectors.toSet());
-		set.stream().forEach(m -> {
-			try {
-				// 同步消息
-				m.getSession().getBasicRemote().sendText(sendMsg.getContent());
-				// 异步消息
-				//m.getSession().getAsyncRemote().sendText(sendMsg.getContent());
-			} catch (Exception ex) {
-				log.error("==>  [ERROR] 服务端发送消息给 用户=[{}] 发生异常，异常原因=[{}]", m.getId(), ex.getMessage());
-				return;
-			}
-		});
+		// 发送消息给指定人：只入队，由各连接异步写出，慢连接不会阻塞其他连接
+		registry.send(registry.byIds(list), sendMsg.getContent());
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package xyz.rexlin600.websocket.server;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import xyz.rexlin600.websocket.config.WebSocketProperties;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 连接注册表：mock 的连接，校验队列满、写出失败时断开连接并计入慢连接断开数
+ *
+ * @author hekunlin
+ */
+public class SessionRegistryTest {
+
+	private SessionRegistry registry;
+
+	private Session session;
+
+	private RemoteEndpoint.Async remote;
+
+	private WebSocketServer server;
+
+	@Before
+	public void setUp() {
+		WebSocketProperties properties = new WebSocketProperties();
+		properties.setOutboundQueueCapacity(2);
+		properties.setSenderThreads(1);
+		properties.setSweepIntervalMillis(60_000);
+		registry = new SessionRegistry(properties);
+
+		session = mock(Session.class);
+		remote = mock(RemoteEndpoint.Async.class);
+		when(session.getId()).thenReturn("s-1");
+		when(session.getAsyncRemote()).thenReturn(remote);
+		server = new WebSocketServer(session, "1", "rexlin600");
+	}
+
+	@After
+	public void tearDown() {
+		registry.destroy();
+	}
+
+	/**
+	 * 对端不读，队列满后丢弃消息并断开连接
+	 */
+	@Test
+	public void disconnectOnOverflow() throws Exception {
+		registry.register(server);
+		// 第一条一直在途，后两条排队
+		for (int i = 0; i < 3; i++) {
+			Assert.assertEquals(1, registry.send(Collections.singletonList(server), "message-" + i));
+		}
+		Assert.assertEquals(0, registry.send(Collections.singletonList(server), "overflow"));
+
+		Assert.assertEquals(1, registry.getDropped());
+		Assert.assertEquals(1, registry.getSlowDisconnects());
+		verify(session, timeout(5_000)).close(any(CloseReason.class));
+
+		// 已断开的连接不再入队，也不重复计数
+		Assert.assertEquals(0, registry.send(Collections.singletonList(server), "after close"));
+		Assert.assertEquals(1, registry.getSlowDisconnects());
+	}
+
+	/**
+	 * 写出回调失败时断开连接
+	 */
+	@Test
+	public void disconnectOnFailedWrite() throws Exception {
+		doAnswer(invocation -> {
+			SendHandler handler = invocation.getArgument(1);
+			handler.onResult(new SendResult(new IOException("broken pipe")));
+			return null;
+		}).when(remote).sendText(anyString(), any(SendHandler.class));
+		registry.register(server);
+
+		registry.send(Collections.singletonList(server), "message");
+		Assert.assertEquals(1, registry.getSlowDisconnects());
+		Assert.assertEquals(0, registry.getDropped());
+		verify(session, timeout(5_000)).close(any(CloseReason.class));
+	}
+
+	/**
+	 * 写出时抛出异常（连接已关闭）时断开连接
+	 */
+	@Test
+	public void disconnectOnSendException() throws Exception {
+		doThrow(new IllegalStateException("session closed")).when(remote).sendText(anyString(), any(SendHandler.class));
+		registry.register(server);
+
+		registry.send(Collections.singletonList(server), "message");
+		Assert.assertEquals(1, registry.getSlowDisconnects());
+		verify(session, timeout(5_000)).close(any(CloseReason.class));
+	}
+
+}